@@ -4,6 +4,8 @@ import java.net.*;
 public class DBClient
 {
     final static char EOT = 4;
+    // Most commands sent ahead of their replies when input is piped in.
+    final static int MAX_PIPELINED_COMMANDS = 64;
 
     public static void main(String args[])
     {
@@ -12,26 +14,47 @@ public class DBClient
             Socket socket = new Socket("127.0.0.1", 8888);
             BufferedReader socketReader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
             BufferedWriter socketWriter = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream()));
-            while(true) handleNextCommand(commandLine, socketReader, socketWriter);
+            int awaitingReplies = 0;
+            while(awaitingReplies >= 0) awaitingReplies = handleNextCommand(commandLine, socketReader, socketWriter, awaitingReplies);
+            socket.close();
         } catch(IOException ioe) {
             System.out.println(ioe);
         }
     }
 
-    private static void handleNextCommand(BufferedReader commandLine, BufferedReader socketReader, BufferedWriter socketWriter)
+    // Commands already waiting on the command line are sent without waiting for the replies of earlier ones.
+    // Returns the number of replies still awaited, or -1 once the command line has ended.
+    private static int handleNextCommand(BufferedReader commandLine, BufferedReader socketReader, BufferedWriter socketWriter, int awaitingReplies)
     {
         try {
-            System.out.print("SQL:> ");
+            if (awaitingReplies == 0) System.out.print("SQL:> ");
             String command = commandLine.readLine();
-            socketWriter.write(command + "\n");
+            if (command != null) {
+                socketWriter.write(command + "\n");
+                awaitingReplies++;
+            }
+            boolean moreWaiting = command != null && commandLine.ready();
+            if (moreWaiting && awaitingReplies < MAX_PIPELINED_COMMANDS) return awaitingReplies;
             socketWriter.flush();
-            String incomingMessage = socketReader.readLine();
-            while( ! incomingMessage.contains("" + EOT + "")) {
-                System.out.println(incomingMessage);
-                incomingMessage = socketReader.readLine();
+            int remainingReplies = moreWaiting ? MAX_PIPELINED_COMMANDS / 2 : 0;
+            while (awaitingReplies > remainingReplies) {
+                printNextReply(socketReader);
+                awaitingReplies--;
             }
+            return command == null ? -1 : awaitingReplies;
         } catch(IOException ioe) {
             System.out.println(ioe);
+            return -1;
+        }
+    }
+
+    private static void printNextReply(BufferedReader socketReader) throws IOException
+    {
+        String incomingMessage = socketReader.readLine();
+        while(incomingMessage != null && ! incomingMessage.contains("" + EOT + "")) {
+            System.out.println(incomingMessage);
+            incomingMessage = socketReader.readLine();
         }
+        if (incomingMessage == null) throw new EOFException("Connection closed by server.");
     }
-}
\ No newline at end of file
+}
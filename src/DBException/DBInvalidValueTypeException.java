@@ -0,0 +1,7 @@
+package DBException;
+
+public class DBInvalidValueTypeException extends DBException{
+    public DBInvalidValueTypeException(String errorMessage){
+        super(errorMessage);
+    }
+}
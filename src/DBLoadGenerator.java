@@ -0,0 +1,287 @@
+import DBObjects.DBLatencyHistogram;
+
+import java.io.*;
+import java.net.*;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Opens concurrent connections to DBServer and sends a mix of statements at a target rate,
+// then reports throughput and latency percentiles. Settings are read from system properties:
+//   DBLoadGenerator.host, DBLoadGenerator.port    server to connect to, 127.0.0.1:8888 by default
+//   DBLoadGenerator.connections                   number of connections, 8 by default
+//   DBLoadGenerator.rate                          statements per second over all connections, 0 for as fast as possible
+//   DBLoadGenerator.seconds                       duration of the run, 30 by default
+//   DBLoadGenerator.warmupSeconds                 time at the start of the run that is not recorded, 5 by default
+//   DBLoadGenerator.rows                          rows inserted into the items table before the run, 10000 by default
+//   DBLoadGenerator.mix                           weights of each statement type, such as select=60,insert=20
+// With a target rate, each connection sends its statements on a fixed schedule, and latency is measured
+// from when a statement was due rather than when it was sent. A slow reply then counts against every
+// statement that waited behind it, rather than hiding them, which corrects for coordinated omission.
+// The server should be started with -DDBServer.concurrent=true or -DDBServer.selector=true, as otherwise
+// it serves one connection at a time.
+public class DBLoadGenerator
+{
+    final static char EOT = 4;
+    final static String DATABASE_NAME = "loadgen";
+    final static String[] STATEMENT_TYPES = {"insert", "select", "update", "delete", "join"};
+    final static String DEFAULT_MIX = "insert=20,select=60,update=10,delete=5,join=5";
+    final static int NUM_OWNERS = 100;
+    final static int SETUP_BATCH_ROWS = 500;
+
+    private final String hostName;
+    private final int portNumber;
+    private final int[] cumulativeWeights = new int[STATEMENT_TYPES.length];
+    private final AtomicLong highestItemId = new AtomicLong();
+
+    public DBLoadGenerator(String hostName, int portNumber, String statementMix)
+    {
+        this.hostName = hostName;
+        this.portNumber = portNumber;
+        int totalWeight = 0;
+        for (String typeWeight : statementMix.split(",")) {
+            String[] weightParts = typeWeight.trim().split("=");
+            int typeIndex = findStatementType(weightParts[0].trim());
+            if (typeIndex < 0 || weightParts.length != 2) throw new IllegalArgumentException("Invalid statement mix: " + typeWeight);
+            cumulativeWeights[typeIndex] = Integer.parseInt(weightParts[1].trim());
+        }
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            totalWeight += cumulativeWeights[i];
+            cumulativeWeights[i] = totalWeight;
+        }
+        if (totalWeight <= 0) throw new IllegalArgumentException("Statement mix has no weight.");
+    }
+
+    private static int findStatementType(String typeName)
+    {
+        for (int i = 0; i < STATEMENT_TYPES.length; i++) {
+            if (STATEMENT_TYPES[i].equalsIgnoreCase(typeName)) return i;
+        }
+        return -1;
+    }
+
+    // A connection speaking the text protocol, as DBClient does. Replies end with a line holding EOT.
+    static class LoadConnection implements Closeable
+    {
+        private final Socket socket;
+        private final BufferedReader socketReader;
+        private final BufferedWriter socketWriter;
+
+        LoadConnection(String hostName, int portNumber) throws IOException
+        {
+            socket = new Socket(hostName, portNumber);
+            socket.setTcpNoDelay(true);
+            socketReader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            socketWriter = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream()));
+        }
+
+        // Sends a statement and reads its whole reply. Returns false if the server reported an error.
+        boolean perform(String command) throws IOException
+        {
+            socketWriter.write(command + "\n");
+            socketWriter.flush();
+            String incomingMessage = socketReader.readLine();
+            boolean succeeded = incomingMessage != null && !incomingMessage.startsWith("[ERROR]");
+            while (incomingMessage != null && incomingMessage.indexOf(EOT) < 0) {
+                if (incomingMessage.startsWith("[ERROR]")) succeeded = false;
+                incomingMessage = socketReader.readLine();
+            }
+            if (incomingMessage == null) throw new EOFException("Connection closed by server.");
+            return succeeded;
+        }
+
+        public void close() throws IOException
+        {
+            socket.close();
+        }
+    }
+
+    // Recreates the load database with an items table holding the given number of rows, and an owners table
+    // that items are joined with by name.
+    public void setupDatabase(int numRows) throws IOException
+    {
+        try (LoadConnection connection = new LoadConnection(hostName, portNumber)) {
+            connection.perform("drop database " + DATABASE_NAME + ";");
+            requireSuccess(connection, "create database " + DATABASE_NAME + ";");
+            requireSuccess(connection, "use " + DATABASE_NAME + ";");
+            requireSuccess(connection, "create table items (name STRING, qty INT, price FLOAT);");
+            requireSuccess(connection, "create table owners (oname STRING, city STRING);");
+            StringBuilder insertBatch = new StringBuilder();
+            for (int i = 0; i < NUM_OWNERS; i++) {
+                insertBatch.append(insertBatch.length() == 0 ? "insert into owners values " : ", ");
+                insertBatch.append("('item").append(i).append("', 'city").append(i % 10).append("')");
+            }
+            requireSuccess(connection, insertBatch + ";");
+            SplittableRandom random = new SplittableRandom(1);
+            for (int batchStart = 0; batchStart < numRows; batchStart += SETUP_BATCH_ROWS) {
+                insertBatch.setLength(0);
+                for (int i = batchStart; i < Math.min(numRows, batchStart + SETUP_BATCH_ROWS); i++) {
+                    insertBatch.append(insertBatch.length() == 0 ? "insert into items values " : ", ");
+                    insertBatch.append(createItemValues(random));
+                }
+                requireSuccess(connection, insertBatch + ";");
+            }
+        }
+        highestItemId.set(numRows);
+    }
+
+    private static void requireSuccess(LoadConnection connection, String command) throws IOException
+    {
+        if (!connection.perform(command)) throw new IOException("Setup statement failed: " + command);
+    }
+
+    private static String createItemValues(SplittableRandom random)
+    {
+        int itemNumber = random.nextInt(NUM_OWNERS * 10);
+        return "('item" + itemNumber + "', " + random.nextInt(1000) + ", " + random.nextInt(100) + "." + random.nextInt(10) + ")";
+    }
+
+    // Chooses the next statement of the mix. Rows are chosen by id among those inserted so far.
+    private String createStatement(int statementType, SplittableRandom random)
+    {
+        long rowId = 1 + random.nextLong(Math.max(1, highestItemId.get()));
+        switch (STATEMENT_TYPES[statementType]) {
+            case "insert":
+                highestItemId.incrementAndGet();
+                return "insert into items values " + createItemValues(random) + ";";
+            case "select":
+                return "select * from items where id == " + rowId + ";";
+            case "update":
+                return "update items set qty = " + random.nextInt(1000) + " where id == " + rowId + ";";
+            case "delete":
+                return "delete from items where id == " + rowId + ";";
+            default:
+                return "join owners and items on oname and name;";
+        }
+    }
+
+    private int chooseStatementType(SplittableRandom random)
+    {
+        int weight = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int statementType = 0;
+        while (weight >= cumulativeWeights[statementType]) statementType++;
+        return statementType;
+    }
+
+    // Results of a single connection, added together once every connection has finished.
+    static class LoadResult
+    {
+        final DBLatencyHistogram[] typeLatencies = new DBLatencyHistogram[STATEMENT_TYPES.length];
+        final long[] typeErrors = new long[STATEMENT_TYPES.length];
+        long numFailedConnections = 0;
+
+        LoadResult()
+        {
+            for (int i = 0; i < typeLatencies.length; i++) typeLatencies[i] = new DBLatencyHistogram();
+        }
+
+        void add(LoadResult otherResult)
+        {
+            for (int i = 0; i < typeLatencies.length; i++) {
+                typeLatencies[i].add(otherResult.typeLatencies[i]);
+                typeErrors[i] += otherResult.typeErrors[i];
+            }
+            numFailedConnections += otherResult.numFailedConnections;
+        }
+    }
+
+    // Sends statements on one connection until the run ends. With an interval, statement i is due at
+    // startNanos + i * intervalNanos, and its latency is measured from then. Without one, statements are
+    // sent as soon as the previous reply arrives. Connections start at different offsets within the
+    // interval, so their statements are spread evenly rather than sent in bursts.
+    private LoadResult runConnection(int connectionNumber, long startNanos, long recordNanos, long endNanos, long intervalNanos)
+    {
+        LoadResult loadResult = new LoadResult();
+        SplittableRandom random = new SplittableRandom(connectionNumber * 7919L + 17);
+        try (LoadConnection connection = new LoadConnection(hostName, portNumber)) {
+            connection.perform("use " + DATABASE_NAME + ";");
+            long dueNanos = startNanos;
+            while (dueNanos < endNanos) {
+                long waitNanos = dueNanos - System.nanoTime();
+                if (waitNanos > 0) LockSupport.parkNanos(waitNanos);
+                int statementType = chooseStatementType(random);
+                String command = createStatement(statementType, random);
+                long sentNanos = System.nanoTime();
+                boolean succeeded = connection.perform(command);
+                long replyNanos = System.nanoTime();
+                long measuredFrom = intervalNanos > 0 ? dueNanos : sentNanos;
+                if (measuredFrom >= recordNanos) {
+                    loadResult.typeLatencies[statementType].recordValue((replyNanos - measuredFrom) / 1000);
+                    if (!succeeded) loadResult.typeErrors[statementType]++;
+                }
+                dueNanos = intervalNanos > 0 ? dueNanos + intervalNanos : replyNanos;
+            }
+        } catch(IOException ioe) {
+            System.err.println("Connection " + connectionNumber + " failed: " + ioe);
+            loadResult.numFailedConnections++;
+        }
+        return loadResult;
+    }
+
+    // Runs the connections together and prints the results recorded after the warmup.
+    public void runLoad(int numConnections, double targetRate, long runSeconds, long warmupSeconds) throws InterruptedException
+    {
+        long intervalNanos = targetRate > 0 ? (long) (1e9 * numConnections / targetRate) : 0;
+        long startNanos = System.nanoTime() + 100000000L;
+        long recordNanos = startNanos + warmupSeconds * 1000000000L;
+        long endNanos = recordNanos + runSeconds * 1000000000L;
+        LoadResult[] connectionResults = new LoadResult[numConnections];
+        Thread[] connectionThreads = new Thread[numConnections];
+        for (int i = 0; i < numConnections; i++) {
+            int connectionNumber = i;
+            long connectionStart = startNanos + intervalNanos * i / numConnections;
+            connectionThreads[i] = new Thread(() -> connectionResults[connectionNumber] =
+                    runConnection(connectionNumber, connectionStart, recordNanos, endNanos, intervalNanos));
+            connectionThreads[i].start();
+        }
+        LoadResult totalResult = new LoadResult();
+        for (int i = 0; i < numConnections; i++) {
+            connectionThreads[i].join();
+            totalResult.add(connectionResults[i]);
+        }
+        printResult(totalResult, numConnections, targetRate, runSeconds);
+    }
+
+    private static void printResult(LoadResult loadResult, int numConnections, double targetRate, long runSeconds)
+    {
+        System.out.printf(Locale.ROOT, "%d connections, target %s, %ds recorded%n", numConnections,
+                targetRate > 0 ? String.format(Locale.ROOT, "%.0f statements/s", targetRate) : "unlimited", runSeconds);
+        System.out.printf("%-8s %10s %8s %10s %10s %10s %10s %10s%n", "Type", "Count", "Errors", "Mean(us)", "p50(us)",
+                "p99(us)", "p999(us)", "Max(us)");
+        DBLatencyHistogram allLatencies = new DBLatencyHistogram();
+        long allErrors = 0;
+        for (int i = 0; i < STATEMENT_TYPES.length; i++) {
+            if (loadResult.typeLatencies[i].getTotalCount() == 0) continue;
+            printLatencies(STATEMENT_TYPES[i], loadResult.typeLatencies[i], loadResult.typeErrors[i]);
+            allLatencies.add(loadResult.typeLatencies[i]);
+            allErrors += loadResult.typeErrors[i];
+        }
+        printLatencies("all", allLatencies, allErrors);
+        System.out.printf(Locale.ROOT, "Throughput: %.1f statements/s%n", (double) allLatencies.getTotalCount() / runSeconds);
+        if (loadResult.numFailedConnections > 0) System.out.println("Failed connections: " + loadResult.numFailedConnections);
+    }
+
+    private static void printLatencies(String typeName, DBLatencyHistogram latencies, long numErrors)
+    {
+        System.out.printf(Locale.ROOT, "%-8s %10d %8d %10.0f %10d %10d %10d %10d%n", typeName, latencies.getTotalCount(),
+                numErrors, latencies.getMean(), latencies.getValueAtPercentile(50), latencies.getValueAtPercentile(99),
+                latencies.getValueAtPercentile(99.9), latencies.getMaxValue());
+    }
+
+    public static void main(String args[])
+    {
+        DBLoadGenerator loadGenerator = new DBLoadGenerator(System.getProperty("DBLoadGenerator.host", "127.0.0.1"),
+                Integer.getInteger("DBLoadGenerator.port", 8888), System.getProperty("DBLoadGenerator.mix", DEFAULT_MIX));
+        try {
+            loadGenerator.setupDatabase(Integer.getInteger("DBLoadGenerator.rows", 10000));
+            loadGenerator.runLoad(Integer.getInteger("DBLoadGenerator.connections", 8),
+                    Double.parseDouble(System.getProperty("DBLoadGenerator.rate", "0")),
+                    Long.getLong("DBLoadGenerator.seconds", 30), Long.getLong("DBLoadGenerator.warmupSeconds", 5));
+        } catch(IOException ioe) {
+            System.out.println(ioe);
+        } catch(InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+import DBObjects.DBMetrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * DBMetricsServer serves the server's metrics over HTTP, so they can be scraped without a
+ * database connection. GET /metrics returns DBMetrics in the Prometheus text format. It is
+ * started by DBServer when the DBServer.metricsPort property is set, and runs on its own thread.
+ */
+public class DBMetricsServer {
+    private static final String METRICS_PATH = "/metrics";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private final HttpServer httpServer;
+
+    /**
+     * Constructor for a DBMetricsServer, which starts serving metrics.
+     * @param portNumber Port to listen on.
+     * @throws IOException Thrown if the port could not be opened.
+     */
+    public DBMetricsServer(int portNumber) throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress(portNumber), 0);
+        httpServer.createContext(METRICS_PATH, this::handleExchange);
+        httpServer.start();
+        System.out.println("Metrics Listening");
+    }
+
+    /**
+     * Replies to a request for the metrics. Requests for other paths or with other methods are refused.
+     * @param exchange Request and its reply.
+     * @throws IOException Thrown if the reply could not be written.
+     */
+    private void handleExchange(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestURI().getPath().equals(METRICS_PATH)) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            if (!exchange.getRequestMethod().equals("GET") && !exchange.getRequestMethod().equals("HEAD")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] replyBytes = DBMetrics.printScrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if (exchange.getRequestMethod().equals("HEAD")) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, replyBytes.length);
+            try (OutputStream replyStream = exchange.getResponseBody()) {
+                replyStream.write(replyBytes);
+            }
+        }
+    }
+
+    /**
+     * Stops serving metrics.
+     */
+    public void stop() {
+        httpServer.stop(0);
+    }
+}
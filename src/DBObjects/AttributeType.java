@@ -0,0 +1,235 @@
+package DBObjects;
+
+import java.math.BigDecimal;
+
+/**
+ * Used to determine which values an attribute accepts and how rows hold them in memory.
+ * INT, FLOAT and BOOL values are held by rows as primitives rather than strings, and are
+ * printed in a single canonical form.
+ * ANY : Accepts any value. Attributes without a declared type, including id.
+ * INT : Accepts integer literals. Held as integers.
+ * FLOAT : Accepts float and integer literals. Held as doubles.
+ * BOOL : Accepts true and false. Held as a single bit.
+ * STRING : Accepts string literals. Held as strings.
+ */
+public enum AttributeType {
+    ANY, INT, FLOAT, BOOL, STRING;
+
+    /**
+     * Finds the attribute type with a name, as written in a CREATE command.
+     * @param typeName Name of the type, in any case.
+     * @return The attribute type, or null if no type has the name. ANY cannot be declared.
+     */
+    public static AttributeType fromTypeName(String typeName){
+        for (AttributeType attributeType : values()){
+            if (attributeType != ANY && attributeType.name().equalsIgnoreCase(typeName)){
+                return attributeType;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Determines if rows hold values of this type as primitives.
+     * @return Returns true for INT, FLOAT and BOOL.
+     */
+    public boolean isPrimitive(){
+        return this == INT || this == FLOAT || this == BOOL;
+    }
+
+    /**
+     * Determines if any of the given types are held as primitives.
+     * @param attributeTypes Types of a table's attributes.
+     * @return Returns true if at least one type is INT, FLOAT or BOOL.
+     */
+    public static boolean hasPrimitive(AttributeType[] attributeTypes){
+        for (AttributeType attributeType : attributeTypes){
+            if (attributeType.isPrimitive()){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Determines if a value can be stored in an attribute of this type.
+     * @param value Value as written in a command or table file.
+     * @return Returns true if the value is a literal of this type.
+     */
+    public boolean acceptsValue(String value){
+        switch (this){
+            case INT:
+                return isInteger(value);
+            case FLOAT:
+                return value.indexOf('.') < 0 ? isInteger(value) : isFloat(value);
+            case BOOL:
+                return value.equals("true") || value.equals("false");
+            case STRING:
+                return isString(value);
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Encodes a value of a primitive type so it can be held without a string. Values must
+     * have been accepted by acceptsValue.
+     * @param value Value to encode.
+     * @return The encoded value. Floats are held as the bits of a double.
+     */
+    public long encodeValue(String value){
+        switch (this){
+            case INT:
+                return Integer.parseInt(value);
+            case FLOAT:
+                return Double.doubleToLongBits(Double.parseDouble(value));
+            case BOOL:
+                return value.equals("true") ? 1 : 0;
+            default:
+                throw new IllegalStateException(this + " values are not held as primitives.");
+        }
+    }
+
+    /**
+     * Prints an encoded value. Floats always contain a decimal point, so they are printed as
+     * float literals.
+     * @param encodedValue Value returned by encodeValue.
+     * @return The value as a literal.
+     */
+    public String formatValue(long encodedValue){
+        switch (this){
+            case INT:
+                return String.valueOf((int) encodedValue);
+            case FLOAT:
+                double floatValue = Double.longBitsToDouble(encodedValue);
+                String floatString = Double.toString(floatValue);
+                if (floatString.indexOf('E') < 0){
+                    return floatString;
+                }
+                //very large and small values are printed without an exponent
+                floatString = BigDecimal.valueOf(floatValue).stripTrailingZeros().toPlainString();
+                return floatString.indexOf('.') < 0 ? floatString + ".0" : floatString;
+            case BOOL:
+                return encodedValue != 0 ? "true" : "false";
+            default:
+                throw new IllegalStateException(this + " values are not held as primitives.");
+        }
+    }
+
+    /**
+     * Returns the numeric value of an encoded INT or FLOAT value.
+     * @param encodedValue Value returned by encodeValue.
+     * @return The value as a double.
+     */
+    public double toNumber(long encodedValue){
+        if (this == FLOAT){
+            return Double.longBitsToDouble(encodedValue);
+        }
+        return (int) encodedValue;
+    }
+
+    /**
+     * Returns the number of bytes rows use to hold an encoded value of this type.
+     * @return Returns 4 for INT, 8 for FLOAT and 1 for BOOL.
+     */
+    public int getEncodedWidth(){
+        switch (this){
+            case INT:
+                return Integer.BYTES;
+            case FLOAT:
+                return Double.BYTES;
+            case BOOL:
+                return 1;
+            default:
+                throw new IllegalStateException(this + " values are not held as primitives.");
+        }
+    }
+
+    /**
+     * Determines if a value is an integer literal.
+     * @param value Value to check.
+     * @return Returns true if the value can be parsed as an integer.
+     */
+    private static boolean isInteger(String value){
+        try {
+            Integer.parseInt(value);
+            return true;
+        }
+        catch (NumberFormatException nfe){
+            return false;
+        }
+    }
+
+    /**
+     * Determines if a value is a float literal made of two integers separated by a period.
+     * @param value Value to check.
+     * @return Returns true if the value is a float literal.
+     */
+    private static boolean isFloat(String value){
+        int pointIndex = value.indexOf('.');
+        if (pointIndex < 0 || pointIndex + 1 >= value.length() || !Character.isDigit(value.charAt(pointIndex + 1))){
+            return false;
+        }
+        try {
+            Integer.parseInt(value, 0, pointIndex, 10);
+            Integer.parseInt(value, pointIndex + 1, value.length(), 10);
+            return true;
+        }
+        catch (NumberFormatException nfe){
+            return false;
+        }
+    }
+
+    /**
+     * Determines if a value is a string literal. It must be wrapped in single quotes, and no
+     * internal characters can be '\'' or '\t'.
+     * @param value Value to check.
+     * @return Returns true if the value is a string literal.
+     */
+    private static boolean isString(String value){
+        int lastIndex = value.length() - 1;
+        if (lastIndex < 1 || value.charAt(0) != '\'' || value.charAt(lastIndex) != '\''){
+            return false;
+        }
+        for (int i = 1; i < lastIndex; i++){
+            if (value.charAt(i) == '\'' || value.charAt(i) == '\t'){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Testing for AttributeType.
+     */
+    public static void test(){
+        assert fromTypeName("int") == INT;
+        assert fromTypeName("Float") == FLOAT;
+        assert fromTypeName("ANY") == null;
+        assert fromTypeName("DATE") == null;
+        assert INT.acceptsValue("-12");
+        assert !INT.acceptsValue("1.5");
+        assert FLOAT.acceptsValue("1.5");
+        assert FLOAT.acceptsValue("3");
+        assert !FLOAT.acceptsValue("1.-5");
+        assert !FLOAT.acceptsValue("'1.5'");
+        assert BOOL.acceptsValue("false");
+        assert !BOOL.acceptsValue("1");
+        assert STRING.acceptsValue("'ab'");
+        assert !STRING.acceptsValue("12");
+        assert ANY.acceptsValue("12");
+        assert INT.formatValue(INT.encodeValue("-007")).equals("-7");
+        assert FLOAT.formatValue(FLOAT.encodeValue("12.50")).equals("12.5");
+        assert FLOAT.formatValue(FLOAT.encodeValue("3")).equals("3.0");
+        assert FLOAT.formatValue(FLOAT.encodeValue("100.0")).equals("100.0");
+        assert FLOAT.formatValue(FLOAT.encodeValue("0.0000001")).equals("0.0000001");
+        assert FLOAT.formatValue(FLOAT.encodeValue("2000000000.0")).equals("2000000000.0");
+        assert BOOL.formatValue(BOOL.encodeValue("true")).equals("true");
+        assert FLOAT.toNumber(FLOAT.encodeValue("0.25")) == 0.25;
+        assert INT.toNumber(INT.encodeValue("-3")) == -3;
+        assert INT.toNumber(0xFFFFFFFDL) == -3;
+        assert hasPrimitive(new AttributeType[]{ANY, STRING, BOOL});
+        assert !hasPrimitive(new AttributeType[]{ANY, STRING});
+        DBTest.passMessage("AttributeType passed.");
+    }
+}
@@ -0,0 +1,68 @@
+package DBObjects;
+
+/**
+ * Used to determine how a column block of a columnar table file is encoded. Typed encodings
+ * are only used when every value in the column converts back to exactly the same string.
+ * INT : 4-byte integers.
+ * FLOAT : 8-byte floating point values.
+ * BOOL : One bit per value.
+ * STRING : Length-prefixed UTF-8 strings.
+ */
+public enum ColumnEncoding {
+    INT, FLOAT, BOOL, STRING;
+
+    /**
+     * Finds the most compact encoding that stores every value in a column exactly.
+     * @param columnValues Values in the column.
+     * @return Encoding for the column.
+     */
+    public static ColumnEncoding detectEncoding(String[] columnValues){
+        boolean allInts = true, allFloats = true, allBools = true;
+        for (String value : columnValues){
+            allInts = allInts && isExactInt(value);
+            allFloats = allFloats && isExactFloat(value);
+            allBools = allBools && (value.equals("true") || value.equals("false"));
+        }
+        if (allInts){
+            return INT;
+        }
+        if (allFloats){
+            return FLOAT;
+        }
+        if (allBools){
+            return BOOL;
+        }
+        return STRING;
+    }
+
+    /**
+     * Determines if a value is an integer that prints back as the same string.
+     * @param value Value to check.
+     * @return Returns true if the value can be stored as an INT.
+     */
+    private static boolean isExactInt(String value){
+        try {
+            return Integer.toString(Integer.parseInt(value)).equals(value);
+        }
+        catch (NumberFormatException nfe){
+            return false;
+        }
+    }
+
+    /**
+     * Determines if a value is a decimal number that prints back as the same string.
+     * @param value Value to check.
+     * @return Returns true if the value can be stored as a FLOAT.
+     */
+    private static boolean isExactFloat(String value){
+        if (value.indexOf('.') < 0){
+            return false;
+        }
+        try {
+            return Double.toString(Double.parseDouble(value)).equals(value);
+        }
+        catch (NumberFormatException nfe){
+            return false;
+        }
+    }
+}
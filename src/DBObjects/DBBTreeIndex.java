@@ -0,0 +1,446 @@
+package DBObjects;
+
+import DBException.*;
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * DBBTreeIndex is a persistent B+tree index on one attribute of a table. Rows are ordered by the
+ * numeric value of the attribute, so both equality and range conditions find their rows by walking
+ * the leaves that hold matching values. Leaves are linked in key order. Keys are doubles, as INT and
+ * FLOAT attributes are compared as doubles. Untyped attributes are compared as floats, so bounds that
+ * include their key are widened to every number rounding to the same float, and the extra rows are
+ * removed when the conditions are evaluated. If any row holds a value that is not a number, conditions
+ * would fail when comparing it, so the index is not used until it is rebuilt without such values.
+ * The index file holds the number of non-numeric rows followed by every key and row id in key order,
+ * and the tree is rebuilt in memory when the file is first read.
+ */
+public class DBBTreeIndex extends DBTableIndex {
+    private static final int NODE_CAPACITY = 64;
+    private static final int FILE_MAGIC = 0x44424232;
+
+    private BTreeNode rootNode = new BTreeNode(true);
+    private int numEntries = 0;
+    private int nonNumericRows = 0;
+    private double splitKey;
+
+    /**
+     * BTreeNode is a single node of the tree. Leaves hold keys with their row ids, and internal
+     * nodes hold separator keys with one more child than keys. A child holds keys that are at
+     * least the separator before it and at most the separator after it.
+     */
+    private static class BTreeNode {
+        private final double[] keys = new double[NODE_CAPACITY];
+        private final int[] rowIds;
+        private final BTreeNode[] children;
+        private int numKeys = 0;
+        private BTreeNode nextLeaf;
+
+        /**
+         * Constructor for an empty node.
+         * @param isLeaf True to create a leaf, false to create an internal node.
+         */
+        private BTreeNode(boolean isLeaf){
+            rowIds = isLeaf ? new int[NODE_CAPACITY] : null;
+            children = isLeaf ? null : new BTreeNode[NODE_CAPACITY + 1];
+        }
+
+        /**
+         * Determines if the node is a leaf.
+         * @return Returns true if the node holds row ids.
+         */
+        private boolean isLeaf(){
+            return children == null;
+        }
+
+        /**
+         * Counts the keys in the node that are less than a key, or less than or equal to it.
+         * @param key Key to compare.
+         * @param inclusive True to also count keys equal to the key.
+         * @return Number of keys before the key.
+         */
+        private int countKeysBelow(double key, boolean inclusive){
+            int low = 0, high = numKeys;
+            while (low < high){
+                int middle = (low + high) >>> 1;
+                if (keys[middle] < key || (inclusive && keys[middle] == key)){
+                    low = middle + 1;
+                }
+                else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Constructor for a DBBTreeIndex.
+     * @param attributeName Name of the indexed attribute.
+     * @param tableName Name of the indexed table.
+     * @param owningDatabase Database containing the table. This is required.
+     * @throws DBException Thrown if owningDatabase is null.
+     */
+    public DBBTreeIndex(String attributeName, String tableName, DBDatabase owningDatabase) throws DBException {
+        super(attributeName, tableName, owningDatabase, IndexType.BTREE);
+    }
+
+    /**
+     * Constructor for an index stored at a given path that does not belong to a table.
+     * Used for testing.
+     * @param attributeName Name of the indexed attribute.
+     * @param indexPath Path of the index file.
+     */
+    private DBBTreeIndex(String attributeName, String indexPath){
+        super(attributeName, indexPath);
+    }
+
+    /**
+     * Converts a value to the key it is ordered by. Values are numbers if they are integers or
+     * have exactly one decimal point between two integers, matching the numbers conditions accept.
+     * @param value Value to convert.
+     * @return The value as a double, or null if it is not a number.
+     */
+    static Double parseNumericKey(String value){
+        try {
+            String[] floatParts = value.split("\\.");
+            if (floatParts.length == 2){
+                Integer.parseInt(floatParts[0]);
+                Integer.parseInt(floatParts[1]);
+            }
+            else {
+                Integer.parseInt(value);
+            }
+            return Double.parseDouble(value);
+        }
+        catch (NumberFormatException nfe){
+            return null;
+        }
+    }
+
+    /**
+     * Removes every entry from the index.
+     */
+    @Override
+    protected void clearEntries(){
+        rootNode = new BTreeNode(true);
+        numEntries = 0;
+        nonNumericRows = 0;
+    }
+
+    /**
+     * Adds a row id to the tree under the numeric value of an attribute. Values that are
+     * not numbers are only counted.
+     * @param value Value of the indexed attribute.
+     * @param rowId Id of the row.
+     */
+    @Override
+    protected void addRow(String value, int rowId){
+        Double key = parseNumericKey(value);
+        if (key == null){
+            nonNumericRows++;
+            return;
+        }
+        insertEntry(key, rowId);
+    }
+
+    /**
+     * Inserts a key and row id, growing the tree by a level if the root is split.
+     * @param key Key of the entry.
+     * @param rowId Row id of the entry.
+     */
+    private void insertEntry(double key, int rowId){
+        BTreeNode sibling = insertEntry(rootNode, key, rowId);
+        if (sibling != null){
+            BTreeNode newRoot = new BTreeNode(false);
+            newRoot.keys[0] = splitKey;
+            newRoot.children[0] = rootNode;
+            newRoot.children[1] = sibling;
+            newRoot.numKeys = 1;
+            rootNode = newRoot;
+        }
+        numEntries++;
+    }
+
+    /**
+     * Inserts a key and row id below a node. Entries with equal keys are kept in insertion order.
+     * @param node Node to insert below.
+     * @param key Key of the entry.
+     * @param rowId Row id of the entry.
+     * @return Returns the new sibling if the node was split, with its separator in splitKey,
+     * otherwise null.
+     */
+    private BTreeNode insertEntry(BTreeNode node, double key, int rowId){
+        int position = node.countKeysBelow(key, true);
+        if (node.isLeaf()){
+            System.arraycopy(node.keys, position, node.keys, position + 1, node.numKeys - position);
+            System.arraycopy(node.rowIds, position, node.rowIds, position + 1, node.numKeys - position);
+            node.keys[position] = key;
+            node.rowIds[position] = rowId;
+            node.numKeys++;
+            return node.numKeys == NODE_CAPACITY ? splitLeaf(node) : null;
+        }
+        BTreeNode childSibling = insertEntry(node.children[position], key, rowId);
+        if (childSibling == null){
+            return null;
+        }
+        System.arraycopy(node.keys, position, node.keys, position + 1, node.numKeys - position);
+        System.arraycopy(node.children, position + 1, node.children, position + 2, node.numKeys - position);
+        node.keys[position] = splitKey;
+        node.children[position + 1] = childSibling;
+        node.numKeys++;
+        return node.numKeys == NODE_CAPACITY ? splitInternal(node) : null;
+    }
+
+    /**
+     * Moves the upper half of a full leaf into a new leaf that follows it.
+     * @param leaf Leaf to split.
+     * @return Returns the new leaf, with its first key in splitKey.
+     */
+    private BTreeNode splitLeaf(BTreeNode leaf){
+        BTreeNode sibling = new BTreeNode(true);
+        int middle = leaf.numKeys / 2;
+        sibling.numKeys = leaf.numKeys - middle;
+        System.arraycopy(leaf.keys, middle, sibling.keys, 0, sibling.numKeys);
+        System.arraycopy(leaf.rowIds, middle, sibling.rowIds, 0, sibling.numKeys);
+        leaf.numKeys = middle;
+        sibling.nextLeaf = leaf.nextLeaf;
+        leaf.nextLeaf = sibling;
+        splitKey = sibling.keys[0];
+        return sibling;
+    }
+
+    /**
+     * Moves the upper half of a full internal node into a new node. The middle key moves
+     * up to the parent.
+     * @param node Node to split.
+     * @return Returns the new node, with the middle key in splitKey.
+     */
+    private BTreeNode splitInternal(BTreeNode node){
+        BTreeNode sibling = new BTreeNode(false);
+        int middle = node.numKeys / 2;
+        splitKey = node.keys[middle];
+        sibling.numKeys = node.numKeys - middle - 1;
+        System.arraycopy(node.keys, middle + 1, sibling.keys, 0, sibling.numKeys);
+        System.arraycopy(node.children, middle + 1, sibling.children, 0, sibling.numKeys + 1);
+        Arrays.fill(node.children, middle + 1, node.numKeys + 1, null);
+        node.numKeys = middle;
+        return sibling;
+    }
+
+    /**
+     * Finds the ids of rows that may satisfy a comparison by scanning the leaves between the
+     * comparison's bounds.
+     * @param operator Comparison operator, using the condition's single character form.
+     * @param value Value compared with the indexed attribute.
+     * @return Ids of matching rows, or null if the operator is not an ordered comparison, the
+     * value is not a number or the table holds values that are not numbers.
+     */
+    @Override
+    protected int[] findEntries(String operator, String value){
+        Double key = parseNumericKey(value);
+        if (key == null || nonNumericRows > 0){
+            return null;
+        }
+        double negativeInfinity = Double.NEGATIVE_INFINITY, positiveInfinity = Double.POSITIVE_INFINITY;
+        switch (operator){
+            case "=":
+                return scanRange(key, true, key, true);
+            case "<":
+                return scanRange(negativeInfinity, true, key, false);
+            case "£":
+                return scanRange(negativeInfinity, true, findUpperBound(value), true);
+            case ">":
+                return scanRange(key, false, positiveInfinity, true);
+            case "@":
+                return scanRange(findLowerBound(value), true, positiveInfinity, true);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Finds an inclusive upper bound for numbers that are at most a value when compared either
+     * as doubles or as floats. Numbers rounding to the value's float are below the next float.
+     * @param value A number, as accepted by parseNumericKey.
+     * @return The bound.
+     */
+    static double findUpperBound(String value){
+        return Math.nextUp(Float.parseFloat(value));
+    }
+
+    /**
+     * Finds an inclusive lower bound for numbers that are at least a value when compared either
+     * as doubles or as floats. Numbers rounding to the value's float are above the previous float.
+     * @param value A number, as accepted by parseNumericKey.
+     * @return The bound.
+     */
+    static double findLowerBound(String value){
+        return Math.nextDown(Float.parseFloat(value));
+    }
+
+    /**
+     * Collects the row ids of entries with keys between two bounds.
+     * @param lowKey Lower bound.
+     * @param lowInclusive True if keys equal to the lower bound are included.
+     * @param highKey Upper bound.
+     * @param highInclusive True if keys equal to the upper bound are included.
+     * @return Ids of the entries in key order.
+     */
+    private int[] scanRange(double lowKey, boolean lowInclusive, double highKey, boolean highInclusive){
+        BTreeNode node = rootNode;
+        while (!node.isLeaf()){
+            node = node.children[node.countKeysBelow(lowKey, false)];
+        }
+        int[] foundIds = new int[16];
+        int numFound = 0;
+        int position = node.countKeysBelow(lowKey, !lowInclusive);
+        while (node != null){
+            for (; position < node.numKeys; position++){
+                double key = node.keys[position];
+                if (key > highKey || (key == highKey && !highInclusive)){
+                    return Arrays.copyOf(foundIds, numFound);
+                }
+                //keys equal to an excluded lower bound may continue into following leaves
+                if (key == lowKey && !lowInclusive){
+                    continue;
+                }
+                if (numFound == foundIds.length){
+                    foundIds = Arrays.copyOf(foundIds, numFound * 2);
+                }
+                foundIds[numFound++] = node.rowIds[position];
+            }
+            node = node.nextLeaf;
+            position = 0;
+        }
+        return Arrays.copyOf(foundIds, numFound);
+    }
+
+    /**
+     * Writes the number of non-numeric rows followed by every entry in key order.
+     * @param outputStream Stream to write.
+     * @throws IOException Thrown if writing fails.
+     */
+    @Override
+    protected void writeEntries(OutputStream outputStream) throws IOException {
+        DataOutputStream dataStream = new DataOutputStream(outputStream);
+        dataStream.writeInt(FILE_MAGIC);
+        dataStream.writeInt(nonNumericRows);
+        dataStream.writeInt(numEntries);
+        BTreeNode leaf = rootNode;
+        while (!leaf.isLeaf()){
+            leaf = leaf.children[0];
+        }
+        for (; leaf != null; leaf = leaf.nextLeaf){
+            for (int i = 0; i < leaf.numKeys; i++){
+                dataStream.writeDouble(leaf.keys[i]);
+                dataStream.writeInt(leaf.rowIds[i]);
+            }
+        }
+        dataStream.flush();
+    }
+
+    /**
+     * Reads entries written by writeEntries and rebuilds the tree from them.
+     * @param inputStream Stream to read.
+     * @throws IOException Thrown if reading fails or the stream is not a B+tree index.
+     */
+    @Override
+    protected void readEntries(InputStream inputStream) throws IOException {
+        DataInputStream dataStream = new DataInputStream(inputStream);
+        if (dataStream.readInt() != FILE_MAGIC){
+            throw new IOException("File is not a B+tree index.");
+        }
+        int storedNonNumeric = dataStream.readInt();
+        int storedEntries = dataStream.readInt();
+        for (int i = 0; i < storedEntries; i++){
+            double key = dataStream.readDouble();
+            insertEntry(key, dataStream.readInt());
+        }
+        nonNumericRows = storedNonNumeric;
+    }
+
+    /**
+     * Testing for DBBTreeIndex.
+     */
+    public static void test(){
+        assert parseNumericKey("12").equals(12.0);
+        assert parseNumericKey("-1.5").equals(-1.5);
+        assert parseNumericKey("16777217").equals(16777217.0);
+        assert parseNumericKey("1e5") == null;
+        assert parseNumericKey("'12'") == null;
+        try {
+            File testFile = File.createTempFile("DBBTreeIndexTest", ".btree");
+            DBBTreeIndex test = new DBBTreeIndex("age", testFile.getPath());
+            ArrayList<TableRow> testRows = new ArrayList<>();
+            for (int i = 1; i <= 1000; i++){
+                testRows.add(new TableRow(new String[]{String.valueOf(i), String.valueOf((i * 37) % 100)}));
+            }
+            test.rebuildIndex(testRows, 1);
+            assert test.findRowIds("=", "5").length == 10;
+            assert test.findRowIds("<", "10").length == 100;
+            assert test.findRowIds("£", "10").length == 110;
+            assert test.findRowIds(">", "89.5").length == 100;
+            assert test.findRowIds("@", "0").length == 1000;
+            assert test.findRowIds("~", "5") == null;
+            assert test.findRowIds("=", "'a'") == null;
+            int[] foundIds = test.findRowIds("=", "37");
+            assert foundIds[0] == 1 && foundIds[foundIds.length - 1] == 901;
+            test.storeIndex();
+            DBBTreeIndex loaded = new DBBTreeIndex("age", testFile.getPath());
+            assert Arrays.equals(loaded.findRowIds("<", "3"), test.findRowIds("<", "3"));
+            loaded.addRow("'text'", 1001);
+            assert loaded.findRowIds("<", "3") == null;
+            testFile.delete();
+            testIndexedQueries();
+        }
+        catch (IOException | DBException e){
+            System.out.println("Error testing DBBTreeIndex.");
+        }
+        System.out.println("DBBTreeIndex passed.");
+    }
+
+    /**
+     * Tests that range conditions find the same rows with and without B+tree indexes, for values
+     * that differ only beyond float precision. Uses a scratch database in a temporary directory
+     * under DBRoot, which is dropped afterwards.
+     * @throws IOException Thrown if the scratch database could not be created.
+     * @throws DBException Thrown if a statement fails.
+     */
+    private static void testIndexedQueries() throws IOException, DBException {
+        Files.createDirectories(Paths.get("DBRoot"));
+        Path testDirectory = Files.createTempDirectory(Paths.get("DBRoot"), "btreetest");
+        DBDatabase testDatabase = new DBDatabase(testDirectory.getFileName().toString());
+        try {
+            DBStatement testStatement = new DBStatement(testDatabase);
+            testStatement.performStatement("create table tab (val FLOAT, num INT, misc);");
+            testStatement.performStatement("insert into tab values (0.1000000001, 16777217, 0.1000000016);");
+            testStatement.performStatement("insert into tab values (0.1, 16777216, 0.1);");
+            String[] testConditions = new String[]{"val > 0.1", "val <= 0.1", "num > 16777216", "num >= 16777217",
+                    "num == 16777217", "misc <= 0.1", "misc >= 0.1000000016", "misc > 0.1", "id <= 1", "id >= 2"};
+            String[] scannedResults = new String[testConditions.length];
+            for (int i = 0; i < testConditions.length; i++){
+                testStatement.performStatement("select * from tab where " + testConditions[i] + ";");
+                scannedResults[i] = testStatement.getResultSet().printResult();
+            }
+            assert testStatement.getResultSet().getNumRows() == 1;
+            testStatement.performStatement("create index on tab using btree (val);");
+            testStatement.performStatement("create index on tab using btree (num);");
+            testStatement.performStatement("create index on tab using btree (misc);");
+            for (int i = 0; i < testConditions.length; i++){
+                testStatement.performStatement("select * from tab where " + testConditions[i] + ";");
+                assert testStatement.getResultSet().printResult().equals(scannedResults[i]) : testConditions[i];
+            }
+            testStatement.performStatement("select * from tab where num > 16777216;");
+            assert testStatement.getResultSet().getNumRows() == 1;
+            testStatement.performStatement("select * from tab where misc <= 0.1;");
+            assert testStatement.getResultSet().getNumRows() == 2;
+            testStatement.performStatement("select * from tab where misc >= 0.1000000016;");
+            assert testStatement.getResultSet().getNumRows() == 2;
+        }
+        finally {
+            testDatabase.dropObject();
+        }
+    }
+}
@@ -0,0 +1,416 @@
+package DBObjects;
+
+import DBException.*;
+import DBObjects.DBCommands.DBParser;
+import DBObjects.DBCommands.DBPreparedStatement;
+import DBObjects.DBCommands.CommandLists.CommandCondition;
+import DBObjects.DBCommands.CommandLists.ConditionNode;
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * Benchmarks for the parser, prepared statements, condition filtering, table storage, joins and
+ * result rendering.
+ * Tables of each size are generated in a scratch database, which is dropped afterwards. Each
+ * benchmark is run for a number of warmup iterations, whose times are discarded, and then for
+ * a number of measured iterations of a fixed duration. The mean and standard deviation of the
+ * time per operation over the measured iterations are printed, one line per benchmark and size.
+ * Settings are read from system properties:
+ * DBBenchmark.rows : Comma-separated table sizes, 1000,100000 by default.
+ * DBBenchmark.include : Comma-separated prefixes of benchmarks to run, all by default.
+ * DBBenchmark.warmup : Number of warmup iterations, 5 by default.
+ * DBBenchmark.iterations : Number of measured iterations, 5 by default.
+ * DBBenchmark.iterationMillis : Duration of each iteration, 500 by default.
+ */
+public class DBBenchmark {
+    private static final String DATABASE_NAME = "dbbenchmark";
+    private static final String[] PARSED_STATEMENTS = new String[]{
+            "select * from people where id == 500;",
+            "select name, score from people where ((age >= 30) and (age < 40)) or (city == 'city7');",
+            "insert into people values ('name1', 31, 'city1', 12.5);",
+            "update people set score = 1.5, city = 'city2' where name like 'name1';"};
+    private static final String[] PREPARED_STATEMENTS = new String[]{
+            "select * from people where id == ?;",
+            "select name, score from people where ((age >= ?) and (age < ?)) or (city == ?);",
+            "insert into people values (?, ?, ?, ?);",
+            "update people set score = ?, city = ? where name like ?;"};
+    private static final String[] EXECUTED_STATEMENTS = new String[]{
+            "execute parsed0 (500);",
+            "execute parsed1 (30, 40, 'city7');",
+            "execute parsed2 ('name1', 31, 'city1', 12.5);",
+            "execute parsed3 (1.5, 'city2', 'name1');"};
+    private static volatile long blackhole;
+    private final String[] includedBenchmarks;
+    private final int warmupIterations;
+    private final int measuredIterations;
+    private final long iterationNanos;
+    private final HashMap<String, DBPreparedStatement> preparedStatements = new HashMap<>();
+    private DBDatabase benchmarkDatabase;
+
+    /**
+     * An operation whose time is measured. The returned value is consumed so that the
+     * operation cannot be optimised away.
+     */
+    private interface BenchmarkOperation {
+
+        /**
+         * Performs the operation once.
+         * @return A value produced by the operation.
+         * @throws DBException Thrown if the operation fails.
+         */
+        Object run() throws DBException;
+    }
+
+    /**
+     * Constructor for a DBBenchmark.
+     * @param includedBenchmarks Prefixes of benchmarks to run, or null to run all benchmarks.
+     * @param warmupIterations Number of iterations whose times are discarded.
+     * @param measuredIterations Number of iterations whose times are reported.
+     * @param iterationMillis Duration of each iteration.
+     */
+    public DBBenchmark(String[] includedBenchmarks, int warmupIterations, int measuredIterations, long iterationMillis){
+        this.includedBenchmarks = includedBenchmarks;
+        this.warmupIterations = warmupIterations;
+        this.measuredIterations = measuredIterations;
+        this.iterationNanos = iterationMillis * 1000000L;
+    }
+
+    /**
+     * Runs the benchmarks for each table size.
+     * @param tableSizes Numbers of rows of the generated tables.
+     * @throws DBException Thrown if the scratch database or tables could not be created.
+     */
+    public void runBenchmarks(int[] tableSizes) throws DBException {
+        System.out.printf("%-24s %10s %14s %12s %12s%n", "Benchmark", "Rows", "us/op", "Error", "Ops");
+        createDatabase();
+        try {
+            runBenchmark("parse", 0, this::parseStatements);
+            for (int i = 0; i < PREPARED_STATEMENTS.length; i++){
+                performStatement("prepare parsed" + i + " as " + PREPARED_STATEMENTS[i]);
+            }
+            runBenchmark("parse.prepared", 0, this::parseExecutedStatements);
+            for (int numRows : tableSizes){
+                runTableBenchmarks(numRows);
+            }
+        }
+        finally {
+            performStatement("drop database " + DATABASE_NAME + ";");
+        }
+    }
+
+    /**
+     * Creates the scratch database, replacing one left by an earlier run.
+     * @throws DBException Thrown if the database could not be created.
+     */
+    private void createDatabase() throws DBException {
+        try {
+            performStatement("drop database " + DATABASE_NAME + ";");
+        }
+        catch (DBException dbe){
+            //expected unless an earlier run was stopped
+        }
+        performStatement("create database " + DATABASE_NAME + ";");
+        benchmarkDatabase = performStatement("use " + DATABASE_NAME + ";").getWorkingDatabase();
+    }
+
+    /**
+     * Generates tables of a size and runs the benchmarks that use them. The people table has
+     * one row per person, and the cities table has a row for each of the people's cities.
+     * @param numRows Number of rows in the people table.
+     * @throws DBException Thrown if a table could not be generated or a benchmark fails.
+     */
+    private void runTableBenchmarks(int numRows) throws DBException {
+        int numCities = Math.max(10, numRows / 10);
+        String peopleName = "people" + numRows, citiesName = "cities" + numRows;
+        performStatement("create table " + peopleName + " (name STRING, age INT, city STRING, score FLOAT);");
+        performStatement("create table " + citiesName + " (cname STRING, region STRING);");
+        loadRows(peopleName, numRows, numCities, true);
+        loadRows(citiesName, numCities, numCities, false);
+
+        DBTable peopleTable = loadTable(peopleName);
+        ArrayList<TableRow> peopleRows = new ArrayList<>(peopleTable.getTableRows());
+        CommandCondition rangeCondition = new CommandCondition(new ConditionNode(
+                new ConditionNode("age", '@', "30"), new ConditionNode("age", '<', "40"), true));
+        CommandCondition likeCondition = new CommandCondition(new ConditionNode(
+                new ConditionNode("city", '=', "'city7'"), new ConditionNode("name", '~', "'name1'"), false));
+        runBenchmark("filter.range", numRows, () -> filterRows(peopleTable, peopleRows, rangeCondition));
+        runBenchmark("filter.like", numRows, () -> filterRows(peopleTable, peopleRows, likeCondition));
+
+        runBenchmark("statement.select", numRows, () -> performStatement("select * from " + peopleName +
+                " where id == " + (numRows / 2) + ";"));
+        performStatement("prepare select" + numRows + " as select * from " + peopleName + " where id == ?;");
+        runBenchmark("statement.prepared", numRows, () -> performStatement("execute select" + numRows +
+                " (" + (numRows / 2) + ");"));
+        runBenchmark("storage.load", numRows, () -> loadTable(peopleName).getNumRows());
+        runBenchmark("storage.loadUncached", numRows, () -> {
+            DBTableCache.invalidateTable(benchmarkDatabase, peopleName);
+            return loadTable(peopleName).getNumRows();
+        });
+        runBenchmark("storage.store", numRows, () -> {
+            performStatement("alter table " + peopleName + " convert columnar;");
+            return performStatement("alter table " + peopleName + " convert tsv;");
+        });
+
+        runBenchmark("join", numRows, () -> {
+            DBTable primaryTable = loadTable(peopleName);
+            DBTable secondaryTable = loadTable(citiesName);
+            primaryTable.setJoinAttribute(new TableAttribute("city"));
+            secondaryTable.setJoinAttribute(new TableAttribute("cname"));
+            return DBTable.joinTables(primaryTable, secondaryTable).getNumRows();
+        });
+
+        DBTable renderedTable = loadTable(peopleName);
+        runBenchmark("render.print", numRows, () -> renderedTable.printTable().length());
+        runBenchmark("render.write", numRows, () -> writeResult(renderedTable.getResultSet()));
+    }
+
+    /**
+     * Writes rows to a tab-delimited file and loads them into a table.
+     * @param tableName Table to load the rows into.
+     * @param numRows Number of rows to write.
+     * @param numCities Number of distinct cities.
+     * @param peopleRows True for rows of the people table, false for rows of the cities table.
+     * @throws DBException Thrown if the file could not be written or loaded.
+     */
+    private void loadRows(String tableName, int numRows, int numCities, boolean peopleRows) throws DBException {
+        File loadFile = new File("DBRoot", DATABASE_NAME + File.separator + tableName + ".load");
+        try (BufferedWriter loadWriter = new BufferedWriter(new FileWriter(loadFile))){
+            for (int i = 0; i < numRows; i++){
+                if (peopleRows){
+                    loadWriter.write("'name" + i + "'\t" + (18 + i % 60) + "\t'city" + (i % numCities) + "'\t"
+                            + (i % 1000) + "." + (i % 10));
+                }
+                else {
+                    loadWriter.write("'city" + i + "'\t'region" + (i % 7) + "'");
+                }
+                loadWriter.newLine();
+            }
+        }
+        catch (IOException ioe){
+            throw new DBServerException("Internal error, unable to write the benchmark rows.");
+        }
+        try {
+            performStatement("load data '" + loadFile.getPath() + "' into " + tableName + ";");
+        }
+        finally {
+            loadFile.delete();
+        }
+    }
+
+    /**
+     * Loads a table of the scratch database with its rows and attributes.
+     * @param tableName Table to load.
+     * @return The loaded table.
+     * @throws DBException Thrown if the table could not be loaded.
+     */
+    private DBTable loadTable(String tableName) throws DBException {
+        DBTable loadedTable = new DBTable(tableName, benchmarkDatabase);
+        loadedTable.loadTableFile();
+        loadedTable.loadAttributeFile();
+        return loadedTable;
+    }
+
+    /**
+     * Parses each of the benchmark's statements.
+     * @return Number of statements parsed.
+     * @throws DBException Thrown if a statement could not be parsed.
+     */
+    private Object parseStatements() throws DBException {
+        for (String statement : PARSED_STATEMENTS){
+            blackhole += new DBParser(statement).parseStatement().hashCode();
+        }
+        return PARSED_STATEMENTS.length;
+    }
+
+    /**
+     * Parses each of the benchmark's EXECUTE statements, binding values to statements prepared
+     * from the same statements as the parse benchmark.
+     * @return Number of statements parsed.
+     * @throws DBException Thrown if a statement could not be parsed.
+     */
+    private Object parseExecutedStatements() throws DBException {
+        for (String statement : EXECUTED_STATEMENTS){
+            blackhole += new DBParser(statement, preparedStatements).parseStatement().hashCode();
+        }
+        return EXECUTED_STATEMENTS.length;
+    }
+
+    /**
+     * Filters every row of a table with a condition. The table's rows are restored first, as
+     * filtering removes rows from the table.
+     * @param tableToFilter Table to filter.
+     * @param tableRows All rows of the table.
+     * @param condition Condition to filter with.
+     * @return Number of rows kept.
+     * @throws DBException Thrown if the condition could not be evaluated.
+     */
+    private Object filterRows(DBTable tableToFilter, ArrayList<TableRow> tableRows, CommandCondition condition)
+            throws DBException {
+        tableToFilter.setTableRows(new ArrayList<>(tableRows));
+        condition.executeConditions(tableToFilter);
+        return tableToFilter.getNumRows();
+    }
+
+    /**
+     * Writes a result as it would be sent to a text client, discarding the output.
+     * @param resultSet Result to write.
+     * @return Number of characters written.
+     * @throws DBException Thrown if the result could not be written.
+     */
+    private Object writeResult(DBResultSet resultSet) throws DBException {
+        CountingWriter resultWriter = new CountingWriter();
+        try {
+            resultSet.writeResult(resultWriter);
+        }
+        catch (IOException ioe){
+            throw new DBServerException("Internal error, unable to write the result.");
+        }
+        return resultWriter.numChars;
+    }
+
+    /**
+     * Performs a statement on the scratch database, with the benchmark's prepared statements.
+     * @param commandString Statement to perform.
+     * @return The performed statement.
+     * @throws DBException Thrown if the statement fails.
+     */
+    private DBStatement performStatement(String commandString) throws DBException {
+        DBStatement dbStatement = new DBStatement(benchmarkDatabase, preparedStatements);
+        dbStatement.performStatement(commandString);
+        dbStatement.getReturnMessage();
+        return dbStatement;
+    }
+
+    /**
+     * Runs a benchmark if it is included, printing its time per operation.
+     * @param benchmarkName Name of the benchmark.
+     * @param numRows Number of rows of the benchmark's tables, or 0 if it does not use tables.
+     * @param operation Operation to measure.
+     * @throws DBException Thrown if the operation fails.
+     */
+    private void runBenchmark(String benchmarkName, int numRows, BenchmarkOperation operation) throws DBException {
+        if (!isIncluded(benchmarkName)){
+            return;
+        }
+        for (int i = 0; i < warmupIterations; i++){
+            runIteration(operation);
+        }
+        double[] iterationMicros = new double[measuredIterations];
+        long totalOperations = 0;
+        for (int i = 0; i < measuredIterations; i++){
+            long[] iterationResult = runIteration(operation);
+            iterationMicros[i] = iterationResult[0] / 1000.0 / iterationResult[1];
+            totalOperations += iterationResult[1];
+        }
+        double meanMicros = 0;
+        for (double micros : iterationMicros){
+            meanMicros += micros / measuredIterations;
+        }
+        double variance = 0;
+        for (double micros : iterationMicros){
+            variance += (micros - meanMicros) * (micros - meanMicros) / Math.max(1, measuredIterations - 1);
+        }
+        System.out.printf(Locale.ROOT, "%-24s %10d %14.3f %12.3f %12d%n", benchmarkName, numRows, meanMicros,
+                Math.sqrt(variance), totalOperations);
+    }
+
+    /**
+     * Runs an operation repeatedly until the iteration's duration has passed. At least one
+     * operation is run, however long it takes.
+     * @param operation Operation to run.
+     * @return The iteration's elapsed nanoseconds and number of operations.
+     * @throws DBException Thrown if the operation fails.
+     */
+    private long[] runIteration(BenchmarkOperation operation) throws DBException {
+        long startTime = System.nanoTime(), elapsedNanos, numOperations = 0;
+        do {
+            Object result = operation.run();
+            blackhole += result == null ? 0 : result.hashCode();
+            numOperations++;
+            elapsedNanos = System.nanoTime() - startTime;
+        } while (elapsedNanos < iterationNanos);
+        return new long[]{elapsedNanos, numOperations};
+    }
+
+    /**
+     * Determines if a benchmark was selected to run.
+     * @param benchmarkName Name of the benchmark.
+     * @return Returns true if no benchmarks were selected, or the name starts with a selected prefix.
+     */
+    private boolean isIncluded(String benchmarkName){
+        if (includedBenchmarks == null){
+            return true;
+        }
+        for (String includedBenchmark : includedBenchmarks){
+            if (benchmarkName.startsWith(includedBenchmark)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * CountingWriter discards what is written to it, counting the characters.
+     */
+    private static class CountingWriter extends Writer {
+        private long numChars = 0;
+
+        /**
+         * Counts written characters.
+         * @param chars Characters to write.
+         * @param offset Start of the characters.
+         * @param length Number of characters.
+         */
+        @Override
+        public void write(char[] chars, int offset, int length){
+            numChars += length;
+        }
+
+        /**
+         * Counts a written string.
+         * @param string String to write.
+         * @param offset Start of the string.
+         * @param length Number of characters.
+         */
+        @Override
+        public void write(String string, int offset, int length){
+            numChars += length;
+        }
+
+        /**
+         * Nothing is buffered.
+         */
+        @Override
+        public void flush(){}
+
+        /**
+         * Nothing needs closing.
+         */
+        @Override
+        public void close(){}
+    }
+
+    /**
+     * Runs the benchmarks with the settings of the system properties.
+     * @param args Not used.
+     */
+    public static void main(String[] args){
+        String includeProperty = System.getProperty("DBBenchmark.include");
+        String[] tableSizeStrings = System.getProperty("DBBenchmark.rows", "1000,100000").split(",");
+        int[] tableSizes = new int[tableSizeStrings.length];
+        for (int i = 0; i < tableSizes.length; i++){
+            tableSizes[i] = Integer.parseInt(tableSizeStrings[i].trim());
+        }
+        DBBenchmark benchmark = new DBBenchmark(includeProperty == null ? null : includeProperty.split(","),
+                Integer.getInteger("DBBenchmark.warmup", 5), Integer.getInteger("DBBenchmark.iterations", 5),
+                Long.getLong("DBBenchmark.iterationMillis", 500));
+        try {
+            benchmark.runBenchmarks(tableSizes);
+        }
+        catch (DBException dbe){
+            System.out.println("Benchmark failed: " + dbe);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package DBObjects;
+
+import DBException.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+
+/**
+ * DBColumnarFile reads and writes tables stored in the binary columnar format. The file starts
+ * with a header holding a magic number, the format version, the number of columns and the number
+ * of rows. The header is followed by a directory giving each column's encoding, offset and length,
+ * and then one block per column. Only the blocks of requested columns are read when loading.
+ */
+public class DBColumnarFile {
+    private static final int MAGIC_NUMBER = 0x44424346;
+    private static final short FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 14;
+    private static final int DIRECTORY_ENTRY_SIZE = 13;
+
+    private final String filepath;
+
+    /**
+     * Constructor for a DBColumnarFile.
+     * @param filepath Path of the columnar table file.
+     */
+    public DBColumnarFile(String filepath){
+        this.filepath = filepath;
+    }
+
+    /**
+     * Writes all rows of a table to the file, replacing its contents.
+     * @param tableRows Rows to write. Every row must have the same number of values.
+     * @param numColumns Number of columns to write if there are no rows.
+     * @throws DBException Thrown if rows have different widths or the file could not be written.
+     */
+    public void writeRows(ArrayList<TableRow> tableRows, int numColumns) throws DBException {
+        if (!tableRows.isEmpty()){
+            numColumns = tableRows.get(0).getSize();
+        }
+        ByteBuffer[] columnBlocks = new ByteBuffer[numColumns];
+        ColumnEncoding[] columnEncodings = new ColumnEncoding[numColumns];
+        for (int column = 0; column < numColumns; column++){
+            String[] columnValues = getColumnValues(tableRows, column, numColumns);
+            columnEncodings[column] = ColumnEncoding.detectEncoding(columnValues);
+            columnBlocks[column] = encodeColumn(columnValues, columnEncodings[column]);
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + numColumns * DIRECTORY_ENTRY_SIZE);
+        header.putInt(MAGIC_NUMBER).putShort(FORMAT_VERSION).putInt(numColumns).putInt(tableRows.size());
+        long blockOffset = header.capacity();
+        for (int column = 0; column < numColumns; column++){
+            header.put((byte) columnEncodings[column].ordinal());
+            header.putLong(blockOffset);
+            header.putInt(columnBlocks[column].remaining());
+            blockOffset += columnBlocks[column].remaining();
+        }
+        header.flip();
+        try (FileChannel fileChannel = FileChannel.open(Paths.get(filepath), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+            writeFully(fileChannel, header);
+            for (ByteBuffer columnBlock : columnBlocks){
+                writeFully(fileChannel, columnBlock);
+            }
+        }
+        catch (IOException ioe){
+            throw new DBServerException("Internal error, unable to write columnar table.");
+        }
+    }
+
+    /**
+     * Reads rows from the file. Columns that are not requested are not read and hold null values.
+     * @param columnsToRead True for each column that should be read, or null to read every column.
+     * @return Returns the table's rows.
+     * @throws DBException Thrown if the file could not be read or is not a columnar table.
+     */
+    public ArrayList<TableRow> readRows(boolean[] columnsToRead) throws DBException {
+        try (FileChannel fileChannel = FileChannel.open(Paths.get(filepath), StandardOpenOption.READ)){
+            ByteBuffer header = readFully(fileChannel, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC_NUMBER || header.getShort() != FORMAT_VERSION){
+                throw new DBServerException("Table file is not a supported columnar table.");
+            }
+            int numColumns = header.getInt();
+            int numRows = header.getInt();
+            ByteBuffer directory = readFully(fileChannel, HEADER_SIZE, numColumns * DIRECTORY_ENTRY_SIZE);
+            String[][] rowValues = new String[numRows][numColumns];
+            for (int column = 0; column < numColumns; column++){
+                ColumnEncoding encoding = ColumnEncoding.values()[directory.get()];
+                long blockOffset = directory.getLong();
+                int blockLength = directory.getInt();
+                if (columnsToRead == null || (column < columnsToRead.length && columnsToRead[column])){
+                    ByteBuffer columnBlock = readFully(fileChannel, blockOffset, blockLength);
+                    decodeColumn(columnBlock, encoding, rowValues, column);
+                }
+            }
+            ArrayList<TableRow> tableRows = new ArrayList<>(numRows);
+            for (String[] values : rowValues){
+                tableRows.add(new TableRow(values));
+            }
+            return tableRows;
+        }
+        catch (IOException | IndexOutOfBoundsException | java.nio.BufferUnderflowException e){
+            throw new DBServerException("Could not load columnar table.");
+        }
+    }
+
+    /**
+     * Collects the values of a single column from all rows.
+     * @param tableRows Rows of the table.
+     * @param column Index of the column.
+     * @param numColumns Expected number of values in each row.
+     * @return Returns the column's values in row order.
+     * @throws DBException Thrown if a row has a different number of values.
+     */
+    private String[] getColumnValues(ArrayList<TableRow> tableRows, int column, int numColumns) throws DBException {
+        String[] columnValues = new String[tableRows.size()];
+        for (int i = 0; i < columnValues.length; i++){
+            TableRow row = tableRows.get(i);
+            if (row.getSize() != numColumns){
+                throw new DBServerException("Table rows have inconsistent widths.");
+            }
+            columnValues[i] = row.getValue(column);
+        }
+        return columnValues;
+    }
+
+    /**
+     * Encodes the values of a column into a block.
+     * @param columnValues Values to encode.
+     * @param encoding Encoding to use.
+     * @return Returns the encoded block, ready to be written.
+     */
+    private ByteBuffer encodeColumn(String[] columnValues, ColumnEncoding encoding){
+        ByteBuffer columnBlock;
+        switch (encoding){
+            case INT:
+                columnBlock = ByteBuffer.allocate(columnValues.length * 4);
+                for (String value : columnValues){
+                    columnBlock.putInt(Integer.parseInt(value));
+                }
+                break;
+            case FLOAT:
+                columnBlock = ByteBuffer.allocate(columnValues.length * 8);
+                for (String value : columnValues){
+                    columnBlock.putDouble(Double.parseDouble(value));
+                }
+                break;
+            case BOOL:
+                byte[] bits = new byte[(columnValues.length + 7) / 8];
+                for (int i = 0; i < columnValues.length; i++){
+                    if (columnValues[i].equals("true")){
+                        bits[i / 8] |= (byte) (1 << (i % 8));
+                    }
+                }
+                columnBlock = ByteBuffer.wrap(bits);
+                columnBlock.position(bits.length);
+                break;
+            default:
+                columnBlock = encodeStrings(columnValues);
+        }
+        columnBlock.flip();
+        return columnBlock;
+    }
+
+    /**
+     * Encodes values as length-prefixed UTF-8 strings.
+     * @param columnValues Values to encode.
+     * @return Returns a block positioned at its end.
+     */
+    private ByteBuffer encodeStrings(String[] columnValues){
+        byte[][] encodedValues = new byte[columnValues.length][];
+        int blockLength = 0;
+        for (int i = 0; i < columnValues.length; i++){
+            encodedValues[i] = columnValues[i].getBytes(StandardCharsets.UTF_8);
+            blockLength += 4 + encodedValues[i].length;
+        }
+        ByteBuffer columnBlock = ByteBuffer.allocate(blockLength);
+        for (byte[] encodedValue : encodedValues){
+            columnBlock.putInt(encodedValue.length).put(encodedValue);
+        }
+        return columnBlock;
+    }
+
+    /**
+     * Decodes a column block into the given column of each row.
+     * @param columnBlock Block to decode.
+     * @param encoding Encoding of the block.
+     * @param rowValues Values of each row, filled in by this method.
+     * @param column Index of the column being decoded.
+     */
+    private void decodeColumn(ByteBuffer columnBlock, ColumnEncoding encoding, String[][] rowValues, int column){
+        for (int i = 0; i < rowValues.length; i++){
+            switch (encoding){
+                case INT:
+                    rowValues[i][column] = Integer.toString(columnBlock.getInt());
+                    break;
+                case FLOAT:
+                    rowValues[i][column] = Double.toString(columnBlock.getDouble());
+                    break;
+                case BOOL:
+                    boolean bit = (columnBlock.get(i / 8) & (1 << (i % 8))) != 0;
+                    rowValues[i][column] = bit ? "true" : "false";
+                    break;
+                default:
+                    byte[] encodedValue = new byte[columnBlock.getInt()];
+                    columnBlock.get(encodedValue);
+                    rowValues[i][column] = new String(encodedValue, StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    /**
+     * Writes a whole buffer to a file channel.
+     * @param fileChannel Channel to write to.
+     * @param buffer Buffer to write.
+     * @throws IOException Thrown if writing fails.
+     */
+    private void writeFully(FileChannel fileChannel, ByteBuffer buffer) throws IOException {
+        DBMetrics.addBytesWritten(buffer.remaining());
+        while (buffer.hasRemaining()){
+            fileChannel.write(buffer);
+        }
+    }
+
+    /**
+     * Reads a number of bytes from a position in a file channel.
+     * @param fileChannel Channel to read from.
+     * @param position Position in the file to start reading.
+     * @param length Number of bytes to read.
+     * @return Returns a buffer holding the bytes, ready to be read.
+     * @throws IOException Thrown if the file ends before all bytes are read.
+     */
+    private ByteBuffer readFully(FileChannel fileChannel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()){
+            if (fileChannel.read(buffer, position + buffer.position()) < 0){
+                throw new EOFException();
+            }
+        }
+        buffer.flip();
+        DBMetrics.addBytesRead(length);
+        return buffer;
+    }
+
+    /**
+     * Testing for DBColumnarFile.
+     */
+    public static void test(){
+        assert ColumnEncoding.detectEncoding(new String[]{"1", "-20", "300"}) == ColumnEncoding.INT;
+        assert ColumnEncoding.detectEncoding(new String[]{"1", "01"}) == ColumnEncoding.STRING;
+        assert ColumnEncoding.detectEncoding(new String[]{"1.5", "-2.25"}) == ColumnEncoding.FLOAT;
+        assert ColumnEncoding.detectEncoding(new String[]{"1.50"}) == ColumnEncoding.STRING;
+        assert ColumnEncoding.detectEncoding(new String[]{"true", "false"}) == ColumnEncoding.BOOL;
+        assert ColumnEncoding.detectEncoding(new String[]{"'abc'", "''"}) == ColumnEncoding.STRING;
+        try {
+            File testFile = File.createTempFile("DBColumnarTest", ".col");
+            DBColumnarFile test = new DBColumnarFile(testFile.getPath());
+            ArrayList<TableRow> testRows = new ArrayList<>();
+            testRows.add(new TableRow(new String[]{"1", "'café'", "1.5", "true"}));
+            testRows.add(new TableRow(new String[]{"2", "''", "-3.25", "false"}));
+            test.writeRows(testRows, 4);
+            ArrayList<TableRow> readRows = test.readRows(null);
+            assert readRows.size() == 2;
+            assert readRows.get(0).toString().equals(testRows.get(0).toString());
+            assert readRows.get(1).toString().equals(testRows.get(1).toString());
+            readRows = test.readRows(new boolean[]{true, false, false, true});
+            assert readRows.get(1).getValue(0).equals("2");
+            assert readRows.get(1).getValue(1) == null;
+            assert readRows.get(1).getValue(3).equals("false");
+            testFile.delete();
+        }
+        catch (IOException | DBException e){
+            System.out.println("Error testing DBColumnarFile.");
+        }
+        System.out.println("DBColumnarFile passed.");
+    }
+}
@@ -5,48 +5,40 @@ import DBObjects.*;
 
 /**
  * AlterDBCommand handles appending new attributes or deleting existing ones.
- * Attribute values in table rows are removed during deletion.
+ * Attribute values in table rows are removed during deletion. It also converts
+ * tables between storage formats.
  */
 public class AlterDBCommand extends DBCommand {
+    private final String tableName;
+    private final AlterType alterType;
+    private final String alterTarget;
     private TableAttribute attributeToAlter;
-    private AlterType alterType;
+    private TableFormat formatToUse;
 
     /**
      * Constructor for AlterDBCommand.
-     * @param alterArgs Preprocessed string for alter command.
-     * @throws DBException Thrown if arguments contain a parenthetical list or
-     * if the command is empty.
+     * @param tableName Name of the altered table.
+     * @param alterType Type of the alteration.
+     * @param alterTarget Name of the added or dropped attribute, or the storage format to convert to.
      */
-    protected AlterDBCommand(String[] alterArgs) throws DBException{
-        isEmptyCommand(alterArgs);
-        commandString = alterArgs[0];
-        tokenizedCommand = splitCommand(commandString);
-        tokenizedCommand = removeCommandName(tokenizedCommand);
-        if (alterArgs.length > 1) {
-            throw new InvalidCommandArgumentException("Alter command has unexpected structure.");
-        }
+    protected AlterDBCommand(String tableName, AlterType alterType, String alterTarget){
+        this.tableName = tableName;
+        this.alterType = alterType;
+        this.alterTarget = alterTarget;
     }
 
     /**
-     * Parses the alter command and sets up the table and
-     * attribute to be modified.
-     * @throws DBException Thrown if arguments for command are incorrect.
+     * Sets up the table and the attribute or format of the alteration.
+     * @throws DBException Thrown if the table cannot be loaded or the target is invalid.
      */
     protected void prepareCommand() throws DBException {
-        int currentToken = 0;
-        String tableString = getNextToken(tokenizedCommand, currentToken++).toUpperCase();
-        compareStrings(tableString, "TABLE");
-
-        String tableName = getNextToken(tokenizedCommand, currentToken++);
         setupTable(tableName);
-
-        String alterationType = getNextToken(tokenizedCommand, currentToken++);
-        convertStringToAlterType(alterationType);
-
-        String attributeName = getNextToken(tokenizedCommand, currentToken++);
-        setupAttribute(attributeName);
-
-        checkCommandEnded(currentToken);
+        if (alterType == AlterType.CONVERT){
+            setupFormat(alterTarget);
+        }
+        else {
+            setupAttribute(alterTarget);
+        }
     }
 
     /**
@@ -63,37 +55,40 @@ public class AlterDBCommand extends DBCommand {
     }
 
     /**
-     * Executes the alter command to remove or add a column to a table.
-     * @throws DBException Thrown if alteration fails or the commands alter type isn't set.
+     * Configures the storage format a table will be converted to. Not case sensitive.
+     * @param formatName Name of the storage format.
+     * @throws DBException Thrown if the format name is not a known storage format.
      */
-    protected void executeCommand() throws DBException {
-        switch(alterType){
-            case ADD:
-                tableForCommand.appendAttribute(attributeToAlter);
+    private void setupFormat(String formatName) throws DBException {
+        switch (formatName.toUpperCase()){
+            case "TSV":
+                formatToUse = TableFormat.TSV;
                 break;
-            case DROP:
-                tableForCommand.removeAttribute(attributeToAlter);
+            case "COLUMNAR":
+                formatToUse = TableFormat.COLUMNAR;
                 break;
             default:
-                throw new DBInvalidAlterType("Invalid alteration type was provided.");
+                throw new InvalidCommandArgumentException("Invalid storage format provided.");
         }
     }
 
     /**
-     * Configures what type of alter command is being performed. Not case sensitive.
-     * @param alterString Expected alter type from the tokenized command.
-     * @throws DBException Thrown if alterString is not ADD or DROP.
+     * Executes the alter command to remove or add a column to a table, or to convert its storage format.
+     * @throws DBException Thrown if alteration fails or the commands alter type isn't set.
      */
-    private void convertStringToAlterType(String alterString) throws DBException{
-        switch(alterString.toUpperCase()){
-            case "ADD":
-                alterType = AlterType.ADD;
+    protected void executeCommand() throws DBException {
+        switch(alterType){
+            case ADD:
+                tableForCommand.appendAttribute(attributeToAlter);
+                break;
+            case DROP:
+                tableForCommand.removeAttribute(attributeToAlter);
                 break;
-            case "DROP":
-                alterType = AlterType.DROP;
+            case CONVERT:
+                tableForCommand.convertTableFormat(formatToUse);
                 break;
             default:
-                throw new InvalidCommandArgumentException("Invalid alteration type provided.");
+                throw new DBInvalidAlterType("Invalid alteration type was provided.");
         }
     }
 }
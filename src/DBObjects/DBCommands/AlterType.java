@@ -2,7 +2,10 @@ package DBObjects.DBCommands;
 
 /**
  * Used to determine the behaviour of an alter command.
+ * ADD : Appends an attribute.
+ * DROP : Removes an attribute.
+ * CONVERT : Changes the table's storage format.
  */
 public enum AlterType {
-    ADD, DROP;
+    ADD, DROP, CONVERT;
 }
@@ -6,7 +6,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * AttributeList parses and processes attribute lists in commands. It
+ * AttributeList processes attribute lists in commands. It
  * verifies each attribute is a valid name, not that the attribute exists in
  * the table.
  */
@@ -22,43 +22,13 @@ public class AttributeList extends CommandList{
 
     /**
      * Constructor for AttributeList.
-     * @param argString String of attributes to process.
-     * @throws DBException Thrown if string isn't wrapped in parentheses.
+     * @param attributeNames Names of the attributes to process.
      */
-    public AttributeList(String argString) throws DBException{
-        String attributeString = removeWhiteSpace(argString);
-        attributeString = stripParentheses(attributeString);
-        attributeNames = splitValues(attributeString);
+    public AttributeList(String[] attributeNames){
+        this.attributeNames = attributeNames;
         attributeList = new ArrayList<>();
     }
 
-    /**
-     * Removes all whitespace in an attribute list. No whitespace is permitted.
-     * Undefined behaviour occurs if the list is delimited by spaces.
-     * @param valueString String to remove spaces from.
-     * @return Returns string with no spaces.
-     */
-    @Override
-    protected String removeWhiteSpace(String valueString){
-        StringBuilder valuesNoSpaces = new StringBuilder();
-        for (int i = 0; i < valueString.length(); i++){
-            if (!Character.isWhitespace(valueString.charAt(i))){
-                valuesNoSpaces.append(valueString.charAt(i));
-            }
-        }
-        return valuesNoSpaces.toString();
-    }
-
-    /**
-     * Creates an array of Strings from a string split on commas.
-     * @param argString List string from the initial command.
-     * @return Returns an array of strings with each element representing an attribute.
-     */
-    @Override
-    protected String[] splitValues(String argString){
-        return argString.split(",");
-    }
-
     /**
      * Gets table attributes that were generates.
      * @return Returns an ArrayList or table attributes.
@@ -100,32 +70,26 @@ public class AttributeList extends CommandList{
      * Testing for AttributeList
      */
     public static void test() {
-        String testAttributes1 = "( one, two, three )", testAttributes2 = "(one,two,three)";
-        String testAttributes3 = "( one,two,three )", testAttributes4 = " ";
-
         try{
-            AttributeList attList1 = new AttributeList(testAttributes1);
-            AttributeList attList2 = new AttributeList(testAttributes2);
-            AttributeList attList3 = new AttributeList(testAttributes3);
-            AttributeList attList4 = new AttributeList(testAttributes4);
+            AttributeList attList1 = new AttributeList(new String[]{"one", "two", "three"});
+            AttributeList attList2 = new AttributeList(new String[0]);
 
             assert !attList1.isListEmpty(attList1.attributeNames);
-            assert attList1.stripParentheses(attList1.stringifyArray(attList1.attributeNames)).equals("one,two,three");
             assert attList1.processList();
+            assert attList1.getAttributeList().get(2).getObjectName().equals("three");
 
-            assert !attList2.isListEmpty(attList2.attributeNames);
-            assert attList2.stripParentheses(attList2.stringifyArray(attList2.attributeNames)).equals("one,two,three");
-            assert attList2.processList();
-
-            assert !attList3.isListEmpty(attList3.attributeNames);
-            assert attList3.stripParentheses(attList3.stringifyArray(attList3.attributeNames)).equals("one,two,three");
-            assert attList3.processList();
-
-            assert attList4.isListEmpty(attList4.attributeNames);
-            assert !attList4.processList();
+            assert attList2.isListEmpty(attList2.attributeNames);
+            assert !attList2.processList();
         }
         catch (DBException de){
             System.out.println("Error testing AttributeList."); }
+        try{
+            new AttributeList(new String[]{"one", "t"}).processList();
+            assert false;
+        }
+        catch (DBException de){
+            //expected as t is too short to be a name
+        }
         DBTest.passMessage("AttributeList passed.");
     }
 }
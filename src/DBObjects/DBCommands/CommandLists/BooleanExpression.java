@@ -0,0 +1,41 @@
+package DBObjects.DBCommands.CommandLists;
+
+import DBException.*;
+import DBObjects.TableRow;
+
+/**
+ * BooleanExpression joins two compiled parts of a condition with AND or OR. The right side
+ * is only evaluated when the left side does not already decide the result.
+ */
+public class BooleanExpression implements ConditionPredicate {
+
+    private final ConditionPredicate leftPredicate;
+    private final ConditionPredicate rightPredicate;
+    private final boolean isAnd;
+
+    /**
+     * Constructor for a BooleanExpression.
+     * @param leftPredicate Predicate to the left of the operator.
+     * @param rightPredicate Predicate to the right of the operator.
+     * @param isAnd True for AND, false for OR.
+     */
+    protected BooleanExpression(ConditionPredicate leftPredicate, ConditionPredicate rightPredicate, boolean isAnd){
+        this.leftPredicate = leftPredicate;
+        this.rightPredicate = rightPredicate;
+        this.isAnd = isAnd;
+    }
+
+    /**
+     * Determines if a row meets both predicates for AND, or either predicate for OR.
+     * @param rowToEvaluate Row of the filtered table.
+     * @return Returns true if the row meets the expression, false otherwise.
+     * @throws DBException Thrown if an evaluated predicate cannot be evaluated for the row.
+     */
+    @Override
+    public boolean matches(TableRow rowToEvaluate) throws DBException {
+        if (isAnd){
+            return leftPredicate.matches(rowToEvaluate) && rightPredicate.matches(rowToEvaluate);
+        }
+        return leftPredicate.matches(rowToEvaluate) || rightPredicate.matches(rowToEvaluate);
+    }
+}
@@ -1,435 +1,448 @@
 package DBObjects.DBCommands.CommandLists;
 
 import DBException.*;
+import DBObjects.AttributeType;
 import DBObjects.DBTable;
-import java.util.Stack;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import DBObjects.TableRow;
+import java.util.ArrayList;
+import java.util.HashSet;
 
 /**
- * CommandCondition handles the parsing and interpreting of conditions in certain
- * commands. When evaluated, this class will remove rows from a table that do not
- * meet the conditions. Conditions are converted to reverse Polish notation and
- * then evaluated on a stack. Current stackification requires parentheses surrounding
- * multi-expression conditions.
+ * CommandCondition handles the interpreting of conditions in certain commands. When
+ * evaluated, this class will remove rows from a table that do not meet the conditions.
+ * Conditions are parsed into a tree of condition nodes with the rest of the statement,
+ * and the tree is compiled into predicates for the filtered table before any row is evaluated.
  */
 public class CommandCondition extends CommandList{
 
-    private String conditionString;
-    private Stack<String> postFixConditions;
+    private final ConditionNode conditionTree;
     private DBTable tableToFilter;
-
-    /**
-     * Default constructor for child classes.
-     */
-    protected CommandCondition(){}
+    private ConditionPredicate compiledConditions;
+    private int rowsEvaluated;
+    private int rowsMatched;
+    private String[] indexedComparison;
+    private ArrayList<Integer> indexedPositions;
 
     /**
      * Constructor for a CommandCondition.
-     * @param conditionArgs String to be used to filter table rows.
-     * @throws DBException Thrown if invalid operators are used in conditions.
+     * @param conditionTree Parsed conditions used to filter table rows.
      */
-    public CommandCondition(String conditionArgs) throws DBException{
-        conditionString = replaceOperators(conditionArgs);
+    public CommandCondition(ConditionNode conditionTree){
+        this.conditionTree = conditionTree;
     }
 
     /**
-     * Replaces all operators with unique symbols for easier parsing.
-     * @param conditionString String of conditions to be parsed.
-     * @return Returns condition string with single character operators.
-     * @throws DBException Thrown if erroneous operators are found during replacement.
+     * Returns the parsed conditions.
+     * @return Root node of the conditions.
      */
-    private String replaceOperators(String conditionString) throws DBException {
-        //Check & doesn't exist; replace AND with &
-        findPhrase(conditionString, "(?<=\\))\\s*&\\s*(?=\\()");
-        findPhrase(conditionString, "(?<=\\w)\\s*&\\s*(?=(\\w+|\\'\\w+))");
-        conditionString = replacePhrase(conditionString, "(?<=\\))\\s*and\\s*(?=\\()", "&");
-
-        //Check + doesn't exist; replace OR with +
-        findPhrase(conditionString, "(?<=\\))\\s*\\+\\s*(?=\\()");
-        findPhrase(conditionString, "(?<=\\w)\\s*\\+\\s*(?=(\\w+|\\'\\w+))");
-        conditionString = replacePhrase(conditionString, "(?<=\\))\\s*or\\s*(?=\\()", "+");
-
-        //Check ~ doesn't exist; replace LIKE with ~
-        findPhrase(conditionString, "(?<=\\w)\\s*~\\s*(?=(\\w+|\\'\\w+))");
-        conditionString = replacePhrase(conditionString, "(?<=\\w)\\s+like\\s+(?=(\\w+|\\'\\w+))", "~");
-
-        //Check = doesn't exist; replace == with =
-        findPhrase(conditionString, "(?<=\\w)\\s*\\=\\s*(?=(\\w+|\\'\\w+))");
-        conditionString = replacePhrase(conditionString, "\\s*\\=\\=\\s*(?=(\\w+|\\'\\w+))", "=");
-
-        //Check ! doesn't exist; replace != with !
-        findPhrase(conditionString, "(?<=\\w)\\s*\\!\\s*(?=(\\w+|\\'\\w+))");
-        conditionString = replacePhrase(conditionString, "\\s*\\!\\=\\s*(?=(\\w+|\\'\\w+))", "!");
-
-        //Check @ doesn't exist; replace >= with @
-        findPhrase(conditionString, "(?<=\\w)\\s*@\\s*(?=(\\w+|\\'\\w+))");
-        conditionString = replacePhrase(conditionString, "\\s*\\>\\=\\s*(?=(\\w+|\\'\\w+))", "@");
-
-        //Check £ doesn't exist; replace <= with £
-        findPhrase(conditionString, "(?<=\\w)\\s*£\\s*(?=(\\w+|\\'\\w+))");
-        conditionString = replacePhrase(conditionString, "\\s*\\<\\=\\s*(?=(\\w+|\\'\\w+))", "£");
-
-        return conditionString;
+    public ConditionNode getConditionTree(){
+        return conditionTree;
     }
 
     /**
-     * Looks for the existence of a pattern in a phrase.
-     * @param phrase Phrase to search
-     * @param regex Pattern to match on.
-     * @throws DBException Thrown if the pattern is found within the phrase.
+     * Returns the number of rows the conditions were evaluated for when last executed. Rows
+     * skipped by an index are not counted.
+     * @return Number of rows evaluated.
      */
-    private void findPhrase(String phrase, String regex) throws DBException {
-        Pattern replacePattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
-        Matcher m = replacePattern.matcher(phrase);
-        if (m.find()){
-            throw new DBConditionFormException("Invalid operator used for conditions.");
-        }
+    public int getRowsEvaluated(){
+        return rowsEvaluated;
     }
 
     /**
-     * Replaces a portion of a phrase based on a matching regex pattern.
-     * @param phrase String to replace part of.
-     * @param regex Regex pattern to use for replacement.
-     * @param replacement Value to replace matches in phrase.
-     * @return Returns updated phrase.
+     * Returns the number of evaluated rows the conditions removed when last executed.
+     * @return Number of rows filtered out.
      */
-    private String replacePhrase(String phrase, String regex, String replacement){
-        Pattern replacePattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
-        Matcher m = replacePattern.matcher(phrase);
-        if (!m.find()){
-            return phrase;
-        }
-        phrase = m.replaceAll(replacement);
-        return phrase;
+    public int getRowsFiltered(){
+        return rowsEvaluated - rowsMatched;
     }
 
     /**
-     * Converts the condition string to stack.
-     * @return True if the stack was created.
-     * @throws DBException Thrown if no conditions were present in the condition string.
+     * Conditions are parsed with their statement, so there is nothing left to process.
+     * @return True as the conditions are never empty.
      */
     @Override
-    public boolean processList() throws DBException {
-        convertStringToList();
-        if (postFixConditions.isEmpty()){
-            throw new InvalidCommandArgumentException("Conditions were empty.");
-        }
+    public boolean processList(){
         return true;
     }
 
     /**
-     * Converts condition string to a stack of attribute names, values, and operators.
-     * @throws DBException Thrown if conditions are incorrectly formatted.
+     * Not used for CommandConditions. The conditions are already a tree.
      */
     @Override
-    protected void convertStringToList() throws DBException {
-        postFixConditions = stackifyCondition(conditionString);
-        postFixConditions = invertStack(postFixConditions);
-    }
+    protected void convertStringToList(){}
 
     /**
-     * Turns a condition string into a stack of conditions in reverse Polish notation (RPN).
-     * The string is broken down into operators and words based on parentheses and certain symbols.
-     * @param conditionString Condition string from command.
-     * @return Returns a stack of conditions in RPN format.
-     * @throws DBException Thrown if conditions are incorrectly formatted.
+     * Finds the names of attributes compared by the conditions. The left value of every
+     * comparison is an attribute name.
+     * @return Returns the attribute names in the order they are used.
      */
-    private Stack<String> stackifyCondition(String conditionString) throws DBException{
-        Stack<String> parenStack = new Stack<>();
-        Stack<String> finalStack = new Stack<>();
-        Stack<String> operatorStack = new Stack<>();
+    public ArrayList<String> getConditionAttributes(){
+        ArrayList<String> attributeNames = new ArrayList<>();
+        addConditionAttributes(conditionTree, attributeNames);
+        return attributeNames;
+    }
 
-        for (int i = 0; i < conditionString.length(); i++){
-            char c = conditionString.charAt(i);
-            if (c == '('){
-                parenStack.push(String.valueOf(c));
-            }
-            if (c == ')'){
-                checkCanPop(operatorStack);
-                finalStack.push(operatorStack.pop());
-                checkCanPop(parenStack);
-                parenStack.pop();
-            }
-            if (isOperator(c) || isBoolean(c)){
-                operatorStack.push(String.valueOf(c));
-            }
-            if (Character.isLetterOrDigit(c)){
-                int nameEnd = findName(conditionString, i);
-                finalStack.push(conditionString.substring(i, nameEnd));
-                i = nameEnd - 1;
-            }
-            if (c == '\''){
-                int stringEnd = findStringLiteral(conditionString, i);
-                finalStack.push(conditionString.substring(i, stringEnd));
-                i = stringEnd - 1;
-            }
-        }
-        while (!operatorStack.isEmpty()){
-            finalStack.push(operatorStack.pop());
+    /**
+     * Adds the attributes compared within a node, from left to right.
+     * @param conditionNode Node to search.
+     * @param attributeNames List to add the attribute names to.
+     */
+    private void addConditionAttributes(ConditionNode conditionNode, ArrayList<String> attributeNames){
+        if (conditionNode.isComparison()){
+            attributeNames.add(conditionNode.getAttributeName());
+            return;
         }
-        confirmStackEmpty(parenStack);
-        return finalStack;
+        addConditionAttributes(conditionNode.getLeftNode(), attributeNames);
+        addConditionAttributes(conditionNode.getRightNode(), attributeNames);
     }
 
     /**
-     * Determines if a stack is empty.
-     * @param stackToCheck Stack to evaluate
-     * @throws DBException Thrown if the stack is not empty.
+     * Executes the conditions for all rows in a table. Rows are found with an index
+     * when the conditions allow it.
+     * @param tableToFilter DBTable on which to perform conditions.
+     * @throws DBException Thrown if conditions are incorrectly formed.
      */
-    private void confirmStackEmpty(Stack<String> stackToCheck) throws DBException {
-        if (!stackToCheck.isEmpty()){
-            throw new DBConditionFormException("Command was not of the correct form.");
+    public void executeConditions(DBTable tableToFilter) throws DBException{
+        this.tableToFilter = tableToFilter;
+        rowsEvaluated = 0;
+        rowsMatched = 0;
+        tableToFilter.loadAttributeFile();
+        compiledConditions = compileConditions();
+        if (executeIndexedConditions()){
+            return;
         }
+        ArrayList<TableRow> keptRows = new ArrayList<>();
+        for (int i = 0; i < tableToFilter.getNumRows(); i++){
+            keepIfMatched(keptRows, i);
+        }
+        tableToFilter.setTableRows(keptRows);
     }
 
     /**
-     * Determines the end index of a name in a command's condition.
-     * @param conditionString String to evaluate.
-     * @param startIndex Start index of the name.
-     * @return Returns the end index of the name.
+     * Describes how the conditions would find rows of a table, for EXPLAIN. The conditions are
+     * compiled and any index is searched as they would be when executed, but no row is evaluated.
+     * @param tableToFilter DBTable the conditions would be executed on.
+     * @return Returns the index used and the rows it finds, or that every row is scanned.
+     * @throws DBException Thrown if conditions are incorrectly formed.
      */
-    private int findName(String conditionString, int startIndex){
-        int i = startIndex;
-        while (i < conditionString.length()){
-            char c = conditionString.charAt(i);
-            if (isNameEnd(c)){
-                return i;
-            }
-            i++;
+    public String explainAccess(DBTable tableToFilter) throws DBException {
+        this.tableToFilter = tableToFilter;
+        tableToFilter.loadAttributeFile();
+        compiledConditions = compileConditions();
+        if (!findIndexedAccess()){
+            return "full scan of " + tableToFilter.getNumRows() + " rows";
+        }
+        String comparisonString = printComparison(indexedComparison[0], indexedComparison[2].charAt(0),
+                indexedComparison[1]);
+        if (indexedComparison[2].equals("!")){
+            return "index on " + indexedComparison[0] + " skips up to " + indexedPositions.size() + " of "
+                    + tableToFilter.getNumRows() + " rows for " + comparisonString;
         }
-        return i;
+        return "index on " + indexedComparison[0] + " finds " + indexedPositions.size() + " of "
+                + tableToFilter.getNumRows() + " rows for " + comparisonString;
     }
 
     /**
-     * Determines if a character is a parenthesis.
-     * @param charToCheck Character to evaluate
-     * @return Returns true if charToCheck is '(' or ')'
+     * Prints the conditions in the order they are evaluated. The right side of AND or OR is only
+     * evaluated when the left side does not already decide the result.
+     * @return The printed conditions.
      */
-    private boolean isParentheses(char charToCheck){
-        return charToCheck == '(' || charToCheck == ')';
+    public String printConditions(){
+        return printNode(conditionTree);
     }
 
     /**
-     * Determines if the character marks the end of a name in a condition.
-     * @param charToCheck Character to evaluate
-     * @return Returns true if the character is an operator, whitespace, or a parenthesis
+     * Prints a node of the conditions and the nodes below it.
+     * @param conditionNode Node to print.
+     * @return The printed node.
      */
-    private boolean isNameEnd(char charToCheck){
-        return isBoolean(charToCheck) || isOperator(charToCheck) ||
-                Character.isWhitespace(charToCheck) || isParentheses(charToCheck);
+    private String printNode(ConditionNode conditionNode){
+        if (conditionNode.isComparison()){
+            return "(" + printComparison(conditionNode.getAttributeName(), conditionNode.getOperator(),
+                    conditionNode.getCompareValue()) + ")";
+        }
+        String leftString = printNode(conditionNode.getLeftNode());
+        String rightString = printNode(conditionNode.getRightNode());
+        if (!conditionNode.getLeftNode().isComparison()){
+            leftString = "(" + leftString + ")";
+        }
+        if (!conditionNode.getRightNode().isComparison()){
+            rightString = "(" + rightString + ")";
+        }
+        return leftString + (conditionNode.getOperator() == '&' ? " AND " : " OR ") + rightString;
     }
 
     /**
-     * Finds the end index of a string literal in a condition.
-     * @param conditionString String of conditions to search.
-     * @param startIndex Start index of string literal.
-     * @return End index of string literal.
+     * Prints a comparison as it is written in a statement.
+     * @param attributeName Name of the compared attribute.
+     * @param operator Operator in its single character form.
+     * @param compareValue Compared value.
+     * @return The printed comparison.
      */
-    private int findStringLiteral(String conditionString, int startIndex){
-        int endIndex = startIndex;
-        boolean stringEnd = false;
-        int i = startIndex + 1;
-
-        while (i < conditionString.length() && !stringEnd){
-            char c = conditionString.charAt(i);
-            if (c == '\''){
-                endIndex = i;
-                stringEnd = true;
-            }
-            i++;
+    private static String printComparison(String attributeName, char operator, String compareValue){
+        String operatorString;
+        switch (operator){
+            case '=':
+                operatorString = "==";
+                break;
+            case '!':
+                operatorString = "!=";
+                break;
+            case '£':
+                operatorString = "<=";
+                break;
+            case '@':
+                operatorString = ">=";
+                break;
+            case '~':
+                operatorString = "LIKE";
+                break;
+            default:
+                operatorString = String.valueOf(operator);
         }
-        return endIndex + 1;
+        return attributeName + " " + operatorString + " " + compareValue;
     }
 
     /**
-     * Rebuilds stack so it is in the correct order for operations.
-     * @param oldStack Reversed stack.
-     * @return Returns stack in reverse order.
+     * Executes the conditions using an index on a compared attribute. Only conditions without
+     * OR are used, as every comparison must then hold for a row to be kept. Rows found by the
+     * index are still evaluated against the whole condition.
+     * @return Returns true if an index was used, false if every row must be evaluated.
+     * @throws DBException Thrown if conditions are incorrectly formed.
      */
-    private Stack<String> invertStack(Stack<String> oldStack){
-        Stack<String> invertedStack = new Stack<>();
-        while (!oldStack.isEmpty()){
-            invertedStack.push(oldStack.pop());
+    private boolean executeIndexedConditions() throws DBException {
+        if (!findIndexedAccess()){
+            return false;
         }
-        return invertedStack;
+        ArrayList<TableRow> keptRows = indexedComparison[2].equals("!")
+                ? keepUnindexedRows(indexedComparison, indexedPositions) : keepIndexedRows(indexedPositions);
+        tableToFilter.setTableRows(keptRows);
+        return true;
     }
 
     /**
-     * Executes the conditions for all rows in a table.
-     * @param tableToFilter DBTable on which to perform conditions.
+     * Finds the first comparison whose rows can be found with an index, and the rows it finds.
+     * A != comparison finds the rows holding its value, which are then skipped.
+     * @return Returns true if an index can be used, false if every row must be evaluated.
      * @throws DBException Thrown if conditions are incorrectly formed.
      */
-    public void executeConditions(DBTable tableToFilter) throws DBException{
-        this.tableToFilter = tableToFilter;
-        tableToFilter.loadAttributeFile();
-        for (int i = 0; i < tableToFilter.getNumRows() ; i++) {
-            @SuppressWarnings("unchecked")
-            Stack<String> evaluation = (Stack<String>) postFixConditions.clone();
-            if (!evaluateConditions(evaluation, i)) {
-                tableToFilter.removeTableRow(i);
-                i--;
+    private boolean findIndexedAccess() throws DBException {
+        for (String[] comparison : findIndexableComparisons()){
+            comparison[1] = findStoredValue(comparison[0], comparison[1]);
+            boolean notEquals = comparison[2].equals("!");
+            ArrayList<Integer> comparisonPositions = tableToFilter.findIndexedRows(comparison[0],
+                    notEquals ? "=" : comparison[2], comparison[1]);
+            if (comparisonPositions != null){
+                indexedComparison = comparison;
+                indexedPositions = comparisonPositions;
+                return true;
             }
         }
+        return false;
     }
 
     /**
-     * Evaluates the expressions in the command's conditions.
-     * @param conditions Reverse Polish notation stack of values and operators.
-     * @param rowNumber Table row index to evaluate
-     * @return Returns true if the condition passed, false otherwise.
-     * @throws DBException Thrown if the stack is incorrectly formed.
+     * Prints a compared value as rows hold it, so that it can be found in an index. Values of
+     * INT, FLOAT and BOOL attributes are printed in a single form, such as 1.5 for 1.50.
+     * @param attributeName Name of the compared attribute.
+     * @param compareValue Value from the condition.
+     * @return The value as it would be stored, or the value unchanged if it is not of the attribute's type.
+     * @throws DBException Thrown if the attribute does not exist.
      */
-    private boolean evaluateConditions(Stack<String> conditions, int rowNumber) throws DBException {
-        Stack<String> valueStack = new Stack<>();
-        String value1, value2, operator;
-        while(!conditions.isEmpty()){
-            if (isSymbol(conditions.peek())){
-                operator = conditions.pop();
-                checkCanPop(valueStack);
-                value1 = valueStack.pop();
-                checkCanPop(valueStack);
-                value2 = valueStack.pop();
-
-                //values reversed after popping off stack
-                DBExpression expression = new DBExpression(value2, value1, operator);
-                valueStack.push(expression.performOperation(tableToFilter, rowNumber));
-            }
-            else{
-                valueStack.push(conditions.pop());
-            }
+    private String findStoredValue(String attributeName, String compareValue) throws DBException {
+        AttributeType attributeType = tableToFilter.getAttributeType(tableToFilter.getAttributeIndex(attributeName));
+        if (attributeType.isPrimitive() && attributeType.acceptsValue(compareValue)){
+            return attributeType.formatValue(attributeType.encodeValue(compareValue));
         }
-        return getConditionResult(valueStack);
+        return compareValue;
     }
 
     /**
-     * Determines if a stack is empty.
-     * @param valueStack Stack to evaluate.
-     * @throws DBException Thrown if the stack is empty.
+     * Evaluates the conditions for rows found by an index.
+     * @param indexedPositions Positions of rows found by the index, in increasing order.
+     * @return Rows that passed the conditions.
+     * @throws DBException Thrown if conditions are incorrectly formed.
      */
-    private void checkCanPop(Stack<String> valueStack) throws DBException {
-        if (valueStack.isEmpty()){
-            throw new DBConditionFormException("Conditions were not of the correct form.");
+    private ArrayList<TableRow> keepIndexedRows(ArrayList<Integer> indexedPositions) throws DBException {
+        ArrayList<TableRow> keptRows = new ArrayList<>();
+        for (int rowPosition : indexedPositions){
+            keepIfMatched(keptRows, rowPosition);
         }
+        return keptRows;
     }
 
     /**
-     * Evaluates whether the condition result was true or false.
-     * @param resultStack Resulting stack from condition evaluation.
-     * @return Returns true if condition was true for row, else false.
-     * @throws DBException Thrown if the final result was neither "1" nor "0".
+     * Evaluates the conditions for rows that do not hold the value of a != comparison. Rows
+     * found by an index for the value are skipped if they still hold it.
+     * @param comparison Attribute name, value and operator of the comparison.
+     * @param indexedPositions Positions of rows found by the index for the value.
+     * @return Rows that passed the conditions.
+     * @throws DBException Thrown if conditions are incorrectly formed.
      */
-    private boolean getConditionResult(Stack<String> resultStack) throws DBException {
-        String finalValue = popFinalResult(resultStack);
-        if (finalValue.equals("1")){
-            return true;
-        }
-        if (finalValue.equals("0")){
-            return false;
+    private ArrayList<TableRow> keepUnindexedRows(String[] comparison, ArrayList<Integer> indexedPositions)
+            throws DBException {
+        int attributeIndex = tableToFilter.getAttributeIndex(comparison[0]);
+        HashSet<Integer> equalPositions = new HashSet<>();
+        for (int rowPosition : indexedPositions){
+            if (comparison[1].equals(tableToFilter.getTableRow(rowPosition).getValue(attributeIndex))){
+                equalPositions.add(rowPosition);
+            }
         }
-        else{
-            throw new DBConditionFormException("Conditions were not of the correct form.");
+        ArrayList<TableRow> keptRows = new ArrayList<>();
+        for (int i = 0; i < tableToFilter.getNumRows(); i++){
+            if (!equalPositions.contains(i)){
+                keepIfMatched(keptRows, i);
+            }
         }
+        return keptRows;
     }
 
     /**
-     * Gets the final result from a condition.
-     * @param resultStack Final condition stack.
-     * @return Returns the top value from the stack.
-     * @throws DBException Thrown if the result stack has more than one value or if it is empty.
+     * Evaluates the conditions for a row and adds it to a list if they pass.
+     * @param keptRows Rows that passed the conditions.
+     * @param rowNumber Table row index to evaluate.
+     * @throws DBException Thrown if conditions are incorrectly formed.
      */
-    private String popFinalResult(Stack<String> resultStack) throws DBException {
-        if (resultStack.isEmpty()){
-            throw new DBConditionFormException("Conditions were not of the correct form.");
+    private void keepIfMatched(ArrayList<TableRow> keptRows, int rowNumber) throws DBException {
+        TableRow rowToEvaluate = tableToFilter.getTableRow(rowNumber);
+        rowsEvaluated++;
+        if (compiledConditions.matches(rowToEvaluate)){
+            rowsMatched++;
+            keptRows.add(rowToEvaluate);
         }
-        String finalValue = resultStack.pop();
-        if (!resultStack.isEmpty()){
-            throw new DBConditionFormException("Conditions were not of the correct form.");
+    }
+
+    /**
+     * Finds the comparisons that an index could be used for. Equality comparisons are listed
+     * first, followed by range comparisons and then inequality comparisons.
+     * @return Returns the attribute name, compared value and operator of each comparison, or
+     * an empty list if the conditions contain OR.
+     */
+    private ArrayList<String[]> findIndexableComparisons(){
+        ArrayList<String[]> equalComparisons = new ArrayList<>();
+        ArrayList<String[]> rangeComparisons = new ArrayList<>();
+        ArrayList<String[]> notEqualComparisons = new ArrayList<>();
+        if (!addIndexableComparisons(conditionTree, equalComparisons, rangeComparisons, notEqualComparisons)){
+            return new ArrayList<>();
         }
-        return finalValue;
+        equalComparisons.addAll(rangeComparisons);
+        equalComparisons.addAll(notEqualComparisons);
+        return equalComparisons;
     }
 
     /**
-     * Determines is part of a string is a recognized symbol.
-     * @param piece Substring to check.
-     * @return Returns true if substring is a recognized symbol.
+     * Adds the comparisons within a node to the list for their operator. LIKE comparisons
+     * cannot use an index and are skipped.
+     * @param conditionNode Node to search.
+     * @param equalComparisons Comparisons using ==.
+     * @param rangeComparisons Comparisons using <, >, <= or >=.
+     * @param notEqualComparisons Comparisons using !=.
+     * @return Returns false if the node contains OR.
      */
-    private boolean isSymbol(String piece){
-        switch (piece){
-            case "&":
-            case "+":
-            case "~":
+    private boolean addIndexableComparisons(ConditionNode conditionNode, ArrayList<String[]> equalComparisons,
+                                            ArrayList<String[]> rangeComparisons,
+                                            ArrayList<String[]> notEqualComparisons){
+        if (!conditionNode.isComparison()){
+            return conditionNode.getOperator() == '&'
+                    && addIndexableComparisons(conditionNode.getLeftNode(), equalComparisons,
+                            rangeComparisons, notEqualComparisons)
+                    && addIndexableComparisons(conditionNode.getRightNode(), equalComparisons,
+                            rangeComparisons, notEqualComparisons);
+        }
+        String operator = String.valueOf(conditionNode.getOperator());
+        String[] comparison = new String[]{conditionNode.getAttributeName(), conditionNode.getCompareValue(), operator};
+        switch (operator){
             case "=":
+                equalComparisons.add(comparison);
+                break;
             case "!":
+                notEqualComparisons.add(comparison);
+                break;
             case "<":
             case ">":
             case "£":
             case "@":
-                return true;
-            default:
-                return false;
-        }
-    }
-
-    /**
-     * Determines if a symbol is a recognized operator.
-     * @param symbol Character to check
-     * @return Returns true if the symbol is an operator.
-     */
-    private boolean isOperator(char symbol){
-        switch(symbol){
-            case '>':
-            case '<':
-            case '=':
-            case '!':
-            case '~':
-            case '@':
-            case '£':
-                return true;
-            default:
-                return false;
+                rangeComparisons.add(comparison);
+                break;
         }
+        return true;
     }
 
     /**
-     * Determines whether an operator is boolean.
-     * @param symbol Symbol to check
-     * @return Returns true if symbol is & or +
+     * Compiles the conditions into predicates for the filtered table. Attribute names are
+     * resolved to indexes and compared values are checked once, rather than for every row.
+     * @return Returns the predicate for the whole condition.
+     * @throws DBException Thrown if the conditions use unknown attributes or invalid values.
      */
-    private boolean isBoolean(char symbol){
-        return symbol == '&' || symbol == '+';
+    private ConditionPredicate compileConditions() throws DBException {
+        return compileNode(conditionTree);
     }
 
     /**
-     * Not used for CommandConditions. The condition is turned into a stack instead.
-     * @param argString List string from the initial command.
-     * @return Empty String array
+     * Compiles a node of the conditions and the nodes below it.
+     * @param conditionNode Node to compile.
+     * @return The compiled predicate.
+     * @throws DBException Thrown if a comparison uses an unknown attribute or invalid value.
      */
-    @Override
-    protected String[] splitValues(String argString) {
-        return new String[0];
+    private ConditionPredicate compileNode(ConditionNode conditionNode) throws DBException {
+        if (conditionNode.isComparison()){
+            return compileComparison(conditionNode);
+        }
+        return new BooleanExpression(compileNode(conditionNode.getLeftNode()),
+                compileNode(conditionNode.getRightNode()), conditionNode.getOperator() == '&');
     }
 
     /**
-     * Not used for CommandConditions as whitespace is ignored instead.
+     * Compiles a comparison between an attribute and a value.
+     * INT and FLOAT attributes compared with numbers are compiled to numeric expressions.
+     * @param comparisonNode Comparison to compile.
+     * @return The compiled expression.
+     * @throws DBException Thrown if the attribute or value is invalid.
      */
-    @Override
-    protected String removeWhiteSpace(String valueString) {
-        return valueString;
+    private ConditionPredicate compileComparison(ConditionNode comparisonNode) throws DBException {
+        String attributeName = comparisonNode.getAttributeName();
+        String compareValue = comparisonNode.getCompareValue();
+        char operator = comparisonNode.getOperator();
+        checkAttributeValid(attributeName);
+        checkValueValid(compareValue);
+        int attributeIndex = tableToFilter.getAttributeIndex(attributeName);
+        AttributeType attributeType = tableToFilter.getAttributeType(attributeIndex);
+        boolean numericAttribute = attributeType == AttributeType.INT || attributeType == AttributeType.FLOAT;
+        if (numericAttribute && operator != '~' && AttributeType.FLOAT.acceptsValue(compareValue)){
+            return new NumericExpression(attributeIndex, operator, Double.parseDouble(compareValue));
+        }
+        switch (operator){
+            case '~':
+                if (!isStringLiteral(compareValue)){
+                    throw new InvalidCommandArgumentException("LIKE operator requires string literals");
+                }
+                return new DBExpression(attributeIndex, '~', removeWrappingChars(compareValue), 0);
+            case '<':
+            case '>':
+            case '£':
+            case '@':
+                float compareNumber = DBExpression.convertValueToFloat(compareValue);
+                return new DBExpression(attributeIndex, operator, compareValue, compareNumber);
+            default:
+                return new DBExpression(attributeIndex, operator, compareValue, 0);
+        }
     }
 
     /**
      * Testing for CommandCondition.
      */
     public static void test(){
-        try {
-            CommandCondition test1 = new CommandCondition("test");
-            String replace1 = test1.replaceOperators("((A==x) aNd (B>=c)) or (C != d)");
-            assert replace1.equals("((A=x)&(B@c))+(C!d)");
-        }
-        catch (DBException dbe){
-            System.out.println("Error in testing CommandCondition.");
-        }
+        ConditionNode testTree = new ConditionNode(
+                new ConditionNode(new ConditionNode("A", '=', "x"), new ConditionNode("B", '@', "c"), true),
+                new ConditionNode("C", '!', "d"), false);
+        CommandCondition test1 = new CommandCondition(testTree);
+        assert testTree.toString().equals("((A=x)&(B@c))+(C!d)");
+        assert String.join(",", test1.getConditionAttributes()).equals("A,B,C");
+        assert test1.findIndexableComparisons().isEmpty();
+        CommandCondition test2 = new CommandCondition(testTree.getLeftNode());
+        ArrayList<String[]> comparisons = test2.findIndexableComparisons();
+        assert comparisons.size() == 2 && comparisons.get(0)[0].equals("A") && comparisons.get(1)[2].equals("@");
+        assert test1.printConditions().equals("((A == x) AND (B >= c)) OR (C != d)");
         System.out.println("CommandCondition passed.");
     }
 }
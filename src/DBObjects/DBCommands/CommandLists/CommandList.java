@@ -4,7 +4,8 @@ import DBException.*;
 import DBObjects.DBObject;
 
 /**
- * CommandList contains basic methods for core functionality of list processing.
+ * CommandList contains basic methods for core functionality of list processing. Lists are
+ * given the names and values the statement's parser found, and check and convert them.
  * This class also contains abstract methods for required class functions.
  */
 public abstract class CommandList extends DBObject {
@@ -23,60 +24,6 @@ public abstract class CommandList extends DBObject {
         return argumentList.length == 0;
     }
 
-    /**
-     * Recombines a tokenized list.
-     * @param stringAry Tokenized list
-     * @return String version of tokenized list with all characters preserved.
-     */
-    protected String stringifyArray(String[] stringAry){
-        return String.join("", stringAry);
-    }
-
-    /**
-     * Evaluates a parenthetical string and removes its parentheses.
-     * @param argumentStr String to check
-     * @return Argument string with no outer parentheses.
-     * @throws DBException Thrown if the string isn't wrapped in parentheses or is zero length.
-     */
-    protected String stripParentheses(String argumentStr) throws DBException {
-        checkArgumentLength(argumentStr);
-        checkParens(argumentStr);
-        argumentStr = removeWrappingChars(argumentStr);
-        return argumentStr;
-    }
-
-    /**
-     * Determines if the argument is empty.
-     * @param argument String to check
-     * @throws DBException Thrown if argument is of zero length.
-     */
-    protected void checkArgumentLength(String argument) throws DBException {
-        if (argument.length() == 0){
-            throw new InvalidCommandArgumentException("There was an empty attribute somehow.");
-        }
-    }
-
-    /**
-     * Evaluates whether an argument is correctly wrapped in parentheses.
-     * @param argument String to check
-     * @throws DBException Thrown if argument is not wrapped in parentheses.
-     */
-    protected void checkParens(String argument) throws DBException {
-        if (wrappedInParens(argument)){
-            throw new InvalidCommandArgumentException("List did not end and begin with parentheses.");
-        }
-    }
-
-    /**
-     * Determines if a string is began and ended with parentheses.
-     * @param argument String to check
-     * @return Returns true if the first character is '(' and the final
-     * character is ')'
-     */
-    protected boolean wrappedInParens(String argument){
-        return argument.charAt(0) != '(' || argument.charAt(argument.length() - 1) != ')';
-    }
-
     /**
      * Removes wrapping characters from a string, such as parentheses or quotes.
      * @param value String to alter.
@@ -86,13 +33,6 @@ public abstract class CommandList extends DBObject {
         return value.substring(1, value.length() - 1);
     }
 
-    /**
-     * Removes whitespace from list so it can be delimited cleanly.
-     * @param listString List of values to affect.
-     * @return Returns the list without whitespace.
-     */
-    protected abstract String removeWhiteSpace(String listString);
-
     /**
      * Determines if a value is valid. It must be either a string, boolean,
      * float, or integer.
@@ -217,27 +157,19 @@ public abstract class CommandList extends DBObject {
     }
 
     /**
-     * Parses the list string and initialises appropriate classes for commands to act
-     * on the specific list.
+     * Checks the list's names and values and initialises appropriate classes for commands
+     * to act on the specific list.
      * @return Returns true if no errors were encountered when processing.
      * @throws DBException Thrown if the list is incorrectly formatted.
      */
     public abstract boolean processList() throws DBException;
 
     /**
-     * Converts the string list into a list.
+     * Converts the names and values of the list into objects used by commands.
      * @throws DBException Thrown if conversion fails.
      */
     protected abstract void convertStringToList() throws DBException;
 
-    /**
-     * Splits the list into individual values. This is required for all lists.
-     * @param argString List string from the initial command.
-     * @return Returns an array of strings where each element is a value in the list.
-     * @throws DBException Thrown if the list is incorrectly formatted.
-     */
-    protected abstract String[] splitValues(String argString) throws DBException;
-
     /**
      * Determines if the attributeName is valid.
      * @param attributeName String to check
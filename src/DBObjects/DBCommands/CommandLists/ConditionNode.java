@@ -0,0 +1,104 @@
+package DBObjects.DBCommands.CommandLists;
+
+/**
+ * ConditionNode is part of the parsed conditions of a command. A node is either a comparison
+ * between an attribute and a value, or an AND or OR of two nodes. Operators are held as single
+ * characters: = for ==, ! for !=, £ for <=, @ for >= and ~ for LIKE.
+ */
+public class ConditionNode {
+
+    private final String attributeName;
+    private final char operator;
+    private final String compareValue;
+    private final ConditionNode leftNode;
+    private final ConditionNode rightNode;
+
+    /**
+     * Constructor for a comparison.
+     * @param attributeName Name of the compared attribute.
+     * @param operator Single character comparison operator.
+     * @param compareValue Value compared with the attribute, as written in the command.
+     */
+    public ConditionNode(String attributeName, char operator, String compareValue){
+        this.attributeName = attributeName;
+        this.operator = operator;
+        this.compareValue = compareValue;
+        leftNode = null;
+        rightNode = null;
+    }
+
+    /**
+     * Constructor for an AND or OR of two nodes.
+     * @param leftNode Node to the left of the operator.
+     * @param rightNode Node to the right of the operator.
+     * @param isAnd True for AND, false for OR.
+     */
+    public ConditionNode(ConditionNode leftNode, ConditionNode rightNode, boolean isAnd){
+        this.leftNode = leftNode;
+        this.rightNode = rightNode;
+        operator = isAnd ? '&' : '+';
+        attributeName = null;
+        compareValue = null;
+    }
+
+    /**
+     * Determines if the node is a comparison rather than an AND or OR.
+     * @return Returns true for comparisons.
+     */
+    public boolean isComparison(){
+        return leftNode == null;
+    }
+
+    /**
+     * Returns the operator of the node. AND is held as & and OR as +.
+     * @return Single character operator.
+     */
+    public char getOperator(){
+        return operator;
+    }
+
+    /**
+     * Returns the compared attribute of a comparison.
+     * @return Attribute name, or null for AND and OR.
+     */
+    public String getAttributeName(){
+        return attributeName;
+    }
+
+    /**
+     * Returns the compared value of a comparison.
+     * @return Value as written in the command, or null for AND and OR.
+     */
+    public String getCompareValue(){
+        return compareValue;
+    }
+
+    /**
+     * Returns the node to the left of an AND or OR.
+     * @return Left node, or null for comparisons.
+     */
+    public ConditionNode getLeftNode(){
+        return leftNode;
+    }
+
+    /**
+     * Returns the node to the right of an AND or OR.
+     * @return Right node, or null for comparisons.
+     */
+    public ConditionNode getRightNode(){
+        return rightNode;
+    }
+
+    /**
+     * Prints the node with single character operators, wrapping both sides of AND and OR
+     * in parentheses.
+     * @return The node as a string, such as ((A=x)&(B@c))+(C!d).
+     */
+    @Override
+    public String toString(){
+        if (isComparison()){
+            return attributeName + operator + compareValue;
+        }
+        return "(" + leftNode + ")" + operator + "(" + rightNode + ")";
+    }
+}
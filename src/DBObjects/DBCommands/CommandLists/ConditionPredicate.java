@@ -0,0 +1,20 @@
+package DBObjects.DBCommands.CommandLists;
+
+import DBException.*;
+import DBObjects.TableRow;
+
+/**
+ * ConditionPredicate is a compiled part of a command's conditions. Conditions are compiled
+ * once for the table they filter, with attribute names resolved to indexes and values parsed,
+ * so evaluating a row does not need to parse the condition again.
+ */
+public interface ConditionPredicate {
+
+    /**
+     * Determines if a row meets the predicate.
+     * @param rowToEvaluate Row of the filtered table.
+     * @return Returns true if the row meets the predicate, false otherwise.
+     * @throws DBException Thrown if the predicate cannot be evaluated for the row.
+     */
+    boolean matches(TableRow rowToEvaluate) throws DBException;
+}
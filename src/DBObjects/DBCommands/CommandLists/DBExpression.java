@@ -7,288 +7,113 @@ import DBObjects.*;
  * DBExpression handles comparing a table row against an expression from a condition. A condition
  * can be made up of many expressions, and each one is compared against the row. The final value of
  * the chained expressions determines whether the row will be filtered from the DBTable object.
+ * Expressions are compiled for a table, so the attribute is held as an index and the compared
+ * value is prepared for its operator.
  */
-public class DBExpression extends CommandCondition {
+public class DBExpression implements ConditionPredicate {
 
-    private final String operator;
-    private final String value1;
-    private final String value2;
-    private DBTable referenceTable;
-    private TableRow rowToEvaluate;
+    private final int attributeIndex;
+    private final char operator;
+    private final String compareValue;
+    private final float compareNumber;
 
     /**
      * Constructor for a DBExpression.
-     * @param value1 First value to be evaluated. Can be "1", "0", or an attribute name.
-     * @param value2 Second value to be evaluated. Can be "1", "0", or a valid value.
-     * @param operator Operator to determine how expression is evaluated.
+     * @param attributeIndex Index of the compared attribute in the table's rows.
+     * @param operator Single character comparison operator.
+     * @param compareValue Value from the condition. LIKE values must have their quotes removed.
+     * @param compareNumber Numeric value of compareValue, used by inequality operators.
      */
-    protected DBExpression(String value1, String value2, String operator){
-        this.value1 = value1;
-        this.value2 = value2;
+    protected DBExpression(int attributeIndex, char operator, String compareValue, float compareNumber){
+        this.attributeIndex = attributeIndex;
         this.operator = operator;
+        this.compareValue = compareValue;
+        this.compareNumber = compareNumber;
     }
 
     /**
-     * Performs an operation for a condition.
-     * @param tableToFilter Table from which a row will be evaluated against the expression.
-     * @param rowNumber Table row to evaluate.
-     * @return Returns "1" if the row meets the expressions requirements, "0" otherwise.
+     * Determines if a row meets the expression.
+     * @param rowToEvaluate Row of the filtered table.
+     * @return Returns true if the row meets the expression's requirements, false otherwise.
      * @throws DBException Thrown if the expression cannot be performed on the row.
      */
-    protected String performOperation(DBTable tableToFilter, int rowNumber) throws DBException{
-        this.referenceTable = tableToFilter;
-        rowToEvaluate = tableToFilter.getTableRow(rowNumber);
+    @Override
+    public boolean matches(TableRow rowToEvaluate) throws DBException {
         switch (operator){
-            case "&":
-            case "+":
-                return performBoolean(value1, value2, operator);
-            case "~":
-            case "=":
-            case "!":
-            case "<":
-            case ">":
-            case "£":
-            case "@":
-                return performComparison(value1, value2, operator);
-            default:
-                throw new InvalidCommandArgumentException("Could not perform operation.");
-        }
-    }
-
-    /**
-     * Performs a boolean operation on two string booleans. Handles AND and OR operations.
-     * @param booleanLeft Left boolean value to evaluate.
-     * @param booleanRight Right boolean value to evaluate.
-     * @param operator Boolean operator to apply.
-     * @return Returns "1" if the operation is true, "0" otherwise.
-     * @throws DBException Thrown if an invalid operator or boolean value was used.
-     */
-    private String performBoolean(String booleanLeft, String booleanRight  , String operator) throws DBException {
-        checkBooleanValues(booleanLeft);
-        checkBooleanValues(booleanRight);
-        switch (operator){
-            case "&":
-                return performAnd(booleanLeft, booleanRight);
-            case "+":
-                return performOr(booleanLeft, booleanRight);
-            default:
-                throw new InvalidCommandArgumentException("Could not perform operation.");
-        }
-    }
-
-    /**
-     * Determines if a boolean value is valid. A value is valid only if it
-     * is equal to "1" or "0".
-     * @param booleanValue String to evaluate.
-     * @throws DBException Thrown if value is neither "1" nor "0".
-     */
-    private void checkBooleanValues(String booleanValue) throws DBException {
-        if (!booleanValue.equals("1") && !booleanValue.equals("0")){
-            throw new InvalidCommandArgumentException("Could not perform operation.");
-        }
-    }
-
-    /**
-     * Determines if AND statement evaluates to true.
-     * @param booleanLeft Left boolean value from operation.
-     * @param booleanRight Right boolean value from operation.
-     * @return Returns "1" if either booleanLeft and booleanRight equals "1", "0" otherwise.
-     */
-    private String performAnd(String booleanLeft, String booleanRight){
-        if (booleanLeft.equals("1") && booleanRight.equals("1")){
-            return "1";
-        }
-        return "0";
-    }
-
-    /**
-     * Determines if OR statement evaluates to true.
-     * @param booleanLeft Left boolean value from operation.
-     * @param booleanRight Right boolean value from operation.
-     * @return Returns "1" if either booleanLeft or booleanRight equals "1", "0" otherwise.
-     */
-    private String performOr(String booleanLeft, String booleanRight){
-        if (booleanLeft.equals("1") || booleanRight.equals("1")){
-            return "1";
-        }
-        return "0";
-    }
-
-    /**
-     * Performs comparison operations for command conditions.
-     * @param attributeName Name of attribute to derive attribute value.
-     * @param compareValue Value from condition for comparison
-     * @param operator The type of comparison
-     * @return Returns "1" if the comparison is true, "0" otherwise.
-     * @throws DBException Thrown if operation cannot be performed.
-     */
-    private String performComparison(String attributeName, String compareValue, String operator) throws DBException {
-        checkAttributeValid(attributeName);
-        checkValueValid(compareValue);
-        int attributeIndex = referenceTable.getAttributeIndex(attributeName);
-        String attributeValue = rowToEvaluate.getValue(attributeIndex);
-        switch (operator){
-            case "~":
-                return performLike(attributeValue, compareValue);
-            case "=":
-                return performEquals(attributeValue, compareValue);
-            case "!":
-                return performNotEquals(attributeValue, compareValue);
-            case "<":
-                return performLessThan(attributeValue, compareValue);
-            case ">":
-                return performGreaterThan(attributeValue, compareValue);
-            case "£":
-                return performLessEquals(attributeValue, compareValue);
-            case "@":
-                return performGreaterEquals(attributeValue, compareValue);
+            case '~':
+                return performLike(rowToEvaluate.getValue(attributeIndex));
+            case '=':
+                return rowToEvaluate.valueEquals(attributeIndex, compareValue);
+            case '!':
+                return !rowToEvaluate.valueEquals(attributeIndex, compareValue);
+            case '<':
+                return convertValueToFloat(rowToEvaluate.getValue(attributeIndex)) < compareNumber;
+            case '>':
+                return convertValueToFloat(rowToEvaluate.getValue(attributeIndex)) > compareNumber;
+            case '£':
+                return convertValueToFloat(rowToEvaluate.getValue(attributeIndex)) <= compareNumber;
+            case '@':
+                return convertValueToFloat(rowToEvaluate.getValue(attributeIndex)) >= compareNumber;
             default:
                 throw new InvalidCommandArgumentException("Unrecognized operator.");
         }
     }
 
     /**
-     * Determines if an attribute value is like a value from a condition string. Like
+     * Determines if an attribute value is like the value from the condition string. Like
      * is defined as the the attribute value containing the comparison value.
      * @param attributeValue Value for the corresponding attribute found in a table.
-     * @param compareValue Value to compare from the condition string.
-     * @return Returns "1" if attributeValue contains compareValue, "0" otherwise.
-     * @throws DBException Thrown if either attributeValue or compareValue are not string literals.
+     * @return Returns true if attributeValue contains the comparison value.
+     * @throws DBException Thrown if attributeValue is not a string literal.
      */
-    private String performLike(String attributeValue, String compareValue) throws DBException {
-        checkLikeValid(attributeValue, compareValue);
-        compareValue = removeSingleQuotes(compareValue);
-        if (attributeValue.contains(compareValue)){
-            return "1";
-        }
-        return "0";
-    }
-
-    /**
-     * Determines if both string for LIKE operation are string literals. String literals are
-     * required for the LIKE operation.
-     * @param attributeValue Value for the corresponding attribute found in a table.
-     * @param compareValue Value to compare from the condition string.
-     * @throws DBException Thrown if either attributeValue or compareValue are not string literals.
-     */
-    private void checkLikeValid(String attributeValue, String compareValue) throws DBException {
-        if (!isStringLiteral(attributeValue) || !isStringLiteral(compareValue)){
+    private boolean performLike(String attributeValue) throws DBException {
+        if (!isStringLiteral(attributeValue)){
             throw new InvalidCommandArgumentException("LIKE operator requires string literals");
         }
+        return attributeValue.contains(compareValue);
     }
 
     /**
-     * Removes wrapping single quotes from a string literal.
-     * @param stringLiteral String to strip.
-     * @return Returns string without single quotes.
-     * @throws DBException Thrown if string length is less than two.
+     * Determines if a value is a string literal without splitting or copying it. It must be
+     * wrapped in single quotes, and no internal characters can be '\'' or '\t'.
+     * @param value String to check.
+     * @return Returns true if the value is a string literal.
      */
-    private String removeSingleQuotes(String stringLiteral) throws DBException {
-        if (stringLiteral.length() < 2){
-            throw new InvalidCommandArgumentException("String literal did have wrapping single quotes.");
+    private static boolean isStringLiteral(String value){
+        int lastIndex = value.length() - 1;
+        if (lastIndex < 1 || value.charAt(0) != '\'' || value.charAt(lastIndex) != '\''){
+            return false;
         }
-        return removeWrappingChars(stringLiteral);
-    }
-
-    /**
-     * Determines if an attribute value is equal to a value from a condition string.
-     * @param attributeValue Value for the corresponding attribute found in a table.
-     * @param compareValue Value to compare from the condition string.
-     * @return Returns "1" if attributeValue == compareValue, "0" otherwise.
-     */
-    private String performEquals(String attributeValue, String compareValue){
-        if (attributeValue.equals(compareValue)){
-            return "1";
-        }
-        return "0";
-    }
-
-    /**
-     * Determines if an attribute value is not equal to a value from a condition string.
-     * @param attributeValue Value for the corresponding attribute found in a table.
-     * @param compareValue Value to compare from the condition string.
-     * @return Returns "1" if attributeValue != compareValue, "0" otherwise.
-     */
-    private String performNotEquals(String attributeValue, String compareValue){
-        if (!attributeValue.equals(compareValue)){
-            return "1";
-        }
-        return "0";
-    }
-
-    /**
-     * Attempts to determine if the attribute value is less than the compare value.
-     * @param attributeValue Value for the corresponding attribute found in a table.
-     * @param compareValue Value to compare from the condition string.
-     * @return Returns "1" if attributeValue < compare value, "0" otherwise
-     * @throws DBException Thrown if either value is not a number.
-     */
-    private String performLessThan(String attributeValue, String compareValue) throws DBException {
-        Float attributeNum = convertValueToFloat(attributeValue);
-        Float compareNum = convertValueToFloat(compareValue);
-        if (attributeNum < compareNum){
-            return "1";
-        }
-        return "0";
-    }
-
-    /**
-     * Attempts to determine if the attribute value is greater than the compare value.
-     * @param attributeValue Value for the corresponding attribute found in a table.
-     * @param compareValue Value to compare from the condition string.
-     * @return Returns "1" if attributeValue > compare value, "0" otherwise
-     * @throws DBException Thrown if either value is not a number.
-     */
-    private String performGreaterThan(String attributeValue, String compareValue) throws DBException {
-        Float attributeNum = convertValueToFloat(attributeValue);
-        Float compareNum = convertValueToFloat(compareValue);
-        if (attributeNum > compareNum){
-            return "1";
-        }
-        return "0";
-    }
-
-    /**
-     * Attempts to determine if the attribute value is less than or equal to the compare value.
-     * @param attributeValue Value for the corresponding attribute found in a table.
-     * @param compareValue Value to compare from the condition string.
-     * @return Returns "1" if attributeValue <= compare value, "0" otherwise
-     * @throws DBException Thrown if either value is not a number.
-     */
-    private String performLessEquals(String attributeValue, String compareValue) throws DBException {
-        Float attributeNum = convertValueToFloat(attributeValue);
-        Float compareNum = convertValueToFloat(compareValue);
-        if (attributeNum <= compareNum){
-            return "1";
+        for (int i = 1; i < lastIndex; i++){
+            char c = value.charAt(i);
+            if (c == '\'' || c == '\t'){
+                return false;
+            }
         }
-        return "0";
+        return true;
     }
 
     /**
-     * Attempts to determine if the attribute value is greater than or equal to the compare value.
-     * @param attributeValue Value for the corresponding attribute found in a table.
-     * @param compareValue Value to compare from the condition string.
-     * @return Returns "1" if attributeValue >= compare value, "0" otherwise.
-     * @throws DBException Thrown if either value is not a number.
-     */
-    private String performGreaterEquals(String attributeValue, String compareValue) throws DBException {
-        Float attributeNum = convertValueToFloat(attributeValue);
-        Float compareNum = convertValueToFloat(compareValue);
-        if (attributeNum >= compareNum){
-            return "1";
-        }
-        return "0";
-    }
-
-    /**
-     * Attempt to convert a string representation of a number to a float.
+     * Attempt to convert a string representation of a number to a float. Numbers are integers,
+     * or floats made of two integers separated by a period.
      * @param value String to parse.
      * @return String as a float.
      * @throws DBException Thrown if the string is neither a float nor an integer.
      */
-    private Float convertValueToFloat(String value) throws DBException{
-        if (isFloatLiteral(value) || isIntegerLiteral(value)){
-            return Float.parseFloat(value);
+    protected static float convertValueToFloat(String value) throws DBException {
+        int pointIndex = value.indexOf('.');
+        try {
+            if (pointIndex < 0){
+                return Integer.parseInt(value);
+            }
+            if (value.indexOf('.', pointIndex + 1) < 0){
+                Integer.parseInt(value, 0, pointIndex, 10);
+                Integer.parseInt(value, pointIndex + 1, value.length(), 10);
+                return Float.parseFloat(value);
+            }
+        }
+        catch (NumberFormatException nfe){
+            //handled below with other values that are not numbers
         }
         throw new InvalidCommandArgumentException("Cannot use non-numbers for inequality expressions.");
     }
@@ -297,38 +122,44 @@ public class DBExpression extends CommandCondition {
      * Testing for DBExpression.
      */
     public static void test()  {
-        DBExpression test = new DBExpression("1", "1", "&");
+        TableRow testRow = new TableRow(new String[]{"1", "'table'", "123", "12.5"});
         try{
-            assert test.performAnd("1", "1").equals("1");
-            assert test.performAnd("1", "0").equals("0");
-            assert test.performAnd("0", "0").equals("0");
-            assert test.performAnd("0", "1").equals("0");
-            assert test.performOr("1", "1").equals("1");
-            assert test.performOr("1", "0").equals("1");
-            assert test.performOr("0", "1").equals("1");
-            assert test.performOr("0", "0").equals("0");
-            assert test.performLike("'table'", "'tab'").equals("1");
-            assert test.performLike("'table'", "'cat'").equals("0");
-            assert test.performEquals("table", "table").equals("1");
-            assert test.performEquals("12342", "1222").equals("0");
-            assert test.performNotEquals("123423", "1234121").equals("1");
-            assert test.performNotEquals("table", "table").equals("0");
-            assert test.performLessThan("123", "124").equals("1");
-            assert test.performLessThan("123", "122").equals("0");
-            assert test.performLessThan("123", "123").equals("0");
-            assert test.performLessEquals("123", "124").equals("1");
-            assert test.performLessEquals("123", "122").equals("0");
-            assert test.performLessEquals("123", "123").equals("1");
-            assert test.performGreaterThan("123", "124").equals("0");
-            assert test.performGreaterThan("123", "122").equals("1");
-            assert test.performGreaterThan("123", "123").equals("0");
-            assert test.performGreaterEquals("123", "124").equals("0");
-            assert test.performGreaterEquals("123", "122").equals("1");
-            assert test.performGreaterEquals("123", "123").equals("1");
+            assert new DBExpression(1, '~', "tab", 0).matches(testRow);
+            assert !new DBExpression(1, '~', "cat", 0).matches(testRow);
+            assert new DBExpression(1, '=', "'table'", 0).matches(testRow);
+            assert !new DBExpression(2, '=', "1222", 0).matches(testRow);
+            assert new DBExpression(2, '!', "1234121", 0).matches(testRow);
+            assert !new DBExpression(1, '!', "'table'", 0).matches(testRow);
+            assert new DBExpression(2, '<', "124", 124).matches(testRow);
+            assert !new DBExpression(2, '<', "123", 123).matches(testRow);
+            assert new DBExpression(2, '£', "123", 123).matches(testRow);
+            assert !new DBExpression(2, '£', "122", 122).matches(testRow);
+            assert new DBExpression(2, '>', "122", 122).matches(testRow);
+            assert !new DBExpression(2, '>', "123", 123).matches(testRow);
+            assert new DBExpression(2, '@', "123", 123).matches(testRow);
+            assert !new DBExpression(2, '@', "124", 124).matches(testRow);
+            assert new DBExpression(3, '>', "12.4", 12.4f).matches(testRow);
+            assert convertValueToFloat("-3") == -3;
+            ConditionPredicate trueExpression = new DBExpression(2, '=', "123", 0);
+            ConditionPredicate falseExpression = new DBExpression(2, '=', "124", 0);
+            ConditionPredicate failingExpression = new DBExpression(1, '<', "1", 1);
+            assert new BooleanExpression(trueExpression, trueExpression, true).matches(testRow);
+            assert !new BooleanExpression(trueExpression, falseExpression, true).matches(testRow);
+            assert !new BooleanExpression(falseExpression, failingExpression, true).matches(testRow);
+            assert new BooleanExpression(falseExpression, trueExpression, false).matches(testRow);
+            assert new BooleanExpression(trueExpression, failingExpression, false).matches(testRow);
+            assert !new BooleanExpression(falseExpression, falseExpression, false).matches(testRow);
         }
         catch (DBException dbe){
             System.out.println("Error in DBExpression testing.");
         }
+        try {
+            convertValueToFloat("1.2.3");
+            assert false;
+        }
+        catch (DBException dbe){
+            //expected as the value is not a number
+        }
         System.out.println("DBExpression passed.");
     }
 }
@@ -5,23 +5,24 @@ import DBObjects.*;
 import java.util.ArrayList;
 
 /**
- * NameValueList parses a list of name value pairs. Names are attributes that needs to
+ * NameValueList checks a list of name value pairs. Names are attributes that needs to
  * be updated in a table. Values are the values which need to be added to those attributes.
  */
 public class NameValueList extends ValueList {
 
     private final ArrayList<TableAttribute> attributesToChange;
     private final ArrayList<String> valuesForChange;
-    private final String[] nameValueContents;
+    private final String[] attributeNames;
+    private final String[] attributeValues;
 
     /**
      * Constructor for a NameValueList.
-     * @param listString List of name-value pairs.
-     * @throws DBException Thrown if the list ends with a comma.
+     * @param attributeNames Names of the pairs, in order.
+     * @param attributeValues Values of the pairs, in the same order as their names.
      */
-    public NameValueList(String listString) throws DBException {
-        String nameValueString = removeWhiteSpace(listString);
-        nameValueContents = splitValues(nameValueString);
+    public NameValueList(String[] attributeNames, String[] attributeValues){
+        this.attributeNames = attributeNames;
+        this.attributeValues = attributeValues;
         attributesToChange = new ArrayList<>();
         valuesForChange = new ArrayList<>();
     }
@@ -43,13 +44,13 @@ public class NameValueList extends ValueList {
     }
 
     /**
-     * Checks if the list is empty, and then converts the string to a list.
+     * Checks if the list is empty, and then converts the pairs to lists.
      * @return True if processing completes.
      * @throws DBException Thrown if the list is empty or incorrectly formatted.
      */
     @Override
     public boolean processList() throws DBException{
-        if (isListEmpty(nameValueContents)){
+        if (isListEmpty(attributeNames)){
             throw new InvalidCommandArgumentException("Name-value lists cannot be empty.");
         }
         convertStringToList();
@@ -62,10 +63,9 @@ public class NameValueList extends ValueList {
      */
     @Override
     protected void convertStringToList() throws DBException {
-        for (String pair : nameValueContents){
-            int equalIndex = findEqualSign(pair);
-            String attributeName = pair.substring(0, equalIndex);
-            String valueString = pair.substring(equalIndex + 1);
+        for (int i = 0; i < attributeNames.length; i++){
+            String attributeName = attributeNames[i];
+            String valueString = attributeValues[i];
 
             checkAttributeValid(attributeName);
             TableAttribute attribute = new TableAttribute(attributeName);
@@ -76,61 +76,25 @@ public class NameValueList extends ValueList {
         }
     }
 
-    /**
-     * Returns the index of the first equal sign '=' encountered that isn't within single quotes '\''
-     * @param nameValuePair String of the form attributeName=valueName with optional spaces surrounding the
-     *                      equal sign.
-     * @return index of equal sign.
-     * @throws DBException Thrown if an equal sign wasn't found or a string literal was encountered first.
-     */
-    private int findEqualSign(String nameValuePair) throws DBException {
-        int i = 0;
-        boolean found = false, quote = false;
-        while (!found && !quote && i < nameValuePair.length()){
-            char c = nameValuePair.charAt(i++);
-            found = isExpectedChar(c, '=');
-            quote = isExpectedChar(c, '\'');
-        }
-        checkHasEquals(found);
-        return i - 1;
-    }
-
-    /**
-     * Determines if a character matches an expected character.
-     * @param actualChar Current character when iterating.
-     * @param expectedChar Expected character.
-     * @return Returns true if the two characters match.
-     */
-    private boolean isExpectedChar(char actualChar, char expectedChar){
-        return actualChar == expectedChar;
-    }
-
-    /**
-     * Determines if a name value pair has an equal sign. All pairs should have this.
-     * @param hasEquals Boolean to reflect if name value pair has an equal sign.
-     * @throws DBException Thrown if hasEquals is false.
-     */
-    private void checkHasEquals(boolean hasEquals) throws DBException {
-        if (!hasEquals){
-            throw new InvalidCommandArgumentException("Name value pair should contain an equal sign.");
-        }
-    }
-
     /**
      * Testing for NameValueList
      */
     public static void test(){
-        String test1 = "test=blah", test2 = "test = blah", test3 = "test = 'test ='";
-        String test4 = "=blah";
         try{
-            NameValueList testList = new NameValueList(test1);
-            assert testList.findEqualSign(test1) == 4;
-            assert testList.findEqualSign(test2) == 5;
-            assert testList.findEqualSign(test3) == 5;
-            assert testList.findEqualSign(test4) == 0;
+            NameValueList testList = new NameValueList(new String[]{"test", "other"}, new String[]{"'test ='", "1.5"});
+            assert testList.processList();
+            assert testList.getAttributesToChange().get(1).getObjectName().equals("other");
+            assert testList.getValuesForChange().get(0).equals("'test ='");
         }
         catch (DBException dbe){
             System.out.println("Error testing NameValueList.");
         }
+        try{
+            new NameValueList(new String[]{"test"}, new String[]{"blah"}).processList();
+            assert false;
+        }
+        catch (DBException dbe){
+            //expected as blah is not a value
+        }
     }
 }
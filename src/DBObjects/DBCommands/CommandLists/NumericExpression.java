@@ -0,0 +1,80 @@
+package DBObjects.DBCommands.CommandLists;
+
+import DBException.*;
+import DBObjects.*;
+
+/**
+ * NumericExpression compares an INT or FLOAT attribute with a number from a condition. Rows
+ * hold the values of these attributes as primitives, so they are compared without being
+ * printed or parsed. Equality is numeric, so 1.50 equals 1.5.
+ */
+public class NumericExpression implements ConditionPredicate {
+
+    private final int attributeIndex;
+    private final char operator;
+    private final double compareNumber;
+
+    /**
+     * Constructor for a NumericExpression.
+     * @param attributeIndex Index of the compared attribute in the table's rows.
+     * @param operator Single character comparison operator, other than LIKE.
+     * @param compareNumber Number from the condition.
+     */
+    protected NumericExpression(int attributeIndex, char operator, double compareNumber){
+        this.attributeIndex = attributeIndex;
+        this.operator = operator;
+        this.compareNumber = compareNumber;
+    }
+
+    /**
+     * Determines if a row meets the expression.
+     * @param rowToEvaluate Row of the filtered table.
+     * @return Returns true if the row meets the expression's requirements, false otherwise.
+     * @throws DBException Thrown if the row's value is not a number.
+     */
+    @Override
+    public boolean matches(TableRow rowToEvaluate) throws DBException {
+        double rowNumber = rowToEvaluate.getNumericValue(attributeIndex);
+        switch (operator){
+            case '=':
+                return rowNumber == compareNumber;
+            case '!':
+                return rowNumber != compareNumber;
+            case '<':
+                return rowNumber < compareNumber;
+            case '>':
+                return rowNumber > compareNumber;
+            case '£':
+                return rowNumber <= compareNumber;
+            case '@':
+                return rowNumber >= compareNumber;
+            default:
+                throw new InvalidCommandArgumentException("Unrecognized operator.");
+        }
+    }
+
+    /**
+     * Testing for NumericExpression.
+     */
+    public static void test(){
+        AttributeType[] testTypes = new AttributeType[]{AttributeType.ANY, AttributeType.INT, AttributeType.FLOAT};
+        TableRow testRow = new TableRow(new String[]{"1", "123", "12.50"});
+        testRow.applyTypes(testTypes);
+        TableRow untypedRow = new TableRow(new String[]{"2", "123", "12.5"});
+        try {
+            assert new NumericExpression(1, '=', 123).matches(testRow);
+            assert new NumericExpression(2, '=', 12.5).matches(testRow);
+            assert !new NumericExpression(2, '!', 12.5).matches(testRow);
+            assert new NumericExpression(1, '<', 124).matches(testRow);
+            assert !new NumericExpression(1, '>', 123).matches(testRow);
+            assert new NumericExpression(1, '£', 123).matches(testRow);
+            assert new NumericExpression(2, '@', 12.5).matches(testRow);
+            assert new NumericExpression(2, '>', 12.4).matches(untypedRow);
+            assert testRow.getValue(2).equals("12.5");
+        }
+        catch (DBException dbe){
+            System.out.println("Error in NumericExpression testing.");
+        }
+        System.out.println("NumericExpression passed.");
+    }
+}
@@ -0,0 +1,75 @@
+package DBObjects.DBCommands.CommandLists;
+
+import DBException.*;
+import DBObjects.*;
+import java.util.ArrayList;
+
+/**
+ * TypedAttributeList processes the attribute list of a CREATE TABLE command. Each attribute
+ * may be followed by its type, as in (name STRING, score FLOAT). Attributes without a type
+ * accept any value.
+ */
+public class TypedAttributeList extends AttributeList {
+
+    private final String[] typeNames;
+
+    /**
+     * Constructor for TypedAttributeList.
+     * @param attributeNames Names of the attributes to process.
+     * @param typeNames Type written after each attribute, or null for attributes without a type.
+     */
+    public TypedAttributeList(String[] attributeNames, String[] typeNames){
+        super(attributeNames);
+        this.typeNames = typeNames;
+    }
+
+    /**
+     * Adds attributes and their types to an ArrayList of table attributes.
+     * @throws DBException Thrown if attribute names contain special characters or a type is not known.
+     */
+    @Override
+    protected void convertStringToList() throws DBException {
+        for (int i = 0; i < attributeNames.length; i++){
+            if (!isNameValid(attributeNames[i])){
+                throw new InvalidCommandArgumentException("Attribute name was not valid.");
+            }
+            if (typeNames[i] == null){
+                attributeList.add(new TableAttribute(attributeNames[i]));
+                continue;
+            }
+            AttributeType attributeType = AttributeType.fromTypeName(typeNames[i]);
+            if (attributeType == null){
+                throw new InvalidCommandArgumentException("Attribute type " + typeNames[i] + " is not known.");
+            }
+            attributeList.add(new TableAttribute(attributeNames[i], attributeType));
+        }
+    }
+
+    /**
+     * Testing for TypedAttributeList.
+     */
+    public static void test(){
+        try {
+            TypedAttributeList test1 = new TypedAttributeList(new String[]{"name", "score", "notes"},
+                    new String[]{"string", "FLOAT", null});
+            assert test1.processList();
+            assert test1.getAttributeList().size() == 3;
+            assert test1.getAttributeList().get(0).getAttributeType() == AttributeType.STRING;
+            assert test1.getAttributeList().get(1).getObjectName().equals("score");
+            assert test1.getAttributeList().get(1).getAttributeType() == AttributeType.FLOAT;
+            assert test1.getAttributeList().get(2).getAttributeType() == AttributeType.ANY;
+            assert test1.getAttributeList().get(1).toString().equals("score FLOAT");
+        }
+        catch (DBException dbe){
+            System.out.println("Error testing TypedAttributeList.");
+        }
+        try {
+            new TypedAttributeList(new String[]{"score"}, new String[]{"DATE"}).processList();
+            assert false;
+        }
+        catch (DBException dbe){
+            //expected as DATE is not a type
+        }
+        DBTest.passMessage("TypedAttributeList passed.");
+    }
+}
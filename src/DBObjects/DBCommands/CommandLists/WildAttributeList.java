@@ -1,7 +1,6 @@
 package DBObjects.DBCommands.CommandLists;
 
 import DBException.DBException;
-import java.util.ArrayList;
 
 /**
  * WildAttributeList handles loading attributes for printed tables.
@@ -13,13 +12,11 @@ public class WildAttributeList extends AttributeList{
     private boolean allAttributes = false;
 
     /**
-     * Constructor for WildAttributeList. This does not remove wrapping parentheses.
-     * @param argString List of attributes to load.
+     * Constructor for WildAttributeList.
+     * @param attributeNames Names of the attributes to load, or only "*" for all attributes.
      */
-    public WildAttributeList(String argString) {
-        String attributeString = removeWhiteSpace(argString);
-        attributeNames = splitValues(attributeString);
-        attributeList = new ArrayList<>();
+    public WildAttributeList(String[] attributeNames) {
+        super(attributeNames);
     }
 
     /**
@@ -49,14 +46,13 @@ public class WildAttributeList extends AttributeList{
      */
     public static void test(){
         try {
-            WildAttributeList test1 = new WildAttributeList("*");
-            WildAttributeList test2 = new WildAttributeList("  *  ");
-            WildAttributeList test3 = new WildAttributeList("*, test");
-            WildAttributeList test4 = new WildAttributeList("a, b, c");
+            WildAttributeList test1 = new WildAttributeList(new String[]{"*"});
+            WildAttributeList test2 = new WildAttributeList(new String[]{"aa", "bb", "cc"});
             assert test1.processList();
+            assert test1.getAllAttributes();
             assert test2.processList();
-            assert test3.processList();
-            assert test4.processList();
+            assert !test2.getAllAttributes();
+            assert test2.getAttributeList().size() == 3;
         }
         catch (DBException dbe){
             System.out.println("Error testing WildAttributeList.");
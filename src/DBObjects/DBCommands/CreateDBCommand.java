@@ -8,33 +8,18 @@ import DBObjects.DBCommands.CommandLists.AttributeList;
  *CreateDBCommand is responsible for creating tables and databases.
  */
 public class CreateDBCommand extends DropCreateDBCommand {
-    AttributeList attributesToParse;
 
     /**
      * Constructor for a CreateDBCommand. Initialises fields for the command.
-     * @param createArgs Pre-processed command string. The list is separate from the bulk
-     *                   of the command.
-     * @throws DBException Thrown if instantiation fails or preprocessed string doesn't
-     * match expectations.
+     * @param structureType Type of the object to create.
+     * @param structureName Name of the database or table, or the indexed table for indexes.
+     * @param indexType Type of the index, or null for databases and tables.
+     * @param attributesToParse Attributes of a created table, which may be followed by their
+     *                          types, or the indexed attribute. Null if there is no list.
      */
-    public CreateDBCommand(String [] createArgs) throws DBException {
-        super(createArgs);
-    }
-
-    /**
-     * If there is a list present in the tokenized command, this function will
-     * set up the appropriate fields.
-     * @param createArgs Tokenized command.
-     * @throws DBException Thrown if there are more than two elements in the pre-processed command.
-     */
-    @Override
-    public void setupListVars(String[] createArgs) throws DBException {
-        if (createArgs.length > 1){
-            listString = createArgs[1];
-        }
-        if (createArgs.length > 2){
-            throw new InvalidCommandArgumentException("Create argument did not have the expected structure.");
-        }
+    public CreateDBCommand(StructureType structureType, String structureName, IndexType indexType,
+                           AttributeList attributesToParse){
+        super(structureType, structureName, indexType, attributesToParse);
     }
 
     /**
@@ -49,13 +34,4 @@ public class CreateDBCommand extends DropCreateDBCommand {
             }
         }
     }
-
-    /**
-     * Prepares a list of attributes for if creating a table object.
-     */
-    @Override
-    public void prepareList(String listString) throws DBException {
-        attributesToParse = new AttributeList(listString);
-        attributesToParse.processList();
-    }
 }
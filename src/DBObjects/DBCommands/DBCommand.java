@@ -2,21 +2,24 @@ package DBObjects.DBCommands;
 
 import DBObjects.*;
 import DBException.*;
-import java.util.Arrays;
 
 /**
  * DBCommand parent class. Contains common functionality for all database commands and
- * contains abstract functions that must be implemented by other commands. This object
- * is the only direct class accessed by the DBStatement class.
+ * contains abstract functions that must be implemented by other commands. Commands are
+ * created by the DBParser, holding the names and lists of their statement, and are the
+ * only direct class processed by the DBStatement class.
  */
 public abstract class DBCommand extends DBObject {
-    protected String commandString;
-    protected String[] tokenizedCommand;
-    protected String listString;
-    protected StructureType structureType;
     protected DBDatabase workingDatabase;
     protected String returnMessage;
     protected DBTable tableForCommand;
+    protected DBResultSet resultSet;
+    protected final DBStatementLocks statementLocks = new DBStatementLocks();
+    protected long rowsScanned = 0;
+    protected long rowsFiltered = 0;
+    private long prepareNanos = 0;
+    private long executeNanos = 0;
+    private DBQueryPlan queryPlan;
 
 
     /**
@@ -25,13 +28,24 @@ public abstract class DBCommand extends DBObject {
     protected  DBCommand(){}
 
     /**
-     * Gets the return message from a command.
+     * Gets the return message from a command. Commands that return rows print them as the message.
      * @return Returns any return messags from a command.
      */
     public String getReturnMessage() {
+        if (returnMessage == null && resultSet != null){
+            returnMessage = resultSet.printResult();
+        }
         return returnMessage;
     }
 
+    /**
+     * Gets the rows returned by a command.
+     * @return Returns the command's result, or null if it does not return rows.
+     */
+    public DBResultSet getResultSet() {
+        return resultSet;
+    }
+
     /**
      * Gets the current working database for the command.
      * @return Returns the current database.
@@ -41,180 +55,154 @@ public abstract class DBCommand extends DBObject {
     }
 
     /**
-     * Determines if a command name is a accepted command name.
-     * @param commandName Potential name of a command.
-     * @return Returns true if the command name is valid.
-     */
-    public static boolean isValidCommand(String commandName){
-        String commandType = commandName.toUpperCase();
-        switch (commandType){
-            case "CREATE":
-            case "USE":
-            case "DROP":
-            case "ALTER":
-            case "INSERT":
-            case "SELECT":
-            case "UPDATE":
-            case "DELETE":
-            case "JOIN":
-                return true;
-            default:
-                return false;
-        }
+     * Gets the name of the command, such as SELECT, from the name of its class.
+     * @return Returns the command name in upper case.
+     */
+    public String getCommandName() {
+        String className = getClass().getSimpleName();
+        return className.substring(0, className.length() - "DBCommand".length()).toUpperCase();
     }
 
     /**
-     * Generates a command based on the command name.
-     * @param commandName Name of the command to be generated.
-     * @param commandArgs Tokenized command to be used by the command.
-     * @return Returns a DBCommand object to be executed.
-     * @throws DBException Thrown if the command name doesn't match an existing command.
-     */
-    public static DBCommand generateCommand(String commandName, String[] commandArgs) throws DBException{
-        commandName = commandName.toUpperCase();
-        switch (commandName) {
-            case "CREATE":
-                return new CreateDBCommand(commandArgs);
-            case "USE":
-                return new UseDBCommand(commandArgs);
-            case "DROP":
-                return new DropDBCommand(commandArgs);
-            case "ALTER":
-                return new AlterDBCommand(commandArgs);
-            case "INSERT":
-                return new InsertDBCommand(commandArgs);
-            case "SELECT":
-                return new SelectDBCommand(commandArgs);
-            case "UPDATE":
-                return new UpdateDBCommand(commandArgs);
-            case "DELETE":
-                return new DeleteDBCommand(commandArgs);
-            case "JOIN":
-                return new JoinDBCommand(commandArgs);
-            default:
-                throw new DBInvalidCommandException("An invalid command was entered.");
-        }
+     * Gets the number of table rows the command evaluated.
+     * @return Returns the rows scanned, or 0 if the command does not read rows.
+     */
+    public long getRowsScanned() {
+        return rowsScanned;
     }
 
     /**
-     * Processes the command with the current database.
-     * @param currentDB The database for which the command will be executed.
-     * @throws DBException Thrown if an error occurs when processing the command.
+     * Gets the number of scanned rows the command's conditions removed.
+     * @return Returns the rows filtered out, or 0 if the command has no conditions.
      */
-    public void processCommand(DBDatabase currentDB) throws DBException {
-        workingDatabase = currentDB;
-        prepareCommand();
-        executeCommand();
+    public long getRowsFiltered() {
+        return rowsFiltered;
     }
 
     /**
-     * Prepares the command for execution by parsing and building the relevant database objects.
-     * @throws DBException Thrown if parsing or object building fails.
+     * Gets the number of rows the command returned.
+     * @return Returns the rows returned, or 0 if the command does not return rows.
      */
-    protected abstract void prepareCommand() throws DBException;
+    public long getRowsReturned() {
+        return resultSet == null ? 0 : resultSet.getNumRows();
+    }
 
     /**
-     * Executes the command. Behaviour is different for each command.
-     * @throws DBException Thrown if execution fails.
+     * Gets the time spent preparing the command.
+     * @return Returns the time in nanoseconds, or 0 if preparing did not complete.
      */
-    protected abstract void executeCommand() throws DBException;
+    public long getPrepareNanos() {
+        return prepareNanos;
+    }
 
     /**
-     * Determines and updates the structure type of a command based on the type specified in the query.
-     * @param specifiedType Structure specified in the database query.
-     * @param currentDB The current working database. Working database is required if TABLE is specified.
-     * @throws DBException Thrown if an invalid structure is specified or table is specified
-     * and no working database is specified.
-     */
-    protected void determineStructureType(String specifiedType, DBDatabase currentDB) throws DBException {
-        specifiedType = specifiedType.toUpperCase();
-        switch (specifiedType){
-            case "TABLE":
-                checkWorkingDB(currentDB);
-                structureType = StructureType.TABLE;
-                return;
-            case "DATABASE":
-                structureType = StructureType.DATABASE;
-                return;
-            default:
-                throw new InvalidCommandArgumentException("No valid structure was selected.");
-        }
+     * Gets the time spent executing the command.
+     * @return Returns the time in nanoseconds, or 0 if executing did not complete.
+     */
+    public long getExecuteNanos() {
+        return executeNanos;
     }
 
     /**
-     * Determines if a tokenized command has any strings in it.
-     * @param commandAry Tokenized command.
-     * @throws DBException Thrown if there are no values in the array.
+     * Processes the command with the current database. Locks taken while preparing the
+     * command are held until it has been executed.
+     * @param currentDB The database for which the command will be executed.
+     * @throws DBException Thrown if an error occurs when processing the command.
      */
-    protected void isEmptyCommand(String[] commandAry) throws DBException{
-        if (commandAry.length < 1) {
-            throw new InvalidCommandArgumentException("Command has no arguments.");
+    public void processCommand(DBDatabase currentDB) throws DBException {
+        workingDatabase = currentDB;
+        try {
+            long phaseStart = System.nanoTime();
+            prepareCommand();
+            prepareNanos = System.nanoTime() - phaseStart;
+            phaseStart = System.nanoTime();
+            executeCommand();
+            executeNanos = System.nanoTime() - phaseStart;
+        }
+        finally {
+            statementLocks.releaseLocks();
         }
     }
 
     /**
-     * Splits a command string on spaces. This will break the string into tokens
-     * on any number of spaces.
-     * @param commandString String to split.
-     * @return Tokenized command.
-     * @throws DBException Thrown in override methods.
+     * Prepares the command and describes its plan for EXPLAIN. The command is executed only if
+     * the plan is analyzed, in which case its operators are measured as they finish.
+     * @param currentDB The database for which the command will be explained.
+     * @param commandPlan Plan to add the command's operators to.
+     * @throws DBException Thrown if an error occurs when preparing or executing the command.
      */
-    protected String[] splitCommand(String commandString) throws DBException {
-        return commandString.split("\\s+");
+    protected void explainCommand(DBDatabase currentDB, DBQueryPlan commandPlan) throws DBException {
+        workingDatabase = currentDB;
+        queryPlan = commandPlan;
+        try {
+            prepareCommand();
+            describePlan(commandPlan);
+            if (commandPlan.isAnalyzed()){
+                commandPlan.startMeasuring();
+                executeCommand();
+            }
+        }
+        finally {
+            statementLocks.releaseLocks();
+        }
     }
 
     /**
-     * Removes the command name from a command. The command name is always the first token in the string.
-     * @param tokenizedCommand All tokens in a command.
-     * @return Following command tokens.
+     * Determines if the command finds rows of a table, so that it can be explained.
+     * @return Returns false unless the command describes its plan.
      */
-    protected String[] removeCommandName(String[] tokenizedCommand) {
-        int startIndex = 1;
-        if (tokenizedCommand[0].equals("")){
-            startIndex = 2;
-        }
-        return Arrays.copyOfRange(tokenizedCommand, startIndex, tokenizedCommand.length);
+    protected boolean isExplainable(){
+        return false;
     }
 
     /**
-     * Gets the next token from a tokenized command.
-     * @param tokenAry Tokenized command.
-     * @param index Index of the tokenized command to return.
-     * @return Returns a string of the next tokenized command.
-     * @throws DBException Thrown if the given index is greater than or equal to the number of tokens.
+     * Adds the command's operators to a plan. Called once the command has been prepared.
+     * @param commandPlan Plan to add the operators to.
+     * @throws DBException Thrown if the plan could not be found.
      */
-    protected String getNextToken(String[] tokenAry, int index) throws DBException{
-        if (index >= tokenAry.length){
-            throw new InvalidCommandArgumentException("Command has an inappropriate number of arguments.");
-        }
-        return tokenAry[index];
-    }
+    protected void describePlan(DBQueryPlan commandPlan) throws DBException {}
 
     /**
-     * Determines if the end of a tokenized command has been reached.
-     * @param tokenIndex Index of tokenized command to check.
-     * @throws DBException Thrown if the end of the command hasn't been reached.
+     * Describes the loading of a table's rows for a plan.
+     * @param loadedTable Table whose rows were loaded.
+     * @return Returns the table's name, file format and number of rows.
      */
-    protected void checkCommandEnded(int tokenIndex) throws DBException {
-        if (tokenIndex != tokenizedCommand.length){
-            throw new InvalidCommandArgumentException("Command did not have the correct structure.");
+    protected static String describeLoad(DBTable loadedTable){
+        return loadedTable.getObjectName() + ", " + loadedTable.getTableFormat().getExtension() + " file, "
+                + loadedTable.getNumRows() + " rows";
+    }
 
+    /**
+     * Reports that an operator of the command's plan has finished, when the command is analyzed.
+     * @param operatorKey Key of the operator in the plan.
+     * @param actualRows Number of rows the operator produced.
+     */
+    protected void finishOperator(String operatorKey, long actualRows){
+        if (queryPlan != null){
+            queryPlan.finishOperator(operatorKey, actualRows);
         }
     }
 
     /**
-     * Determines if a given string matches an expected key word in a command.
-     * @param tokenString String to compare against the expected string.
-     * @param expectedString String that is expected in the command.
-     * @throws DBException Thrown if the token string doesn't match the expected string.
+     * Determines if the command only reads tables, so their locks can be shared with other readers.
+     * @return Returns true if the command does not change tables.
      */
-    protected void compareStrings(String tokenString, String expectedString) throws DBException{
-        if (!tokenString.equals(expectedString)){
-            throw new DBServerException("String " + tokenString + " did not match the expected " +
-                    expectedString + ".");
-        }
+    protected boolean isReadOnly(){
+        return false;
     }
 
+    /**
+     * Prepares the command for execution by parsing and building the relevant database objects.
+     * @throws DBException Thrown if parsing or object building fails.
+     */
+    protected abstract void prepareCommand() throws DBException;
+
+    /**
+     * Executes the command. Behaviour is different for each command.
+     * @throws DBException Thrown if execution fails.
+     */
+    protected abstract void executeCommand() throws DBException;
+
     /**
      * Used to prepare a DBTable object for a command.
      * @param tableName Name of the table object.
@@ -222,6 +210,18 @@ public abstract class DBCommand extends DBObject {
      * database is being used.
      */
     protected void setupTable(String tableName) throws DBException {
+        prepareTable(tableName);
+        tableForCommand.loadTableFile();
+    }
+
+    /**
+     * Prepares a DBTable object for a command without loading its rows. Used by
+     * commands that do not need the table's existing data.
+     * @param tableName Name of the table object.
+     * @throws DBException Thrown if table name is invalid or no working
+     * database is being used.
+     */
+    protected void prepareTable(String tableName) throws DBException {
         if (tableName.length() == 0) {
             throw new InvalidCommandArgumentException("No table name provided.");
         }
@@ -229,8 +229,8 @@ public abstract class DBCommand extends DBObject {
             throw new InvalidCommandArgumentException("Table name was invalid.");
         }
         checkWorkingDB(workingDatabase);
+        statementLocks.lockTable(workingDatabase, tableName, !isReadOnly());
         tableForCommand = new DBTable(tableName, workingDatabase);
-        tableForCommand.loadTableFile();
     }
 
     /**
@@ -0,0 +1,214 @@
+package DBObjects.DBCommands;
+
+import DBException.*;
+import DBObjects.DBTest;
+import java.util.ArrayList;
+
+/**
+ * DBLexer breaks a statement into tokens in a single pass. Whitespace separates tokens but is
+ * kept within string literals. Words run until whitespace, a quote, a parenthesis, a comma,
+ * a wildcard, a parameter or an operator, so values such as -1.5 and names are single words.
+ * Statements must end with a semicolon, which is not returned as a token.
+ */
+public class DBLexer {
+    private static final DBToken LEFT_PAREN = new DBToken(TokenType.LEFT_PAREN, "(");
+    private static final DBToken RIGHT_PAREN = new DBToken(TokenType.RIGHT_PAREN, ")");
+    private static final DBToken COMMA = new DBToken(TokenType.COMMA, ",");
+    private static final DBToken STAR = new DBToken(TokenType.STAR, "*");
+    private static final DBToken PARAMETER = new DBToken(TokenType.PARAMETER, "?");
+    private static final DBToken END = new DBToken(TokenType.END, ";");
+    private final String statement;
+    private final int statementEnd;
+    private int position = 0;
+
+    /**
+     * Constructor for a DBLexer.
+     * @param statement Statement to break into tokens.
+     * @throws DBException Thrown if the statement does not end with a semicolon.
+     */
+    public DBLexer(String statement) throws DBException {
+        this.statement = statement;
+        statementEnd = statement.length() - 1;
+        if (statementEnd < 0 || statement.charAt(statementEnd) != ';'){
+            throw new DBNonTerminatingException("String did not end with a semicolon.");
+        }
+    }
+
+    /**
+     * Breaks the statement into tokens.
+     * @return Tokens of the statement, ending with an END token.
+     * @throws DBException Thrown if a string literal is not closed or the statement contains a semicolon.
+     */
+    public ArrayList<DBToken> tokenize() throws DBException {
+        ArrayList<DBToken> tokens = new ArrayList<>();
+        while (position < statementEnd){
+            char c = statement.charAt(position);
+            switch (c){
+                case '(':
+                    tokens.add(LEFT_PAREN);
+                    position++;
+                    break;
+                case ')':
+                    tokens.add(RIGHT_PAREN);
+                    position++;
+                    break;
+                case ',':
+                    tokens.add(COMMA);
+                    position++;
+                    break;
+                case '*':
+                    tokens.add(STAR);
+                    position++;
+                    break;
+                case '?':
+                    tokens.add(PARAMETER);
+                    position++;
+                    break;
+                case '\'':
+                    tokens.add(readString());
+                    break;
+                case '=':
+                case '!':
+                case '<':
+                case '>':
+                    tokens.add(readOperator());
+                    break;
+                case ';':
+                    throw new InvalidCommandArgumentException("Statements can only contain one semicolon.");
+                default:
+                    if (Character.isWhitespace(c)){
+                        position++;
+                    }
+                    else {
+                        tokens.add(readWord());
+                    }
+            }
+        }
+        tokens.add(END);
+        return tokens;
+    }
+
+    /**
+     * Reads a string literal, including both quotes.
+     * @return The string token.
+     * @throws DBException Thrown if the literal is not closed.
+     */
+    private DBToken readString() throws DBException {
+        int closingQuote = statement.indexOf('\'', position + 1);
+        if (closingQuote < 0 || closingQuote >= statementEnd){
+            throw new InvalidCommandArgumentException("String literal was not closed.");
+        }
+        DBToken stringToken = new DBToken(TokenType.STRING, statement.substring(position, closingQuote + 1));
+        position = closingQuote + 1;
+        return stringToken;
+    }
+
+    /**
+     * Reads an operator of one or two characters. The second character can only be '='.
+     * @return The operator token.
+     */
+    private DBToken readOperator(){
+        int operatorStart = position++;
+        if (position < statementEnd && statement.charAt(position) == '='){
+            position++;
+        }
+        return new DBToken(TokenType.OPERATOR, statement.substring(operatorStart, position));
+    }
+
+    /**
+     * Reads a word, which ends at whitespace or any character with its own token.
+     * @return The word token.
+     */
+    private DBToken readWord(){
+        int wordStart = position;
+        while (position < statementEnd && !isWordEnd(statement.charAt(position))){
+            position++;
+        }
+        return new DBToken(TokenType.WORD, statement.substring(wordStart, position));
+    }
+
+    /**
+     * Determines if a character ends a word.
+     * @param charToCheck Character to evaluate.
+     * @return Returns true if the character is whitespace or starts another token.
+     */
+    private boolean isWordEnd(char charToCheck){
+        switch (charToCheck){
+            case '(':
+            case ')':
+            case ',':
+            case '*':
+            case '?':
+            case '\'':
+            case '=':
+            case '!':
+            case '<':
+            case '>':
+            case ';':
+                return true;
+            default:
+                return Character.isWhitespace(charToCheck);
+        }
+    }
+
+    /**
+     * Joins the text of tokens, separated by spaces. Used for testing.
+     * @param tokens Tokens to join.
+     * @return Text of the tokens.
+     */
+    private static String joinTokens(ArrayList<DBToken> tokens){
+        StringBuilder tokenString = new StringBuilder();
+        for (DBToken token : tokens){
+            if (tokenString.length() > 0){
+                tokenString.append(' ');
+            }
+            tokenString.append(token.getTokenText());
+        }
+        return tokenString.toString();
+    }
+
+    /**
+     * Testing for DBLexer.
+     */
+    public static void test(){
+        try {
+            String tokens1 = joinTokens(new DBLexer("insert into test1 values ('ab, c', -12.5,true );").tokenize());
+            assert tokens1.equals("insert into test1 values ( 'ab, c' , -12.5 , true ) ;");
+            String tokens2 = joinTokens(new DBLexer("select*from t where ((A==x) aNd (B>=c));").tokenize());
+            assert tokens2.equals("select * from t where ( ( A == x ) aNd ( B >= c ) ) ;");
+            String tokens3 = joinTokens(new DBLexer("  update t set a='x;y'where b!=1 ;").tokenize());
+            assert tokens3.equals("update t set a = 'x;y' where b != 1 ;");
+            assert joinTokens(new DBLexer("( one, two, three );").tokenize())
+                    .equals(joinTokens(new DBLexer("(one,two,three);").tokenize()));
+            String tokens4 = joinTokens(new DBLexer("select * from t where (id==?) or (name==?);").tokenize());
+            assert tokens4.equals("select * from t where ( id == ? ) or ( name == ? ) ;");
+            assert new DBLexer("use db;").tokenize().get(2).getTokenType() == TokenType.END;
+            assert new DBLexer("SELECT;").tokenize().get(0).isKeyword("SELECT");
+        }
+        catch (DBException dbe){
+            System.out.println("Error testing DBLexer.");
+        }
+        try {
+            new DBLexer("use db");
+            assert false;
+        }
+        catch (DBException dbe){
+            //expected as the statement has no semicolon
+        }
+        try {
+            new DBLexer("insert into t values ('ab);").tokenize();
+            assert false;
+        }
+        catch (DBException dbe){
+            //expected as the string is not closed
+        }
+        try {
+            new DBLexer("use db; use db;").tokenize();
+            assert false;
+        }
+        catch (DBException dbe){
+            //expected as there are two statements
+        }
+        DBTest.passMessage("DBLexer passed.");
+    }
+}
@@ -0,0 +1,782 @@
+package DBObjects.DBCommands;
+
+import DBException.*;
+import DBObjects.DBCommands.CommandLists.*;
+import DBObjects.DBTest;
+import DBObjects.IndexType;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * DBParser is a recursive-descent parser for statements. The statement is broken into tokens
+ * by a DBLexer, and each command is parsed by its own method, which returns the command holding
+ * the statement's names, lists and conditions. Conditions are parsed into a tree, where AND
+ * binds more tightly than OR and parentheses group comparisons. Keywords are not case-sensitive.
+ * Names and values are checked when the command is prepared, as before. PREPARE keeps the tokens
+ * of a statement, where values may be written as ?, and EXECUTE parses them with its values bound.
+ */
+public class DBParser {
+    private final ArrayList<DBToken> tokens;
+    private final HashMap<String, DBPreparedStatement> preparedStatements;
+    private final boolean allowParameters;
+    private int tokenIndex = 0;
+
+    /**
+     * Constructor for a DBParser of statements that cannot use prepared statements.
+     * @param statement Statement to parse, ending with a semicolon.
+     * @throws DBException Thrown if the statement cannot be broken into tokens.
+     */
+    public DBParser(String statement) throws DBException {
+        this(statement, null);
+    }
+
+    /**
+     * Constructor for a DBParser.
+     * @param statement Statement to parse, ending with a semicolon.
+     * @param preparedStatements Prepared statements of the session, by name, or null if the
+     *                           statement is not performed by a session.
+     * @throws DBException Thrown if the statement cannot be broken into tokens.
+     */
+    public DBParser(String statement, HashMap<String, DBPreparedStatement> preparedStatements) throws DBException {
+        this(new DBLexer(statement).tokenize(), preparedStatements, false);
+    }
+
+    /**
+     * Constructor for a DBParser of tokens that have already been read.
+     * @param tokens Tokens of the statement, ending with an END token.
+     * @param preparedStatements Prepared statements of the session, by name, or null.
+     * @param allowParameters True if values may be parameters, when checking a statement to prepare.
+     */
+    private DBParser(ArrayList<DBToken> tokens, HashMap<String, DBPreparedStatement> preparedStatements,
+                     boolean allowParameters){
+        this.tokens = tokens;
+        this.preparedStatements = preparedStatements;
+        this.allowParameters = allowParameters;
+    }
+
+    /**
+     * Parses the statement into the command that performs it.
+     * @return The parsed command, ready to be processed.
+     * @throws DBException Thrown if the command is not known or the statement is not of its form.
+     */
+    public DBCommand parseStatement() throws DBException {
+        DBToken commandToken = tokens.get(tokenIndex++);
+        if (commandToken.getTokenType() != TokenType.WORD){
+            throw new DBInvalidCommandException("An incorrect command was attempted.");
+        }
+        DBCommand parsedCommand;
+        switch (commandToken.getTokenText().toUpperCase()){
+            case "CREATE":
+                parsedCommand = parseCreate();
+                break;
+            case "USE":
+                parsedCommand = new UseDBCommand(nextWord());
+                break;
+            case "DROP":
+                parsedCommand = parseDrop();
+                break;
+            case "ALTER":
+                parsedCommand = parseAlter();
+                break;
+            case "INSERT":
+                parsedCommand = parseInsert();
+                break;
+            case "SELECT":
+                parsedCommand = parseSelect();
+                break;
+            case "UPDATE":
+                parsedCommand = parseUpdate();
+                break;
+            case "DELETE":
+                parsedCommand = parseDelete();
+                break;
+            case "JOIN":
+                parsedCommand = parseJoin();
+                break;
+            case "LOAD":
+                parsedCommand = parseLoad();
+                break;
+            case "PREPARE":
+                parsedCommand = parsePrepare();
+                break;
+            case "EXECUTE":
+                parsedCommand = parseExecute();
+                break;
+            case "EXPLAIN":
+                boolean analyzed = acceptKeyword("ANALYZE");
+                parsedCommand = new ExplainDBCommand(parseStatement(), analyzed);
+                break;
+            case "SHOW":
+                expectKeyword("STATS");
+                parsedCommand = new ShowDBCommand();
+                break;
+            default:
+                throw new DBInvalidCommandException("An invalid command was entered: " + commandToken.getTokenText());
+        }
+        if (!isNext(TokenType.END)){
+            throw new InvalidCommandArgumentException("Command did not have the correct structure.");
+        }
+        return parsedCommand;
+    }
+
+    /**
+     * Parses CREATE DATABASE name, CREATE TABLE name [(attribute [TYPE], ...)] or
+     * CREATE INDEX ON table [USING type] (attribute).
+     * @return The CREATE command.
+     * @throws DBException Thrown if the statement is not of these forms.
+     */
+    private DBCommand parseCreate() throws DBException {
+        StructureType structureType = parseStructureType();
+        if (structureType == StructureType.INDEX){
+            expectKeyword("ON");
+            String tableName = nextWord();
+            IndexType indexType = parseIndexType();
+            return new CreateDBCommand(structureType, tableName, indexType, parseIndexAttributes());
+        }
+        String structureName = nextWord();
+        if (structureType != StructureType.TABLE || !isNext(TokenType.LEFT_PAREN)){
+            return new CreateDBCommand(structureType, structureName, null, null);
+        }
+        ArrayList<String> attributeNames = new ArrayList<>();
+        ArrayList<String> typeNames = new ArrayList<>();
+        expectToken(TokenType.LEFT_PAREN);
+        if (!acceptToken(TokenType.RIGHT_PAREN)){
+            do {
+                attributeNames.add(nextWord());
+                typeNames.add(isNext(TokenType.WORD) ? nextWord() : null);
+            } while (acceptToken(TokenType.COMMA));
+            expectToken(TokenType.RIGHT_PAREN);
+        }
+        TypedAttributeList tableAttributes = new TypedAttributeList(attributeNames.toArray(new String[0]),
+                typeNames.toArray(new String[0]));
+        return new CreateDBCommand(structureType, structureName, null, tableAttributes);
+    }
+
+    /**
+     * Parses DROP DATABASE name, DROP TABLE name or DROP INDEX ON table [USING type] (attribute).
+     * @return The DROP command.
+     * @throws DBException Thrown if the statement is not of these forms.
+     */
+    private DBCommand parseDrop() throws DBException {
+        StructureType structureType = parseStructureType();
+        if (structureType == StructureType.INDEX){
+            expectKeyword("ON");
+            String tableName = nextWord();
+            IndexType indexType = parseIndexType();
+            return new DropDBCommand(structureType, tableName, indexType, parseIndexAttributes());
+        }
+        String structureName = nextWord();
+        if (isNext(TokenType.LEFT_PAREN)){
+            throw new InvalidCommandArgumentException("Drop command has unexpected arguments.");
+        }
+        return new DropDBCommand(structureType, structureName, null, null);
+    }
+
+    /**
+     * Parses the type of structure a CREATE or DROP command changes.
+     * @return The structure type.
+     * @throws DBException Thrown if the word is not DATABASE, TABLE or INDEX.
+     */
+    private StructureType parseStructureType() throws DBException {
+        switch (nextWord().toUpperCase()){
+            case "DATABASE":
+                return StructureType.DATABASE;
+            case "TABLE":
+                return StructureType.TABLE;
+            case "INDEX":
+                return StructureType.INDEX;
+            default:
+                throw new InvalidCommandArgumentException("No valid structure was selected.");
+        }
+    }
+
+    /**
+     * Parses the optional USING clause of an index command. Indexes are hash indexes by default.
+     * @return The index type.
+     * @throws DBException Thrown if the named type is not HASH or BTREE.
+     */
+    private IndexType parseIndexType() throws DBException {
+        if (!acceptKeyword("USING")){
+            return IndexType.HASH;
+        }
+        switch (nextWord().toUpperCase()){
+            case "HASH":
+                return IndexType.HASH;
+            case "BTREE":
+                return IndexType.BTREE;
+            default:
+                throw new InvalidCommandArgumentException("Invalid index type provided.");
+        }
+    }
+
+    /**
+     * Parses the attribute list of an index command.
+     * @return The list of indexed attributes.
+     * @throws DBException Thrown if there is no list.
+     */
+    private AttributeList parseIndexAttributes() throws DBException {
+        if (!isNext(TokenType.LEFT_PAREN)){
+            throw new InvalidCommandArgumentException("No attribute was given for the index.");
+        }
+        ArrayList<String> attributeNames = new ArrayList<>();
+        expectToken(TokenType.LEFT_PAREN);
+        if (!acceptToken(TokenType.RIGHT_PAREN)){
+            do {
+                attributeNames.add(nextWord());
+            } while (acceptToken(TokenType.COMMA));
+            expectToken(TokenType.RIGHT_PAREN);
+        }
+        return new AttributeList(attributeNames.toArray(new String[0]));
+    }
+
+    /**
+     * Parses ALTER TABLE name ADD attribute, ALTER TABLE name DROP attribute or
+     * ALTER TABLE name CONVERT format.
+     * @return The ALTER command.
+     * @throws DBException Thrown if the statement is not of these forms.
+     */
+    private DBCommand parseAlter() throws DBException {
+        expectKeyword("TABLE");
+        String tableName = nextWord();
+        AlterType alterType;
+        switch (nextWord().toUpperCase()){
+            case "ADD":
+                alterType = AlterType.ADD;
+                break;
+            case "DROP":
+                alterType = AlterType.DROP;
+                break;
+            case "CONVERT":
+                alterType = AlterType.CONVERT;
+                break;
+            default:
+                throw new InvalidCommandArgumentException("Invalid alteration type provided.");
+        }
+        return new AlterDBCommand(tableName, alterType, nextWord());
+    }
+
+    /**
+     * Parses INSERT INTO name VALUES (value, ...), (value, ...), ...
+     * @return The INSERT command.
+     * @throws DBException Thrown if the value lists are not separated by commas or do not end correctly.
+     */
+    private DBCommand parseInsert() throws DBException {
+        expectKeyword("INTO");
+        String tableName = nextWord();
+        expectKeyword("VALUES");
+        if (!isNext(TokenType.LEFT_PAREN)){
+            throw new InvalidCommandArgumentException("Insert argument did not have the expected structure.");
+        }
+        ArrayList<ValueList> valueLists = new ArrayList<>();
+        while (true){
+            valueLists.add(parseValueList());
+            if (isNext(TokenType.END)){
+                return new InsertDBCommand(tableName, valueLists);
+            }
+            if (!acceptToken(TokenType.COMMA)){
+                throw new InvalidCommandArgumentException("Insert value lists must be separated by commas.");
+            }
+            if (!isNext(TokenType.LEFT_PAREN)){
+                throw new InvalidCommandArgumentException("Insert value lists did not end correctly.");
+            }
+        }
+    }
+
+    /**
+     * Parses a parenthesised list of values.
+     * @return The list of values, which may be empty.
+     * @throws DBException Thrown if the list is not closed, has an empty value or holds something other than values.
+     */
+    private ValueList parseValueList() throws DBException {
+        ArrayList<String> values = new ArrayList<>();
+        expectToken(TokenType.LEFT_PAREN);
+        if (!acceptToken(TokenType.RIGHT_PAREN)){
+            do {
+                if (isNext(TokenType.COMMA) || isNext(TokenType.RIGHT_PAREN)){
+                    throw new InvalidCommandArgumentException("Invalid comma separators in value list.");
+                }
+                values.add(nextValue());
+            } while (acceptToken(TokenType.COMMA));
+            expectToken(TokenType.RIGHT_PAREN);
+        }
+        return new ValueList(values.toArray(new String[0]));
+    }
+
+    /**
+     * Parses SELECT * FROM name [WHERE condition] or SELECT attribute, ... FROM name [WHERE condition].
+     * @return The SELECT command.
+     * @throws DBException Thrown if the statement is not of these forms.
+     */
+    private DBCommand parseSelect() throws DBException {
+        ArrayList<String> attributeNames = new ArrayList<>();
+        if (acceptToken(TokenType.STAR)){
+            attributeNames.add("*");
+        }
+        else {
+            do {
+                attributeNames.add(nextWord());
+            } while (acceptToken(TokenType.COMMA));
+        }
+        expectKeyword("FROM");
+        String tableName = nextWord();
+        CommandCondition selectConditions = null;
+        if (!isNext(TokenType.END)){
+            expectKeyword("WHERE");
+            selectConditions = new CommandCondition(parseCondition());
+        }
+        return new SelectDBCommand(new WildAttributeList(attributeNames.toArray(new String[0])), tableName,
+                selectConditions);
+    }
+
+    /**
+     * Parses UPDATE name SET attribute = value, ... WHERE condition.
+     * @return The UPDATE command.
+     * @throws DBException Thrown if a pair has no equals sign or there is no condition.
+     */
+    private DBCommand parseUpdate() throws DBException {
+        String tableName = nextWord();
+        expectKeyword("SET");
+        ArrayList<String> attributeNames = new ArrayList<>();
+        ArrayList<String> attributeValues = new ArrayList<>();
+        do {
+            attributeNames.add(nextWord());
+            if (!acceptOperator("=")){
+                throw new InvalidCommandArgumentException("Name value pair should contain an equal sign.");
+            }
+            attributeValues.add(nextValue());
+        } while (acceptToken(TokenType.COMMA));
+        if (isNext(TokenType.END)){
+            throw new InvalidCommandArgumentException("Update command expects condition.");
+        }
+        expectKeyword("WHERE");
+        if (isNext(TokenType.END)){
+            throw new InvalidCommandArgumentException("Update command expects condition.");
+        }
+        NameValueList updateNameValues = new NameValueList(attributeNames.toArray(new String[0]),
+                attributeValues.toArray(new String[0]));
+        return new UpdateDBCommand(tableName, updateNameValues, new CommandCondition(parseCondition()));
+    }
+
+    /**
+     * Parses DELETE FROM name WHERE condition.
+     * @return The DELETE command.
+     * @throws DBException Thrown if there is no condition.
+     */
+    private DBCommand parseDelete() throws DBException {
+        expectKeyword("FROM");
+        String tableName = nextWord();
+        expectKeyword("WHERE");
+        if (isNext(TokenType.END)){
+            throw new InvalidCommandArgumentException("Delete command expects condition.");
+        }
+        return new DeleteDBCommand(tableName, new CommandCondition(parseCondition()));
+    }
+
+    /**
+     * Parses JOIN table AND table ON attribute AND attribute.
+     * @return The JOIN command.
+     * @throws DBException Thrown if the statement is not of this form.
+     */
+    private DBCommand parseJoin() throws DBException {
+        String primaryTable = nextWord();
+        expectKeyword("AND");
+        String secondaryTable = nextWord();
+        expectKeyword("ON");
+        String primaryAttribute = nextWord();
+        expectKeyword("AND");
+        String secondaryAttribute = nextWord();
+        return new JoinDBCommand(primaryTable, secondaryTable, primaryAttribute, secondaryAttribute);
+    }
+
+    /**
+     * Parses LOAD DATA 'path' INTO name.
+     * @return The LOAD command.
+     * @throws DBException Thrown if the path is not in single quotes or the statement is not of this form.
+     */
+    private DBCommand parseLoad() throws DBException {
+        expectKeyword("DATA");
+        DBToken pathToken = nextToken();
+        String pathString = pathToken.getTokenText();
+        if (pathToken.getTokenType() != TokenType.STRING || pathString.length() < 3){
+            throw new InvalidCommandArgumentException("Load expects a file path in single quotes.");
+        }
+        expectKeyword("INTO");
+        String tableName = nextWord();
+        return new LoadDBCommand(pathString.substring(1, pathString.length() - 1), tableName);
+    }
+
+    /**
+     * Parses PREPARE name AS statement. The statement is parsed once to check its form, with any
+     * parameters in place of its values.
+     * @return The PREPARE command.
+     * @throws DBException Thrown if there is no session, or the statement is not of its form.
+     */
+    private DBCommand parsePrepare() throws DBException {
+        String statementName = nextWord();
+        expectKeyword("AS");
+        DBToken commandToken = tokens.get(tokenIndex);
+        if (commandToken.isKeyword("PREPARE") || commandToken.isKeyword("EXECUTE")){
+            throw new DBInvalidCommandException("Prepared statements cannot prepare or execute other statements.");
+        }
+        checkSession();
+        ArrayList<DBToken> statementTokens = new ArrayList<>(tokens.subList(tokenIndex, tokens.size()));
+        new DBParser(statementTokens, null, true).parseStatement();
+        tokenIndex = tokens.size() - 1;
+        return new PrepareDBCommand(preparedStatements, statementName, new DBPreparedStatement(statementTokens));
+    }
+
+    /**
+     * Parses EXECUTE name [(value, ...)] and returns the prepared statement's command, with the
+     * values bound to its parameters in order.
+     * @return The command of the prepared statement.
+     * @throws DBException Thrown if there is no session or prepared statement of the name, or the
+     * values do not match its parameters.
+     */
+    private DBCommand parseExecute() throws DBException {
+        String statementName = nextWord();
+        ArrayList<DBToken> parameterValues = new ArrayList<>();
+        if (acceptToken(TokenType.LEFT_PAREN) && !acceptToken(TokenType.RIGHT_PAREN)){
+            do {
+                DBToken valueToken = nextToken();
+                if (valueToken.getTokenType() != TokenType.WORD && valueToken.getTokenType() != TokenType.STRING){
+                    throw new InvalidCommandArgumentException("Command did not have the correct structure.");
+                }
+                parameterValues.add(valueToken);
+            } while (acceptToken(TokenType.COMMA));
+            expectToken(TokenType.RIGHT_PAREN);
+        }
+        if (!isNext(TokenType.END)){
+            throw new InvalidCommandArgumentException("Command did not have the correct structure.");
+        }
+        checkSession();
+        DBPreparedStatement preparedStatement = preparedStatements.get(statementName);
+        if (preparedStatement == null){
+            throw new DBObjectDoesNotExistException("Could not find prepared statement.");
+        }
+        ArrayList<DBToken> boundTokens = preparedStatement.bindParameters(parameterValues);
+        return new DBParser(boundTokens, null, false).parseStatement();
+    }
+
+    /**
+     * Checks that the statement is performed by a session, which keeps prepared statements.
+     * @throws DBException Thrown if there is no session.
+     */
+    private void checkSession() throws DBException {
+        if (preparedStatements == null){
+            throw new DBInvalidCommandException("Prepared statements can only be used by a session.");
+        }
+    }
+
+    /**
+     * Parses the conditions of a command.
+     * @return Root node of the conditions.
+     * @throws DBException Thrown if the conditions are empty or not of the correct form.
+     */
+    ConditionNode parseCondition() throws DBException {
+        if (isNext(TokenType.END)){
+            throw new InvalidCommandArgumentException("Conditions were empty.");
+        }
+        return parseOrCondition();
+    }
+
+    /**
+     * Parses conditions joined by OR.
+     * @return Node of the conditions.
+     * @throws DBException Thrown if the conditions are not of the correct form.
+     */
+    private ConditionNode parseOrCondition() throws DBException {
+        ConditionNode conditionNode = parseAndCondition();
+        while (acceptKeyword("OR")){
+            conditionNode = new ConditionNode(conditionNode, parseAndCondition(), false);
+        }
+        return conditionNode;
+    }
+
+    /**
+     * Parses conditions joined by AND.
+     * @return Node of the conditions.
+     * @throws DBException Thrown if the conditions are not of the correct form.
+     */
+    private ConditionNode parseAndCondition() throws DBException {
+        ConditionNode conditionNode = parseConditionTerm();
+        while (acceptKeyword("AND")){
+            conditionNode = new ConditionNode(conditionNode, parseConditionTerm(), true);
+        }
+        return conditionNode;
+    }
+
+    /**
+     * Parses a parenthesised condition or a single comparison of an attribute with a value.
+     * @return Node of the condition.
+     * @throws DBException Thrown if the condition is not of the correct form or uses an invalid operator.
+     */
+    private ConditionNode parseConditionTerm() throws DBException {
+        if (acceptToken(TokenType.LEFT_PAREN)){
+            ConditionNode conditionNode = parseOrCondition();
+            if (!acceptToken(TokenType.RIGHT_PAREN)){
+                throw new DBConditionFormException("Conditions were not of the correct form.");
+            }
+            return conditionNode;
+        }
+        DBToken attributeToken = tokens.get(tokenIndex);
+        if (attributeToken.getTokenType() != TokenType.WORD){
+            throw new DBConditionFormException("Conditions were not of the correct form.");
+        }
+        DBToken operatorToken = tokens.get(++tokenIndex);
+        if (operatorToken.getTokenType() == TokenType.END){
+            throw new DBConditionFormException("Conditions were not of the correct form.");
+        }
+        tokenIndex++;
+        char operator = convertOperator(operatorToken);
+        DBToken valueToken = tokens.get(tokenIndex);
+        if (!isValueToken(valueToken)){
+            throw new DBConditionFormException("Conditions were not of the correct form.");
+        }
+        tokenIndex++;
+        return new ConditionNode(attributeToken.getTokenText(), operator, valueToken.getTokenText());
+    }
+
+    /**
+     * Converts a comparison operator to the single character held by condition nodes.
+     * @param operatorToken Operator or LIKE keyword.
+     * @return Single character operator.
+     * @throws DBException Thrown if the token is not a comparison operator.
+     */
+    private char convertOperator(DBToken operatorToken) throws DBException {
+        if (operatorToken.isKeyword("LIKE")){
+            return '~';
+        }
+        if (operatorToken.getTokenType() == TokenType.OPERATOR){
+            switch (operatorToken.getTokenText()){
+                case "==":
+                    return '=';
+                case "!=":
+                    return '!';
+                case "<":
+                    return '<';
+                case ">":
+                    return '>';
+                case "<=":
+                    return '£';
+                case ">=":
+                    return '@';
+                default:
+                    break;
+            }
+        }
+        throw new DBConditionFormException("Invalid operator used for conditions.");
+    }
+
+    /**
+     * Returns the next token.
+     * @return The next token, which is never END.
+     * @throws DBException Thrown if the statement has ended.
+     */
+    private DBToken nextToken() throws DBException {
+        DBToken token = tokens.get(tokenIndex);
+        if (token.getTokenType() == TokenType.END){
+            throw new InvalidCommandArgumentException("Command has an inappropriate number of arguments.");
+        }
+        tokenIndex++;
+        return token;
+    }
+
+    /**
+     * Returns the text of the next token, which must be a word.
+     * @return Text of the word.
+     * @throws DBException Thrown if the statement has ended or the next token is not a word.
+     */
+    private String nextWord() throws DBException {
+        DBToken token = nextToken();
+        if (token.getTokenType() != TokenType.WORD){
+            throw new InvalidCommandArgumentException("Command did not have the correct structure.");
+        }
+        return token.getTokenText();
+    }
+
+    /**
+     * Returns the text of the next token, which must be a word or string literal.
+     * @return Text of the value.
+     * @throws DBException Thrown if the statement has ended or the next token is not a value.
+     */
+    private String nextValue() throws DBException {
+        DBToken token = nextToken();
+        if (!isValueToken(token)){
+            throw new InvalidCommandArgumentException("Command did not have the correct structure.");
+        }
+        return token.getTokenText();
+    }
+
+    /**
+     * Determines if a token can be used as a value. Parameters are only values in statements
+     * being prepared.
+     * @param token Token to check.
+     * @return Returns true if the token is a word, string literal or allowed parameter.
+     */
+    private boolean isValueToken(DBToken token){
+        TokenType tokenType = token.getTokenType();
+        return tokenType == TokenType.WORD || tokenType == TokenType.STRING
+                || (allowParameters && tokenType == TokenType.PARAMETER);
+    }
+
+    /**
+     * Consumes the next token, which must match a keyword.
+     * @param keyword Expected keyword in upper case.
+     * @throws DBException Thrown if the statement has ended or the next token does not match.
+     */
+    private void expectKeyword(String keyword) throws DBException {
+        DBToken token = nextToken();
+        if (!token.isKeyword(keyword)){
+            throw new DBServerException("String " + token.getTokenText().toUpperCase() + " did not match the expected " +
+                    keyword + ".");
+        }
+    }
+
+    /**
+     * Consumes the next token, which must be of a type.
+     * @param tokenType Expected type of the token.
+     * @throws DBException Thrown if the next token is of another type.
+     */
+    private void expectToken(TokenType tokenType) throws DBException {
+        if (!acceptToken(tokenType)){
+            throw new InvalidCommandArgumentException("Command did not have the correct structure.");
+        }
+    }
+
+    /**
+     * Consumes the next token if it matches a keyword.
+     * @param keyword Keyword in upper case.
+     * @return Returns true if the token was consumed.
+     */
+    private boolean acceptKeyword(String keyword){
+        if (tokens.get(tokenIndex).isKeyword(keyword)){
+            tokenIndex++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Consumes the next token if it is of a type.
+     * @param tokenType Type of the token.
+     * @return Returns true if the token was consumed.
+     */
+    private boolean acceptToken(TokenType tokenType){
+        if (isNext(tokenType)){
+            tokenIndex++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Consumes the next token if it is an operator.
+     * @param operator Text of the operator.
+     * @return Returns true if the token was consumed.
+     */
+    private boolean acceptOperator(String operator){
+        DBToken token = tokens.get(tokenIndex);
+        if (token.getTokenType() == TokenType.OPERATOR && token.getTokenText().equals(operator)){
+            tokenIndex++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Determines if the next token is of a type, without consuming it.
+     * @param tokenType Type to check.
+     * @return Returns true if the next token is of the type.
+     */
+    private boolean isNext(TokenType tokenType){
+        return tokens.get(tokenIndex).getTokenType() == tokenType;
+    }
+
+    /**
+     * Testing for DBParser.
+     */
+    public static void test(){
+        try {
+            assert new DBParser("use db1;").parseStatement() instanceof UseDBCommand;
+            assert new DBParser("CREATE table t1 (name string, score FLOAT, notes);").parseStatement()
+                    instanceof CreateDBCommand;
+            assert new DBParser("create index on t1 using btree (score);").parseStatement() instanceof CreateDBCommand;
+            assert new DBParser("drop index on t1 (score);").parseStatement() instanceof DropDBCommand;
+            assert new DBParser("alter table t1 convert columnar;").parseStatement() instanceof AlterDBCommand;
+            assert new DBParser("insert into t1 values ('a', 1), ('b', 2.5);").parseStatement() instanceof InsertDBCommand;
+            assert new DBParser("select*from t1;").parseStatement() instanceof SelectDBCommand;
+            assert new DBParser("update t1 set aa = 1, bb = 'x' where cc == 2;").parseStatement() instanceof UpdateDBCommand;
+            assert new DBParser("delete from t1 where (aa > 1) or (bb like 'x');").parseStatement() instanceof DeleteDBCommand;
+            assert new DBParser("join t1 and t2 on aa and bb;").parseStatement() instanceof JoinDBCommand;
+            assert new DBParser("load data 'rows.tsv' into t1;").parseStatement() instanceof LoadDBCommand;
+            assert new DBParser("SHOW stats;").parseStatement() instanceof ShowDBCommand;
+            assert new DBParser("explain select * from t1 where aa == 1;").parseStatement() instanceof ExplainDBCommand;
+            assert new DBParser("EXPLAIN ANALYZE join t1 and t2 on aa and bb;").parseStatement()
+                    instanceof ExplainDBCommand;
+            String condition1 = new DBParser("((A==x) aNd (B>=c)) or (C != d);").parseCondition().toString();
+            assert condition1.equals("((A=x)&(B@c))+(C!d)");
+            String condition2 = new DBParser("aa < 1 or bb <= 2 and cc LIKE 'x';").parseCondition().toString();
+            assert condition2.equals("(aa<1)+((bb£2)&(cc~'x'))");
+        }
+        catch (DBException dbe){
+            System.out.println("Error testing DBParser.");
+        }
+        testPreparedStatements();
+        String[] invalidStatements = new String[]{"create new table test1;", "selec * from t1;", "use;",
+                "use db1 db2;", "select * from t1 where;", "select * from t1 where (aa == 1;",
+                "select * from t1 where aa = 1;", "insert into t1 values ('a') ('b');",
+                "insert into t1 values ('a'),;", "update t1 set aa = 1;", "delete from t1 where;",
+                "drop table t1 (aa);", "create index on t1;", "show;", "show tables;", "explain;",
+                "explain analyze;", "explain selec * from t1;"};
+        for (String invalidStatement : invalidStatements){
+            try {
+                new DBParser(invalidStatement).parseStatement();
+                assert false;
+            }
+            catch (DBException dbe){
+                //expected as the statement is invalid
+            }
+        }
+        DBTest.passMessage("DBParser passed.");
+    }
+
+    /**
+     * Testing for PREPARE and EXECUTE.
+     */
+    private static void testPreparedStatements(){
+        HashMap<String, DBPreparedStatement> preparedStatements = new HashMap<>();
+        try {
+            new DBParser("prepare byId as select * from t1 where id == ?;", preparedStatements).parseStatement()
+                    .executeCommand();
+            new DBParser("PREPARE add AS insert into t1 values (?, 'b', ?);", preparedStatements).parseStatement()
+                    .executeCommand();
+            assert preparedStatements.get("byId").getNumParameters() == 1;
+            assert preparedStatements.get("add").getNumParameters() == 2;
+            assert new DBParser("execute byId (42);", preparedStatements).parseStatement() instanceof SelectDBCommand;
+            assert new DBParser("EXECUTE add ('a', 1);", preparedStatements).parseStatement()
+                    instanceof InsertDBCommand;
+        }
+        catch (DBException dbe){
+            System.out.println("Error testing prepared statements in DBParser.");
+        }
+        String[] invalidStatements = new String[]{"select * from t1 where id == ?;", "prepare p1 as selec * from t1;",
+                "prepare p1 as select * from t1 where;", "prepare p1 as execute byId (1);", "execute nope (1);",
+                "execute byId;", "execute byId (1, 2);", "execute byId (?);", "execute byId (1) (2);"};
+        for (String invalidStatement : invalidStatements){
+            try {
+                new DBParser(invalidStatement, preparedStatements).parseStatement();
+                assert false;
+            }
+            catch (DBException dbe){
+                //expected as the statement is invalid
+            }
+        }
+        try {
+            new DBParser("prepare p1 as select * from t1;").parseStatement();
+            assert false;
+        }
+        catch (DBException dbe){
+            //expected as there is no session
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package DBObjects.DBCommands;
+
+import DBException.*;
+import DBObjects.DBTest;
+import java.util.ArrayList;
+
+/**
+ * DBPreparedStatement holds a statement prepared by PREPARE. The statement is broken into tokens
+ * and checked once, with each value to be bound written as ?. EXECUTE replaces the parameters with
+ * its values and parses the tokens into a new command, so the statement is never read again.
+ */
+public class DBPreparedStatement {
+    private final ArrayList<DBToken> statementTokens;
+    private final int numParameters;
+
+    /**
+     * Constructor for a DBPreparedStatement.
+     * @param statementTokens Tokens of the statement, ending with an END token.
+     */
+    public DBPreparedStatement(ArrayList<DBToken> statementTokens){
+        this.statementTokens = statementTokens;
+        int parameterCount = 0;
+        for (DBToken token : statementTokens){
+            if (token.getTokenType() == TokenType.PARAMETER){
+                parameterCount++;
+            }
+        }
+        numParameters = parameterCount;
+    }
+
+    /**
+     * Returns the number of values the statement is executed with.
+     * @return Number of parameters.
+     */
+    public int getNumParameters() {
+        return numParameters;
+    }
+
+    /**
+     * Replaces the statement's parameters with values, in the order they are written.
+     * @param parameterValues Word or string tokens to bind.
+     * @return Tokens of the statement with its values bound.
+     * @throws DBException Thrown if the number of values does not match the number of parameters.
+     */
+    public ArrayList<DBToken> bindParameters(ArrayList<DBToken> parameterValues) throws DBException {
+        if (parameterValues.size() != numParameters){
+            throw new InvalidCommandArgumentException("Prepared statement was given the wrong number of values.");
+        }
+        ArrayList<DBToken> boundTokens = new ArrayList<>(statementTokens.size());
+        int parameterIndex = 0;
+        for (DBToken token : statementTokens){
+            if (token.getTokenType() == TokenType.PARAMETER){
+                boundTokens.add(parameterValues.get(parameterIndex++));
+            }
+            else {
+                boundTokens.add(token);
+            }
+        }
+        return boundTokens;
+    }
+
+    /**
+     * Testing for DBPreparedStatement.
+     */
+    public static void test(){
+        try {
+            String testStatement = "select * from t1 where (aa == ?) or (bb == ?);";
+            ArrayList<DBToken> statementTokens = new DBLexer(testStatement).tokenize();
+            DBPreparedStatement test1 = new DBPreparedStatement(statementTokens);
+            assert test1.getNumParameters() == 2;
+            ArrayList<DBToken> parameterValues = new ArrayList<>();
+            parameterValues.add(new DBToken(TokenType.WORD, "42"));
+            parameterValues.add(new DBToken(TokenType.STRING, "'x'"));
+            ArrayList<DBToken> boundTokens = test1.bindParameters(parameterValues);
+            assert boundTokens.size() == statementTokens.size();
+            assert boundTokens.get(8).getTokenText().equals("42") && boundTokens.get(14).getTokenText().equals("'x'");
+            assert statementTokens.get(8).getTokenType() == TokenType.PARAMETER;
+            parameterValues.remove(1);
+            try {
+                test1.bindParameters(parameterValues);
+                assert false;
+            }
+            catch (DBException dbe){
+                //expected as a value is missing
+            }
+        }
+        catch (DBException dbe){
+            System.out.println("Error testing DBPreparedStatement.");
+        }
+        DBTest.passMessage("DBPreparedStatement passed.");
+    }
+}
@@ -0,0 +1,162 @@
+package DBObjects.DBCommands;
+
+import DBObjects.DBTest;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * DBQueryPlan describes how a command finds and returns its rows, for EXPLAIN. The plan is a
+ * tree of operators, printed from the operator producing the result down to the operators
+ * loading tables, with each operator indented below the one that uses its rows.
+ * For EXPLAIN ANALYZE the command is also performed, and each operator reports the rows it
+ * produced, the time it took and the bytes it allocated. Operators run one after another, so
+ * each is measured from when the previous operator finished.
+ */
+public class DBQueryPlan {
+    private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final boolean analyzed;
+    private final ArrayList<PlanOperator> planOperators = new ArrayList<>();
+    private final HashMap<String, long[]> operatorMeasurements = new HashMap<>();
+    private long checkpointNanos;
+    private long checkpointBytes;
+
+    /**
+     * PlanOperator is a single step of the plan.
+     */
+    private static class PlanOperator {
+        private final String operatorKey;
+        private final int depth;
+        private final String operatorName;
+        private final String operatorDetail;
+
+        /**
+         * Constructor for a PlanOperator.
+         * @param operatorKey Key the command reports the operator's measurements with.
+         * @param depth Depth of the operator in the plan, 0 for the operator producing the result.
+         * @param operatorName Name of the operator, such as Filter.
+         * @param operatorDetail Description of what the operator does.
+         */
+        private PlanOperator(String operatorKey, int depth, String operatorName, String operatorDetail){
+            this.operatorKey = operatorKey;
+            this.depth = depth;
+            this.operatorName = operatorName;
+            this.operatorDetail = operatorDetail;
+        }
+    }
+
+    /**
+     * Constructor for a DBQueryPlan.
+     * @param analyzed True if the command is performed and its operators measured.
+     */
+    public DBQueryPlan(boolean analyzed){
+        this.analyzed = analyzed;
+        startMeasuring();
+    }
+
+    /**
+     * Determines if the plan's command is performed.
+     * @return Returns true for EXPLAIN ANALYZE.
+     */
+    public boolean isAnalyzed() {
+        return analyzed;
+    }
+
+    /**
+     * Adds an operator below the operators already added.
+     * @param operatorKey Key the command reports the operator's measurements with.
+     * @param depth Depth of the operator in the plan, 0 for the operator producing the result.
+     * @param operatorName Name of the operator, such as Filter.
+     * @param operatorDetail Description of what the operator does.
+     */
+    public void addOperator(String operatorKey, int depth, String operatorName, String operatorDetail){
+        planOperators.add(new PlanOperator(operatorKey, depth, operatorName, operatorDetail));
+    }
+
+    /**
+     * Starts measuring the next operator from now. Used when work that belongs to no operator,
+     * such as planning, has been done since the last operator finished.
+     */
+    public void startMeasuring(){
+        checkpointNanos = System.nanoTime();
+        checkpointBytes = findAllocatedBytes();
+    }
+
+    /**
+     * Records an operator as finished, measuring it from when the previous operator finished.
+     * @param operatorKey Key of the operator.
+     * @param actualRows Number of rows the operator produced.
+     */
+    public void finishOperator(String operatorKey, long actualRows){
+        long finishNanos = System.nanoTime();
+        long finishBytes = findAllocatedBytes();
+        long allocatedBytes = finishBytes < 0 ? -1 : finishBytes - checkpointBytes;
+        operatorMeasurements.put(operatorKey, new long[]{actualRows, finishNanos - checkpointNanos, allocatedBytes});
+        startMeasuring();
+    }
+
+    /**
+     * Finds the bytes allocated by the current thread so far.
+     * @return Number of bytes, or -1 if the runtime does not count them.
+     */
+    private static long findAllocatedBytes(){
+        if (threadBean instanceof com.sun.management.ThreadMXBean){
+            return ((com.sun.management.ThreadMXBean) threadBean).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /**
+     * Prints the plan as a tab-delimited table of operators. Analyzed plans also hold the rows,
+     * time in milliseconds and bytes allocated by each operator, or - for an operator that did not run.
+     * @return The printed plan.
+     */
+    public String printPlan(){
+        String lineSeparator = System.lineSeparator();
+        StringBuilder planString = new StringBuilder("operator\tdetail\t");
+        if (analyzed){
+            planString.append("rows\ttime_ms\tallocated_bytes\t");
+        }
+        planString.append(lineSeparator);
+        for (PlanOperator operator : planOperators){
+            planString.append("  ".repeat(operator.depth)).append(operator.operatorName).append('\t')
+                    .append(operator.operatorDetail).append('\t');
+            if (analyzed){
+                long[] measurements = operatorMeasurements.get(operator.operatorKey);
+                if (measurements == null){
+                    planString.append("-\t-\t-\t");
+                }
+                else {
+                    planString.append(measurements[0]).append('\t')
+                            .append(String.format(Locale.ROOT, "%.3f", measurements[1] / 1e6)).append('\t')
+                            .append(measurements[2] < 0 ? "-" : String.valueOf(measurements[2])).append('\t');
+                }
+            }
+            planString.append(lineSeparator);
+        }
+        return planString.toString();
+    }
+
+    /**
+     * Testing for DBQueryPlan.
+     */
+    public static void test(){
+        DBQueryPlan test1 = new DBQueryPlan(false);
+        test1.addOperator("project", 0, "Project", "columns: *");
+        test1.addOperator("load", 1, "Load", "t1");
+        String lineSeparator = System.lineSeparator();
+        assert test1.printPlan().equals("operator\tdetail\t" + lineSeparator + "Project\tcolumns: *\t" + lineSeparator
+                + "  Load\tt1\t" + lineSeparator);
+        DBQueryPlan test2 = new DBQueryPlan(true);
+        test2.addOperator("filter", 0, "Filter", "full scan");
+        test2.addOperator("load", 1, "Load", "t1");
+        test2.finishOperator("load", 42);
+        String[] planLines = test2.printPlan().split(lineSeparator);
+        assert planLines.length == 3 && planLines[0].equals("operator\tdetail\trows\ttime_ms\tallocated_bytes\t");
+        assert planLines[1].equals("Filter\tfull scan\t-\t-\t-\t");
+        assert planLines[2].startsWith("  Load\tt1\t42\t");
+        DBTest.passMessage("DBQueryPlan passed.");
+    }
+}
@@ -0,0 +1,44 @@
+package DBObjects.DBCommands;
+
+/**
+ * DBToken is a single token of a statement, produced by the DBLexer.
+ */
+public class DBToken {
+    private final TokenType tokenType;
+    private final String tokenText;
+
+    /**
+     * Constructor for a DBToken.
+     * @param tokenType What the token represents.
+     * @param tokenText Text of the token as written in the statement.
+     */
+    public DBToken(TokenType tokenType, String tokenText){
+        this.tokenType = tokenType;
+        this.tokenText = tokenText;
+    }
+
+    /**
+     * Returns what the token represents.
+     * @return The token's type.
+     */
+    public TokenType getTokenType(){
+        return tokenType;
+    }
+
+    /**
+     * Returns the text of the token.
+     * @return Text as written in the statement. String literals keep their quotes.
+     */
+    public String getTokenText(){
+        return tokenText;
+    }
+
+    /**
+     * Determines if the token is a keyword. Keywords are not case-sensitive.
+     * @param keyword Keyword in upper case.
+     * @return Returns true if the token is a word matching the keyword.
+     */
+    public boolean isKeyword(String keyword){
+        return tokenType == TokenType.WORD && tokenText.equalsIgnoreCase(keyword);
+    }
+}
@@ -8,60 +8,27 @@ import DBObjects.DBCommands.CommandLists.CommandCondition;
  */
 public class DeleteDBCommand extends DBCommand {
 
-    private CommandCondition deleteConditions;
+    private final String tableName;
+    private final CommandCondition deleteConditions;
 
     /**
-     * Constructor for a DeleteDBCommand. Tokenizes the command string and looks for
-     * a parenthetical condition list. Non-parenthetical conditions are handled elsewhere.
-     * @param deleteArgs Pre-processed command string.
-     * @throws DBException Thrown if preprocessed string contains more than two elements.
+     * Constructor for a DeleteDBCommand.
+     * @param tableName Name of the table to delete rows from.
+     * @param deleteConditions Conditions of the rows to delete. Conditions are required for DELETE.
      */
-    public DeleteDBCommand(String[] deleteArgs) throws DBException {
-        isEmptyCommand(deleteArgs);
-        commandString = deleteArgs[0];
-        tokenizedCommand = splitCommand(commandString);
-        tokenizedCommand = removeCommandName(tokenizedCommand);
-        if (deleteArgs.length == 2){
-            listString = deleteArgs[1];
-        }
-        if (deleteArgs.length > 2){
-            throw new InvalidCommandArgumentException("Delete command has the incorrect form.");
-        }
+    public DeleteDBCommand(String tableName, CommandCondition deleteConditions){
+        this.tableName = tableName;
+        this.deleteConditions = deleteConditions;
     }
 
     /**
-     * Parses and sets up objects to handle row deletion in a table.
-     * @throws DBException Thrown if the command is not formatted as expected.
+     * Sets up the table of a DELETE command.
+     * @throws DBException Thrown if the table name is invalid or the table cannot be loaded.
      */
     @Override
     public void prepareCommand() throws DBException {
-        int currentToken = 0;
-
-        String fromString = getNextToken(tokenizedCommand, currentToken++).toUpperCase();
-        compareStrings(fromString, "FROM");
-
-        String tableName = getNextToken(tokenizedCommand, currentToken++).toUpperCase();
         setupTable(tableName);
-
-        String whereString = getNextToken(tokenizedCommand, currentToken++).toUpperCase();
-        compareStrings(whereString, "WHERE");
-        if (currentToken != tokenizedCommand.length && listString == null){
-            listString = commandString.split("(?i)\\s+where\\s+")[1];
-        }
-
-        prepareConditions();
-    }
-
-    /**
-     * Evaluates conditions for the command. Conditions are required.
-     * @throws DBException Thrown if conditions don't exist or are incorrectly formatted.
-     */
-    public void prepareConditions() throws DBException {
-        if (listString == null){
-            throw new InvalidCommandArgumentException("Delete command expects condition.");
-        }
-        deleteConditions = new CommandCondition(listString);
-        deleteConditions.processList();
+        finishOperator("load", tableForCommand.getNumRows());
     }
 
     /**
@@ -71,6 +38,32 @@ public class DeleteDBCommand extends DBCommand {
     @Override
     public void executeCommand() throws DBException {
         deleteConditions.executeConditions(tableForCommand);
+        rowsScanned = deleteConditions.getRowsEvaluated();
+        rowsFiltered = deleteConditions.getRowsFiltered();
+        finishOperator("filter", tableForCommand.getNumRows());
         tableForCommand.deleteRows();
+        finishOperator("delete", rowsScanned - rowsFiltered);
+    }
+
+    /**
+     * Deletes can be explained.
+     * @return Returns true.
+     */
+    @Override
+    protected boolean isExplainable(){
+        return true;
+    }
+
+    /**
+     * Describes the deleting of rows, the filtering of rows by the conditions, and the loading of the table.
+     * @param commandPlan Plan to add the operators to.
+     * @throws DBException Thrown if the conditions are incorrectly formed.
+     */
+    @Override
+    protected void describePlan(DBQueryPlan commandPlan) throws DBException {
+        commandPlan.addOperator("delete", 0, "Delete", "rows of " + tableName);
+        commandPlan.addOperator("filter", 1, "Filter", deleteConditions.explainAccess(tableForCommand)
+                + "; predicates: " + deleteConditions.printConditions());
+        commandPlan.addOperator("load", 2, "Load", describeLoad(tableForCommand));
     }
 }
@@ -2,48 +2,80 @@ package DBObjects.DBCommands;
 
 import DBException.*;
 import DBObjects.*;
+import DBObjects.DBCommands.CommandLists.AttributeList;
+import java.util.ArrayList;
 
 /**
  * DropCreateDBCommand handles commands that involve creating or dropping database objects.
  * Because the commands are similar, the bulk of their functionality is found in this class.
  */
 public abstract class DropCreateDBCommand extends DBCommand {
+    private final StructureType structureType;
+    private final String structureName;
+    private final IndexType indexType;
+    protected final AttributeList attributesToParse;
     DBObject objectToChange;
 
     /**
-     * Constructor for a DropCreateDBCommand. Instantiates some necessary variables.
-     * @param dropCreateArgs Tokenized command to be executed.
-     * @throws DBException Thrown if command processing fails.
+     * Constructor for a DropCreateDBCommand. Index commands name the indexed table and
+     * attribute, and tables may be created with a list of attributes.
+     * @param structureType Type of the object to drop or create.
+     * @param structureName Name of the database or table, or the indexed table for indexes.
+     * @param indexType Type of the index, or null for databases and tables.
+     * @param attributesToParse Attributes of a created table or the indexed attribute, or null.
      */
-    protected DropCreateDBCommand(String[] dropCreateArgs) throws DBException{
-        isEmptyCommand(dropCreateArgs);
-        commandString = dropCreateArgs[0];
-        tokenizedCommand = splitCommand(commandString);
-        tokenizedCommand = removeCommandName(tokenizedCommand);
-        setupListVars(dropCreateArgs);
+    protected DropCreateDBCommand(StructureType structureType, String structureName, IndexType indexType,
+                                  AttributeList attributesToParse){
+        this.structureType = structureType;
+        this.structureName = structureName;
+        this.indexType = indexType;
+        this.attributesToParse = attributesToParse;
     }
 
     /**
-     * Parses and initialises database objects necessary for executing a command.
-     * @throws DBException Thrown if the structure of the command is incorrect.
+     * Initialises database objects necessary for executing a command.
+     * @throws DBException Thrown if no working database is used for tables and indexes,
+     * or names and lists are invalid.
      */
     protected void prepareCommand() throws DBException {
-        int currentToken = 0;
-        String specifiedStructure = getNextToken(tokenizedCommand, currentToken++);
-        determineStructureType(specifiedStructure, workingDatabase);
-        //evaluateStructureArgs(structureType);
-        String structureName = getNextToken(tokenizedCommand, currentToken);
+        if (structureType != StructureType.DATABASE){
+            checkWorkingDB(workingDatabase);
+        }
+        if (structureType == StructureType.INDEX){
+            prepareIndex();
+            return;
+        }
         if (!isNameValid(structureName)){
             throw new DBInvalidObjectName("Invalid object name provided in command.");
         }
         objectToChange = initDBObject(structureType, structureName);
-        if (listString != null){
-            prepareList(listString);
+        if (attributesToParse != null){
+            attributesToParse.processList();
+        }
+    }
+
+    /**
+     * Initialises the index of an index command, of the form
+     * INDEX ON table [USING HASH|BTREE] (attribute). Indexes are hash indexes by default.
+     * @throws DBException Thrown if the table name or attribute is invalid.
+     */
+    private void prepareIndex() throws DBException {
+        if (!isNameValid(structureName)){
+            throw new DBInvalidObjectName("Invalid object name provided in command.");
+        }
+        attributesToParse.processList();
+        ArrayList<TableAttribute> attributeList = attributesToParse.getAttributeList();
+        if (attributeList.size() != 1){
+            throw new InvalidCommandArgumentException("An index must be on a single attribute.");
         }
+        statementLocks.lockTable(workingDatabase, structureName, true);
+        objectToChange = DBTableIndex.createIndex(indexType, attributeList.get(0).getObjectName(),
+                structureName, workingDatabase);
     }
 
     /**
-     * Initialises the database object to be dropped or created.
+     * Initialises the database object to be dropped or created, and locks it exclusively
+     * for the rest of the statement.
      * @param type The structure type, previously validated.
      * @param objectName Name of object to initialise.
      * @return Returns the initialised DBObject.
@@ -51,28 +83,17 @@ public abstract class DropCreateDBCommand extends DBCommand {
      */
     private DBObject initDBObject(StructureType type, String objectName) throws DBException {
         if (type == StructureType.DATABASE){
-            return new DBDatabase(objectName);
+            DBDatabase databaseToChange = new DBDatabase(objectName);
+            statementLocks.lockDatabase(databaseToChange, true);
+            return databaseToChange;
         }
+        statementLocks.lockTable(workingDatabase, objectName, true);
         return new DBTable(objectName, workingDatabase);
     }
 
-    /**
-     Setups up variables related to list arguments for drop and create.
-     * @param commandArgs Tokenized command.
-     * @throws DBException Thrown if setting up the list fails.
-     */
-    protected abstract void setupListVars(String[] commandArgs) throws DBException;
-
     /**
      * Executes the drop or create command.
      * @throws DBException Thrown if the execution of the command fail.
      */
     protected abstract void executeCommand() throws DBException;
-
-    /**
-     * Parses and initialises lists for create and drop commands.
-     * @param listString String of values to be processed.
-     * @throws DBException Thrown if the list is formatted incorrectly.
-     */
-    protected abstract void prepareList(String listString) throws DBException;
 }
@@ -1,32 +1,24 @@
 package DBObjects.DBCommands;
 
 import DBException.*;
+import DBObjects.IndexType;
+import DBObjects.DBCommands.CommandLists.AttributeList;
 
 /**
- * DropDBCommand handles deleting tables and databases.
+ * DropDBCommand handles deleting tables, databases and indexes.
  */
 public class DropDBCommand extends DropCreateDBCommand {
 
     /**
      * Constructor for DropDBCommand. Uses parent constructor.
-     * @param dropArgs Pre-processed command string.
-     * @throws DBException Thrown if pre-processed string is unexpected.
+     * @param structureType Type of the object to drop.
+     * @param structureName Name of the database or table, or the indexed table for indexes.
+     * @param indexType Type of the index, or null for databases and tables.
+     * @param indexAttributes The indexed attribute. Only index drops take a list.
      */
-    public DropDBCommand(String[] dropArgs) throws DBException{
-        super(dropArgs);
-    }
-
-    /**
-     * Determines if a list has been passed to a drop command. Drop
-     * commands do not take lists as arguments.
-     * @param commandArgs Tokenized command.
-     * @throws DBException Thrown if a list argument exists for the command.
-     */
-    @Override
-    public void setupListVars(String[] commandArgs) throws DBException {
-        if (commandArgs.length > 1){
-            throw new InvalidCommandArgumentException("Drop command has unexpected arguments.");
-        }
+    public DropDBCommand(StructureType structureType, String structureName, IndexType indexType,
+                         AttributeList indexAttributes){
+        super(structureType, structureName, indexType, indexAttributes);
     }
 
     /**
@@ -36,11 +28,4 @@ public class DropDBCommand extends DropCreateDBCommand {
     public void executeCommand() throws DBException {
         objectToChange.dropObject();
     }
-
-    /**
-     * Abstract class. There are no lists for drop commands.
-     * @param listString String of values to be processed.
-     */
-    @Override
-    public void prepareList(String listString) {}
 }
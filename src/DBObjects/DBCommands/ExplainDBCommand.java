@@ -0,0 +1,47 @@
+package DBObjects.DBCommands;
+
+import DBException.*;
+
+/**
+ * ExplainDBCommand returns the plan of a SELECT, UPDATE, DELETE or JOIN command, showing how its
+ * table is loaded, whether its conditions use an index or scan every row, the order its
+ * conditions are evaluated in, how tables are joined and which columns are returned.
+ * EXPLAIN ANALYZE also performs the command, so an UPDATE or DELETE still changes its table,
+ * and reports the rows, time and allocated bytes of each operator.
+ */
+public class ExplainDBCommand extends DBCommand {
+    private final DBCommand explainedCommand;
+    private final boolean analyzed;
+
+    /**
+     * Constructor for ExplainDBCommand.
+     * @param explainedCommand Command to explain.
+     * @param analyzed True if the command should be performed and measured.
+     */
+    protected ExplainDBCommand(DBCommand explainedCommand, boolean analyzed){
+        this.explainedCommand = explainedCommand;
+        this.analyzed = analyzed;
+    }
+
+    /**
+     * Checks that the command can be explained.
+     * @throws DBException Thrown if the command does not find rows of a table.
+     */
+    protected void prepareCommand() throws DBException {
+        if (!explainedCommand.isExplainable()){
+            throw new InvalidCommandArgumentException("EXPLAIN is only supported for SELECT, UPDATE, DELETE and JOIN.");
+        }
+    }
+
+    /**
+     * Plans the command, performing it if analyzed, and prints the plan as the return message.
+     * @throws DBException Thrown if the command could not be prepared or performed.
+     */
+    protected void executeCommand() throws DBException {
+        DBQueryPlan commandPlan = new DBQueryPlan(analyzed);
+        explainedCommand.explainCommand(workingDatabase, commandPlan);
+        rowsScanned = explainedCommand.getRowsScanned();
+        rowsFiltered = explainedCommand.getRowsFiltered();
+        returnMessage = commandPlan.printPlan();
+    }
+}
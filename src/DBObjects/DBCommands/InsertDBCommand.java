@@ -2,71 +2,50 @@ package DBObjects.DBCommands;
 
 import DBException.*;
 import DBObjects.DBCommands.CommandLists.ValueList;
+import DBObjects.TableRow;
+import java.util.ArrayList;
 
 /**
- * InsertDBCommand class handles inserting new rows into database tables.
+ * InsertDBCommand class handles inserting new rows into database tables. Several rows
+ * can be inserted at once by separating their value lists with commas, and are added together.
  */
 public class InsertDBCommand extends DBCommand {
 
-    private ValueList valuesToInsert;
+    private final String tableName;
+    private final ArrayList<ValueList> valueLists;
+    private ArrayList<TableRow> rowsToInsert;
 
     /**
-     * Constructor for the InsertDBCommand. Gets list and command strings from a pre-
-     * processed command. Insert commands but has a parenthetical list.
-     * @param insertArgs Pre-processed command from DBStatement.
-     * @throws DBException Thrown if the pre-processed command doesn't have two elements.
+     * Constructor for the InsertDBCommand.
+     * @param tableName Name of the table to insert rows into.
+     * @param valueLists Values of each inserted row.
      */
-    public InsertDBCommand(String[] insertArgs) throws DBException{
-        isEmptyCommand(insertArgs);
-        if (insertArgs.length != 2){
-            throw new InvalidCommandArgumentException("Insert argument did not have the expected structure.");
-        }
-        commandString = insertArgs[0];
-        tokenizedCommand = splitCommand(commandString);
-        tokenizedCommand = removeCommandName(tokenizedCommand);
-        listString = insertArgs[1];
+    public InsertDBCommand(String tableName, ArrayList<ValueList> valueLists){
+        this.tableName = tableName;
+        this.valueLists = valueLists;
     }
 
     /**
-     *  Parses and prepares list and table objects for the insert command.
-     * @throws DBException Thrown if the formatting of the tokenized command is incorrect.
+     * Prepares the table and converts each value list into a row.
+     * @throws DBException Thrown if the table name or values are invalid.
      */
     public void prepareCommand() throws DBException {
-        int currentToken = 0;
-
-        String intoString = getNextToken(tokenizedCommand, currentToken++).toUpperCase();
-        compareStrings(intoString, "INTO");
-
-        String tableName = getNextToken(tokenizedCommand, currentToken++);
-        setupTable(tableName);
-
-        String valuesString = getNextToken(tokenizedCommand, currentToken++).toUpperCase();
-        compareStrings(valuesString, "VALUES");
-
-        checkCommandEnded(currentToken);
-
-        prepareValueList(listString);
-    }
-
-    /**
-     * Parses a list of values to be inserted into a table. Also processes the list
-     * so it can be easily added to the table.
-     * @param valueList Comma-delimited string of values to add to the table.
-     * @throws DBException Thrown if the list is empty
-     */
-    protected void prepareValueList(String valueList) throws DBException {
-        valuesToInsert = new ValueList(valueList);
-        if (!valuesToInsert.processList()){
-            throw new InvalidCommandArgumentException("Insert expects values to insert.");
+        prepareTable(tableName);
+        rowsToInsert = new ArrayList<>(valueLists.size());
+        for (ValueList valuesToInsert : valueLists){
+            if (!valuesToInsert.processList()){
+                throw new InvalidCommandArgumentException("Insert expects values to insert.");
+            }
+            rowsToInsert.add(valuesToInsert.getValueList());
         }
     }
 
     /**
-     * Inserts a new row into a table.
-     * @throws DBException Thrown if the table row contains a different number of
+     * Inserts the new rows into a table.
+     * @throws DBException Thrown if a table row contains a different number of
      * values than the number of attributes in the table.
      */
     protected void executeCommand() throws DBException {
-        tableForCommand.insertTableRow(valuesToInsert.getValueList());
+        tableForCommand.insertTableRows(rowsToInsert);
     }
 }
@@ -10,73 +10,61 @@ import DBObjects.*;
  */
 public class JoinDBCommand extends DBCommand {
 
+    private final String primaryTableName;
+    private final String secondaryTableName;
+    private final String primaryAttributeName;
+    private final String secondaryAttributeName;
     private DBTable tableToJoin;
 
     /**
-     * Constructor for the JoinDBCommand. Takes a pre-processed string
-     * of arguments. There are no parenthetical lists for a JOIN command.
-     * @param joinArgs Pre-processed string for the command.
-     * @throws DBException Thrown if the command is empty or if parenthetical
-     * lists terminated the initial command.
+     * Constructor for the JoinDBCommand. There are no parenthetical lists for a JOIN command.
+     * @param primaryTableName Name of the first table.
+     * @param secondaryTableName Name of the second table.
+     * @param primaryAttributeName Attribute of the first table to join on.
+     * @param secondaryAttributeName Attribute of the second table to join on.
      */
-    protected JoinDBCommand(String[] joinArgs) throws DBException {
-        isEmptyCommand(joinArgs);
-        if (joinArgs.length != 1){
-            throw new InvalidCommandArgumentException("Join command has the incorrect form.");
-        }
-        commandString = joinArgs[0];
-        tokenizedCommand = splitCommand(commandString);
-        tokenizedCommand = removeCommandName(tokenizedCommand);
+    protected JoinDBCommand(String primaryTableName, String secondaryTableName, String primaryAttributeName,
+                            String secondaryAttributeName){
+        this.primaryTableName = primaryTableName;
+        this.secondaryTableName = secondaryTableName;
+        this.primaryAttributeName = primaryAttributeName;
+        this.secondaryAttributeName = secondaryAttributeName;
     }
 
     /**
-     * Parses and initialises objects for a JOIN command.
-     * @throws DBException Thrown if the tokenized command is set up incorrectly.
+     * Initialises objects for a JOIN command.
+     * @throws DBException Thrown if a table or attribute name is invalid.
      */
     @Override
     protected void prepareCommand() throws DBException {
-        int currentToken = 0;
-
-        String primaryTable = getNextToken(tokenizedCommand, currentToken++);
-        setupTable(primaryTable, DBJoinTableType.PRIMARY);
-
-        String tableAndString = getNextToken(tokenizedCommand, currentToken++).toUpperCase();
-        compareStrings(tableAndString, "AND");
+        setupTable(primaryTableName, DBJoinTableType.PRIMARY);
+        finishOperator("load_primary", tableForCommand.getNumRows());
+        setupTable(secondaryTableName, DBJoinTableType.SECONDARY);
+        finishOperator("load_secondary", tableToJoin.getNumRows());
 
-        String secondaryTable = getNextToken(tokenizedCommand, currentToken++);
-        setupTable(secondaryTable, DBJoinTableType.SECONDARY);
-
-        String onString = getNextToken(tokenizedCommand, currentToken++).toUpperCase();
-        compareStrings(onString, "ON");
-
-        String primaryAttributeString = getNextToken(tokenizedCommand, currentToken++);
-        if (!isNameValid(primaryAttributeString)){
+        if (!isNameValid(primaryAttributeName)){
             throw new InvalidCommandArgumentException("Primary attribute name was not valid.");
         }
-        tableForCommand.setJoinAttribute(new TableAttribute(primaryAttributeString));
-
-        String attributeAndString = getNextToken(tokenizedCommand, currentToken++).toUpperCase();
-        compareStrings(attributeAndString, "AND");
+        tableForCommand.setJoinAttribute(new TableAttribute(primaryAttributeName));
 
-        String secondaryAttributeString = getNextToken(tokenizedCommand,currentToken++);
-        if (!isNameValid(secondaryAttributeString)){
+        if (!isNameValid(secondaryAttributeName)){
             throw new InvalidCommandArgumentException("Secondary attribute name was not valid.");
         }
-        tableToJoin.setJoinAttribute(new TableAttribute(secondaryAttributeString));
-
-        checkCommandEnded(currentToken);
+        tableToJoin.setJoinAttribute(new TableAttribute(secondaryAttributeName));
     }
 
     /**
      * Sets up the primary and secondary tables for joining depending on
-     * the join table type.
+     * the join table type. Tables are only read, so tab-delimited tables are mapped.
      * @param tableName Table to initialise.
      * @param type Primary or Secondary table.
      * @throws DBException Thrown if the working database is null.
      */
     protected void setupTable(String tableName, DBJoinTableType type) throws DBException {
         if (type == DBJoinTableType.PRIMARY){
-            super.setupTable(tableName);
+            prepareTable(tableName);
+            tableForCommand.setScanMode(TableScanMode.MAPPED);
+            tableForCommand.loadTableFile();
         }
         else {
             setupSecondaryTable(tableName);
@@ -97,10 +85,22 @@ public class JoinDBCommand extends DBCommand {
             throw new InvalidCommandArgumentException("Table name was invalid.");
         }
 
+        checkWorkingDB(workingDatabase);
+        statementLocks.lockTable(workingDatabase, tableName, false);
         tableToJoin = new DBTable(tableName, workingDatabase);
+        tableToJoin.setScanMode(TableScanMode.MAPPED);
         tableToJoin.loadTableFile();
     }
 
+    /**
+     * Joins only read their tables.
+     * @return Returns true.
+     */
+    @Override
+    protected boolean isReadOnly(){
+        return true;
+    }
+
     /**
      * Joins two tables on the selected attributes. Creates a return string that
      * will be used as the return message of the command.
@@ -109,7 +109,34 @@ public class JoinDBCommand extends DBCommand {
      */
     @Override
     protected void executeCommand() throws DBException {
+        rowsScanned = (long) tableForCommand.getNumRows() + tableToJoin.getNumRows();
         DBTable jointTable = DBTable.joinTables(tableForCommand, tableToJoin);
-        returnMessage = jointTable.printTable();
+        finishOperator("join", jointTable.getNumRows());
+        resultSet = jointTable.getResultSet();
+        finishOperator("project", resultSet.getNumRows());
+    }
+
+    /**
+     * Joins can be explained.
+     * @return Returns true.
+     */
+    @Override
+    protected boolean isExplainable(){
+        return true;
+    }
+
+    /**
+     * Describes the projection of the joint rows, the join method, and the loading of both tables.
+     * @param commandPlan Plan to add the operators to.
+     * @throws DBException Thrown if a join attribute does not exist.
+     */
+    @Override
+    protected void describePlan(DBQueryPlan commandPlan) throws DBException {
+        DBHashJoin hashJoin = new DBHashJoin(tableForCommand, primaryAttributeName, tableToJoin, secondaryAttributeName);
+        commandPlan.addOperator("project", 0, "Project", "columns: all of " + primaryTableName + " and "
+                + secondaryTableName);
+        commandPlan.addOperator("join", 1, "Join", hashJoin.describeJoin());
+        commandPlan.addOperator("load_primary", 2, "Load", describeLoad(tableForCommand));
+        commandPlan.addOperator("load_secondary", 2, "Load", describeLoad(tableToJoin));
     }
 }
@@ -0,0 +1,96 @@
+package DBObjects.DBCommands;
+
+import DBException.*;
+import DBObjects.DBCommands.CommandLists.ValueList;
+import DBObjects.TableRow;
+import java.io.*;
+import java.util.ArrayList;
+
+/**
+ * LoadDBCommand bulk loads rows from a tab-delimited file into a table, as in
+ * LOAD DATA 'rows.tsv' INTO tablename. Each line of the file holds the values of one row in the
+ * table's attribute order, without an id, written as they would be in an INSERT. The file is read
+ * by the server, relative to its working directory. Every row is checked before any are added,
+ * and the rows are committed together, so a failed load adds no rows.
+ */
+public class LoadDBCommand extends DBCommand {
+    private static final int LOAD_BUFFER_CHARS = 1024 * 1024;
+    private final String loadPath;
+    private final String tableName;
+    private ArrayList<TableRow> rowsToLoad;
+
+    /**
+     * Constructor for a LoadDBCommand.
+     * @param loadPath Path of the file to load, without its quotes.
+     * @param tableName Name of the table to load rows into.
+     */
+    protected LoadDBCommand(String loadPath, String tableName){
+        this.loadPath = loadPath;
+        this.tableName = tableName;
+    }
+
+    /**
+     * Reads the rows to load. The file is read before the table is locked, so other
+     * commands can use the table meanwhile.
+     * @throws DBException Thrown if no database is used or the file is not valid.
+     */
+    protected void prepareCommand() throws DBException {
+        checkWorkingDB(workingDatabase);
+        rowsToLoad = readLoadFile();
+        prepareTable(tableName);
+    }
+
+    /**
+     * Reads and checks every row of the load file. Empty lines are skipped.
+     * @return Rows to load, without ids.
+     * @throws DBException Thrown if the file could not be read or a line does not hold valid values.
+     */
+    private ArrayList<TableRow> readLoadFile() throws DBException {
+        ArrayList<TableRow> loadedRows = new ArrayList<>();
+        try (BufferedReader loadReader = new BufferedReader(new FileReader(loadPath), LOAD_BUFFER_CHARS)){
+            int lineNumber = 0;
+            String line = loadReader.readLine();
+            while (line != null){
+                lineNumber++;
+                if (!line.isEmpty()){
+                    loadedRows.add(parseLine(line, lineNumber));
+                }
+                line = loadReader.readLine();
+            }
+        }
+        catch (FileNotFoundException fnfe){
+            throw new DBObjectDoesNotExistException("Could not find the file to load.");
+        }
+        catch (IOException ioe){
+            throw new DBServerException("Internal error, unable to read the file to load.");
+        }
+        return loadedRows;
+    }
+
+    /**
+     * Converts a line of the load file to a table row.
+     * @param line Tab-delimited values of the row.
+     * @param lineNumber Line number in the file, used in error messages.
+     * @return Row holding the line's values.
+     * @throws DBException Thrown if a value is not a string, boolean, float or integer literal.
+     */
+    private TableRow parseLine(String line, int lineNumber) throws DBException {
+        ValueList lineValues = new ValueList(line.split("\t", -1));
+        try {
+            lineValues.processList();
+        }
+        catch (DBException de){
+            throw new InvalidCommandArgumentException("Line " + lineNumber + " of the load file: " + de);
+        }
+        return lineValues.getValueList();
+    }
+
+    /**
+     * Inserts the loaded rows into the table.
+     * @throws DBException Thrown if a row contains a different number of values than the
+     * number of attributes in the table, or the rows could not be saved.
+     */
+    protected void executeCommand() throws DBException {
+        tableForCommand.insertTableRows(rowsToLoad);
+    }
+}
@@ -0,0 +1,44 @@
+package DBObjects.DBCommands;
+
+import DBException.*;
+import java.util.HashMap;
+
+/**
+ * PrepareDBCommand is responsible for keeping a prepared statement in its session, so that it can
+ * be performed by EXECUTE. Preparing a statement with the name of an existing one replaces it.
+ */
+public class PrepareDBCommand extends DBCommand {
+    private final HashMap<String, DBPreparedStatement> preparedStatements;
+    private final String statementName;
+    private final DBPreparedStatement preparedStatement;
+
+    /**
+     * Constructor for a PrepareDBCommand.
+     * @param preparedStatements Prepared statements of the session, by name.
+     * @param statementName Name of the prepared statement.
+     * @param preparedStatement The parsed statement to keep.
+     */
+    protected PrepareDBCommand(HashMap<String, DBPreparedStatement> preparedStatements, String statementName,
+                               DBPreparedStatement preparedStatement){
+        this.preparedStatements = preparedStatements;
+        this.statementName = statementName;
+        this.preparedStatement = preparedStatement;
+    }
+
+    /**
+     * Checks the name of the prepared statement.
+     * @throws DBException Thrown if the name is invalid.
+     */
+    protected void prepareCommand() throws DBException {
+        if (!isNameValid(statementName)){
+            throw new InvalidCommandArgumentException("Prepared statement did not have a valid name.");
+        }
+    }
+
+    /**
+     * Keeps the prepared statement in its session.
+     */
+    protected void executeCommand(){
+        preparedStatements.put(statementName, preparedStatement);
+    }
+}
@@ -2,8 +2,11 @@ package DBObjects.DBCommands;
 
 import DBException.*;
 import DBObjects.DBCommands.CommandLists.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import DBObjects.TableAttribute;
+import DBObjects.TableFormat;
+import DBObjects.TableScanMode;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 
 /**
  * SelectDBCommand handles generating a return string that represents the contents
@@ -12,71 +15,55 @@ import java.util.regex.Pattern;
  */
 public class SelectDBCommand extends DBCommand{
 
-    private String attributeString;
-    private WildAttributeList selectAttributes;
-    private CommandCondition selectConditions;
+    private final String tableName;
+    private final WildAttributeList selectAttributes;
+    private final CommandCondition selectConditions;
 
     /**
-     * Constructor for a SelectDBCommand that takes a pre-processed string.
-     * The arguments contain optional parenthetical conditions. Non-parenthetical
-     * conditions and attributes are handled separately.
-     * @param selectArgs Pre-processed command string.
-     * @throws DBException Thrown if the command is empty
+     * Constructor for a SelectDBCommand.
+     * @param selectAttributes Attributes to return, or "*" for all attributes.
+     * @param tableName Name of the selected table.
+     * @param selectConditions Conditions rows must meet, or null to select every row.
      */
-    protected SelectDBCommand(String[] selectArgs) throws DBException{
-        isEmptyCommand(selectArgs);
-        if (selectArgs.length > 2){
-            throw new InvalidCommandArgumentException("Select command has the incorrect form.");
-        }
-        commandString = selectArgs[0];
-        tokenizedCommand = splitCommand(commandString);
-        tokenizedCommand = removeCommandName(tokenizedCommand);
-        if (selectArgs.length == 2){
-            listString = selectArgs[1];
-        }
+    protected SelectDBCommand(WildAttributeList selectAttributes, String tableName, CommandCondition selectConditions){
+        this.selectAttributes = selectAttributes;
+        this.tableName = tableName;
+        this.selectConditions = selectConditions;
     }
 
     /**
-     * Parse and initialises objects for a SELECT command. Handles
-     * the WildAttributeList and Conditions of the SELECT command.
-     * @throws DBException Thrown if the tokenized command is incorrectly formatted.
+     * Initialises objects for a SELECT command. Handles the WildAttributeList of the
+     * SELECT command. Only the attributes used by the command are loaded from columnar tables.
+     * @throws DBException Thrown if the attributes or table name are invalid.
      */
     @Override
     protected void prepareCommand() throws DBException {
-        int currentToken = 0;
-        prepareAttributes();
-        String fromString = getNextToken(tokenizedCommand, currentToken++).toUpperCase();
-        compareStrings(fromString, "FROM");
-        String tableName = getNextToken(tokenizedCommand, currentToken++);
-        setupTable(tableName);
-        if (currentToken != tokenizedCommand.length){
-            String whereString = getNextToken(tokenizedCommand, currentToken).toUpperCase();
-            compareStrings(whereString, "WHERE");
-            if (listString == null){
-                listString = commandString.split("(?i)\\s+where\\s+")[1];
-            }
-            prepareConditions();
-        }
-    }
-
-    /**
-     * Parses and configures objects to handles the attributes of
-     * a SELECT command.
-     * @throws DBException Thrown if the list is incorrectly formatted.
-     */
-    protected void prepareAttributes() throws DBException {
-        selectAttributes = new WildAttributeList(attributeString);
         selectAttributes.processList();
+        prepareTable(tableName);
+        loadSelectedColumns();
+        finishOperator("load", tableForCommand.getNumRows());
     }
 
     /**
-     * Prepares conditions for a SELECT command. Conditions are
-     * optional for this command.
-     * @throws DBException Thrown if conditions are incorrectly formatted.
+     * Loads the table rows needed by the command. All columns are loaded for a wildcard
+     * select, otherwise only the selected and condition attributes are needed. Tab-delimited
+     * tables are mapped so values are only decoded when they are filtered or printed.
+     * @throws DBException Thrown if the table could not be loaded.
      */
-    protected void prepareConditions() throws DBException {
-        selectConditions = new CommandCondition(listString);
-        selectConditions.processList();
+    private void loadSelectedColumns() throws DBException {
+        tableForCommand.setScanMode(TableScanMode.MAPPED);
+        if (selectAttributes.getAllAttributes()){
+            tableForCommand.loadTableFile();
+            return;
+        }
+        ArrayList<String> columnsToLoad = new ArrayList<>();
+        for (TableAttribute attribute : selectAttributes.getAttributeList()){
+            columnsToLoad.add(attribute.getObjectName());
+        }
+        if (selectConditions != null){
+            columnsToLoad.addAll(selectConditions.getConditionAttributes());
+        }
+        tableForCommand.loadTableColumns(columnsToLoad);
     }
 
     /**
@@ -86,48 +73,87 @@ public class SelectDBCommand extends DBCommand{
      */
     @Override
     protected void executeCommand() throws DBException {
+        rowsScanned = tableForCommand.getNumRows();
         if (selectConditions != null){
             selectConditions.executeConditions(tableForCommand);
+            rowsScanned = selectConditions.getRowsEvaluated();
+            rowsFiltered = selectConditions.getRowsFiltered();
+            finishOperator("filter", tableForCommand.getNumRows());
         }
         if (selectAttributes.getAllAttributes()){
-            returnMessage = tableForCommand.printTable();
+            resultSet = tableForCommand.getResultSet();
         }
         else{
-            returnMessage = tableForCommand.printTable(selectAttributes.getAttributeList());
+            resultSet = tableForCommand.getResultSet(selectAttributes.getAttributeList());
         }
+        finishOperator("project", resultSet.getNumRows());
     }
 
     /**
-     * In addition to splitting the command on white spaces, the string also
-     * finds the attribute list between SELECT and FROM terms.
-     * @param commandString String to split.
-     * @return Tokenized command, excluding the attribute list.
-     * @throws DBException Thrown if there is no attribute list in the command.
+     * Selects can be explained.
+     * @return Returns true.
      */
     @Override
-    protected String[] splitCommand(String commandString) throws DBException {
-        //get attribute list:
-        Pattern attributePattern = Pattern.compile("(?<=select).*(?=from\\s+)", Pattern.CASE_INSENSITIVE);
-        Matcher attributeMatcher = attributePattern.matcher(commandString);
-        if (!attributeMatcher.find()){
-            throw new InvalidCommandArgumentException("Could not find attribute list in select statement.");
+    protected boolean isExplainable(){
+        return true;
+    }
+
+    /**
+     * Describes the projection of the selected attributes, the filtering of rows by any
+     * conditions, and the loading of the table. Columnar tables only load the columns used.
+     * @param commandPlan Plan to add the operators to.
+     * @throws DBException Thrown if the conditions are incorrectly formed.
+     */
+    @Override
+    protected void describePlan(DBQueryPlan commandPlan) throws DBException {
+        ArrayList<String> selectedNames = new ArrayList<>();
+        for (TableAttribute attribute : selectAttributes.getAttributeList()){
+            selectedNames.add(attribute.getObjectName());
+        }
+        String selectedColumns = selectAttributes.getAllAttributes() ? "*" : String.join(", ", selectedNames);
+        int depth = 0;
+        commandPlan.addOperator("project", depth++, "Project", "columns: " + selectedColumns);
+        if (selectConditions != null){
+            commandPlan.addOperator("filter", depth++, "Filter", selectConditions.explainAccess(tableForCommand)
+                    + "; predicates: " + selectConditions.printConditions());
+        }
+        String loadDetail = describeLoad(tableForCommand);
+        if (tableForCommand.getTableFormat() == TableFormat.COLUMNAR && !selectAttributes.getAllAttributes()){
+            if (selectConditions != null){
+                selectedNames.addAll(selectConditions.getConditionAttributes());
+            }
+            selectedNames.add(0, "id");
+            loadDetail += ", columns: " + String.join(", ", new LinkedHashSet<>(selectedNames));
         }
-        attributeString = attributeMatcher.group();
-        commandString = attributeMatcher.replaceFirst(" ");
-        return commandString.split("\\s+");
+        commandPlan.addOperator("load", depth, "Load", loadDetail);
     }
 
+    /**
+     * Selects only read their table.
+     * @return Returns true.
+     */
+    @Override
+    protected boolean isReadOnly(){
+        return true;
+    }
+
+    /**
+     * Testing for SelectDBCommand.
+     */
     public static void test(){
-        String[] test1 = new String[1];
-        test1[0] = "select cool, from from table test1";
         try {
-            SelectDBCommand selectTest = new SelectDBCommand(test1);
-            selectTest.splitCommand(test1[0]);
-            assert selectTest.attributeString.equals(" cool, from ");
-            selectTest.splitCommand("select*from table test1");
-            assert selectTest.attributeString.equals("*");
-            selectTest.splitCommand("select a, b, c, d from table test1");
-            assert selectTest.attributeString.equals(" a, b, c, d ");
+            SelectDBCommand selectTest = (SelectDBCommand) new DBParser("select cool, from from test1;").parseStatement();
+            selectTest.selectAttributes.processList();
+            assert selectTest.selectAttributes.getAttributeList().get(1).getObjectName().equals("from");
+            selectTest = (SelectDBCommand) new DBParser("select*from test1;").parseStatement();
+            selectTest.selectAttributes.processList();
+            assert selectTest.selectAttributes.getAllAttributes();
+            assert selectTest.selectConditions == null;
+            selectTest = (SelectDBCommand) new DBParser("select a1, b1, c1, d1 from test1 where a1 == 1;").parseStatement();
+            selectTest.selectAttributes.processList();
+            assert selectTest.selectAttributes.getAttributeList().size() == 4;
+            assert selectTest.tableName.equals("test1");
+            assert selectTest.selectConditions.getConditionTree().toString().equals("a1=1");
         }
         catch (DBException dbe){
             System.out.println("SelectDBCommand tests threw an error.");
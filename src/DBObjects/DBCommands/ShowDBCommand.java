@@ -0,0 +1,39 @@
+package DBObjects.DBCommands;
+
+import DBException.*;
+import DBObjects.*;
+
+/**
+ * ShowDBCommand returns the server's metrics for SHOW STATS. The metrics are printed as two
+ * tab-delimited tables, holding the counts of each command and the times of its phases.
+ * The SHOW statement itself is recorded once it has been performed.
+ */
+public class ShowDBCommand extends DBCommand {
+
+    /**
+     * Constructor for ShowDBCommand.
+     */
+    protected ShowDBCommand(){}
+
+    /**
+     * Metrics are not held by a database, so there is nothing to prepare.
+     */
+    protected void prepareCommand(){}
+
+    /**
+     * Prints the metrics as the return message.
+     * @throws DBException Not thrown, as metrics can always be printed.
+     */
+    protected void executeCommand() throws DBException {
+        returnMessage = DBMetrics.printStats();
+    }
+
+    /**
+     * Showing metrics does not change any table.
+     * @return Returns true.
+     */
+    @Override
+    protected boolean isReadOnly(){
+        return true;
+    }
+}
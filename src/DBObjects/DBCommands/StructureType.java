@@ -5,5 +5,5 @@ package DBObjects.DBCommands;
  * commands.
  */
 public enum StructureType {
-    DATABASE, TABLE;
+    DATABASE, TABLE, INDEX;
 }
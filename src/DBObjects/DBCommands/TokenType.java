@@ -0,0 +1,17 @@
+package DBObjects.DBCommands;
+
+/**
+ * Used to determine what a token of a statement represents.
+ * WORD : A keyword, name or unquoted value, such as SELECT, people or 1.5.
+ * STRING : A string literal, including its single quotes.
+ * OPERATOR : A comparison or assignment operator, such as ==, >= or =.
+ * LEFT_PAREN : An opening parenthesis.
+ * RIGHT_PAREN : A closing parenthesis.
+ * COMMA : A list separator.
+ * STAR : The wildcard of a SELECT command.
+ * PARAMETER : A value of a prepared statement bound when it is executed, written as ?.
+ * END : The end of the statement, before its semicolon.
+ */
+public enum TokenType {
+    WORD, STRING, OPERATOR, LEFT_PAREN, RIGHT_PAREN, COMMA, STAR, PARAMETER, END;
+}
@@ -2,86 +2,41 @@ package DBObjects.DBCommands;
 
 import DBException.*;
 import DBObjects.DBCommands.CommandLists.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import DBObjects.TableAttribute;
+import java.util.ArrayList;
 
 /**
  * UpdateDBCommand is responsible for updating rows in a table with new values.
  */
 public class UpdateDBCommand extends DBCommand {
 
-    private String nameValueString;
-    private NameValueList updateNameValues;
-    private CommandCondition updateConditions;
+    private final String tableName;
+    private final NameValueList updateNameValues;
+    private final CommandCondition updateConditions;
 
     /**
-     * Constructor for an UpdateDBCommand. Tokenizes the command string and
-     * configures parenthetical conditions. Non-parenthetical conditions
-     * are handled separately during parsing.
-     * @param updateArgs Pre-processed command string.
-     * @throws DBException Thrown if preprocessed string contains more than two elements.
+     * Constructor for an UpdateDBCommand.
+     * @param tableName Name of the updated table.
+     * @param updateNameValues Attributes to update and their new values.
+     * @param updateConditions Conditions of the rows to update. Conditions are required for UPDATE.
      */
-    protected UpdateDBCommand(String[] updateArgs) throws DBException{
-        isEmptyCommand(updateArgs);
-        commandString = updateArgs[0];
-        //Finds and removes the NameValueList
-        tokenizedCommand = splitCommand(commandString);
-        tokenizedCommand = removeCommandName(tokenizedCommand);
-        if (updateArgs.length == 2){
-            listString = updateArgs[1];
-        }
-        if (updateArgs.length > 2){
-            throw new InvalidCommandArgumentException("Update command has the incorrect form.");
-        }
+    protected UpdateDBCommand(String tableName, NameValueList updateNameValues, CommandCondition updateConditions){
+        this.tableName = tableName;
+        this.updateNameValues = updateNameValues;
+        this.updateConditions = updateConditions;
     }
 
     /**
-     * Parses an UPDATE command.
-     * @throws DBException Throws an error if the tokens do not match what is expected.
+     * Sets up the table and the attributes and values of an UPDATE command.
+     * @throws DBException Throws an error if the table cannot be loaded or the values are invalid.
      */
     @Override
     protected void prepareCommand() throws DBException {
-        int currentToken = 0;
-
-        String tableName = getNextToken(tokenizedCommand, currentToken++);
         setupTable(tableName);
-
-        String setString = getNextToken(tokenizedCommand, currentToken++).toUpperCase();
-        compareStrings(setString, "SET");
-
-        prepareNameValues();
-
-        String whereString = getNextToken(tokenizedCommand, currentToken++).toUpperCase();
-        compareStrings(whereString, "WHERE");
-        //prepareConditions handles null and inappropriate lists
-        if (currentToken != tokenizedCommand.length && listString == null){
-            listString = commandString.split("(?i)\\s+where\\s+")[1];
-        }
-
-        prepareConditions();
-    }
-
-    /**
-     * Instantiates a NameValueList object and gets corresponding attributes and values.
-     * @throws DBException Thrown if values or attributes are incorrectly formatted.
-     */
-    protected void prepareNameValues() throws DBException {
-        updateNameValues = new NameValueList(nameValueString);
+        finishOperator("load", tableForCommand.getNumRows());
         updateNameValues.processList();
     }
 
-    /**
-     * Handles conditions of the update command. Conditions are required for UPDATE.
-     * @throws DBException Thrown conditions are setup incorrectly or there are no conditions.
-     */
-    protected void prepareConditions() throws DBException {
-        if (listString == null){
-            throw new InvalidCommandArgumentException("Update command expects condition.");
-        }
-        updateConditions = new CommandCondition(listString);
-        updateConditions.processList();
-    }
-
     /**
      * Updates rows in a table.
      * @throws DBException Thrown if table writing or reading fails.
@@ -89,25 +44,36 @@ public class UpdateDBCommand extends DBCommand {
     @Override
     protected void executeCommand() throws DBException {
         updateConditions.executeConditions(tableForCommand);
+        rowsScanned = updateConditions.getRowsEvaluated();
+        rowsFiltered = updateConditions.getRowsFiltered();
+        finishOperator("filter", tableForCommand.getNumRows());
         tableForCommand.updateTable(updateNameValues);
+        finishOperator("update", rowsScanned - rowsFiltered);
+    }
+
+    /**
+     * Updates can be explained.
+     * @return Returns true.
+     */
+    @Override
+    protected boolean isExplainable(){
+        return true;
     }
 
     /**
-     * Splits a command string and tokenizes it. This override also removes
-     * a name value list embedded within the command.
-     * @param commandString String to split.
-     * @return Returns a tokenized array excluding embedded name-value pairs.
+     * Describes the updating of rows, the filtering of rows by the conditions, and the loading of the table.
+     * @param commandPlan Plan to add the operators to.
+     * @throws DBException Thrown if the conditions are incorrectly formed.
      */
     @Override
-    protected String[] splitCommand(String commandString) throws DBException {
-        //get the NameValueList
-        Pattern nameValuePattern = Pattern.compile("(?<=\\sset)\\s+.*\\s+(?=where\\s)", Pattern.CASE_INSENSITIVE);
-        Matcher nameValueMatcher = nameValuePattern.matcher(commandString);
-        if (!nameValueMatcher.find()){
-            throw new InvalidCommandArgumentException("Name value list is required for update command.");
+    protected void describePlan(DBQueryPlan commandPlan) throws DBException {
+        ArrayList<String> updatedNames = new ArrayList<>();
+        for (TableAttribute attribute : updateNameValues.getAttributesToChange()){
+            updatedNames.add(attribute.getObjectName());
         }
-        nameValueString = nameValueMatcher.group();
-        commandString = commandString.replaceFirst(nameValueMatcher.pattern().pattern(), " ");
-        return commandString.split("\\s+");
+        commandPlan.addOperator("update", 0, "Update", "columns: " + String.join(", ", updatedNames));
+        commandPlan.addOperator("filter", 1, "Filter", updateConditions.explainAccess(tableForCommand)
+                + "; predicates: " + updateConditions.printConditions());
+        commandPlan.addOperator("load", 2, "Load", describeLoad(tableForCommand));
     }
 }
@@ -9,43 +9,39 @@ import DBObjects.*;
  * DBStatement, but is only ever modified within this class.
  */
 public class UseDBCommand extends DBCommand {
+    private final String databaseName;
     DBDatabase databaseToUse;
 
     /**
      * Constructor for UseDBCommand. Responsible for setting the working database.
-     * @param useArgs Pre-processed string for command.
-     * @throws DBException Thrown if there are no arguments in the command.
+     * @param databaseName Name of the database to use.
      */
-    protected UseDBCommand(String[] useArgs) throws DBException{
-        isEmptyCommand(useArgs);
-        commandString = useArgs[0];
-        tokenizedCommand = splitCommand(commandString);
-        tokenizedCommand = removeCommandName(tokenizedCommand);
+    protected UseDBCommand(String databaseName){
+        this.databaseName = databaseName;
     }
 
     /**
-     * Parses command string and initialises a DBDatabase.
-     * @throws DBException Thrown if database name is invalid or more than one
-     * argument is provided.
+     * Initialises a DBDatabase for the named database.
+     * @throws DBException Thrown if database name is invalid.
      */
     protected void prepareCommand() throws DBException {
-        int currentIndex = 0;
-        String databaseName = getNextToken(tokenizedCommand, currentIndex++);
         if (!isNameValid(databaseName)){
             throw new InvalidCommandArgumentException("Database did not have a valid name.");
         }
         databaseToUse = new DBDatabase(databaseName);
-        checkCommandEnded(currentIndex);
     }
 
     /**
-     * Sets the working database to the specified one.
-     * @throws DBException Throws an error if the database does not exist.
+     * Sets the working database to the specified one. Opening the database's write-ahead
+     * log replays any changes left from a previous run into its tables.
+     * @throws DBException Throws an error if the database does not exist or its log
+     * could not be replayed.
      */
     protected void executeCommand() throws DBException {
         if (!databaseToUse.dbObjectExists()){
             throw new DBObjectDoesNotExistException("Could not find database.");
         }
+        DBWriteAheadLog.getLog(databaseToUse);
         workingDatabase = databaseToUse;
     }
 }
@@ -20,13 +20,21 @@ public class DBDatabase extends DBObject{
     }
 
     /**
-     * Creates root directory for all databases if directory doesn't exist.
+     * Creates root directory for all databases if directory doesn't exist. Another session
+     * may create the directory at the same time, which is not an error.
      * @throws DBException Thrown if root directory creation fails.
      */
     private void createRootDirectory() throws DBException {
         File rootToCreate = new File("DBRoot");
         if (!rootToCreate.exists()){
-            createDirectory(rootToCreate);
+            try {
+                createDirectory(rootToCreate);
+            }
+            catch (DBServerException dbse){
+                if (!rootToCreate.isDirectory()){
+                    throw dbse;
+                }
+            }
         }
     }
 
@@ -56,11 +64,14 @@ public class DBDatabase extends DBObject{
     }
 
     /**
-     * Deletes a database by removing all tables and the database itself.
+     * Deletes a database by removing all tables, its write-ahead log and the database itself.
      * If deletion fails, a partial deletion may have occurred.
      * @throws DBException Thrown if any objects are unable to be deleted.
      */
     public void dropObject() throws DBException {
+        DBWriteAheadLog.closeLog(this);
+        DBTableCache.invalidateDatabase(this);
+        DBTableIndex.closeIndexes(this);
         File dbToDrop = new File(objectName);
         File[] tablesToDrop = dbToDrop.listFiles();
         if (tablesToDrop != null){
@@ -0,0 +1,164 @@
+package DBObjects;
+
+import DBException.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * DBHashIndex is a persistent hash index on one attribute of a table. It maps each value of the
+ * attribute to the ids of the rows holding that value, so equality conditions can find their rows
+ * without evaluating every row. The index is stored as one line per value, listing the value
+ * followed by the ids of its rows.
+ */
+public class DBHashIndex extends DBTableIndex {
+    private HashMap<String, RowIdList> valueIds = new HashMap<>();
+
+    /**
+     * RowIdList is a growable list of the row ids holding a single value.
+     */
+    private static class RowIdList {
+        private int[] rowIds = new int[2];
+        private int size = 0;
+
+        /**
+         * Adds a row id to the list.
+         * @param rowId Id to add.
+         */
+        private void add(int rowId){
+            if (size == rowIds.length){
+                rowIds = Arrays.copyOf(rowIds, size * 2);
+            }
+            rowIds[size++] = rowId;
+        }
+
+        /**
+         * Returns the ids in the list.
+         * @return A new array of the list's ids.
+         */
+        private int[] toArray(){
+            return Arrays.copyOf(rowIds, size);
+        }
+    }
+
+    /**
+     * Constructor for a DBHashIndex.
+     * @param attributeName Name of the indexed attribute.
+     * @param tableName Name of the indexed table.
+     * @param owningDatabase Database containing the table. This is required.
+     * @throws DBException Thrown if owningDatabase is null.
+     */
+    public DBHashIndex(String attributeName, String tableName, DBDatabase owningDatabase) throws DBException {
+        super(attributeName, tableName, owningDatabase, IndexType.HASH);
+    }
+
+    /**
+     * Constructor for an index stored at a given path that does not belong to a table.
+     * Used for testing.
+     * @param attributeName Name of the indexed attribute.
+     * @param indexPath Path of the index file.
+     */
+    private DBHashIndex(String attributeName, String indexPath){
+        super(attributeName, indexPath);
+    }
+
+    /**
+     * Removes every entry from the index.
+     */
+    @Override
+    protected void clearEntries(){
+        valueIds = new HashMap<>();
+    }
+
+    /**
+     * Adds a row id to the ids holding a value.
+     * @param value Value of the indexed attribute.
+     * @param rowId Id of the row.
+     */
+    @Override
+    protected void addRow(String value, int rowId){
+        valueIds.computeIfAbsent(value, k -> new RowIdList()).add(rowId);
+    }
+
+    /**
+     * Finds the ids of rows that may hold a value. Only equality can be found with a hash index.
+     * @param operator Comparison operator, using the condition's single character form.
+     * @param value Value compared with the indexed attribute.
+     * @return Ids of rows holding the value, or null if the operator is not equality.
+     */
+    @Override
+    protected int[] findEntries(String operator, String value){
+        if (!operator.equals("=")){
+            return null;
+        }
+        RowIdList rowIds = valueIds.get(value);
+        return rowIds == null ? new int[0] : rowIds.toArray();
+    }
+
+    /**
+     * Writes one line per value, holding the value and the ids of its rows.
+     * @param outputStream Stream to write.
+     * @throws IOException Thrown if writing fails.
+     */
+    @Override
+    protected void writeEntries(OutputStream outputStream) throws IOException {
+        BufferedWriter buffWriter = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        for (Map.Entry<String, RowIdList> valueEntry : valueIds.entrySet()){
+            buffWriter.write(valueEntry.getKey());
+            RowIdList rowIds = valueEntry.getValue();
+            for (int i = 0; i < rowIds.size; i++){
+                buffWriter.write("\t" + rowIds.rowIds[i]);
+            }
+            buffWriter.newLine();
+        }
+        buffWriter.flush();
+    }
+
+    /**
+     * Reads lines written by writeEntries.
+     * @param inputStream Stream to read.
+     * @throws IOException Thrown if reading fails.
+     */
+    @Override
+    protected void readEntries(InputStream inputStream) throws IOException {
+        BufferedReader buffReader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        String indexLine = buffReader.readLine();
+        while (indexLine != null){
+            String[] lineParts = indexLine.split("\t");
+            RowIdList rowIds = valueIds.computeIfAbsent(lineParts[0], k -> new RowIdList());
+            for (int i = 1; i < lineParts.length; i++){
+                rowIds.add(Integer.parseInt(lineParts[i]));
+            }
+            indexLine = buffReader.readLine();
+        }
+    }
+
+    /**
+     * Testing for DBHashIndex.
+     */
+    public static void test(){
+        try {
+            File testFile = File.createTempFile("DBHashIndexTest", ".idx");
+            DBHashIndex test = new DBHashIndex("name", testFile.getPath());
+            ArrayList<TableRow> testRows = new ArrayList<>();
+            testRows.add(new TableRow(new String[]{"1", "'Bob'"}));
+            testRows.add(new TableRow(new String[]{"3", "'Sue'"}));
+            testRows.add(new TableRow(new String[]{"2", "'Bob'"}));
+            test.rebuildIndex(testRows, 1);
+            assert Arrays.equals(test.findRowIds("=", "'Bob'"), new int[]{1, 2});
+            assert test.findRowIds("=", "'Tom'").length == 0;
+            assert test.findRowIds("<", "'Tom'") == null;
+            test.addRow("'Tom'", 4);
+            test.storeIndex();
+            DBHashIndex loaded = new DBHashIndex("name", testFile.getPath());
+            assert Arrays.equals(loaded.findRowIds("=", "'Tom'"), new int[]{4});
+            assert Arrays.equals(loaded.findRowIds("=", "'Sue'"), new int[]{3});
+            assert loaded.isCurrent();
+            testFile.delete();
+        }
+        catch (IOException | DBException e){
+            System.out.println("Error testing DBHashIndex.");
+        }
+        System.out.println("DBHashIndex passed.");
+    }
+}
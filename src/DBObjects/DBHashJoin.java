@@ -0,0 +1,255 @@
+package DBObjects;
+
+import DBException.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * DBHashJoin finds the rows of an inner join between two tables. The rows of the smaller table
+ * are grouped by their join value, and each row of the larger table looks up its matches,
+ * rather than every pair of rows being compared. When the table that would be grouped has an
+ * index on its join attribute, the index is used instead of grouping its rows. Joint rows
+ * are ordered by primary row and then by secondary row, as if every pair had been compared.
+ */
+public class DBHashJoin {
+
+    private static final ArrayList<Integer> NO_MATCHES = new ArrayList<>();
+    private final DBTable primaryTable;
+    private final DBTable secondaryTable;
+    private final String primaryKey;
+    private final String secondaryKey;
+    private final int primaryIndex;
+    private final int secondaryIndex;
+
+    /**
+     * MatchFinder finds the positions of rows in one of the joined tables that may hold a value.
+     */
+    private interface MatchFinder {
+
+        /**
+         * Finds the positions of rows that may hold a value.
+         * @param value Join value to find.
+         * @return Positions of rows in increasing order, or null if they could not be found.
+         * @throws DBException Thrown if an index could not be searched.
+         */
+        ArrayList<Integer> findMatches(String value) throws DBException;
+    }
+
+    /**
+     * Constructor for a DBHashJoin. Both tables must have their rows and attributes loaded.
+     * @param primaryTable Primary table on which to join.
+     * @param primaryKey Name of the primary table's join attribute.
+     * @param secondaryTable Secondary table by which to join.
+     * @param secondaryKey Name of the secondary table's join attribute.
+     * @throws DBException Thrown if either join attribute does not exist.
+     */
+    public DBHashJoin(DBTable primaryTable, String primaryKey, DBTable secondaryTable, String secondaryKey)
+            throws DBException {
+        this.primaryTable = primaryTable;
+        this.secondaryTable = secondaryTable;
+        this.primaryKey = primaryKey;
+        this.secondaryKey = secondaryKey;
+        primaryIndex = primaryTable.getAttributeIndex(primaryKey);
+        secondaryIndex = secondaryTable.getAttributeIndex(secondaryKey);
+    }
+
+    /**
+     * Joins the tables' rows. Each joint row holds a new id, followed by the values of the
+     * primary row and then the secondary row, without their ids.
+     * @return The joint rows.
+     * @throws DBException Thrown if an index could not be searched.
+     */
+    public ArrayList<TableRow> joinRows() throws DBException {
+        ArrayList<TableRow> jointRows = null;
+        if (secondaryTable.hasIndex(secondaryKey)){
+            jointRows = probeSecondary(value -> secondaryTable.findIndexedRows(secondaryKey, "=", value));
+        }
+        else if (primaryTable.hasIndex(primaryKey)){
+            jointRows = probePrimary(value -> primaryTable.findIndexedRows(primaryKey, "=", value));
+        }
+        if (jointRows != null){
+            return jointRows;
+        }
+        if (secondaryTable.getNumRows() <= primaryTable.getNumRows()){
+            HashMap<String, ArrayList<Integer>> secondaryGroups = groupRows(secondaryTable.getTableRows(), secondaryIndex);
+            return probeSecondary(value -> secondaryGroups.getOrDefault(value, NO_MATCHES));
+        }
+        HashMap<String, ArrayList<Integer>> primaryGroups = groupRows(primaryTable.getTableRows(), primaryIndex);
+        return probePrimary(value -> primaryGroups.getOrDefault(value, NO_MATCHES));
+    }
+
+    /**
+     * Describes how joinRows will join the tables, for EXPLAIN. Methods are chosen in the same
+     * order as joinRows: an index on the secondary or primary join attribute, then grouping
+     * the smaller table's rows.
+     * @return Returns the join method and the table each side of it reads.
+     * @throws DBException Thrown if the tables' indexes could not be found.
+     */
+    public String describeJoin() throws DBException {
+        String primaryName = primaryTable.getObjectName() + "." + primaryKey;
+        String secondaryName = secondaryTable.getObjectName() + "." + secondaryKey;
+        if (secondaryTable.hasIndex(secondaryKey)){
+            return "index join: each " + primaryName + " value is looked up in the index on " + secondaryName;
+        }
+        if (primaryTable.hasIndex(primaryKey)){
+            return "index join: each " + secondaryName + " value is looked up in the index on " + primaryName;
+        }
+        if (secondaryTable.getNumRows() <= primaryTable.getNumRows()){
+            return "hash join: " + secondaryTable.getNumRows() + " rows grouped by " + secondaryName + ", probed by "
+                    + primaryTable.getNumRows() + " rows of " + primaryName;
+        }
+        return "hash join: " + primaryTable.getNumRows() + " rows grouped by " + primaryName + ", probed by "
+                + secondaryTable.getNumRows() + " rows of " + secondaryName;
+    }
+
+    /**
+     * Groups the positions of rows by their join value.
+     * @param tableRows Rows to group.
+     * @param keyIndex Index of the join attribute.
+     * @return Positions of rows holding each value, in increasing order.
+     */
+    private HashMap<String, ArrayList<Integer>> groupRows(ArrayList<TableRow> tableRows, int keyIndex){
+        HashMap<String, ArrayList<Integer>> rowGroups = new HashMap<>();
+        for (int i = 0; i < tableRows.size(); i++){
+            rowGroups.computeIfAbsent(tableRows.get(i).getValue(keyIndex), k -> new ArrayList<>(1)).add(i);
+        }
+        return rowGroups;
+    }
+
+    /**
+     * Joins each primary row, in order, with the secondary rows found for its value.
+     * @param secondaryFinder Finds secondary rows that may hold a value.
+     * @return The joint rows, or null if the finder could not find the rows for a value.
+     * @throws DBException Thrown if an index could not be searched.
+     */
+    private ArrayList<TableRow> probeSecondary(MatchFinder secondaryFinder) throws DBException {
+        ArrayList<TableRow> jointRows = new ArrayList<>();
+        for (TableRow primaryRow : primaryTable.getTableRows()){
+            String primaryValue = primaryRow.getValue(primaryIndex);
+            ArrayList<Integer> secondaryMatches = secondaryFinder.findMatches(primaryValue);
+            if (secondaryMatches == null){
+                return null;
+            }
+            for (int secondaryPosition : secondaryMatches){
+                addIfMatched(jointRows, primaryRow, secondaryTable.getTableRow(secondaryPosition));
+            }
+        }
+        return jointRows;
+    }
+
+    /**
+     * Finds the primary rows for each secondary row's value, then joins each primary row, in
+     * order, with the secondary rows that found it.
+     * @param primaryFinder Finds primary rows that may hold a value.
+     * @return The joint rows, or null if the finder could not find the rows for a value.
+     * @throws DBException Thrown if an index could not be searched.
+     */
+    private ArrayList<TableRow> probePrimary(MatchFinder primaryFinder) throws DBException {
+        ArrayList<ArrayList<Integer>> secondaryMatches = new ArrayList<>(primaryTable.getNumRows());
+        for (int i = 0; i < primaryTable.getNumRows(); i++){
+            secondaryMatches.add(null);
+        }
+        ArrayList<TableRow> secondaryRows = secondaryTable.getTableRows();
+        for (int i = 0; i < secondaryRows.size(); i++){
+            ArrayList<Integer> primaryMatches = primaryFinder.findMatches(secondaryRows.get(i).getValue(secondaryIndex));
+            if (primaryMatches == null){
+                return null;
+            }
+            for (int primaryPosition : primaryMatches){
+                if (secondaryMatches.get(primaryPosition) == null){
+                    secondaryMatches.set(primaryPosition, new ArrayList<>(1));
+                }
+                secondaryMatches.get(primaryPosition).add(i);
+            }
+        }
+        ArrayList<TableRow> jointRows = new ArrayList<>();
+        for (int i = 0; i < secondaryMatches.size(); i++){
+            if (secondaryMatches.get(i) == null){
+                continue;
+            }
+            TableRow primaryRow = primaryTable.getTableRow(i);
+            for (int secondaryPosition : secondaryMatches.get(i)){
+                addIfMatched(jointRows, primaryRow, secondaryRows.get(secondaryPosition));
+            }
+        }
+        return jointRows;
+    }
+
+    /**
+     * Adds the joint row of two rows if their join values are equal. Indexes may find rows
+     * that no longer hold a value, or that hold an equal number written differently.
+     * @param jointRows Joint rows found so far.
+     * @param primaryRow Row of the primary table.
+     * @param secondaryRow Row of the secondary table.
+     */
+    private void addIfMatched(ArrayList<TableRow> jointRows, TableRow primaryRow, TableRow secondaryRow){
+        if (!primaryRow.getValue(primaryIndex).equals(secondaryRow.getValue(secondaryIndex))){
+            return;
+        }
+        int primarySize = primaryRow.getSize();
+        int secondarySize = secondaryRow.getSize();
+        String[] jointValues = new String[primarySize + secondarySize - 1];
+        jointValues[0] = String.valueOf(jointRows.size() + 1);
+        //start at 1 to exclude row ids
+        for (int i = 1; i < primarySize; i++){
+            jointValues[i] = primaryRow.getValue(i);
+        }
+        for (int i = 1; i < secondarySize; i++){
+            jointValues[primarySize + i - 1] = secondaryRow.getValue(i);
+        }
+        jointRows.add(new TableRow(jointValues));
+    }
+
+    /**
+     * Testing for DBHashJoin.
+     */
+    public static void test(){
+        try {
+            DBTable orders = new DBTable("orders");
+            orders.getTableAttributes().add(new TableAttribute("customer"));
+            orders.getTableRows().add(new TableRow(new String[]{"1", "'b'"}));
+            orders.getTableRows().add(new TableRow(new String[]{"2", "'a'"}));
+            orders.getTableRows().add(new TableRow(new String[]{"3", "'b'"}));
+            orders.getTableRows().add(new TableRow(new String[]{"4", "'c'"}));
+            DBTable customers = new DBTable("customers");
+            customers.getTableAttributes().add(new TableAttribute("name"));
+            customers.getTableAttributes().add(new TableAttribute("city"));
+            customers.getTableRows().add(new TableRow(new String[]{"1", "'b'", "'x'"}));
+            customers.getTableRows().add(new TableRow(new String[]{"2", "'a'", "'y'"}));
+            customers.getTableRows().add(new TableRow(new String[]{"3", "'b'", "'z'"}));
+            String expected = "[[1, 'b', 'b', 'x'], [2, 'b', 'b', 'z'], [3, 'a', 'a', 'y'], "
+                    + "[4, 'b', 'b', 'x'], [5, 'b', 'b', 'z']]";
+            ArrayList<TableRow> jointRows = new DBHashJoin(orders, "customer", customers, "name").joinRows();
+            assert printRows(jointRows).equals(expected);
+            assert new DBHashJoin(orders, "customer", customers, "name").describeJoin()
+                    .equals("hash join: 3 rows grouped by customers.name, probed by 4 rows of orders.customer");
+            orders.getTableRows().remove(3);
+            orders.getTableRows().remove(2);
+            jointRows = new DBHashJoin(orders, "customer", customers, "name").joinRows();
+            assert printRows(jointRows).equals("[[1, 'b', 'b', 'x'], [2, 'b', 'b', 'z'], [3, 'a', 'a', 'y']]");
+            jointRows = new DBHashJoin(customers, "name", orders, "customer").joinRows();
+            assert printRows(jointRows).equals("[[1, 'b', 'x', 'b'], [2, 'a', 'y', 'a'], [3, 'b', 'z', 'b']]");
+        }
+        catch (DBException dbe){
+            System.out.println("Error testing DBHashJoin.");
+        }
+        System.out.println("DBHashJoin passed.");
+    }
+
+    /**
+     * Prints the values of rows, used for testing.
+     * @param tableRows Rows to print.
+     * @return The values of each row.
+     */
+    private static String printRows(ArrayList<TableRow> tableRows){
+        ArrayList<String> printedRows = new ArrayList<>();
+        for (TableRow row : tableRows){
+            ArrayList<String> rowValues = new ArrayList<>();
+            for (int i = 0; i < row.getSize(); i++){
+                rowValues.add(row.getValue(i));
+            }
+            printedRows.add(rowValues.toString());
+        }
+        return printedRows.toString();
+    }
+}
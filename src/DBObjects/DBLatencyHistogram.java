@@ -0,0 +1,154 @@
+package DBObjects;
+
+/**
+ * DBLatencyHistogram counts latencies in buckets of bounded relative size, so that percentiles
+ * can be found without keeping every value. Values below 128 have a bucket each. Larger values
+ * share buckets of 64 per power of two, so a value is reported within 1.6% of what was recorded.
+ * Histograms are not synchronised. Each thread should record into its own histogram, and the
+ * histograms are added together once recording has finished.
+ */
+public class DBLatencyHistogram {
+    private static final int EXACT_VALUES = 128;
+    private static final int BUCKETS_PER_POWER = 64;
+    private static final int NUM_BUCKETS = EXACT_VALUES + 57 * BUCKETS_PER_POWER;
+    private final long[] bucketCounts = new long[NUM_BUCKETS];
+    private long totalCount = 0;
+    private long totalValue = 0;
+    private long maxValue = 0;
+
+    /**
+     * Records a value.
+     * @param value Value to record, such as a latency in microseconds. Negative values are recorded as 0.
+     */
+    public void recordValue(long value){
+        value = Math.max(0, value);
+        bucketCounts[findBucket(value)]++;
+        totalCount++;
+        totalValue += value;
+        maxValue = Math.max(maxValue, value);
+    }
+
+    /**
+     * Adds the values recorded by another histogram to this one.
+     * @param otherHistogram Histogram to add.
+     */
+    public void add(DBLatencyHistogram otherHistogram){
+        for (int i = 0; i < NUM_BUCKETS; i++){
+            bucketCounts[i] += otherHistogram.bucketCounts[i];
+        }
+        totalCount += otherHistogram.totalCount;
+        totalValue += otherHistogram.totalValue;
+        maxValue = Math.max(maxValue, otherHistogram.maxValue);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     * @return Number of values.
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Returns the sum of the recorded values.
+     * @return Sum of values.
+     */
+    public long getTotalValue() {
+        return totalValue;
+    }
+
+    /**
+     * Returns the largest recorded value.
+     * @return Largest value, or 0 if no values were recorded.
+     */
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     * @return Mean value, or 0 if no values were recorded.
+     */
+    public double getMean(){
+        return totalCount == 0 ? 0 : (double) totalValue / totalCount;
+    }
+
+    /**
+     * Finds the value below which a percentage of recorded values fall. The highest value of
+     * the bucket holding the percentile is returned, so percentiles are never understated.
+     * @param percentile Percentage of values, from 0 to 100.
+     * @return Value at the percentile, or 0 if no values were recorded.
+     */
+    public long getValueAtPercentile(double percentile){
+        if (totalCount == 0){
+            return 0;
+        }
+        long targetCount = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long countSoFar = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++){
+            countSoFar += bucketCounts[i];
+            if (countSoFar >= targetCount){
+                return Math.min(maxValue, findHighestValue(i));
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * Finds the bucket that counts a value.
+     * @param value Value to find, at least 0.
+     * @return Index of the bucket.
+     */
+    private static int findBucket(long value){
+        if (value < EXACT_VALUES){
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - 6;
+        int subBucket = (int) (value >>> shift) - BUCKETS_PER_POWER;
+        return EXACT_VALUES + (shift - 1) * BUCKETS_PER_POWER + subBucket;
+    }
+
+    /**
+     * Finds the highest value counted by a bucket.
+     * @param bucketIndex Index of the bucket.
+     * @return Highest value of the bucket.
+     */
+    private static long findHighestValue(int bucketIndex){
+        if (bucketIndex < EXACT_VALUES){
+            return bucketIndex;
+        }
+        int shift = (bucketIndex - EXACT_VALUES) / BUCKETS_PER_POWER + 1;
+        long subBucket = (bucketIndex - EXACT_VALUES) % BUCKETS_PER_POWER + BUCKETS_PER_POWER;
+        return (subBucket << shift) + (1L << shift) - 1;
+    }
+
+    /**
+     * Testing for DBLatencyHistogram.
+     */
+    public static void test(){
+        DBLatencyHistogram test1 = new DBLatencyHistogram();
+        for (int i = 1; i <= 100; i++){
+            test1.recordValue(i);
+        }
+        assert test1.getTotalCount() == 100 && test1.getMaxValue() == 100;
+        assert test1.getValueAtPercentile(50) == 50 && test1.getValueAtPercentile(99) == 99;
+        assert test1.getValueAtPercentile(100) == 100 && test1.getMean() == 50.5;
+        DBLatencyHistogram test2 = new DBLatencyHistogram();
+        for (int i = 0; i < 1000; i++){
+            test2.recordValue(1000 + i * 1000L);
+        }
+        long median = test2.getValueAtPercentile(50);
+        assert median >= 500000 && median <= 500000 * 1.016;
+        long highest = test2.getValueAtPercentile(99.9);
+        assert highest >= 999000 && highest <= 1000000;
+        test2.recordValue(Long.MAX_VALUE);
+        assert test2.getValueAtPercentile(100) == Long.MAX_VALUE;
+        test1.add(test2);
+        assert test1.getTotalCount() == 1101 && test1.getMaxValue() == Long.MAX_VALUE;
+        for (long value = 1; value > 0 && value < Long.MAX_VALUE / 3; value = value * 3 + 1){
+            long bucketHigh = findHighestValue(findBucket(value));
+            assert bucketHigh >= value && bucketHigh - value <= value / 64 + 1;
+        }
+        DBTest.passMessage("DBLatencyHistogram passed.");
+    }
+}
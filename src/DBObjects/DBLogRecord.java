@@ -0,0 +1,196 @@
+package DBObjects;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * DBLogRecord is a single row mutation stored in a database's write-ahead log. A record is
+ * stored as one tab-delimited line made up of the record type, the table name and the record's
+ * values. Inserts store the whole row, updates store the row id followed by attribute-value pairs,
+ * and deletes store only the row id.
+ */
+public class DBLogRecord {
+    private final LogRecordType recordType;
+    private final String tableName;
+    private final String[] recordValues;
+
+    /**
+     * Constructor for a DBLogRecord.
+     * @param recordType How the record changes the table.
+     * @param tableName Name of the table the record belongs to.
+     * @param recordValues Values stored by the record.
+     */
+    private DBLogRecord(LogRecordType recordType, String tableName, String[] recordValues){
+        this.recordType = recordType;
+        this.tableName = tableName;
+        this.recordValues = recordValues;
+    }
+
+    /**
+     * Creates a record for a newly inserted row.
+     * @param tableName Table the row was inserted into.
+     * @param insertedRow The inserted row, including its id.
+     * @return Returns an insert record.
+     */
+    public static DBLogRecord insertRecord(String tableName, TableRow insertedRow){
+        String[] rowValues = new String[insertedRow.getSize()];
+        for (int i = 0; i < rowValues.length; i++){
+            rowValues[i] = insertedRow.getValue(i);
+        }
+        return new DBLogRecord(LogRecordType.INSERT, tableName, rowValues);
+    }
+
+    /**
+     * Creates a record for an updated row.
+     * @param tableName Table containing the row.
+     * @param rowId Id of the updated row.
+     * @param attributes Attributes that were updated.
+     * @param values New values for each attribute.
+     * @return Returns an update record.
+     */
+    public static DBLogRecord updateRecord(String tableName, String rowId, ArrayList<TableAttribute> attributes,
+                                           ArrayList<String> values){
+        String[] updateValues = new String[1 + attributes.size() * 2];
+        updateValues[0] = rowId;
+        for (int i = 0; i < attributes.size(); i++){
+            updateValues[1 + i * 2] = attributes.get(i).getObjectName();
+            updateValues[2 + i * 2] = values.get(i);
+        }
+        return new DBLogRecord(LogRecordType.UPDATE, tableName, updateValues);
+    }
+
+    /**
+     * Creates a record for a deleted row.
+     * @param tableName Table containing the row.
+     * @param rowId Id of the deleted row.
+     * @return Returns a delete record.
+     */
+    public static DBLogRecord deleteRecord(String tableName, String rowId){
+        return new DBLogRecord(LogRecordType.DELETE, tableName, new String[]{rowId});
+    }
+
+    /**
+     * Parses a record from a line of the write-ahead log.
+     * @param logLine Line to parse.
+     * @return Returns the record, or null if the line is not a complete record.
+     */
+    public static DBLogRecord parseRecord(String logLine){
+        String[] lineParts = logLine.split("\t");
+        if (lineParts.length < 3){
+            return null;
+        }
+        String[] recordValues = Arrays.copyOfRange(lineParts, 2, lineParts.length);
+        switch (lineParts[0]){
+            case "I":
+                return new DBLogRecord(LogRecordType.INSERT, lineParts[1], recordValues);
+            case "U":
+                if (recordValues.length < 3 || recordValues.length % 2 == 0){
+                    return null;
+                }
+                return new DBLogRecord(LogRecordType.UPDATE, lineParts[1], recordValues);
+            case "D":
+                return new DBLogRecord(LogRecordType.DELETE, lineParts[1], recordValues);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Returns how the record changes the table.
+     * @return Record type.
+     */
+    public LogRecordType getRecordType() {
+        return recordType;
+    }
+
+    /**
+     * Returns the name of the table the record belongs to.
+     * @return Table name.
+     */
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * Returns the id of the row changed by the record.
+     * @return Row id as stored in the table.
+     */
+    public String getRowId(){
+        return recordValues[0];
+    }
+
+    /**
+     * Returns the inserted row of an insert record.
+     * @return A new TableRow with the inserted values.
+     */
+    public TableRow getInsertedRow(){
+        return new TableRow(recordValues.clone());
+    }
+
+    /**
+     * Returns the number of attribute-value pairs in an update record.
+     * @return Number of updated attributes.
+     */
+    public int getNumUpdates(){
+        return (recordValues.length - 1) / 2;
+    }
+
+    /**
+     * Returns the name of an updated attribute.
+     * @param index Index of the attribute-value pair.
+     * @return Attribute name.
+     */
+    public String getUpdateAttribute(int index){
+        return recordValues[1 + index * 2];
+    }
+
+    /**
+     * Returns the new value of an updated attribute.
+     * @param index Index of the attribute-value pair.
+     * @return New value.
+     */
+    public String getUpdateValue(int index){
+        return recordValues[2 + index * 2];
+    }
+
+    /**
+     * Returns the record as a single tab-delimited log line without a line separator.
+     * @return Encoded record.
+     */
+    @Override
+    public String toString(){
+        StringBuilder recordLine = new StringBuilder();
+        recordLine.append(recordType.name().charAt(0)).append("\t").append(tableName);
+        for (String value : recordValues){
+            recordLine.append("\t").append(value);
+        }
+        return recordLine.toString();
+    }
+
+    /**
+     * Testing for DBLogRecord.
+     */
+    public static void test(){
+        DBLogRecord test1 = insertRecord("t1", new TableRow(new String[]{"7", "'a b'", "2.5"}));
+        assert test1.toString().equals("I\tt1\t7\t'a b'\t2.5");
+        DBLogRecord parsed1 = parseRecord(test1.toString());
+        assert parsed1.getRecordType() == LogRecordType.INSERT && parsed1.getTableName().equals("t1");
+        assert parsed1.getRowId().equals("7") && parsed1.getInsertedRow().getValue(1).equals("'a b'");
+        ArrayList<TableAttribute> updateAttributes = new ArrayList<>();
+        updateAttributes.add(new TableAttribute("qty"));
+        ArrayList<String> updateValues = new ArrayList<>();
+        updateValues.add("20");
+        DBLogRecord test2 = updateRecord("t1", "7", updateAttributes, updateValues);
+        assert test2.toString().equals("U\tt1\t7\tqty\t20");
+        DBLogRecord parsed2 = parseRecord(test2.toString());
+        assert parsed2.getRecordType() == LogRecordType.UPDATE && parsed2.getNumUpdates() == 1;
+        assert parsed2.getUpdateAttribute(0).equals("qty") && parsed2.getUpdateValue(0).equals("20");
+        DBLogRecord parsed3 = parseRecord(deleteRecord("t1", "7").toString());
+        assert parsed3.getRecordType() == LogRecordType.DELETE && parsed3.getRowId().equals("7");
+        assert parseRecord("I\tt1") == null;
+        assert parseRecord("U\tt1\t7\tqty") == null;
+        assert parseRecord("X\tt1\t7") == null;
+        assert parseRecord("") == null;
+        DBTest.passMessage("DBLogRecord passed.");
+    }
+}
@@ -0,0 +1,119 @@
+package DBObjects;
+
+import DBException.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * DBMappedTableFile scans a tab-delimited table file by mapping it into memory. Rows and values
+ * are found by walking the mapped bytes, and each row keeps a reference to the mapping instead
+ * of copying its values into strings. Table files are only ever appended to or replaced by a
+ * new file, so a mapping stays valid for as long as its rows are in use.
+ */
+public class DBMappedTableFile {
+    private static final long MAX_REGION_SIZE = Integer.MAX_VALUE;
+
+    private final String filepath;
+
+    /**
+     * Constructor for a DBMappedTableFile.
+     * @param filepath Path of the tab-delimited table file.
+     */
+    public DBMappedTableFile(String filepath){
+        this.filepath = filepath;
+    }
+
+    /**
+     * Maps the file and scans it for rows. Files larger than a single mapping are mapped in
+     * regions that each start at the beginning of a row.
+     * @return Returns rows backed by the mapped file.
+     * @throws DBException Thrown if the file could not be mapped.
+     */
+    public ArrayList<TableRow> readRows() throws DBException {
+        ArrayList<TableRow> tableRows = new ArrayList<>();
+        try (FileChannel fileChannel = FileChannel.open(Paths.get(filepath), StandardOpenOption.READ)){
+            long fileSize = fileChannel.size();
+            long regionStart = 0;
+            while (regionStart < fileSize){
+                long regionSize = Math.min(fileSize - regionStart, MAX_REGION_SIZE);
+                MappedByteBuffer region = fileChannel.map(FileChannel.MapMode.READ_ONLY, regionStart, regionSize);
+                boolean lastRegion = regionStart + regionSize == fileSize;
+                int scannedBytes = scanRegion(region, lastRegion, tableRows);
+                if (scannedBytes == 0){
+                    throw new DBServerException("Table row is too large to be mapped.");
+                }
+                regionStart += scannedBytes;
+            }
+            DBMetrics.addBytesRead(fileSize);
+        }
+        catch (IOException ioe){
+            throw new DBServerException("Could not load table definitions.");
+        }
+        return tableRows;
+    }
+
+    /**
+     * Scans a mapped region for complete rows. A row at the end of a region that is not the
+     * last region is left to be scanned as part of the next region.
+     * @param region Mapped region of the file.
+     * @param lastRegion True if the region ends at the end of the file.
+     * @param tableRows Rows found so far, added to by this method.
+     * @return Returns the number of bytes that were scanned into rows.
+     */
+    private int scanRegion(ByteBuffer region, boolean lastRegion, ArrayList<TableRow> tableRows){
+        int[] fieldBounds = new int[16];
+        int numFields = 1;
+        int lineStart = 0;
+        int regionLimit = region.limit();
+        for (int i = 0; i < regionLimit; i++){
+            byte currentByte = region.get(i);
+            if (currentByte == '\t'){
+                if (numFields == fieldBounds.length){
+                    fieldBounds = Arrays.copyOf(fieldBounds, numFields * 2);
+                }
+                fieldBounds[numFields++] = i + 1;
+            }
+            else if (currentByte == '\n'){
+                fieldBounds[0] = lineStart;
+                tableRows.add(createRow(region, fieldBounds, numFields, i));
+                lineStart = i + 1;
+                numFields = 1;
+            }
+        }
+        if (lastRegion && lineStart < regionLimit){
+            fieldBounds[0] = lineStart;
+            tableRows.add(createRow(region, fieldBounds, numFields, regionLimit));
+            lineStart = regionLimit;
+        }
+        return lineStart;
+    }
+
+    /**
+     * Creates a row from the values found on a line. Trailing empty values are dropped so
+     * rows match those split from the same line as a string.
+     * @param region Mapped region holding the line.
+     * @param fieldBounds Start position of each value on the line.
+     * @param numFields Number of values found on the line.
+     * @param lineEnd Position of the line's separator, or the end of the region.
+     * @return Returns a row backed by the mapped region.
+     */
+    private TableRow createRow(ByteBuffer region, int[] fieldBounds, int numFields, int lineEnd){
+        if (lineEnd > fieldBounds[0] && region.get(lineEnd - 1) == '\r'){
+            lineEnd--;
+        }
+        if (lineEnd == fieldBounds[0]){
+            return new TableRow(region, new int[]{lineEnd, lineEnd + 1});
+        }
+        int[] rowBounds = Arrays.copyOf(fieldBounds, numFields + 1);
+        rowBounds[numFields] = lineEnd + 1;
+        while (numFields > 0 && rowBounds[numFields] - 1 == rowBounds[numFields - 1]){
+            numFields--;
+        }
+        return new TableRow(region, Arrays.copyOf(rowBounds, numFields + 1));
+    }
+}
@@ -0,0 +1,400 @@
+package DBObjects;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DBMetrics records the statements performed by the server, by the command they performed.
+ * Each command counts its statements, failed statements, rows scanned and returned, and bytes
+ * of table, index and log files read and written. The time of each phase of a statement is
+ * recorded in a histogram:
+ * parse : Breaking the statement into tokens and parsing it into a command.
+ * prepare : Checking the command and loading the tables it uses.
+ * execute : Performing the command.
+ * io : Writing the command's reply to the connection.
+ * Bytes and rows loaded from disk are counted against the statement being performed by the
+ * thread that read or wrote them, and can be read back by the slow query log.
+ * Statements that could not be parsed are recorded as INVALID. Metrics can be printed for SHOW
+ * STATS, or in the plain-text format read by Prometheus scrapers.
+ */
+public class DBMetrics {
+    public static final String INVALID_COMMAND = "INVALID";
+    private static final String[] PHASE_NAMES = new String[]{"parse", "prepare", "execute", "io"};
+    private static final int PARSE_PHASE = 0, PREPARE_PHASE = 1, EXECUTE_PHASE = 2, IO_PHASE = 3;
+    private static final double[] QUANTILES = new double[]{0.5, 0.99, 0.999};
+    private static final ConcurrentHashMap<String, CommandMetrics> commandMetrics = new ConcurrentHashMap<>();
+    private static final LongAdder totalBytesRead = new LongAdder();
+    private static final LongAdder totalBytesWritten = new LongAdder();
+    private static final int BYTES_READ = 0, BYTES_WRITTEN = 1, ROWS_LOADED = 2;
+    private static final ThreadLocal<long[]> statementCounts = ThreadLocal.withInitial(() -> new long[3]);
+
+    /**
+     * CommandMetrics holds the metrics of a single command. Updates are synchronised on the object.
+     */
+    private static class CommandMetrics {
+        private long numStatements = 0;
+        private long numErrors = 0;
+        private long rowsScanned = 0;
+        private long rowsReturned = 0;
+        private long bytesRead = 0;
+        private long bytesWritten = 0;
+        private final DBLatencyHistogram[] phaseNanos = new DBLatencyHistogram[PHASE_NAMES.length];
+
+        /**
+         * Constructor for CommandMetrics with nothing recorded.
+         */
+        private CommandMetrics(){
+            for (int i = 0; i < phaseNanos.length; i++){
+                phaseNanos[i] = new DBLatencyHistogram();
+            }
+        }
+
+        /**
+         * Copies the metrics, so they can be printed without holding the lock.
+         * @return A copy of the metrics.
+         */
+        private synchronized CommandMetrics copy(){
+            CommandMetrics metricsCopy = new CommandMetrics();
+            metricsCopy.numStatements = numStatements;
+            metricsCopy.numErrors = numErrors;
+            metricsCopy.rowsScanned = rowsScanned;
+            metricsCopy.rowsReturned = rowsReturned;
+            metricsCopy.bytesRead = bytesRead;
+            metricsCopy.bytesWritten = bytesWritten;
+            for (int i = 0; i < phaseNanos.length; i++){
+                metricsCopy.phaseNanos[i].add(phaseNanos[i]);
+            }
+            return metricsCopy;
+        }
+    }
+
+    /**
+     * DBMetrics only has static members.
+     */
+    private DBMetrics(){}
+
+    /**
+     * Starts counting bytes and rows for a statement performed by the current thread.
+     */
+    public static void startStatement(){
+        long[] currentCounts = statementCounts.get();
+        currentCounts[BYTES_READ] = 0;
+        currentCounts[BYTES_WRITTEN] = 0;
+        currentCounts[ROWS_LOADED] = 0;
+    }
+
+    /**
+     * Counts bytes read from a file.
+     * @param numBytes Number of bytes read.
+     */
+    public static void addBytesRead(long numBytes){
+        totalBytesRead.add(numBytes);
+        statementCounts.get()[BYTES_READ] += numBytes;
+    }
+
+    /**
+     * Counts bytes written to a file.
+     * @param numBytes Number of bytes written.
+     */
+    public static void addBytesWritten(long numBytes){
+        totalBytesWritten.add(numBytes);
+        statementCounts.get()[BYTES_WRITTEN] += numBytes;
+    }
+
+    /**
+     * Counts table rows read from a file, rather than from the table cache.
+     * @param numRows Number of rows loaded.
+     */
+    public static void addRowsLoaded(long numRows){
+        statementCounts.get()[ROWS_LOADED] += numRows;
+    }
+
+    /**
+     * Returns the bytes read by the current thread's statement so far.
+     * @return Number of bytes read.
+     */
+    public static long getStatementBytesRead(){
+        return statementCounts.get()[BYTES_READ];
+    }
+
+    /**
+     * Returns the bytes written by the current thread's statement so far.
+     * @return Number of bytes written.
+     */
+    public static long getStatementBytesWritten(){
+        return statementCounts.get()[BYTES_WRITTEN];
+    }
+
+    /**
+     * Returns the table rows loaded from disk by the current thread's statement so far.
+     * @return Number of rows loaded.
+     */
+    public static long getStatementRowsLoaded(){
+        return statementCounts.get()[ROWS_LOADED];
+    }
+
+    /**
+     * Counts the bytes that part of a text will take once encoded as UTF-8, without encoding it.
+     * Used to count log records and replies written for a statement.
+     * @param text Text to count.
+     * @param start Position of the first character to count.
+     * @param end Position after the last character to count.
+     * @return Number of bytes.
+     */
+    public static long countBytes(CharSequence text, int start, int end){
+        long numBytes = 0;
+        for (int i = start; i < end; i++){
+            char textChar = text.charAt(i);
+            if (textChar < 0x80){
+                numBytes++;
+            }
+            else if (textChar < 0x800){
+                numBytes += 2;
+            }
+            else if (Character.isHighSurrogate(textChar) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))){
+                numBytes += 4;
+                i++;
+            }
+            else {
+                numBytes += 3;
+            }
+        }
+        return numBytes;
+    }
+
+    /**
+     * Records a statement performed by the current thread, with the bytes counted since it started.
+     * Phases that did not complete are given as 0 and are not recorded.
+     * @param commandName Name of the statement's command, such as SELECT.
+     * @param parseNanos Time spent parsing the statement.
+     * @param prepareNanos Time spent preparing the command.
+     * @param executeNanos Time spent executing the command.
+     * @param rowsScanned Number of table rows evaluated by the command.
+     * @param rowsReturned Number of rows returned by the command.
+     * @param failed True if the statement failed.
+     */
+    public static void recordStatement(String commandName, long parseNanos, long prepareNanos, long executeNanos,
+                                       long rowsScanned, long rowsReturned, boolean failed){
+        long[] currentCounts = statementCounts.get();
+        CommandMetrics metrics = commandMetrics.computeIfAbsent(commandName, name -> new CommandMetrics());
+        synchronized (metrics){
+            metrics.numStatements++;
+            if (failed){
+                metrics.numErrors++;
+            }
+            metrics.rowsScanned += rowsScanned;
+            metrics.rowsReturned += rowsReturned;
+            metrics.bytesRead += currentCounts[BYTES_READ];
+            metrics.bytesWritten += currentCounts[BYTES_WRITTEN];
+            recordPhase(metrics, PARSE_PHASE, parseNanos);
+            recordPhase(metrics, PREPARE_PHASE, prepareNanos);
+            recordPhase(metrics, EXECUTE_PHASE, executeNanos);
+        }
+    }
+
+    /**
+     * Records the time spent writing a statement's reply to its connection.
+     * @param commandName Name of the statement's command.
+     * @param ioNanos Time spent writing the reply.
+     */
+    public static void recordReply(String commandName, long ioNanos){
+        CommandMetrics metrics = commandMetrics.computeIfAbsent(commandName, name -> new CommandMetrics());
+        synchronized (metrics){
+            recordPhase(metrics, IO_PHASE, ioNanos);
+        }
+    }
+
+    /**
+     * Records the time of a phase that completed.
+     * @param metrics Metrics of the command, locked by the caller.
+     * @param phase Index of the phase.
+     * @param phaseNanos Time of the phase, or 0 if it did not complete.
+     */
+    private static void recordPhase(CommandMetrics metrics, int phase, long phaseNanos){
+        if (phaseNanos > 0){
+            metrics.phaseNanos[phase].recordValue(phaseNanos);
+        }
+    }
+
+    /**
+     * Removes all recorded metrics.
+     */
+    public static void reset(){
+        commandMetrics.clear();
+        totalBytesRead.reset();
+        totalBytesWritten.reset();
+    }
+
+    /**
+     * Copies the metrics of every command, ordered by command name.
+     * @return Copies of the metrics, by command name.
+     */
+    private static TreeMap<String, CommandMetrics> copyMetrics(){
+        TreeMap<String, CommandMetrics> metricsCopies = new TreeMap<>();
+        for (Map.Entry<String, CommandMetrics> metricsEntry : commandMetrics.entrySet()){
+            metricsCopies.put(metricsEntry.getKey(), metricsEntry.getValue().copy());
+        }
+        return metricsCopies;
+    }
+
+    /**
+     * Prints the metrics as tab-delimited tables, as returned by SHOW STATS. The first table
+     * holds the counts of each command and the second the times of each phase in microseconds.
+     * @return The printed metrics.
+     */
+    public static String printStats(){
+        TreeMap<String, CommandMetrics> metricsCopies = copyMetrics();
+        String lineSeparator = System.lineSeparator();
+        StringBuilder statsString = new StringBuilder();
+        statsString.append("command\tstatements\terrors\trows_scanned\trows_returned\tbytes_read\tbytes_written\t")
+                .append(lineSeparator);
+        for (Map.Entry<String, CommandMetrics> metricsEntry : metricsCopies.entrySet()){
+            CommandMetrics metrics = metricsEntry.getValue();
+            statsString.append(metricsEntry.getKey()).append('\t').append(metrics.numStatements).append('\t')
+                    .append(metrics.numErrors).append('\t').append(metrics.rowsScanned).append('\t')
+                    .append(metrics.rowsReturned).append('\t').append(metrics.bytesRead).append('\t')
+                    .append(metrics.bytesWritten).append('\t').append(lineSeparator);
+        }
+        statsString.append(lineSeparator).append("command\tphase\tcount\tmean_us\tp50_us\tp99_us\tp999_us\tmax_us\t")
+                .append(lineSeparator);
+        for (Map.Entry<String, CommandMetrics> metricsEntry : metricsCopies.entrySet()){
+            for (int phase = 0; phase < PHASE_NAMES.length; phase++){
+                DBLatencyHistogram phaseNanos = metricsEntry.getValue().phaseNanos[phase];
+                if (phaseNanos.getTotalCount() == 0){
+                    continue;
+                }
+                statsString.append(metricsEntry.getKey()).append('\t').append(PHASE_NAMES[phase]).append('\t')
+                        .append(phaseNanos.getTotalCount()).append('\t').append(printMicros(phaseNanos.getMean()));
+                statsString.append('\t').append(printMicros(phaseNanos.getValueAtPercentile(50)));
+                statsString.append('\t').append(printMicros(phaseNanos.getValueAtPercentile(99)));
+                statsString.append('\t').append(printMicros(phaseNanos.getValueAtPercentile(99.9)));
+                statsString.append('\t').append(printMicros(phaseNanos.getMaxValue())).append('\t')
+                        .append(lineSeparator);
+            }
+        }
+        return statsString.toString();
+    }
+
+    /**
+     * Prints the metrics in the Prometheus text exposition format. Counts are counters labelled
+     * by command, and phase times are summaries in seconds labelled by command and phase.
+     * @return The printed metrics.
+     */
+    public static String printScrape(){
+        TreeMap<String, CommandMetrics> metricsCopies = copyMetrics();
+        StringBuilder scrapeString = new StringBuilder();
+        appendCounter(scrapeString, "db_statements_total", "Statements performed.", metricsCopies, 0);
+        appendCounter(scrapeString, "db_statement_errors_total", "Statements that failed.", metricsCopies, 1);
+        appendCounter(scrapeString, "db_rows_scanned_total", "Table rows evaluated by statements.", metricsCopies, 2);
+        appendCounter(scrapeString, "db_rows_returned_total", "Rows returned by statements.", metricsCopies, 3);
+        appendCounter(scrapeString, "db_statement_bytes_read_total", "File bytes read by statements.", metricsCopies, 4);
+        appendCounter(scrapeString, "db_statement_bytes_written_total", "File bytes written by statements.",
+                metricsCopies, 5);
+        scrapeString.append("# HELP db_bytes_read_total File bytes read.\n# TYPE db_bytes_read_total counter\n")
+                .append("db_bytes_read_total ").append(totalBytesRead.sum()).append('\n');
+        scrapeString.append("# HELP db_bytes_written_total File bytes written.\n# TYPE db_bytes_written_total counter\n")
+                .append("db_bytes_written_total ").append(totalBytesWritten.sum()).append('\n');
+        scrapeString.append("# HELP db_statement_phase_seconds Time spent in each phase of statements.\n")
+                .append("# TYPE db_statement_phase_seconds summary\n");
+        for (Map.Entry<String, CommandMetrics> metricsEntry : metricsCopies.entrySet()){
+            for (int phase = 0; phase < PHASE_NAMES.length; phase++){
+                DBLatencyHistogram phaseNanos = metricsEntry.getValue().phaseNanos[phase];
+                if (phaseNanos.getTotalCount() == 0){
+                    continue;
+                }
+                String labels = "command=\"" + metricsEntry.getKey() + "\",phase=\"" + PHASE_NAMES[phase] + "\"";
+                for (double quantile : QUANTILES){
+                    scrapeString.append("db_statement_phase_seconds{").append(labels).append(",quantile=\"")
+                            .append(quantile).append("\"} ")
+                            .append(printSeconds(phaseNanos.getValueAtPercentile(quantile * 100))).append('\n');
+                }
+                scrapeString.append("db_statement_phase_seconds_sum{").append(labels).append("} ")
+                        .append(printSeconds(phaseNanos.getTotalValue())).append('\n');
+                scrapeString.append("db_statement_phase_seconds_count{").append(labels).append("} ")
+                        .append(phaseNanos.getTotalCount()).append('\n');
+            }
+        }
+        return scrapeString.toString();
+    }
+
+    /**
+     * Appends a counter with a value for each command.
+     * @param scrapeString String to append to.
+     * @param metricName Name of the counter.
+     * @param metricHelp Description of the counter.
+     * @param metricsCopies Metrics by command name.
+     * @param field Which count to append: statements, errors, rows scanned, rows returned,
+     *              bytes read or bytes written.
+     */
+    private static void appendCounter(StringBuilder scrapeString, String metricName, String metricHelp,
+                                      TreeMap<String, CommandMetrics> metricsCopies, int field){
+        scrapeString.append("# HELP ").append(metricName).append(' ').append(metricHelp).append('\n');
+        scrapeString.append("# TYPE ").append(metricName).append(" counter\n");
+        for (Map.Entry<String, CommandMetrics> metricsEntry : metricsCopies.entrySet()){
+            CommandMetrics metrics = metricsEntry.getValue();
+            long[] fieldValues = new long[]{metrics.numStatements, metrics.numErrors, metrics.rowsScanned,
+                    metrics.rowsReturned, metrics.bytesRead, metrics.bytesWritten};
+            scrapeString.append(metricName).append("{command=\"").append(metricsEntry.getKey()).append("\"} ")
+                    .append(fieldValues[field]).append('\n');
+        }
+    }
+
+    /**
+     * Prints nanoseconds as microseconds.
+     * @param nanos Time in nanoseconds.
+     * @return Time in microseconds, to one decimal place.
+     */
+    private static String printMicros(double nanos){
+        return String.format(Locale.ROOT, "%.1f", nanos / 1000);
+    }
+
+    /**
+     * Prints nanoseconds as seconds.
+     * @param nanos Time in nanoseconds.
+     * @return Time in seconds.
+     */
+    private static String printSeconds(double nanos){
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+
+    /**
+     * Testing for DBMetrics. Metrics are shared by the whole server, so the test only checks the
+     * metrics of a command that is never performed.
+     */
+    public static void test(){
+        String testCommand = "METRICSTEST";
+        startStatement();
+        addBytesRead(100);
+        addBytesWritten(40);
+        addRowsLoaded(7);
+        assert getStatementBytesRead() == 100 && getStatementBytesWritten() == 40 && getStatementRowsLoaded() == 7;
+        recordStatement(testCommand, 2000, 3000, 0, 10, 4, false);
+        startStatement();
+        recordStatement(testCommand, 1000, 0, 0, 0, 0, true);
+        recordReply(testCommand, 5000);
+        CommandMetrics metrics = commandMetrics.get(testCommand).copy();
+        assert metrics.numStatements == 2 && metrics.numErrors == 1;
+        assert metrics.rowsScanned == 10 && metrics.rowsReturned == 4;
+        assert metrics.bytesRead == 100 && metrics.bytesWritten == 40;
+        assert metrics.phaseNanos[PARSE_PHASE].getTotalCount() == 2;
+        assert metrics.phaseNanos[PREPARE_PHASE].getTotalCount() == 1;
+        assert metrics.phaseNanos[EXECUTE_PHASE].getTotalCount() == 0;
+        assert metrics.phaseNanos[IO_PHASE].getMaxValue() == 5000;
+        String statsString = printStats();
+        assert statsString.contains(testCommand + "\t2\t1\t10\t4\t100\t40\t");
+        assert statsString.contains(testCommand + "\tio\t1\t5.0\t5.0\t5.0\t5.0\t5.0\t");
+        String scrapeString = printScrape();
+        assert scrapeString.contains("db_statements_total{command=\"" + testCommand + "\"} 2\n");
+        assert scrapeString.contains("db_statement_phase_seconds_count{command=\"" + testCommand
+                + "\",phase=\"parse\"} 2\n");
+        commandMetrics.remove(testCommand);
+        String testText = "a\u00e9\u20ac\ud83d\ude00";
+        assert countBytes(testText, 0, testText.length()) == testText.getBytes(StandardCharsets.UTF_8).length;
+        assert countBytes(testText, 1, 3) == 5;
+        DBTest.passMessage("DBMetrics passed.");
+    }
+}
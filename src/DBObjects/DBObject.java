@@ -37,7 +37,20 @@ public class DBObject {
      * @return Returns true if the object name is alphanumeric.
      */
     public static boolean isNameValid(String objectName) {
-        return objectName.matches(".+[a-zA-Z0-9]");
+        int lastIndex = objectName.length() - 1;
+        if (lastIndex < 1){
+            return false;
+        }
+        for (int i = 0; i < lastIndex; i++){
+            char nameChar = objectName.charAt(i);
+            if (nameChar == '\n' || nameChar == '\r' || nameChar == '\u0085' || nameChar == '\u2028' ||
+                    nameChar == '\u2029'){
+                return false;
+            }
+        }
+        char lastChar = objectName.charAt(lastIndex);
+        return (lastChar >= 'a' && lastChar <= 'z') || (lastChar >= 'A' && lastChar <= 'Z') ||
+                (lastChar >= '0' && lastChar <= '9');
     }
 
     /**
@@ -0,0 +1,122 @@
+package DBObjects;
+
+import DBException.*;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+
+/**
+ * DBResultSet holds the rows and columns returned by a command that reads a table. The columns
+ * are resolved when the result is created, so a result can always be printed or encoded for a
+ * client. Rows are shared with the table and must not be edited.
+ */
+public class DBResultSet {
+    private final ArrayList<String> columnNames = new ArrayList<>();
+    private final int[] columnIndexes;
+    private final ArrayList<TableRow> resultRows;
+
+    /**
+     * Constructor for a result of selected attributes of a table's loaded rows.
+     * @param resultTable Table holding the result rows.
+     * @param resultAttributes Attributes to return, in order.
+     * @throws DBException Thrown if an attribute does not exist in the table.
+     */
+    public DBResultSet(DBTable resultTable, ArrayList<TableAttribute> resultAttributes) throws DBException {
+        columnIndexes = new int[resultAttributes.size()];
+        for (int i = 0; i < columnIndexes.length; i++){
+            String attributeName = resultAttributes.get(i).getObjectName();
+            columnIndexes[i] = resultTable.getAttributeIndex(attributeName);
+            columnNames.add(attributeName);
+        }
+        resultRows = resultTable.getTableRows();
+    }
+
+    /**
+     * Constructor for a result that does not come from a table. Each row holds one value per column.
+     * @param columnNames Names of the columns, in order.
+     * @param resultRows Rows of the result.
+     */
+    public DBResultSet(String[] columnNames, ArrayList<TableRow> resultRows){
+        columnIndexes = new int[columnNames.length];
+        for (int i = 0; i < columnIndexes.length; i++){
+            columnIndexes[i] = i;
+            this.columnNames.add(columnNames[i]);
+        }
+        this.resultRows = resultRows;
+    }
+
+    /**
+     * Returns the number of columns in the result.
+     * @return Number of columns.
+     */
+    public int getNumColumns(){
+        return columnIndexes.length;
+    }
+
+    /**
+     * Returns the name of a column.
+     * @param column Index of the column in the result.
+     * @return Name of the column.
+     */
+    public String getColumnName(int column){
+        return columnNames.get(column);
+    }
+
+    /**
+     * Returns the number of rows in the result.
+     * @return Number of rows.
+     */
+    public int getNumRows(){
+        return resultRows.size();
+    }
+
+    /**
+     * Returns a value of the result.
+     * @param row Index of the row in the result.
+     * @param column Index of the column in the result.
+     * @return The value, as stored in the table.
+     */
+    public String getValue(int row, int column){
+        return resultRows.get(row).getValue(columnIndexes[column]);
+    }
+
+    /**
+     * Returns a tab-delimited string of the result, starting with a line of column names.
+     * Every value is followed by a tab, and every line by a line separator.
+     * @return Printable string of the result.
+     */
+    public String printResult(){
+        StringWriter resultWriter = new StringWriter();
+        try {
+            writeResult(resultWriter);
+        }
+        catch (IOException ioe){
+            throw new UncheckedIOException(ioe);
+        }
+        return resultWriter.toString();
+    }
+
+    /**
+     * Writes the result in the same format as printResult, a row at a time, so that a large
+     * result can be sent without first being built as a string.
+     * @param resultWriter Writer to write the result to. Should be buffered.
+     * @throws IOException Thrown if writing fails.
+     */
+    public void writeResult(Writer resultWriter) throws IOException {
+        String lineSeparator = System.lineSeparator();
+        for (String columnName : columnNames){
+            resultWriter.write(columnName);
+            resultWriter.write('\t');
+        }
+        resultWriter.write(lineSeparator);
+        for (TableRow row : resultRows){
+            for (int columnIndex : columnIndexes){
+                resultWriter.write(row.getValue(columnIndex));
+                resultWriter.write('\t');
+            }
+            resultWriter.write(lineSeparator);
+        }
+    }
+}
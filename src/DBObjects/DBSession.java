@@ -0,0 +1,105 @@
+package DBObjects;
+
+import DBException.*;
+import DBObjects.DBCommands.DBPreparedStatement;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DBSession holds the state of a single client connection. Each session has its own working
+ * database, changed by USE, and its own prepared statements, kept by PREPARE. It also counts the
+ * statements it has performed. A session performs one statement at a time, so its state is never
+ * used by two threads at once.
+ */
+public class DBSession {
+    private static final AtomicInteger nextSessionId = new AtomicInteger(1);
+    private final int sessionId;
+    private DBDatabase workingDatabase;
+    private final HashMap<String, DBPreparedStatement> preparedStatements = new HashMap<>();
+    private long numStatements = 0;
+    private long numFailedStatements = 0;
+    private long statementNanos = 0;
+
+    /**
+     * Constructor for a new session without a working database.
+     */
+    public DBSession(){
+        sessionId = nextSessionId.getAndIncrement();
+    }
+
+    /**
+     * Performs a statement with the session's working database, then keeps any database
+     * selected by the statement.
+     * @param commandString SQL query to perform.
+     * @return The performed statement, holding its return message.
+     * @throws DBException Thrown if the statement failed.
+     */
+    public DBStatement performStatement(String commandString) throws DBException {
+        DBStatement dbStatement = new DBStatement(workingDatabase, preparedStatements);
+        long startTime = System.nanoTime();
+        try {
+            dbStatement.performStatement(commandString);
+            workingDatabase = dbStatement.getWorkingDatabase();
+            return dbStatement;
+        }
+        catch (DBException dbe){
+            numFailedStatements++;
+            throw dbe;
+        }
+        finally {
+            numStatements++;
+            statementNanos += System.nanoTime() - startTime;
+        }
+    }
+
+    /**
+     * Returns the id of the session, unique while the server runs.
+     * @return Session id.
+     */
+    public int getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Returns the session's working database.
+     * @return The working database, or null if none has been selected.
+     */
+    public DBDatabase getWorkingDatabase() {
+        return workingDatabase;
+    }
+
+    /**
+     * Returns the number of statements performed by the session.
+     * @return Number of statements, including failed statements.
+     */
+    public long getNumStatements() {
+        return numStatements;
+    }
+
+    /**
+     * Returns the number of statements performed by the session that failed.
+     * @return Number of failed statements.
+     */
+    public long getNumFailedStatements() {
+        return numFailedStatements;
+    }
+
+    /**
+     * Returns the total time spent performing the session's statements.
+     * @return Total statement time in nanoseconds.
+     */
+    public long getStatementNanos() {
+        return statementNanos;
+    }
+
+    /**
+     * Describes the session's statement counts and average statement time.
+     * @return Summary of the session.
+     */
+    @Override
+    public String toString(){
+        long averageMicros = numStatements == 0 ? 0 : statementNanos / numStatements / 1000;
+        return "Session " + sessionId + ": " + numStatements + " statements, " + numFailedStatements
+                + " failed, " + averageMicros + "us average";
+    }
+}
@@ -0,0 +1,302 @@
+package DBObjects;
+
+import DBException.DBException;
+import DBObjects.DBCommands.DBCommand;
+import DBObjects.DBCommands.DBParser;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DBSlowQueryLog writes statements that took longer than a threshold to a log file, one line
+ * per statement, with the time of each phase and the rows and bytes the statement used. The log
+ * is enabled by setting DBServer.slowQueryMillis, and is written to DBServer.slowQueryLog.
+ * Entries are written by a background thread, so a statement never waits for the log. If the
+ * thread falls behind, entries are dropped and counted rather than held. When the file grows past
+ * DBServer.slowQueryLogBytes it is rotated, keeping DBServer.slowQueryLogFiles old files named
+ * with a suffix of .1 for the newest.
+ */
+public class DBSlowQueryLog {
+    private static final String DEFAULT_PATH = "slow_query.log";
+    private static final long DEFAULT_MAX_BYTES = 16 * 1024 * 1024;
+    private static final int DEFAULT_MAX_FILES = 4;
+    private static final int QUEUE_SIZE = 4096;
+    private static final long thresholdNanos = findThresholdNanos();
+    private static final LongAdder droppedEntries = new LongAdder();
+    private static DBSlowQueryLog serverLog;
+
+    private final Path logPath;
+    private final long maxBytes;
+    private final int maxFiles;
+    private final ThreadPoolExecutor logWriter;
+    private Writer fileWriter;
+    private long fileBytes;
+
+    /**
+     * Constructor for a DBSlowQueryLog. The file is opened when the first entry is written.
+     * @param logPath Path of the log file.
+     * @param maxBytes Size at which the file is rotated.
+     * @param maxFiles Number of rotated files to keep.
+     */
+    DBSlowQueryLog(Path logPath, long maxBytes, int maxFiles){
+        this.logPath = logPath;
+        this.maxBytes = maxBytes;
+        this.maxFiles = maxFiles;
+        logWriter = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(QUEUE_SIZE),
+                runnable -> {
+                    Thread logThread = new Thread(runnable, "DBSlowQueryLog");
+                    logThread.setDaemon(true);
+                    return logThread;
+                }, (runnable, executor) -> droppedEntries.increment());
+    }
+
+    /**
+     * Reads the threshold from DBServer.slowQueryMillis.
+     * @return Threshold in nanoseconds, or -1 if the log is disabled.
+     */
+    private static long findThresholdNanos(){
+        String thresholdString = System.getProperty("DBServer.slowQueryMillis");
+        if (thresholdString == null){
+            return -1;
+        }
+        try {
+            return (long) (Double.parseDouble(thresholdString) * 1000000);
+        }
+        catch (NumberFormatException nfe){
+            System.err.println("Slow query log disabled, DBServer.slowQueryMillis was not a number.");
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the log for the server, creating it the first time a statement is slow.
+     * @return The server's slow query log.
+     */
+    private static synchronized DBSlowQueryLog getServerLog(){
+        if (serverLog == null){
+            serverLog = new DBSlowQueryLog(Paths.get(System.getProperty("DBServer.slowQueryLog", DEFAULT_PATH)),
+                    Long.getLong("DBServer.slowQueryLogBytes", DEFAULT_MAX_BYTES),
+                    Integer.getInteger("DBServer.slowQueryLogFiles", DEFAULT_MAX_FILES));
+        }
+        return serverLog;
+    }
+
+    /**
+     * Returns the number of entries dropped because the log fell behind.
+     * @return Number of dropped entries.
+     */
+    public static long getDroppedEntries(){
+        return droppedEntries.sum();
+    }
+
+    /**
+     * Logs a statement performed by the current thread if it was slower than the threshold.
+     * Bytes and rows loaded are taken from DBMetrics, so this must be called before the thread
+     * starts its next statement.
+     * @param statementString Text of the statement.
+     * @param statementCommand Command the statement was parsed into, after it was processed.
+     * @param parseNanos Time spent parsing the statement.
+     * @param totalNanos Time spent performing the whole statement, including writing its reply.
+     * @param ioNanos Time spent writing the reply, or 0 if no reply was written.
+     * @param replyBytes Size of the reply, or 0 if no reply was written.
+     * @param failed True if the statement failed.
+     */
+    public static void logIfSlow(String statementString, DBCommand statementCommand, long parseNanos,
+                                 long totalNanos, long ioNanos, long replyBytes, boolean failed){
+        if (thresholdNanos < 0 || totalNanos < thresholdNanos){
+            return;
+        }
+        getServerLog().writeEntry(printEntry(Instant.now(), statementString, statementCommand, parseNanos,
+                totalNanos, ioNanos, replyBytes, failed));
+    }
+
+    /**
+     * Prints a log entry as tab-delimited name=value fields, ending with the statement. Line
+     * breaks in the statement are replaced with spaces, so each entry is a single line.
+     * @param entryTime Time the statement finished.
+     * @param statementString Text of the statement.
+     * @param statementCommand Command the statement was parsed into, after it was processed.
+     * @param parseNanos Time spent parsing the statement.
+     * @param totalNanos Time spent performing the whole statement, including writing its reply.
+     * @param ioNanos Time spent writing the reply.
+     * @param replyBytes Size of the reply.
+     * @param failed True if the statement failed.
+     * @return The printed entry.
+     */
+    static String printEntry(Instant entryTime, String statementString, DBCommand statementCommand,
+                             long parseNanos, long totalNanos, long ioNanos, long replyBytes, boolean failed){
+        return entryTime + "\tcommand=" + statementCommand.getCommandName()
+                + "\tfailed=" + failed
+                + "\ttotal_ms=" + printMillis(totalNanos)
+                + "\tparse_ms=" + printMillis(parseNanos)
+                + "\tprepare_ms=" + printMillis(statementCommand.getPrepareNanos())
+                + "\texecute_ms=" + printMillis(statementCommand.getExecuteNanos())
+                + "\tio_ms=" + printMillis(ioNanos)
+                + "\trows_loaded=" + DBMetrics.getStatementRowsLoaded()
+                + "\trows_scanned=" + statementCommand.getRowsScanned()
+                + "\trows_filtered=" + statementCommand.getRowsFiltered()
+                + "\trows_returned=" + statementCommand.getRowsReturned()
+                + "\tbytes_read=" + DBMetrics.getStatementBytesRead()
+                + "\tbytes_written=" + DBMetrics.getStatementBytesWritten()
+                + "\treply_bytes=" + replyBytes
+                + "\tstatement=" + statementString.replace('\r', ' ').replace('\n', ' ');
+    }
+
+    /**
+     * Prints nanoseconds as milliseconds.
+     * @param nanos Time in nanoseconds.
+     * @return Time in milliseconds, to three decimal places.
+     */
+    private static String printMillis(long nanos){
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    /**
+     * Queues a line to be written by the background thread.
+     * @param entryLine Line to write, without a line separator.
+     */
+    void writeEntry(String entryLine){
+        logWriter.execute(() -> appendLine(entryLine));
+    }
+
+    /**
+     * Appends a line to the file, rotating it first if the line would make it too large. The
+     * file is flushed once no more lines are waiting.
+     * @param entryLine Line to write.
+     */
+    private void appendLine(String entryLine){
+        byte[] lineBytes = (entryLine + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        try {
+            if (fileWriter == null){
+                openFile();
+            }
+            if (fileBytes > 0 && fileBytes + lineBytes.length > maxBytes){
+                rotateFiles();
+                openFile();
+            }
+            fileWriter.write(entryLine + System.lineSeparator());
+            fileBytes += lineBytes.length;
+            if (logWriter.getQueue().isEmpty()){
+                fileWriter.flush();
+            }
+        }
+        catch (IOException ioe){
+            System.err.println("Could not write to the slow query log.");
+            closeFile();
+        }
+    }
+
+    /**
+     * Opens the log file for appending.
+     * @throws IOException Thrown if the file could not be opened.
+     */
+    private void openFile() throws IOException {
+        fileWriter = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(logPath,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), StandardCharsets.UTF_8));
+        fileBytes = Files.size(logPath);
+    }
+
+    /**
+     * Closes the log file, ignoring errors as the file is no longer written.
+     */
+    private void closeFile(){
+        if (fileWriter == null){
+            return;
+        }
+        try {
+            fileWriter.close();
+        }
+        catch (IOException ioe){
+            System.err.println("Could not close the slow query log.");
+        }
+        fileWriter = null;
+    }
+
+    /**
+     * Closes the log file and renames it with a suffix of .1, moving older files up a number.
+     * The oldest file is deleted once there are too many.
+     * @throws IOException Thrown if a file could not be renamed.
+     */
+    private void rotateFiles() throws IOException {
+        closeFile();
+        if (maxFiles < 1){
+            Files.deleteIfExists(logPath);
+            return;
+        }
+        Files.deleteIfExists(getRotatedPath(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--){
+            Path rotatedPath = getRotatedPath(i);
+            if (Files.exists(rotatedPath)){
+                Files.move(rotatedPath, getRotatedPath(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(logPath, getRotatedPath(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Returns the path of a rotated file.
+     * @param fileNumber Number of the file, 1 being the newest.
+     * @return Path of the file.
+     */
+    private Path getRotatedPath(int fileNumber){
+        return Paths.get(logPath + "." + fileNumber);
+    }
+
+    /**
+     * Waits until every queued line has been written and flushed.
+     * @throws InterruptedException Thrown if interrupted while waiting.
+     * @throws ExecutionException Thrown if flushing failed.
+     */
+    void awaitWrites() throws InterruptedException, ExecutionException {
+        logWriter.submit(() -> {
+            if (fileWriter != null){
+                fileWriter.flush();
+            }
+            return null;
+        }).get();
+    }
+
+    /**
+     * Testing for DBSlowQueryLog.
+     */
+    public static void test(){
+        try {
+            Path testDirectory = Files.createTempDirectory("slowquery");
+            Path testPath = testDirectory.resolve("slow.log");
+            DBSlowQueryLog test1 = new DBSlowQueryLog(testPath, 100, 2);
+            String testLine = String.format(Locale.ROOT, "%060d", 0);
+            for (int i = 0; i < 5; i++){
+                test1.writeEntry(testLine);
+            }
+            test1.awaitWrites();
+            assert Files.readAllLines(testPath).size() == 1;
+            assert Files.readAllLines(test1.getRotatedPath(1)).size() == 1;
+            assert Files.readAllLines(test1.getRotatedPath(2)).size() == 1;
+            assert !Files.exists(test1.getRotatedPath(3));
+            test1.logWriter.submit(test1::closeFile).get();
+            test1.logWriter.shutdown();
+            for (int i = 0; i <= 3; i++){
+                Files.deleteIfExists(i == 0 ? testPath : test1.getRotatedPath(i));
+            }
+            Files.delete(testDirectory);
+            DBMetrics.startStatement();
+            DBMetrics.addRowsLoaded(12);
+            DBMetrics.addBytesWritten(34);
+            String testEntry = printEntry(Instant.EPOCH, "select *\nfrom t1;",
+                    new DBParser("select * from t1;").parseStatement(), 1500000, 2000000, 250000, 56, true);
+            assert testEntry.equals("1970-01-01T00:00:00Z\tcommand=SELECT\tfailed=true\ttotal_ms=2.000"
+                    + "\tparse_ms=1.500\tprepare_ms=0.000\texecute_ms=0.000\tio_ms=0.250\trows_loaded=12"
+                    + "\trows_scanned=0\trows_filtered=0\trows_returned=0\tbytes_read=0\tbytes_written=34"
+                    + "\treply_bytes=56\tstatement=select * from t1;");
+            DBMetrics.startStatement();
+        }
+        catch (DBException | IOException | InterruptedException | ExecutionException e){
+            System.out.println("Error testing DBSlowQueryLog.");
+        }
+        DBTest.passMessage("DBSlowQueryLog passed.");
+    }
+}
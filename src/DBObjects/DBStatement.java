@@ -2,24 +2,40 @@ package DBObjects;
 
 import DBException.*;
 import DBObjects.DBCommands.DBCommand;
-import java.util.regex.*;
+import DBObjects.DBCommands.DBParser;
+import DBObjects.DBCommands.DBPreparedStatement;
+import java.util.HashMap;
 
 /**
  * DBStatement class. Used to receive statements from the server. Passes errors and return messages
- * from commands to the server. Also does initial processing of commands to ensure the correct command
- * is interpreted.
+ * from commands to the server. Statements are parsed by a DBParser into the command they perform.
  */
 
 public class DBStatement {
     private DBDatabase workingDatabase;
-    private String returnMessage;
+    private final HashMap<String, DBPreparedStatement> preparedStatements;
+    private DBCommand sqlDBCommand;
+    private String statementString;
+    private long statementStart;
+    private long parseNanos;
 
     /**
      * Constructor for a DBStatement. Instantiates a new statement and holds any return messages.
+     * Statements made without a session cannot use prepared statements.
      * @param workingDatabase Current working database for commands.
      */
     public DBStatement(DBDatabase workingDatabase){
+        this(workingDatabase, null);
+    }
+
+    /**
+     * Constructor for a DBStatement of a session.
+     * @param workingDatabase Current working database for commands.
+     * @param preparedStatements Prepared statements of the session, by name.
+     */
+    public DBStatement(DBDatabase workingDatabase, HashMap<String, DBPreparedStatement> preparedStatements){
         this.workingDatabase = workingDatabase;
+        this.preparedStatements = preparedStatements;
     }
 
     /**
@@ -35,100 +51,112 @@ public class DBStatement {
      * @return Message generated from SQL query.
      */
     public String getReturnMessage() {
-        return returnMessage;
+        return sqlDBCommand == null ? null : sqlDBCommand.getReturnMessage();
     }
 
     /**
-     * Performs a SQL query and generates parsing errors. Evaluates queries differently depending on
-     * the initial command (i.e. the first token).
-     * @param commandString SQL query to perform.
-     * @throws DBException Thrown if an error is encounter when parsing a SQL query.
+     * Returns the rows returned by the database query.
+     * @return Result of the query, or null if it does not return rows.
      */
-    public void performStatement(String commandString) throws DBException {
-        checkCommandSize(commandString);
-        commandString = removeSemicolon(commandString);
-        String[] commandToProcess = separateLists(commandString);
-        String firstToken = getFirstToken(commandToProcess[0]);
-        if (!DBCommand.isValidCommand(firstToken)){
-            throw new DBInvalidCommandException("An invalid command was entered: " + firstToken);
-        }
-        DBCommand sqlDBCommand = DBCommand.generateCommand(firstToken, commandToProcess);
-        sqlDBCommand.processCommand(workingDatabase);
-        workingDatabase = sqlDBCommand.getWorkingDatabase();
-        returnMessage = sqlDBCommand.getReturnMessage();
+    public DBResultSet getResultSet() {
+        return sqlDBCommand == null ? null : sqlDBCommand.getResultSet();
     }
 
     /**
-     * Confirms the command string has content.
-     * @param commandString String to check.
-     * @throws DBException Thrown if the string is null or is zero length.
+     * Returns the name of the command performed by the statement, as recorded in DBMetrics.
+     * @return Command name, or INVALID if the statement could not be parsed.
      */
-    private void checkCommandSize(String commandString) throws DBException{
-        if (commandString == null || commandString.length() == 0){
-            throw new DBInvalidCommandException("Command was empty.");
-        }
+    public String getCommandName() {
+        return sqlDBCommand == null ? DBMetrics.INVALID_COMMAND : sqlDBCommand.getCommandName();
     }
 
     /**
-     * Finds the first token in an incoming command to see if it contains a valid command type.
-     * @param mainCommand SQL query to evaluate.
-     * @return The first word in a strings without spaces.
+     * Performs a SQL query and generates parsing errors. The statement is parsed into the command
+     * named by its first word, which is then processed against the working database. The time
+     * of each phase is recorded in DBMetrics, whether or not the statement succeeds. Slow
+     * statements that fail are written to the DBSlowQueryLog here, while those that succeed are
+     * written once their reply is finished.
+     * @param commandString SQL query to perform.
+     * @throws DBException Thrown if an error is encounter when parsing a SQL query.
      */
-    private String getFirstToken(String mainCommand) throws DBException {
-        Pattern tokenPattern = Pattern.compile("\\s*[a-zA-Z0-9]+(\\s+|(?=\\*))", Pattern.CASE_INSENSITIVE);
-        Matcher tokenMatcher = tokenPattern.matcher(mainCommand);
-        if (!tokenMatcher.find()){
-            throw new DBInvalidCommandException("An incorrect command was attempted.");
+    public void performStatement(String commandString) throws DBException {
+        DBMetrics.startStatement();
+        long parseStart = System.nanoTime();
+        statementString = commandString;
+        statementStart = parseStart;
+        DBCommand statementCommand;
+        try {
+            checkCommandSize(commandString);
+            statementCommand = new DBParser(commandString, preparedStatements).parseStatement();
+        }
+        catch (DBException dbe){
+            DBMetrics.recordStatement(DBMetrics.INVALID_COMMAND, System.nanoTime() - parseStart, 0, 0, 0, 0, true);
+            throw dbe;
         }
-        String commandName = tokenMatcher.group();
-        commandName = commandName.replaceAll("\\s", "");
-        return commandName;
+        parseNanos = System.nanoTime() - parseStart;
+        boolean failed = true;
+        try {
+            statementCommand.processCommand(workingDatabase);
+            failed = false;
+        }
+        finally {
+            DBMetrics.recordStatement(statementCommand.getCommandName(), parseNanos, statementCommand.getPrepareNanos(),
+                    statementCommand.getExecuteNanos(), statementCommand.getRowsScanned(),
+                    statementCommand.getRowsReturned(), failed);
+            if (failed){
+                DBSlowQueryLog.logIfSlow(commandString, statementCommand, parseNanos,
+                        System.nanoTime() - parseStart, 0, 0, true);
+            }
+        }
+        workingDatabase = statementCommand.getWorkingDatabase();
+        sqlDBCommand = statementCommand;
     }
 
     /**
-     * Removes the terminating semicolon of a SQL statement.
-     * @param statement SQL statement to be processed.
-     * @return SQL statement without terminating semicolon.
-     * @throws DBException If there is no terminating semicolon.
+     * Records the reply of a statement that succeeded, once it has been written. The time spent
+     * writing is recorded in DBMetrics, and a slow statement is written to the DBSlowQueryLog with
+     * a total time that includes its reply. Must be called on the thread that performed the statement.
+     * @param ioNanos Time spent writing the reply.
+     * @param replyBytes Size of the reply.
      */
-    private String removeSemicolon(String statement) throws DBException {
-        int newEnd = statement.length() - 1;
-        if (statement.charAt(newEnd) != ';'){
-            throw new DBNonTerminatingException("String did not end with a semicolon.");
+    public void finishReply(long ioNanos, long replyBytes){
+        if (sqlDBCommand == null){
+            return;
         }
-        return statement.substring(0, newEnd);
+        DBMetrics.recordReply(getCommandName(), ioNanos);
+        DBSlowQueryLog.logIfSlow(statementString, sqlDBCommand, parseNanos, System.nanoTime() - statementStart,
+                ioNanos, replyBytes, false);
     }
 
     /**
-     * Separates terminating parenthetical lists from a statement. Used for initial processing, but does not find all
-     * lists in a statement. If it is not wrapped with parentheses, it is handled in specific command processing.
-     * @param statement SQL statement to be evaluated
-     * @return Array of strings of size two where the 0th index is the main SQL
-     * command and 1st index is a terminating parenthetical list.
+     * Confirms the command string has content.
+     * @param commandString String to check.
+     * @throws DBException Thrown if the string is null or is zero length.
      */
-    private String[] separateLists(String statement){
-        return statement.split("(?=\\()", 2);
+    private void checkCommandSize(String commandString) throws DBException{
+        if (commandString == null || commandString.length() == 0){
+            throw new DBInvalidCommandException("Command was empty.");
+        }
     }
 
     /**
      * Used to test functionality of DBStatement
      */
     public static void test(){
-        String statement1 = "create new table test1;", statement2 = "insert into test1 values ('ab', 1234);";
+        String[] invalidStatements = new String[]{"", "create table test1", "create new table test1;",
+                "selec * from test1;", ";"};
         DBStatement test1 = new DBStatement(null);
-        try {
-            assert test1.removeSemicolon(statement1).equals("create new table test1");
-            statement1 = test1.removeSemicolon(statement1);
-            assert test1.removeSemicolon(statement2).equals("insert into test1 values ('ab', 1234)");
-            statement2 = test1.removeSemicolon(statement2);
-            assert test1.separateLists(statement1).length == 1;
-            assert test1.separateLists(statement2).length == 2;
-            assert test1.getFirstToken(statement1).equals("create");
-            assert test1.getFirstToken(statement2).equals("insert");
-        }
-        catch (DBException de){
-            System.out.println("DBStatement threw an error during testing.");
+        for (String invalidStatement : invalidStatements){
+            try {
+                test1.performStatement(invalidStatement);
+                assert false;
+            }
+            catch (DBException de){
+                //expected as the statement is invalid
+            }
         }
+        assert test1.getWorkingDatabase() == null;
+        assert test1.getReturnMessage() == null;
         System.out.println("DBStatement passed.");
     }
 
@@ -0,0 +1,118 @@
+package DBObjects;
+
+import DBException.*;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * DBStatementLocks holds the locks taken by a single statement so that statements from different
+ * sessions can run at the same time. Every database and table has a read-write lock. Statements
+ * that use a table hold the database's lock shared and the table's lock shared or exclusive,
+ * while creating or dropping a database holds the database's lock exclusively. Locks are taken
+ * as the statement finds the objects it uses and are all released when it ends. Databases are
+ * locked before their tables and writers lock a single table, so statements cannot deadlock.
+ */
+public class DBStatementLocks {
+    private static final ConcurrentHashMap<String, ReentrantReadWriteLock> objectLocks = new ConcurrentHashMap<>();
+    private final HashMap<String, Boolean> heldModes = new HashMap<>();
+    private final ArrayList<Lock> heldLocks = new ArrayList<>();
+
+    /**
+     * Locks a database for the rest of the statement.
+     * @param database Database to lock.
+     * @param exclusive True to lock the database exclusively, false to share it with other statements.
+     * @throws DBException Thrown if the statement already holds the lock shared and needs it exclusively.
+     */
+    public void lockDatabase(DBDatabase database, boolean exclusive) throws DBException {
+        lockObject(database.getObjectName(), exclusive);
+    }
+
+    /**
+     * Locks a table for the rest of the statement. The table's database is locked shared first.
+     * @param database Database containing the table.
+     * @param tableName Name of the table to lock.
+     * @param exclusive True to lock the table exclusively, false to share it with other readers.
+     * @throws DBException Thrown if the statement already holds either lock shared and needs it exclusively.
+     */
+    public void lockTable(DBDatabase database, String tableName, boolean exclusive) throws DBException {
+        lockObject(database.getObjectName(), false);
+        lockObject(database.getObjectName() + File.separator + tableName, exclusive);
+    }
+
+    /**
+     * Takes the lock on a database object unless the statement already holds it.
+     * @param lockKey Key of the object's lock.
+     * @param exclusive True to take the write lock, false to take the read lock.
+     * @throws DBException Thrown if the read lock is held and the write lock is needed.
+     */
+    private void lockObject(String lockKey, boolean exclusive) throws DBException {
+        Boolean heldExclusive = heldModes.get(lockKey);
+        if (heldExclusive != null){
+            if (exclusive && !heldExclusive){
+                throw new DBServerException("Statement could not upgrade its lock.");
+            }
+            return;
+        }
+        ReentrantReadWriteLock objectLock = objectLocks.computeIfAbsent(lockKey, k -> new ReentrantReadWriteLock());
+        Lock lockToTake = exclusive ? objectLock.writeLock() : objectLock.readLock();
+        lockToTake.lock();
+        heldLocks.add(lockToTake);
+        heldModes.put(lockKey, exclusive);
+    }
+
+    /**
+     * Releases every lock held by the statement, newest first.
+     */
+    public void releaseLocks(){
+        for (int i = heldLocks.size() - 1; i >= 0; i--){
+            heldLocks.get(i).unlock();
+        }
+        heldLocks.clear();
+        heldModes.clear();
+    }
+
+    /**
+     * Testing for DBStatementLocks.
+     */
+    public static void test(){
+        try {
+            DBDatabase testDatabase = new DBDatabase("DBStatementLocksTest");
+            DBStatementLocks reader = new DBStatementLocks();
+            reader.lockTable(testDatabase, "table", false);
+            reader.lockTable(testDatabase, "table", false);
+            ReentrantReadWriteLock tableLock = objectLocks.get(testDatabase.getObjectName() + File.separator + "table");
+            assert tableLock.getReadLockCount() == 1;
+            DBStatementLocks writer = new DBStatementLocks();
+            Thread writerThread = new Thread(() -> {
+                try {
+                    writer.lockTable(testDatabase, "table", true);
+                    writer.releaseLocks();
+                }
+                catch (DBException dbe){
+                    System.out.println("Error testing DBStatementLocks.");
+                }
+            });
+            writerThread.start();
+            writerThread.join(100);
+            assert writerThread.isAlive();
+            try {
+                reader.lockTable(testDatabase, "table", true);
+                assert false;
+            }
+            catch (DBServerException dbse){
+                //expected as the reader holds the table shared
+            }
+            reader.releaseLocks();
+            writerThread.join();
+            assert !tableLock.isWriteLocked() && tableLock.getReadLockCount() == 0;
+        }
+        catch (DBException | InterruptedException e){
+            System.out.println("Error testing DBStatementLocks.");
+        }
+        System.out.println("DBStatementLocks passed.");
+    }
+}
@@ -3,7 +3,11 @@ package DBObjects;
 import DBException.*;
 import DBObjects.DBCommands.CommandLists.NameValueList;
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 
 /**
  * Contains the definition of a DBTable. Creates a table for persistent storage
@@ -12,10 +16,14 @@ import java.util.ArrayList;
 public class DBTable extends DBObject implements DBTableObject {
     private String attributePath;
     private String tablePath;
+    private String idPath;
+    private TableFormat tableFormat;
+    private TableScanMode scanMode = TableScanMode.BUFFERED;
     private DBDatabase owningDatabase;
     private ArrayList<TableAttribute> tableAttributes;
     private ArrayList<TableRow> tableRows;
     private TableAttribute joinAttribute;
+    private AttributeType[] insertedRowTypes;
 
     /**
      * Constructor for a DBTable.
@@ -48,11 +56,19 @@ public class DBTable extends DBObject implements DBTableObject {
     }
 
     /**
-     * Sets the row and attribute files for a table.
+     * Sets the row and attribute files for a table. Tables with a columnar file are read
+     * from that file, otherwise rows are stored in a tab-delimited file.
      */
     private void setTableFilePaths() {
         attributePath = createPath("txt");
-        tablePath = createPath("tsv");
+        idPath = createPath("id");
+        tableFormat = DBTableCache.getTableFormat(owningDatabase, objectName);
+        if (tableFormat == null){
+            File columnarFile = new File(createPath(TableFormat.COLUMNAR.getExtension()));
+            tableFormat = columnarFile.exists() ? TableFormat.COLUMNAR : TableFormat.TSV;
+            DBTableCache.putTableFormat(owningDatabase, objectName, tableFormat);
+        }
+        tablePath = createPath(tableFormat.getExtension());
     }
 
     /**
@@ -72,6 +88,128 @@ public class DBTable extends DBObject implements DBTableObject {
         tableRows.remove(index);
     }
 
+    /**
+     * Replaces the table's loaded rows. Used when filtering keeps only some of the rows.
+     * @param tableRows Rows the table will hold.
+     */
+    public void setTableRows(ArrayList<TableRow> tableRows){
+        this.tableRows = tableRows;
+    }
+
+    /**
+     * Finds the positions of loaded rows that may satisfy a comparison, using an index on the
+     * attribute. Rows are checked against the table's current rows, but may no longer hold the
+     * value, so callers must still compare each row. All of the table's rows must be loaded.
+     * Rows are stored in id order, so the id attribute is searched without an index.
+     * @param attributeName Name of the attribute to search.
+     * @param operator Comparison operator, using the condition's single character form.
+     * @param value Value compared with the attribute.
+     * @return Positions of rows in increasing order, or null if the attribute has no index that
+     * can be used for the comparison.
+     * @throws DBException Thrown if the table's indexes could not be found.
+     */
+    public ArrayList<Integer> findIndexedRows(String attributeName, String operator, String value) throws DBException {
+        if (owningDatabase == null){
+            return null;
+        }
+        DBTableIndex index = DBTableIndex.findIndex(owningDatabase, objectName, attributeName);
+        if (index == null && attributeName.equals("id")){
+            return findIdRange(operator, value);
+        }
+        int[] rowIds = index == null ? null : index.findRowIds(operator, value);
+        if (rowIds == null){
+            return null;
+        }
+        ArrayList<Integer> rowPositions = new ArrayList<>();
+        for (int i = 0; i < rowIds.length; i++){
+            int rowPosition = findRowPosition(rowIds[i]);
+            if (rowPosition >= 0 && (i == 0 || rowIds[i] != rowIds[i - 1])){
+                rowPositions.add(rowPosition);
+            }
+        }
+        return rowPositions;
+    }
+
+    /**
+     * Determines if rows can be found by findIndexedRows for equality with an attribute's value.
+     * @param attributeName Name of the attribute.
+     * @return Returns true if the attribute is id or has an index.
+     * @throws DBException Thrown if the table's indexes could not be found.
+     */
+    public boolean hasIndex(String attributeName) throws DBException {
+        if (owningDatabase == null){
+            return false;
+        }
+        return attributeName.equals("id") || DBTableIndex.findIndex(owningDatabase, objectName, attributeName) != null;
+    }
+
+    /**
+     * Finds the positions of rows whose id satisfies a comparison. Ids are found by binary search
+     * as rows are stored in id order. Ids are compared as floats in conditions, so inclusive bounds
+     * are widened as in DBBTreeIndex, and callers remove the extra rows.
+     * @param operator Comparison operator, using the condition's single character form.
+     * @param value Value compared with each id.
+     * @return Positions of rows in increasing order, or null if the comparison is not ordered
+     * or the value is not a number.
+     */
+    private ArrayList<Integer> findIdRange(String operator, String value){
+        Double key = DBBTreeIndex.parseNumericKey(value);
+        if (key == null){
+            return null;
+        }
+        int rangeStart, rangeEnd;
+        switch (operator){
+            case "=":
+                rangeStart = countIdsBelow(key, false);
+                rangeEnd = countIdsBelow(key, true);
+                break;
+            case "<":
+                rangeStart = 0;
+                rangeEnd = countIdsBelow(key, false);
+                break;
+            case "£":
+                rangeStart = 0;
+                rangeEnd = countIdsBelow(DBBTreeIndex.findUpperBound(value), true);
+                break;
+            case ">":
+                rangeStart = countIdsBelow(key, true);
+                rangeEnd = tableRows.size();
+                break;
+            case "@":
+                rangeStart = countIdsBelow(DBBTreeIndex.findLowerBound(value), false);
+                rangeEnd = tableRows.size();
+                break;
+            default:
+                return null;
+        }
+        ArrayList<Integer> rowPositions = new ArrayList<>(Math.max(rangeEnd - rangeStart, 0));
+        for (int i = rangeStart; i < rangeEnd; i++){
+            rowPositions.add(i);
+        }
+        return rowPositions;
+    }
+
+    /**
+     * Counts the loaded rows with ids less than a key, or less than or equal to it.
+     * @param key Key to compare with each id.
+     * @param inclusive True to also count ids equal to the key.
+     * @return Number of rows before the key.
+     */
+    private int countIdsBelow(double key, boolean inclusive){
+        int low = 0, high = tableRows.size();
+        while (low < high){
+            int middle = (low + high) >>> 1;
+            int middleId = getRowId(middle);
+            if (middleId < key || (inclusive && middleId == key)){
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
     /**
      * Returns the number of rows in the table.
      * @return Number of rows in table.
@@ -103,6 +241,15 @@ public class DBTable extends DBObject implements DBTableObject {
         throw new DBObjectDoesNotExistException("Could not find attribute in table.");
     }
 
+    /**
+     * Returns the type of an attribute in the table.
+     * @param attributeIndex Index of the attribute.
+     * @return Type of the attribute, ANY if it has no declared type.
+     */
+    public AttributeType getAttributeType(int attributeIndex){
+        return tableAttributes.get(attributeIndex).getAttributeType();
+    }
+
     /**
      * Updates a table's attributes.
      * @param tableAttributes New table attributes.
@@ -110,6 +257,7 @@ public class DBTable extends DBObject implements DBTableObject {
      */
     public void setTableAttributes(ArrayList<TableAttribute> tableAttributes) throws DBException{
         this.tableAttributes.addAll(tableAttributes);
+        DBTableCache.invalidateTable(owningDatabase, objectName);
         defineFileData(attributePath, this.tableAttributes);
     }
 
@@ -153,8 +301,10 @@ public class DBTable extends DBObject implements DBTableObject {
      * @throws DBException Thrown if the file cannot be newly created.
      */
     public void createObject() throws DBException {
+        DBTableCache.invalidateTable(owningDatabase, objectName);
         this.createNewFile(tablePath);
         this.createNewFile(attributePath);
+        storeNextId(1);
     }
 
     /**
@@ -182,8 +332,13 @@ public class DBTable extends DBObject implements DBTableObject {
      * @throws DBException Thrown if table files couldn't be deleted.
      */
     public void dropObject() throws DBException {
+        DBWriteAheadLog.getLog(owningDatabase).checkpoint();
+        for (DBTableIndex index : DBTableIndex.getIndexes(owningDatabase, objectName)){
+            index.dropObject();
+        }
         File tableToDrop = new File(tablePath);
         File attributesToDrop = new File(attributePath);
+        File idToDrop = new File(idPath);
         try{
             if (!tableToDrop.delete()){
                 throw new DBServerException("Could not delete table. Does it exist?");
@@ -191,10 +346,16 @@ public class DBTable extends DBObject implements DBTableObject {
             if (!attributesToDrop.delete()){
                 throw new DBServerException("Could not delete attribute definitions. Does the table exist?");
             }
+            if (idToDrop.exists() && !idToDrop.delete()){
+                throw new DBServerException("Could not delete table id counter.");
+            }
         }
         catch (SecurityException se){
             se.printStackTrace();
         }
+        finally {
+            DBTableCache.invalidateTable(owningDatabase, objectName);
+        }
     }
 
     /**
@@ -204,13 +365,16 @@ public class DBTable extends DBObject implements DBTableObject {
      * @throws DBException Thrown if table updates could not be stored.
      */
     public void appendAttribute(TableAttribute attributeToAppend) throws DBException {
+        DBWriteAheadLog.getLog(owningDatabase).checkpoint();
         loadAttributeFile();
+        copyTableRows();
         tableAttributes.add(attributeToAppend);
+        DBTableCache.invalidateTable(owningDatabase, objectName);
         defineFileData(attributePath, tableAttributes);
         for (TableRow row : tableRows){
             row.appendCell();
         }
-        defineFileData(tablePath, tableRows);
+        replaceTableFile(tablePath);
     }
 
     /**
@@ -219,7 +383,9 @@ public class DBTable extends DBObject implements DBTableObject {
      * @throws DBException Thrown if the attribute does not exist in the table.
      */
     public void removeAttribute(TableAttribute attributeToRemove) throws DBException {
+        DBWriteAheadLog.getLog(owningDatabase).checkpoint();
         loadAttributeFile();
+        copyTableRows();
         int i;
         boolean foundColumn = false;
         for (i = 0; i < tableAttributes.size(); i++){
@@ -228,8 +394,21 @@ public class DBTable extends DBObject implements DBTableObject {
         if (!foundColumn){
             throw new DBInvalidObjectName("Attribute with this name not present.");
         }
+        DBTableIndex removedIndex = DBTableIndex.findIndex(owningDatabase, objectName, attributeToRemove.getObjectName());
+        if (removedIndex != null){
+            removedIndex.dropObject();
+        }
+        DBTableCache.invalidateTable(owningDatabase, objectName);
         defineFileData(attributePath, tableAttributes);
-        defineFileData(tablePath, tableRows);
+        replaceTableFile(tablePath);
+    }
+
+    /**
+     * Replaces each loaded row with a copy so it can be edited. Loaded rows may be shared
+     * with the table cache and other tables.
+     */
+    private void copyTableRows(){
+        tableRows.replaceAll(TableRow::new);
     }
 
     /**
@@ -254,94 +433,492 @@ public class DBTable extends DBObject implements DBTableObject {
     }
 
     /**
-     * Adds a new row to the table.
+     * Adds a new row to the table. The row is committed to the database's write-ahead log
+     * and later appended to the end of the table file, so existing rows do not need to be
+     * loaded or rewritten.
      * @param newRow Row to add to the table.
      * @throws DBException Thrown if the new row doesn't contain the same
      * number of values as there are attributes. Also thrown if the data
      * couldn't be saved to the database.
      */
     public void insertTableRow(TableRow newRow) throws DBException {
-        newRow.addIdValue(tableRows.size() + 1);
-        if (newRow.getSize() != getNumAttributes()){
-            throw new DBInvalidValueWidthException("Number of values didn't match number of attributes.");
-        }
-        tableRows.add(newRow);
-        defineFileData(tablePath, tableRows);
+        ArrayList<TableRow> newRows = new ArrayList<>();
+        newRows.add(newRow);
+        insertTableRows(newRows);
     }
 
     /**
-     * Returns the number of attributes stored for the table.
-     * @return Number of attributes in the table.
-     * @throws DBException Thrown if attributes are not able to be loaded.
+     * Adds new rows to the table. Every row is checked before any are added, and their ids
+     * are reserved together. The rows are committed to the write-ahead log as a single commit,
+     * so either all or none of them are added, and are appended to the table file by the next
+     * checkpoint.
+     * @param newRows Rows to add to the table, without ids.
+     * @throws DBException Thrown if a new row doesn't contain the same number of values
+     * as there are attributes, or a value does not match its attribute's type. Also thrown
+     * if the data couldn't be saved to the database.
      */
-    private int getNumAttributes() throws DBException{
+    public void insertTableRows(ArrayList<TableRow> newRows) throws DBException {
         loadAttributeFile();
-        return tableAttributes.size();
+        AttributeType[] attributeTypes = findAttributeTypes(tableAttributes);
+        for (TableRow newRow : newRows){
+            if (newRow.getSize() + 1 != attributeTypes.length){
+                throw new DBInvalidValueWidthException("Number of values didn't match number of attributes.");
+            }
+            for (int i = 1; i < attributeTypes.length; i++){
+                checkValueType(attributeTypes, i, newRow.getValue(i - 1));
+            }
+        }
+        AttributeType[] rowTypes = AttributeType.hasPrimitive(attributeTypes) ? attributeTypes : null;
+        int nextId = loadNextId();
+        //the ids are stored first so a failed append leaves a gap rather than a duplicate id
+        storeNextId(nextId + newRows.size());
+        ArrayList<DBLogRecord> insertRecords = new ArrayList<>();
+        for (TableRow newRow : newRows){
+            newRow.addIdValue(nextId++);
+            if (rowTypes != null){
+                newRow.applyTypes(rowTypes);
+            }
+            insertRecords.add(DBLogRecord.insertRecord(objectName, newRow));
+        }
+        commitLogRecords(insertRecords);
+        tableRows.addAll(newRows);
     }
 
     /**
-     * Updates rows of a table with new values.
-     * @param updateNameValues List of attributes with new columns to update.
-     * @throws DBException Thrown if unable to load or write table data.
+     * Returns the id that will be given to the next inserted row. Tables created before
+     * the id file existed have their next id found from the rows in the table file.
+     * @return The next row id.
+     * @throws DBException Thrown if the id or table file could not be read.
      */
-    public void updateTable(NameValueList updateNameValues) throws DBException {
-        ArrayList<TableRow> rowUpdates = new ArrayList<>(tableRows);
+    private int loadNextId() throws DBException {
+        File idFile = new File(idPath);
+        if (!idFile.exists()){
+            return findNextIdFromRows();
+        }
+        try {
+            BufferedReader buffReader = new BufferedReader(new FileReader(idFile));
+            String idLine = buffReader.readLine();
+            buffReader.close();
+            DBMetrics.addBytesRead(idFile.length());
+            return Integer.parseInt(idLine.trim());
+        }
+        catch (IOException | NullPointerException | NumberFormatException e){
+            throw new DBServerException("Could not load the table's next row id.");
+        }
+    }
+
+    /**
+     * Finds the next row id by loading the table and taking one more than the largest id.
+     * @return The next row id.
+     * @throws DBException Thrown if the table could not be loaded.
+     */
+    private int findNextIdFromRows() throws DBException {
         loadTableFile();
-        updateRowValues(rowUpdates, updateNameValues);
-        updateRows(rowUpdates);
-        defineFileData(tablePath, tableRows);
+        int largestId = 0;
+        for (TableRow row : tableRows){
+            largestId = Math.max(largestId, Integer.parseInt(row.getValue(0)));
+        }
+        return largestId + 1;
+    }
+
+    /**
+     * Stores the id that will be given to the next inserted row. The id is written to a
+     * temporary file that replaces the id file once it is on disk, so a crash never leaves
+     * a partly written id.
+     * @param nextId The next row id.
+     * @throws DBException Thrown if the id file could not be written.
+     */
+    private void storeNextId(int nextId) throws DBException {
+        File tempFile = new File(idPath + ".tmp");
+        try {
+            BufferedWriter buffWriter = new BufferedWriter(new FileWriter(tempFile));
+            buffWriter.write(String.valueOf(nextId));
+            buffWriter.newLine();
+            buffWriter.close();
+            DBMetrics.addBytesWritten(tempFile.length());
+        }
+        catch (IOException ioe){
+            throw new DBServerException("Internal error, unable to store the table's next row id.");
+        }
+        syncFile(tempFile.getPath());
+        try {
+            Files.move(tempFile.toPath(), Paths.get(idPath), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException ioe){
+            throw new DBServerException("Internal error, unable to store the table's next row id.");
+        }
+    }
+
+    /**
+     * Raises the stored next row id above the ids of rows replayed from the write-ahead log,
+     * in case the id file was not stored before a crash. An unreadable id file is rebuilt from
+     * the rows in the table file. Tables without an id file find their next id from their rows.
+     * Called by the write-ahead log after replayed records are checkpointed.
+     * @param largestLoggedId Largest id inserted by the replayed records.
+     * @throws DBException Thrown if the id or table file could not be read or written.
+     */
+    void raiseNextId(int largestLoggedId) throws DBException {
+        if (!new File(idPath).exists()){
+            return;
+        }
+        int nextId;
+        int largestId = largestLoggedId;
+        try {
+            nextId = loadNextId();
+        }
+        catch (DBServerException dse){
+            readTableFile(null);
+            nextId = 0;
+            if (!tableRows.isEmpty()){
+                largestId = Math.max(largestId, getRowId(tableRows.size() - 1));
+            }
+        }
+        if (nextId <= largestId){
+            storeNextId(largestId + 1);
+        }
     }
 
     /**
-     * Prepares rows with updated values.
-     * @param rowUpdates Rows that will contain updated values.
-     * @param updateNameValues Attributes and corresponding values that need to be updated.
-     * @throws DBException Thrown if an attribute does not exist in the table.
+     * Updates the loaded rows of a table with new values. The rows are those matched by the
+     * command's conditions. The change is committed to the write-ahead log as an update record
+     * for each row, which applies it to the table, so the loaded rows are left unchanged.
+     * @param updateNameValues List of attributes with new columns to update.
+     * @throws DBException Thrown if a value does not match its attribute's type, or if
+     * unable to write to the log.
      */
-    private void updateRowValues(ArrayList<TableRow> rowUpdates, NameValueList updateNameValues) throws DBException {
+    public void updateTable(NameValueList updateNameValues) throws DBException {
         ArrayList<TableAttribute> attributesToUpdate = updateNameValues.getAttributesToChange();
-        ArrayList<String> valuesForUpdates = updateNameValues.getValuesForChange();
+        ArrayList<String> valuesForUpdates = checkUpdateValues(attributesToUpdate, updateNameValues.getValuesForChange());
+        ArrayList<DBLogRecord> updateRecords = new ArrayList<>();
+        for (TableRow matchedRow : tableRows){
+            updateRecords.add(DBLogRecord.updateRecord(objectName, matchedRow.getValue(0),
+                    attributesToUpdate, valuesForUpdates));
+        }
+        commitLogRecords(updateRecords);
+    }
+
+    /**
+     * Checks that updated values match the types of their attributes. Values of INT, FLOAT
+     * and BOOL attributes are printed as the rows will hold them, so the log and indexes
+     * store the same value as the rows.
+     * @param attributesToUpdate Attributes that will be updated.
+     * @param valuesForUpdates New value of each attribute.
+     * @return The values to store.
+     * @throws DBException Thrown if an attribute does not exist or a value is not of its attribute's type.
+     */
+    private ArrayList<String> checkUpdateValues(ArrayList<TableAttribute> attributesToUpdate,
+                                                ArrayList<String> valuesForUpdates) throws DBException {
+        AttributeType[] attributeTypes = findAttributeTypes(tableAttributes);
+        ArrayList<String> checkedValues = new ArrayList<>();
         for (int i = 0; i < attributesToUpdate.size(); i++){
-            TableAttribute attribute = attributesToUpdate.get(i);
-            int attributeIndex = getAttributeIndex(attribute.getObjectName());
-            String valueToUse = valuesForUpdates.get(i);
-            for (TableRow row : rowUpdates){
-                row.updateValue(valueToUse, attributeIndex);
+            int attributeIndex = getAttributeIndex(attributesToUpdate.get(i).getObjectName());
+            String value = valuesForUpdates.get(i);
+            checkValueType(attributeTypes, attributeIndex, value);
+            AttributeType attributeType = attributeTypes[attributeIndex];
+            checkedValues.add(attributeType.isPrimitive()
+                    ? attributeType.formatValue(attributeType.encodeValue(value)) : value);
+        }
+        return checkedValues;
+    }
+
+    /**
+     * Removes the loaded rows of a table. The rows are those matched by the command's conditions.
+     * A delete record is committed to the write-ahead log for each row, which removes it from the table.
+     * @throws DBException Thrown if unable to write to the log.
+     */
+    public void deleteRows() throws DBException {
+        ArrayList<DBLogRecord> deleteRecords = new ArrayList<>();
+        for (TableRow deletedRow : tableRows){
+            deleteRecords.add(DBLogRecord.deleteRecord(objectName, deletedRow.getValue(0)));
+        }
+        commitLogRecords(deleteRecords);
+    }
+
+    /**
+     * Commits row changes to the database's write-ahead log.
+     * @param records Records describing the changes.
+     * @throws DBException Thrown if the log could not be written.
+     */
+    private void commitLogRecords(List<DBLogRecord> records) throws DBException {
+        DBWriteAheadLog.getLog(owningDatabase).commitRecords(records);
+    }
+
+    /**
+     * Applies write-ahead log records to the table's loaded rows. Records that are already
+     * present in the rows, such as inserts of existing ids, are skipped so records can be
+     * replayed safely after a crash.
+     * @param records Records to apply, in the order they were committed.
+     * @throws DBException Thrown if table attributes could not be loaded.
+     */
+    void applyLogRecords(List<DBLogRecord> records) throws DBException {
+        HashSet<String> deletedIds = new HashSet<>();
+        boolean attributesLoaded = false;
+        for (DBLogRecord record : records){
+            switch (record.getRecordType()){
+                case INSERT:
+                    applyInsertRecord(record);
+                    break;
+                case UPDATE:
+                    if (!attributesLoaded){
+                        loadAttributeFile();
+                        attributesLoaded = true;
+                    }
+                    applyUpdateRecord(record);
+                    break;
+                case DELETE:
+                    deletedIds.add(record.getRowId());
+                    break;
             }
         }
+        if (!deletedIds.isEmpty()){
+            tableRows.removeIf(row -> deletedIds.contains(row.getValue(0)));
+        }
     }
 
     /**
-     * Updates rows with new values.
-     * @param rowUpdates List of rows with updates values.
+     * Applies write-ahead log records to rows held by the table cache. The rows are
+     * changed in place, with updated rows replaced by edited copies. Inserted rows are held
+     * with the table's attribute types.
+     * @param cachedRows Cached rows of the table.
+     * @param records Records to apply, in the order they were committed.
+     * @throws DBException Thrown if table attributes could not be loaded.
      */
-    private void updateRows(ArrayList<TableRow> rowUpdates){
-        for (int i = 0; i < tableRows.size(); i++){
-            for (TableRow updatedRow : rowUpdates){
-                if (tableRows.get(i).getValue(0).equals(updatedRow.getValue(0))){
-                    tableRows.set(i, updatedRow);
-                }
+    void applyCachedRecords(ArrayList<TableRow> cachedRows, List<DBLogRecord> records) throws DBException {
+        tableRows = cachedRows;
+        insertedRowTypes = loadRowTypes();
+        applyLogRecords(records);
+    }
+
+    /**
+     * Adds an inserted row unless a row with the same or a later id is already present.
+     * Rows are stored in increasing id order.
+     * @param record Insert record to apply.
+     */
+    private void applyInsertRecord(DBLogRecord record){
+        TableRow insertedRow = record.getInsertedRow();
+        if (insertedRowTypes != null){
+            insertedRow.applyTypes(insertedRowTypes);
+        }
+        int insertedId = Integer.parseInt(insertedRow.getValue(0));
+        if (tableRows.isEmpty() || getRowId(tableRows.size() - 1) < insertedId){
+            tableRows.add(insertedRow);
+        }
+    }
+
+    /**
+     * Updates the values of a single row by replacing it with an edited copy. Attributes
+     * that no longer exist are skipped.
+     * @param record Update record to apply.
+     * @throws DBException Thrown if the row could not be updated.
+     */
+    private void applyUpdateRecord(DBLogRecord record) throws DBException {
+        int rowPosition = findRowPosition(Integer.parseInt(record.getRowId()));
+        if (rowPosition < 0){
+            return;
+        }
+        TableRow rowToUpdate = new TableRow(tableRows.get(rowPosition));
+        tableRows.set(rowPosition, rowToUpdate);
+        for (int i = 0; i < record.getNumUpdates(); i++){
+            int attributeIndex = findAttributeIndex(record.getUpdateAttribute(i));
+            if (attributeIndex >= 0){
+                rowToUpdate.updateValue(record.getUpdateValue(i), attributeIndex);
             }
         }
     }
 
     /**
-     * Removes rows that are current stored in a database file.
-     * @throws DBException Thrown if table cannot be loaded or written.
+     * Finds the position of a row with the given id. Rows are stored in increasing id order
+     * so the position is found with a binary search.
+     * @param rowId Id to search for.
+     * @return Position of the row in the table, or -1 if there is no such row.
      */
-    public void deleteRows() throws DBException {
-        ArrayList<TableRow> rowUpdates = new ArrayList<>(tableRows);
-        loadTableFile();
-        for (int i = 0; i < tableRows.size(); i++){
-            String rowId = tableRows.get(i).getValue(0);
-            for (TableRow updateRow : rowUpdates){
-                if (rowId.equals(updateRow.getValue(0))){
-                    tableRows.remove(i);
-                    i--;
-                }
+    private int findRowPosition(int rowId){
+        int low = 0, high = tableRows.size() - 1;
+        while (low <= high){
+            int middle = (low + high) >>> 1;
+            int middleId = getRowId(middle);
+            if (middleId < rowId){
+                low = middle + 1;
+            }
+            else if (middleId > rowId){
+                high = middle - 1;
+            }
+            else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the id of a loaded row.
+     * @param position Position of the row in the table.
+     * @return The row's id.
+     */
+    private int getRowId(int position){
+        return Integer.parseInt(tableRows.get(position).getValue(0));
+    }
+
+    /**
+     * Returns attribute index given an attribute name without throwing if it is missing.
+     * @param attributeName Attribute name to search.
+     * @return Index of attribute in table, or -1 if it does not exist.
+     */
+    private int findAttributeIndex(String attributeName){
+        for (int i = 0; i < tableAttributes.size(); i++){
+            if (tableAttributes.get(i).getObjectName().equals(attributeName)){
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Writes write-ahead log records into the table file. Tables with only new rows have
+     * the rows appended; otherwise the table is loaded, updated and rewritten. The file is
+     * forced to disk before returning so the log can be emptied afterwards. The table's
+     * indexes are stored, and are rebuilt if the table was rewritten.
+     * @param records Records to write into the table.
+     * @param replaying True if the records may already be present in the table file.
+     * @throws DBException Thrown if the table file could not be read or written.
+     */
+    void checkpointLogRecords(List<DBLogRecord> records, boolean replaying) throws DBException {
+        if (!new File(tablePath).exists()){
+            return;
+        }
+        boolean onlyInserts = true;
+        for (DBLogRecord record : records){
+            onlyInserts = onlyInserts && record.getRecordType() == LogRecordType.INSERT;
+        }
+        if (onlyInserts && !replaying && tableFormat == TableFormat.TSV){
+            for (DBLogRecord record : records){
+                tableRows.add(record.getInsertedRow());
             }
+            appendFileData(tablePath, tableRows);
+            syncFile(tablePath);
+            storeIndexes(false);
+        }
+        else {
+            readTableFile(null);
+            applyLogRecords(records);
+            replaceTableFile(tablePath);
+            storeIndexes(true);
+        }
+    }
+
+    /**
+     * Stores the table's indexes. Indexes are rebuilt from the table's rows if the rows were
+     * rewritten or the index is stale, and otherwise already hold every committed row.
+     * @param rowsLoaded True if all of the table's rows are loaded.
+     * @throws DBException Thrown if the table could not be read or an index could not be stored.
+     */
+    private void storeIndexes(boolean rowsLoaded) throws DBException {
+        for (DBTableIndex index : DBTableIndex.getIndexes(owningDatabase, objectName)){
+            if (!rowsLoaded && index.isCurrent()){
+                index.storeIndex();
+                continue;
+            }
+            if (!rowsLoaded){
+                readTableFile(null);
+                rowsLoaded = true;
+            }
+            loadAttributeFile();
+            int attributeIndex = findAttributeIndex(index.getObjectName());
+            if (attributeIndex < 0){
+                index.dropObject();
+                continue;
+            }
+            index.rebuildIndex(tableRows, attributeIndex);
+            index.storeIndex();
+        }
+    }
+
+    /**
+     * Converts the table to a different storage format. The table is written in the new
+     * format and the old table file is removed.
+     * @param newFormat Format in which the table will be stored.
+     * @throws DBException Thrown if the table could not be read or written.
+     */
+    public void convertTableFormat(TableFormat newFormat) throws DBException {
+        DBWriteAheadLog databaseLog = DBWriteAheadLog.getLog(owningDatabase);
+        databaseLog.checkpoint();
+        synchronized (databaseLog){
+            if (newFormat == tableFormat){
+                return;
+            }
+            readTableFile(null);
+            loadAttributeFile();
+            DBTableCache.invalidateTable(owningDatabase, objectName);
+            databaseLog.countTableRewrite(objectName);
+            String oldPath = tablePath;
+            tableFormat = newFormat;
+            tablePath = createPath(newFormat.getExtension());
+            replaceTableFile(tablePath);
+            try {
+                Files.delete(Paths.get(oldPath));
+            }
+            catch (IOException ioe){
+                throw new DBServerException("Internal error, unable to remove the old table file.");
+            }
+        }
+    }
+
+    /**
+     * Writes all rows of the table to a temporary file and moves it over the given table file.
+     * The existing file is never truncated, so rows still reading from a mapping of it stay valid.
+     * @param targetPath Table file to replace.
+     * @throws DBException Thrown if the table file could not be written.
+     */
+    private void replaceTableFile(String targetPath) throws DBException {
+        File tempFile = new File(targetPath + ".tmp");
+        if (tempFile.exists() && !tempFile.delete()){
+            throw new DBServerException("Could not remove an earlier temporary table file.");
+        }
+        createNewFile(tempFile.getPath());
+        storeTableRows(tempFile.getPath());
+        syncFile(tempFile.getPath());
+        try {
+            Files.move(tempFile.toPath(), Paths.get(targetPath), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException ioe){
+            throw new DBServerException("Internal error, unable to replace the table file.");
+        }
+    }
+
+    /**
+     * Sets how the table file is read when the table is loaded. Mapped scans only apply
+     * to tab-delimited tables.
+     * @param scanMode Mode used to read the table file.
+     */
+    public void setScanMode(TableScanMode scanMode) {
+        this.scanMode = scanMode;
+    }
+
+    /**
+     * Returns the format in which the table's rows are stored.
+     * @return The table's storage format.
+     */
+    public TableFormat getTableFormat() {
+        return tableFormat;
+    }
+
+    /**
+     * Writes all rows of the table to a file in the table's storage format.
+     * @param filepath File to write.
+     * @throws DBException Thrown if the file could not be written.
+     */
+    private void storeTableRows(String filepath) throws DBException {
+        if (tableFormat == TableFormat.COLUMNAR){
+            if (tableRows.isEmpty()){
+                loadAttributeFile();
+            }
+            new DBColumnarFile(filepath).writeRows(tableRows, tableAttributes.size());
+        }
+        else {
+            defineFileData(filepath, tableRows);
         }
-        defineFileData(tablePath, tableRows);
     }
 
      /**
@@ -359,7 +936,9 @@ public class DBTable extends DBObject implements DBTableObject {
         DBTable jointTable = new DBTable("JointTable");
         jointTable.populateJointAttributes(primaryTable);
         jointTable.populateJointAttributes(secondaryTable);
-        jointTable.populateJointTableRows(primaryTable, secondaryTable);
+        DBHashJoin hashJoin = new DBHashJoin(primaryTable, primaryTable.getJoinAttribute().getObjectName(),
+                secondaryTable, secondaryTable.getJoinAttribute().getObjectName());
+        jointTable.setTableRows(hashJoin.joinRows());
         return jointTable;
     }
 
@@ -383,54 +962,6 @@ public class DBTable extends DBObject implements DBTableObject {
         }
     }
 
-    /**
-     * Creates an inner join of two tables, joining all rows where the primary and secondary keys match.
-     * @param primaryTable Primary table on which to join.
-     * @param joiningTable Secondary table by which to join.
-     * @throws DBException Thrown if the joining attribute does not exist.
-     */
-    private void populateJointTableRows(DBTable primaryTable, DBTable joiningTable) throws DBException {
-        ArrayList<TableRow> primaryRows = primaryTable.getTableRows();
-        ArrayList<TableRow> secondaryRows = joiningTable.getTableRows();
-
-        TableAttribute primaryKey = primaryTable.getJoinAttribute();
-        TableAttribute secondaryKey = joiningTable.getJoinAttribute();
-
-        int primaryIndex = primaryTable.getAttributeIndex(primaryKey.getObjectName());
-        int secondaryIndex = joiningTable.getAttributeIndex(secondaryKey.getObjectName());
-        int jointIndex = 0;
-
-        for (TableRow primaryRow : primaryRows) {
-            String primaryValue = primaryRow.getValue(primaryIndex);
-            for (TableRow secondaryRow : secondaryRows) {
-                String secondaryValue = secondaryRow.getValue(secondaryIndex);
-                if (primaryValue.equals(secondaryValue)) {
-                    buildRows(primaryRow, jointIndex);
-                    buildRows(secondaryRow, jointIndex);
-                    jointIndex ++;
-                }
-            }
-        }
-    }
-
-    /**
-     * Builds a row by appending the contents of a given row to a specified row of the table.
-     * @param rowToAdd Table row to append
-     * @param index Index to append row.
-     */
-    private void buildRows(TableRow rowToAdd, int index){
-        if (index == tableRows.size()){
-            TableRow newRow = new TableRow();
-            newRow.addIdValue(index + 1);
-            tableRows.add(newRow);
-        }
-        TableRow partialRow = tableRows.get(index);
-        //start at 1 to exclude row ids
-        for (int i = 1; i < rowToAdd.getSize(); i++){
-            partialRow.appendCell(rowToAdd.getValue(i));
-        }
-    }
-
     /**
      * Returns a string representing the data of a table for select attributes. String is
      * formatted for so it can be printed.
@@ -441,48 +972,25 @@ public class DBTable extends DBObject implements DBTableObject {
      * were missing.
      */
     public String printTable(ArrayList<TableAttribute> customAttributes) throws DBException {
-        StringBuilder returnString = new StringBuilder();
-        if (tableRows == null){
-            loadTableFile();
-        }
-        if (tableAttributes.size() == 1){
-            loadAttributeFile();
-        }
-        returnString.append(printAttributes(customAttributes));
-        returnString.append(System.lineSeparator());
-        returnString.append(printRows(customAttributes));
-        return returnString.toString();
+        return getResultSet(customAttributes).printResult();
     }
 
     /**
-     * Creates a string of a tables attributes.
-     * @param customAttributes Specific attributes to be printed
-     * @return Returns a StringBuild of the current attributes.
+     * Returns the table's rows for select attributes as a result for a client.
+     * @param customAttributes A custom list of TableAttributes that can be used to limit
+     *                         which attributes are returned.
+     * @return Result holding the table's rows.
+     * @throws DBException Thrown if table data could not be loaded or custom attributes
+     * were missing.
      */
-    private StringBuilder printAttributes(ArrayList<TableAttribute> customAttributes){
-        StringBuilder returnString = new StringBuilder();
-        for (TableAttribute attribute : customAttributes){
-            returnString.append(attribute.getObjectName()).append("\t");
+    public DBResultSet getResultSet(ArrayList<TableAttribute> customAttributes) throws DBException {
+        if (tableRows == null){
+            loadTableFile();
         }
-        return returnString;
-    }
-
-    /**
-     * Creates a string of a table's row data for the specified attributes.
-     * @param customAttributes Attributes to determine which values are retrieved from the table
-     * @return StringBuild with row data.
-     * @throws DBException Thrown if a custom attribute does not exist in the table.
-     */
-    private StringBuilder printRows(ArrayList<TableAttribute> customAttributes) throws DBException {
-        StringBuilder returnString = new StringBuilder();
-        for (TableRow row : tableRows){
-            for (TableAttribute customAttribute : customAttributes) {
-                int attributeIndex = getAttributeIndex(customAttribute.getObjectName());
-                returnString.append(row.printValue(attributeIndex));
-            }
-            returnString.append(System.lineSeparator());
+        if (tableAttributes.size() == 1){
+            loadAttributeFile();
         }
-        return returnString;
+        return new DBResultSet(this, customAttributes);
     }
 
     /**
@@ -492,10 +1000,20 @@ public class DBTable extends DBObject implements DBTableObject {
      * @throws DBException Thrown if table data could not be loaded.
      */
     public String printTable() throws DBException {
+        return getResultSet().printResult();
+    }
+
+    /**
+     * Returns all attributes and rows of the table as a result for a client. All attributes
+     * are included in the order they are stored.
+     * @return Result holding the table's rows.
+     * @throws DBException Thrown if table data could not be loaded.
+     */
+    public DBResultSet getResultSet() throws DBException {
         if (tableAttributes.size() == 1){
             loadAttributeFile();
         }
-        return printTable(tableAttributes);
+        return getResultSet(tableAttributes);
     }
 
     /**
@@ -513,9 +1031,9 @@ public class DBTable extends DBObject implements DBTableObject {
             for (DBObject dbObject : dataToWrite) {
                 buffWriter.write(dbObject.toString());
                 buffWriter.newLine();
-                buffWriter.flush();
             }
             buffWriter.close();
+            DBMetrics.addBytesWritten(fileToDefine.length());
         }
         catch (IOException ioe){
             throw new DBServerException("Internal error, unable to define attributes.");
@@ -523,13 +1041,158 @@ public class DBTable extends DBObject implements DBTableObject {
     }
 
     /**
-     * Reloads all rows in a table that have been previously stored.
+     * Appends items to the end of the given file without rewriting its contents. If the items
+     * could not all be written, the file is cut back to its previous length.
+     * @param filepath Filepath to append data.
+     * @param dataToAppend Items to append to the file. List members must have a toString method.
+     * @throws DBException Thrown if file does not exist or could not write to file.
+     */
+    private void appendFileData(String filepath, ArrayList<? extends DBObject> dataToAppend) throws DBException {
+        File fileToAppend = new File(filepath);
+        checkFileExits(fileToAppend);
+        long previousLength = fileToAppend.length();
+        try {
+            BufferedWriter buffWriter = new BufferedWriter(new FileWriter(fileToAppend, true));
+            for (DBObject dbObject : dataToAppend) {
+                buffWriter.write(dbObject.toString());
+                buffWriter.newLine();
+            }
+            buffWriter.close();
+            DBMetrics.addBytesWritten(fileToAppend.length() - previousLength);
+        }
+        catch (IOException ioe){
+            try (FileChannel fileChannel = FileChannel.open(fileToAppend.toPath(), StandardOpenOption.WRITE)){
+                fileChannel.truncate(previousLength);
+            }
+            catch (IOException truncateException){
+                System.err.println("Could not remove partly appended table data.");
+            }
+            throw new DBServerException("Internal error, unable to append table data.");
+        }
+    }
+
+    /**
+     * Forces the contents of a file to disk.
+     * @param filepath Filepath to force.
+     * @throws DBException Thrown if the file could not be forced to disk.
+     */
+    private void syncFile(String filepath) throws DBException {
+        try (FileChannel fileChannel = FileChannel.open(Paths.get(filepath), StandardOpenOption.WRITE)){
+            fileChannel.force(true);
+        }
+        catch (IOException ioe){
+            throw new DBServerException("Internal error, unable to store table data.");
+        }
+    }
+
+    /**
+     * Reloads all rows in a table that have been previously stored, including changes that
+     * are still waiting in the database's write-ahead log.
      * @throws DBException Thrown if the table does not exist or couldn't be loaded.
      */
     public void loadTableFile() throws DBException{
+        loadTableFile(null);
+    }
+
+    /**
+     * Loads rows of the table that are needed for the given attributes. Columnar tables only
+     * read the blocks of these attributes and the id, leaving other values null. Tab-delimited
+     * tables are loaded in full.
+     * @param attributeNames Names of attributes that will be used.
+     * @throws DBException Thrown if the table does not exist or couldn't be loaded.
+     */
+    public void loadTableColumns(ArrayList<String> attributeNames) throws DBException {
+        if (tableFormat != TableFormat.COLUMNAR){
+            loadTableFile(null);
+            return;
+        }
+        loadAttributeFile();
+        boolean[] columnsToRead = new boolean[tableAttributes.size()];
+        columnsToRead[0] = true;
+        for (String attributeName : attributeNames){
+            int attributeIndex = findAttributeIndex(attributeName);
+            if (attributeIndex >= 0){
+                columnsToRead[attributeIndex] = true;
+            }
+        }
+        loadTableFile(columnsToRead);
+    }
+
+    /**
+     * Loads rows of the table from the table cache, or from file with changes waiting in the
+     * write-ahead log applied. The database log's lock is only held to copy the pending records
+     * and, once the file is read, to apply records committed meanwhile and add the rows to the
+     * cache. If the table file was rewritten while it was read, it is read again, even when
+     * reading failed. Rows loaded with every column are held with the table's attribute types
+     * and added to the cache.
+     * @param columnsToRead Columns to read from columnar tables, or null to read all columns.
+     * @throws DBException Thrown if the table does not exist or couldn't be loaded.
+     */
+    private void loadTableFile(boolean[] columnsToRead) throws DBException {
+        DBWriteAheadLog databaseLog = DBWriteAheadLog.getLog(owningDatabase);
+        while (true){
+            tableRows.clear();
+            if (DBTableCache.copyRows(owningDatabase, objectName, tableRows)){
+                return;
+            }
+            int tableRewrites;
+            ArrayList<DBLogRecord> pendingRecords;
+            synchronized (databaseLog){
+                tableRewrites = databaseLog.getTableRewrites(objectName);
+                pendingRecords = databaseLog.copyPendingRecords(objectName, 0);
+            }
+            try {
+                readTableFile(columnsToRead);
+                DBMetrics.addRowsLoaded(tableRows.size());
+                applyLogRecords(pendingRecords);
+                if (columnsToRead == null){
+                    applyRowTypes();
+                    insertedRowTypes = loadRowTypes();
+                }
+            }
+            catch (DBException | RuntimeException e){
+                synchronized (databaseLog){
+                    if (databaseLog.getTableRewrites(objectName) == tableRewrites){
+                        throw e;
+                    }
+                }
+                continue;
+            }
+            try {
+                synchronized (databaseLog){
+                    if (databaseLog.getTableRewrites(objectName) != tableRewrites){
+                        continue;
+                    }
+                    applyLogRecords(databaseLog.copyPendingRecords(objectName, pendingRecords.size()));
+                    if (columnsToRead == null){
+                        DBTableCache.putRows(owningDatabase, objectName, tableRows);
+                    }
+                    return;
+                }
+            }
+            finally {
+                insertedRowTypes = null;
+            }
+        }
+    }
+
+    /**
+     * Reads rows stored in the table file.
+     * @param columnsToRead Columns to read from columnar tables, or null to read all columns.
+     * @throws DBException Thrown if the table does not exist or couldn't be loaded.
+     */
+    private void readTableFile(boolean[] columnsToRead) throws DBException{
         tableRows.clear();
         File tableFile = new File(tablePath);
         checkFileExits(tableFile);
+        if (tableFormat == TableFormat.COLUMNAR){
+            tableRows.addAll(new DBColumnarFile(tablePath).readRows(columnsToRead));
+            return;
+        }
+        if (scanMode == TableScanMode.MAPPED){
+            tableRows.addAll(new DBMappedTableFile(tablePath).readRows());
+            return;
+        }
         try {
             FileReader reader = new FileReader((tablePath));
             BufferedReader buffReader = new BufferedReader(reader);
@@ -539,6 +1202,7 @@ public class DBTable extends DBObject implements DBTableObject {
                 tableLine = buffReader.readLine();
             }
             buffReader.close();
+            DBMetrics.addBytesRead(new File(tablePath).length());
         }
         catch(IOException ioe){
             throw new DBServerException("Could not load table definitions.");
@@ -546,11 +1210,24 @@ public class DBTable extends DBObject implements DBTableObject {
     }
 
     /**
-     * Reloads all attributes in a table that have been previously stored.
+     * Reloads all attributes in a table that have been previously stored. Attributes are
+     * taken from the table cache when present.
      * @throws DBException Thrown if the attributes do not exist or couldn't be loaded.
      */
     public void loadAttributeFile() throws DBException {
         tableAttributes.clear();
+        readAttributeFile(tableAttributes);
+    }
+
+    /**
+     * Reads the attributes stored for the table, from the table cache when present.
+     * @param storedAttributes Empty list to add the attributes to.
+     * @throws DBException Thrown if the attributes do not exist or couldn't be loaded.
+     */
+    private void readAttributeFile(ArrayList<TableAttribute> storedAttributes) throws DBException {
+        if (DBTableCache.copyAttributes(owningDatabase, objectName, storedAttributes)){
+            return;
+        }
         File attributeFile = new File(attributePath);
         checkFileExits(attributeFile);
         try {
@@ -558,14 +1235,82 @@ public class DBTable extends DBObject implements DBTableObject {
             BufferedReader buffReader = new BufferedReader(reader);
             String attributeLine = buffReader.readLine();
             while(attributeLine != null){
-                tableAttributes.add(new TableAttribute(attributeLine));
+                storedAttributes.add(TableAttribute.fromDefinition(attributeLine));
                 attributeLine = buffReader.readLine();
             }
             buffReader.close();
+            DBMetrics.addBytesRead(attributeFile.length());
         }
         catch(IOException ioe){
             throw new DBServerException("Could not load attribute data.");
         }
+        DBTableCache.putAttributes(owningDatabase, objectName, storedAttributes);
+    }
+
+    /**
+     * Returns the type of each attribute stored for the table, including id.
+     * @return Types of the table's attributes, in order.
+     * @throws DBException Thrown if the attributes couldn't be loaded.
+     */
+    private AttributeType[] loadAttributeTypes() throws DBException {
+        ArrayList<TableAttribute> storedAttributes = new ArrayList<>();
+        readAttributeFile(storedAttributes);
+        return findAttributeTypes(storedAttributes);
+    }
+
+    /**
+     * Returns the type of each attribute in a list.
+     * @param attributes Attributes of the table.
+     * @return Types of the attributes, in order.
+     */
+    private static AttributeType[] findAttributeTypes(ArrayList<TableAttribute> attributes){
+        AttributeType[] attributeTypes = new AttributeType[attributes.size()];
+        for (int i = 0; i < attributeTypes.length; i++){
+            attributeTypes[i] = attributes.get(i).getAttributeType();
+        }
+        return attributeTypes;
+    }
+
+    /**
+     * Returns the attribute types that rows of the table should be held with.
+     * @return Types of the table's attributes, or null if no attribute is held as a primitive.
+     * @throws DBException Thrown if the attributes couldn't be loaded.
+     */
+    private AttributeType[] loadRowTypes() throws DBException {
+        AttributeType[] attributeTypes = loadAttributeTypes();
+        return AttributeType.hasPrimitive(attributeTypes) ? attributeTypes : null;
+    }
+
+    /**
+     * Holds the INT, FLOAT and BOOL values of every loaded row as primitives. Rows scanned
+     * from mapped files are left in their buffers.
+     * @throws DBException Thrown if the attributes couldn't be loaded.
+     */
+    private void applyRowTypes() throws DBException {
+        if (scanMode == TableScanMode.MAPPED && tableFormat == TableFormat.TSV){
+            return;
+        }
+        AttributeType[] rowTypes = loadRowTypes();
+        if (rowTypes == null){
+            return;
+        }
+        for (TableRow row : tableRows){
+            row.applyTypes(rowTypes);
+        }
+    }
+
+    /**
+     * Checks that a value matches the type of its attribute.
+     * @param attributeTypes Types of the table's attributes.
+     * @param attributeIndex Index of the value's attribute.
+     * @param value Value to check.
+     * @throws DBException Thrown if the attribute's type does not accept the value.
+     */
+    private void checkValueType(AttributeType[] attributeTypes, int attributeIndex, String value) throws DBException {
+        if (!attributeTypes[attributeIndex].acceptsValue(value)){
+            throw new DBInvalidValueTypeException("Value " + value + " is not of type "
+                    + attributeTypes[attributeIndex] + ".");
+        }
     }
 
     /**
@@ -0,0 +1,347 @@
+package DBObjects;
+
+import DBException.*;
+import java.util.*;
+
+/**
+ * DBTableCache keeps the schemas and rows of recently used tables in memory so commands
+ * do not reload them from disk. Tables are keyed by their database and name, and the least
+ * recently used tables are evicted once the cached rows exceed the memory budget. The budget
+ * is read from the DBServer.tableCacheBytes system property. Committed log records are applied
+ * to cached rows, and commands that change a table's schema or files remove it from the cache.
+ * Tables are given copies of the cached row lists, and cached rows are never edited in place.
+ * The values of cached rows are held by a row store, chosen with the DBServer.rowStore system
+ * property. Setting it to "direct" holds them in direct memory bounded by DBServer.rowStoreBytes,
+ * and the budget then only covers the rows' objects. Tables are evicted when the store is full,
+ * and rows are kept on the heap if the store cannot make room for them.
+ */
+public class DBTableCache {
+    private static final long DEFAULT_BUDGET = 64L * 1024 * 1024;
+    private static final LinkedHashMap<String, CachedTable> cachedTables = new LinkedHashMap<>(16, 0.75f, true);
+    private static long cacheBudget = Long.getLong("DBServer.tableCacheBytes", DEFAULT_BUDGET);
+    private static long cachedBytes = 0;
+    private static TableRowStore rowStore = TableRowStore.fromProperties();
+
+    /**
+     * CachedTable holds what is known about a single table. Any part may be missing.
+     */
+    private static class CachedTable {
+        private TableFormat tableFormat;
+        private ArrayList<TableAttribute> tableAttributes;
+        private ArrayList<TableRow> tableRows;
+        private long rowBytes;
+        private long storeBytes;
+    }
+
+    /**
+     * Sets the memory budget for cached rows, evicting tables if the cache is now too large.
+     * @param budgetBytes Approximate number of bytes that cached rows may use.
+     */
+    public static synchronized void setCacheBudget(long budgetBytes){
+        cacheBudget = budgetBytes;
+        evictTables();
+    }
+
+    /**
+     * Sets the store that holds the values of cached rows. Tables cached with the previous
+     * store are removed.
+     * @param newRowStore Row store to use.
+     */
+    public static synchronized void setRowStore(TableRowStore newRowStore){
+        for (String key : new ArrayList<>(cachedTables.keySet())){
+            removeTable(key);
+        }
+        rowStore = newRowStore;
+    }
+
+    /**
+     * Returns the store that holds the values of cached rows.
+     * @return The row store.
+     */
+    public static synchronized TableRowStore getRowStore(){
+        return rowStore;
+    }
+
+    /**
+     * Returns the storage format of a cached table.
+     * @param database Database containing the table.
+     * @param tableName Name of the table.
+     * @return The table's format, or null if it is not cached.
+     */
+    public static synchronized TableFormat getTableFormat(DBDatabase database, String tableName){
+        CachedTable cachedTable = cachedTables.get(createKey(database, tableName));
+        return cachedTable == null ? null : cachedTable.tableFormat;
+    }
+
+    /**
+     * Stores the storage format of a table.
+     * @param database Database containing the table.
+     * @param tableName Name of the table.
+     * @param tableFormat The table's format.
+     */
+    public static synchronized void putTableFormat(DBDatabase database, String tableName, TableFormat tableFormat){
+        getOrCreate(database, tableName).tableFormat = tableFormat;
+    }
+
+    /**
+     * Copies the cached attributes of a table into a list.
+     * @param database Database containing the table.
+     * @param tableName Name of the table.
+     * @param attributes List to add the attributes to.
+     * @return True if the attributes were cached.
+     */
+    public static synchronized boolean copyAttributes(DBDatabase database, String tableName,
+                                                      ArrayList<TableAttribute> attributes){
+        CachedTable cachedTable = cachedTables.get(createKey(database, tableName));
+        if (cachedTable == null || cachedTable.tableAttributes == null){
+            return false;
+        }
+        attributes.addAll(cachedTable.tableAttributes);
+        return true;
+    }
+
+    /**
+     * Stores the attributes of a table.
+     * @param database Database containing the table.
+     * @param tableName Name of the table.
+     * @param attributes The table's attributes, which are copied.
+     */
+    public static synchronized void putAttributes(DBDatabase database, String tableName,
+                                                  ArrayList<TableAttribute> attributes){
+        getOrCreate(database, tableName).tableAttributes = new ArrayList<>(attributes);
+    }
+
+    /**
+     * Copies the cached rows of a table into a list.
+     * @param database Database containing the table.
+     * @param tableName Name of the table.
+     * @param rows List to add the rows to.
+     * @return True if the rows were cached.
+     */
+    public static synchronized boolean copyRows(DBDatabase database, String tableName, ArrayList<TableRow> rows){
+        CachedTable cachedTable = cachedTables.get(createKey(database, tableName));
+        if (cachedTable == null || cachedTable.tableRows == null){
+            return false;
+        }
+        rows.addAll(cachedTable.tableRows);
+        return true;
+    }
+
+    /**
+     * Stores all rows of a table, including changes waiting in the write-ahead log. Must be
+     * called while holding the database log's lock so no records are committed meanwhile.
+     * @param database Database containing the table.
+     * @param tableName Name of the table.
+     * @param rows The table's rows, which are copied.
+     */
+    public static synchronized void putRows(DBDatabase database, String tableName, ArrayList<TableRow> rows){
+        String key = createKey(database, tableName);
+        CachedTable replacedTable = cachedTables.get(key);
+        if (replacedTable != null){
+            releaseRows(replacedTable);
+        }
+        long storeBytes = rowStore.measureRows(rows);
+        ArrayList<TableRow> storedRows = rowStore.storeRows(rows);
+        if (storedRows == null && storeBytes <= rowStore.getCapacity()){
+            evictStoredTables(storeBytes);
+            storedRows = rowStore.storeRows(rows);
+        }
+        if (storedRows == null){
+            storedRows = new ArrayList<>(rows);
+            storeBytes = 0;
+        }
+        long rowBytes = estimateSize(storedRows);
+        if (rowBytes > cacheBudget){
+            rowStore.releaseRows(storeBytes);
+            return;
+        }
+        CachedTable cachedTable = getOrCreate(database, tableName);
+        cachedTable.tableRows = storedRows;
+        cachedTable.rowBytes = rowBytes;
+        cachedTable.storeBytes = storeBytes;
+        cachedBytes += rowBytes;
+        evictTables();
+    }
+
+    /**
+     * Applies committed log records to the cached rows of their tables. Called by the
+     * write-ahead log while holding its lock, in the order records are committed. A table
+     * whose records could not be applied is removed from the cache.
+     * @param database Database the records belong to.
+     * @param records Records that were committed.
+     */
+    static synchronized void applyLogRecords(DBDatabase database, List<DBLogRecord> records){
+        LinkedHashMap<String, ArrayList<DBLogRecord>> tableRecords = new LinkedHashMap<>();
+        for (DBLogRecord record : records){
+            tableRecords.computeIfAbsent(record.getTableName(), k -> new ArrayList<>()).add(record);
+        }
+        for (Map.Entry<String, ArrayList<DBLogRecord>> recordEntry : tableRecords.entrySet()){
+            CachedTable cachedTable = cachedTables.get(createKey(database, recordEntry.getKey()));
+            if (cachedTable == null || cachedTable.tableRows == null){
+                continue;
+            }
+            try {
+                DBTable table = new DBTable(recordEntry.getKey(), database);
+                table.applyCachedRecords(cachedTable.tableRows, recordEntry.getValue());
+                cachedBytes -= cachedTable.rowBytes;
+                cachedTable.rowBytes = estimateSize(cachedTable.tableRows);
+                cachedBytes += cachedTable.rowBytes;
+            }
+            catch (DBException | RuntimeException e){
+                invalidateTable(database, recordEntry.getKey());
+            }
+        }
+        evictTables();
+    }
+
+    /**
+     * Removes a table from the cache. Used when a table's schema, format or files change.
+     * @param database Database containing the table.
+     * @param tableName Name of the table.
+     */
+    public static synchronized void invalidateTable(DBDatabase database, String tableName){
+        removeTable(createKey(database, tableName));
+    }
+
+    /**
+     * Removes every table of a database from the cache.
+     * @param database Database whose tables are removed.
+     */
+    public static synchronized void invalidateDatabase(DBDatabase database){
+        String keyPrefix = createKey(database, "");
+        ArrayList<String> keysToRemove = new ArrayList<>();
+        for (String key : cachedTables.keySet()){
+            if (key.startsWith(keyPrefix)){
+                keysToRemove.add(key);
+            }
+        }
+        for (String key : keysToRemove){
+            removeTable(key);
+        }
+    }
+
+    /**
+     * Removes a table from the cache and releases its share of the budget.
+     * @param key Cache key of the table.
+     */
+    private static void removeTable(String key){
+        CachedTable cachedTable = cachedTables.remove(key);
+        if (cachedTable != null){
+            releaseRows(cachedTable);
+        }
+    }
+
+    /**
+     * Releases a table's cached rows from the budget and the row store. The table's schema
+     * stays cached.
+     * @param cachedTable Cache entry of the table.
+     */
+    private static void releaseRows(CachedTable cachedTable){
+        cachedBytes -= cachedTable.rowBytes;
+        rowStore.releaseRows(cachedTable.storeBytes);
+        cachedTable.tableRows = null;
+        cachedTable.rowBytes = 0;
+        cachedTable.storeBytes = 0;
+    }
+
+    /**
+     * Returns the cache entry of a table, creating an empty entry if there is none.
+     * @param database Database containing the table.
+     * @param tableName Name of the table.
+     * @return The table's cache entry.
+     */
+    private static CachedTable getOrCreate(DBDatabase database, String tableName){
+        return cachedTables.computeIfAbsent(createKey(database, tableName), k -> new CachedTable());
+    }
+
+    /**
+     * Evicts the least recently used tables until cached rows fit in the budget.
+     */
+    private static void evictTables(){
+        Iterator<CachedTable> tableIterator = cachedTables.values().iterator();
+        while (cachedBytes > cacheBudget && tableIterator.hasNext()){
+            releaseRows(tableIterator.next());
+            tableIterator.remove();
+        }
+    }
+
+    /**
+     * Evicts the least recently used tables held by the row store until it has room for
+     * more rows.
+     * @param neededBytes Number of bytes the rows need from the store.
+     */
+    private static void evictStoredTables(long neededBytes){
+        Iterator<CachedTable> tableIterator = cachedTables.values().iterator();
+        while (rowStore.getUsedBytes() + neededBytes > rowStore.getCapacity() && tableIterator.hasNext()){
+            CachedTable cachedTable = tableIterator.next();
+            if (cachedTable.storeBytes > 0){
+                releaseRows(cachedTable);
+                tableIterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Estimates the memory used by a list of rows.
+     * @param rows Rows to estimate.
+     * @return Approximate size of the rows in bytes.
+     */
+    private static long estimateSize(ArrayList<TableRow> rows){
+        long rowBytes = 16 + rows.size() * 8L;
+        for (TableRow row : rows){
+            rowBytes += row.estimateSize();
+        }
+        return rowBytes;
+    }
+
+    /**
+     * Creates the cache key of a table.
+     * @param database Database containing the table.
+     * @param tableName Name of the table.
+     * @return Key made from the database path and table name.
+     */
+    private static String createKey(DBDatabase database, String tableName){
+        return database.getObjectName() + "/" + tableName;
+    }
+
+    /**
+     * Testing for DBTableCache.
+     */
+    public static void test(){
+        try {
+            DBDatabase testDatabase = new DBDatabase("cachetestdb");
+            ArrayList<TableRow> testRows = new ArrayList<>();
+            testRows.add(new TableRow(new String[]{"1", "'a'"}));
+            putRows(testDatabase, "cachetable", testRows);
+            testRows.add(new TableRow(new String[]{"2", "'b'"}));
+            ArrayList<TableRow> cachedRows = new ArrayList<>();
+            assert copyRows(testDatabase, "cachetable", cachedRows);
+            assert cachedRows.size() == 1;
+            assert !copyRows(testDatabase, "othertable", new ArrayList<>());
+            long savedBudget = cacheBudget;
+            putRows(testDatabase, "othertable", testRows);
+            setCacheBudget(estimateSize(testRows));
+            assert !copyRows(testDatabase, "cachetable", new ArrayList<>());
+            assert copyRows(testDatabase, "othertable", new ArrayList<>());
+            setCacheBudget(savedBudget);
+            invalidateDatabase(testDatabase);
+            assert !copyRows(testDatabase, "othertable", new ArrayList<>());
+            assert cachedBytes == 0;
+            TableRowStore savedStore = rowStore;
+            setRowStore(new DirectRowStore(new DirectRowStore(0).measureRows(testRows)));
+            putRows(testDatabase, "cachetable", testRows);
+            putRows(testDatabase, "othertable", testRows);
+            assert !copyRows(testDatabase, "cachetable", new ArrayList<>());
+            cachedRows.clear();
+            assert copyRows(testDatabase, "othertable", cachedRows);
+            assert cachedRows.get(1).getValue(1).equals("'b'");
+            invalidateDatabase(testDatabase);
+            assert rowStore.getUsedBytes() == 0;
+            setRowStore(savedStore);
+        }
+        catch (DBException de){
+            System.out.println("Error testing DBTableCache.");
+        }
+        System.out.println("DBTableCache passed.");
+    }
+}
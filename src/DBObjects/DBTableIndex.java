@@ -0,0 +1,404 @@
+package DBObjects;
+
+import DBException.*;
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * DBTableIndex is the parent class of persistent indexes on one attribute of a table. An index
+ * finds the ids of rows that may satisfy a comparison, so conditions do not need to evaluate every
+ * row. Committed inserts and updates add ids to the index, but ids are only removed when the index
+ * is rebuilt, so an index may return rows that no longer hold a value. Callers must check the rows
+ * they are given. Indexes are written to file when the write-ahead log is checkpointed, and rebuilt
+ * from the table whenever the table file is rewritten. Each attribute may have a single index.
+ */
+public abstract class DBTableIndex extends DBObject {
+    private static final HashMap<String, ArrayList<DBTableIndex>> tableIndexes = new HashMap<>();
+
+    private final DBDatabase owningDatabase;
+    private final String tableName;
+    private final String indexPath;
+    private boolean loaded;
+    private boolean stale;
+
+    /**
+     * Constructor for a DBTableIndex.
+     * @param attributeName Name of the indexed attribute.
+     * @param tableName Name of the indexed table.
+     * @param owningDatabase Database containing the table. This is required.
+     * @param indexType Type of the index, which determines its file extension.
+     * @throws DBException Thrown if owningDatabase is null.
+     */
+    protected DBTableIndex(String attributeName, String tableName, DBDatabase owningDatabase,
+                           IndexType indexType) throws DBException {
+        super(attributeName);
+        if (owningDatabase == null){
+            throw new NotUsingDBException("No database is being used.");
+        }
+        this.owningDatabase = owningDatabase;
+        this.tableName = tableName;
+        indexPath = owningDatabase.getObjectName() + File.separator + tableName + "." + attributeName
+                + "." + indexType.getExtension();
+    }
+
+    /**
+     * Constructor for an index stored at a given path that does not belong to a table.
+     * Used for testing.
+     * @param attributeName Name of the indexed attribute.
+     * @param indexPath Path of the index file.
+     */
+    protected DBTableIndex(String attributeName, String indexPath){
+        super(attributeName);
+        this.owningDatabase = null;
+        this.tableName = null;
+        this.indexPath = indexPath;
+    }
+
+    /**
+     * Creates an index of the given type.
+     * @param indexType Type of index to create.
+     * @param attributeName Name of the indexed attribute.
+     * @param tableName Name of the indexed table.
+     * @param owningDatabase Database containing the table.
+     * @return Returns a new index that has not been built.
+     * @throws DBException Thrown if owningDatabase is null.
+     */
+    public static DBTableIndex createIndex(IndexType indexType, String attributeName, String tableName,
+                                           DBDatabase owningDatabase) throws DBException {
+        if (indexType == IndexType.BTREE){
+            return new DBBTreeIndex(attributeName, tableName, owningDatabase);
+        }
+        return new DBHashIndex(attributeName, tableName, owningDatabase);
+    }
+
+    /**
+     * Creates the index by reading every row of the table. The table is read while holding the
+     * database log's lock so no rows are committed before the index is registered.
+     * @throws DBException Thrown if the attribute is already indexed or does not exist, or
+     * the index could not be stored.
+     */
+    public void createObject() throws DBException {
+        if (new File(indexPath).exists() || findIndex(owningDatabase, tableName, objectName) != null){
+            throw new DBServerException("Index already exists.");
+        }
+        DBTable indexedTable = new DBTable(tableName, owningDatabase);
+        synchronized (DBWriteAheadLog.getLog(owningDatabase)){
+            indexedTable.loadTableFile();
+            indexedTable.loadAttributeFile();
+            int attributeIndex = indexedTable.getAttributeIndex(objectName);
+            rebuildIndex(indexedTable.getTableRows(), attributeIndex);
+            storeIndex();
+            synchronized (DBTableIndex.class){
+                findTableIndexes(owningDatabase, tableName).add(this);
+            }
+        }
+    }
+
+    /**
+     * Deletes the index on the attribute, whatever its type, and stops maintaining it.
+     * @throws DBException Thrown if the index does not exist or could not be deleted.
+     */
+    public void dropObject() throws DBException {
+        DBTableIndex indexToDrop = this;
+        synchronized (DBTableIndex.class){
+            Iterator<DBTableIndex> indexIterator = findTableIndexes(owningDatabase, tableName).iterator();
+            while (indexIterator.hasNext()){
+                DBTableIndex index = indexIterator.next();
+                if (index.objectName.equals(objectName)){
+                    indexToDrop = index;
+                    indexIterator.remove();
+                }
+            }
+        }
+        File indexFile = new File(indexToDrop.indexPath);
+        if (!indexFile.delete()){
+            throw new DBServerException("Could not delete index. Does it exist?");
+        }
+    }
+
+    /**
+     * Returns the indexes of a table. The database directory is only searched for index files
+     * the first time a table's indexes are requested.
+     * @param database Database containing the table.
+     * @param tableName Name of the table.
+     * @return A new list of the table's indexes.
+     * @throws DBException Thrown if an index could not be set up.
+     */
+    public static synchronized ArrayList<DBTableIndex> getIndexes(DBDatabase database, String tableName)
+            throws DBException {
+        return new ArrayList<>(findTableIndexes(database, tableName));
+    }
+
+    /**
+     * Returns the index on an attribute of a table.
+     * @param database Database containing the table.
+     * @param tableName Name of the table.
+     * @param attributeName Name of the attribute.
+     * @return The attribute's index, or null if it is not indexed.
+     * @throws DBException Thrown if an index could not be set up.
+     */
+    public static synchronized DBTableIndex findIndex(DBDatabase database, String tableName, String attributeName)
+            throws DBException {
+        for (DBTableIndex index : findTableIndexes(database, tableName)){
+            if (index.objectName.equals(attributeName)){
+                return index;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Forgets the indexes of every table in a database that is being dropped.
+     * @param database Database being dropped.
+     */
+    public static synchronized void closeIndexes(DBDatabase database){
+        String keyPrefix = database.getObjectName() + File.separator;
+        tableIndexes.keySet().removeIf(key -> key.startsWith(keyPrefix));
+    }
+
+    /**
+     * Returns the registered indexes of a table, finding its index files if the table
+     * has not been seen before. Must be called while holding the class lock.
+     * @param database Database containing the table.
+     * @param tableName Name of the table.
+     * @return The table's registered indexes.
+     * @throws DBException Thrown if an index could not be set up.
+     */
+    private static ArrayList<DBTableIndex> findTableIndexes(DBDatabase database, String tableName)
+            throws DBException {
+        String key = database.getObjectName() + File.separator + tableName;
+        ArrayList<DBTableIndex> indexes = tableIndexes.get(key);
+        if (indexes == null){
+            indexes = new ArrayList<>();
+            File[] databaseFiles = new File(database.getObjectName()).listFiles();
+            for (File databaseFile : databaseFiles == null ? new File[0] : databaseFiles){
+                for (IndexType indexType : IndexType.values()){
+                    String attributeName = findIndexedAttribute(databaseFile.getName(), tableName, indexType);
+                    if (attributeName != null){
+                        indexes.add(createIndex(indexType, attributeName, tableName, database));
+                    }
+                }
+            }
+            tableIndexes.put(key, indexes);
+        }
+        return indexes;
+    }
+
+    /**
+     * Finds the attribute named by an index file of a table.
+     * @param fileName Name of a file in the database directory.
+     * @param tableName Name of the table.
+     * @param indexType Type of index to look for.
+     * @return The attribute name, or null if the file is not an index of this type on the table.
+     */
+    private static String findIndexedAttribute(String fileName, String tableName, IndexType indexType){
+        String filePrefix = tableName + ".";
+        String fileSuffix = "." + indexType.getExtension();
+        if (fileName.startsWith(filePrefix) && fileName.endsWith(fileSuffix)
+                && fileName.length() > filePrefix.length() + fileSuffix.length()){
+            return fileName.substring(filePrefix.length(), fileName.length() - fileSuffix.length());
+        }
+        return null;
+    }
+
+    /**
+     * Adds the ids of committed rows to the indexes of their tables. Called by the write-ahead
+     * log while holding its lock. Records are grouped by table, so each table's attributes are
+     * only loaded once. Indexes that could not be updated are marked stale and are rebuilt at
+     * the next checkpoint.
+     * @param database Database the records belong to.
+     * @param records Records that were committed.
+     */
+    static void applyLogRecords(DBDatabase database, List<DBLogRecord> records){
+        LinkedHashMap<String, ArrayList<DBLogRecord>> tableRecords = new LinkedHashMap<>();
+        for (DBLogRecord record : records){
+            if (record.getRecordType() != LogRecordType.DELETE){
+                tableRecords.computeIfAbsent(record.getTableName(), k -> new ArrayList<>()).add(record);
+            }
+        }
+        for (Map.Entry<String, ArrayList<DBLogRecord>> recordEntry : tableRecords.entrySet()){
+            ArrayList<DBTableIndex> indexes;
+            try {
+                indexes = getIndexes(database, recordEntry.getKey());
+            }
+            catch (DBException de){
+                continue;
+            }
+            if (indexes.isEmpty()){
+                continue;
+            }
+            DBTable indexedTable;
+            try {
+                indexedTable = new DBTable(recordEntry.getKey(), database);
+                indexedTable.loadAttributeFile();
+            }
+            catch (DBException | RuntimeException e){
+                indexedTable = null;
+            }
+            for (DBTableIndex index : indexes){
+                index.applyLogRecords(recordEntry.getValue(), indexedTable);
+            }
+        }
+    }
+
+    /**
+     * Adds the ids of rows inserted or updated by a table's log records to the index.
+     * @param records Insert and update records of the indexed table.
+     * @param indexedTable The indexed table with its attributes loaded, or null if they could not be loaded.
+     */
+    private synchronized void applyLogRecords(List<DBLogRecord> records, DBTable indexedTable){
+        try {
+            if (indexedTable == null){
+                throw new DBServerException("Could not load the indexed table's attributes.");
+            }
+            int attributeIndex = indexedTable.getAttributeIndex(objectName);
+            loadIndex();
+            for (DBLogRecord record : records){
+                int rowId = Integer.parseInt(record.getRowId());
+                if (record.getRecordType() == LogRecordType.INSERT){
+                    addRow(record.getInsertedRow().getValue(attributeIndex), rowId);
+                    continue;
+                }
+                for (int i = 0; i < record.getNumUpdates(); i++){
+                    if (record.getUpdateAttribute(i).equals(objectName)){
+                        addRow(record.getUpdateValue(i), rowId);
+                    }
+                }
+            }
+        }
+        catch (DBException | RuntimeException e){
+            stale = true;
+        }
+    }
+
+    /**
+     * Finds the ids of rows that may satisfy a comparison. Some of the rows may no longer
+     * hold the value or may have been deleted.
+     * @param operator Comparison operator, using the condition's single character form.
+     * @param value Value compared with the indexed attribute.
+     * @return Sorted ids of rows that may satisfy the comparison, or null if the index is stale
+     * or cannot be used for the comparison.
+     */
+    public synchronized int[] findRowIds(String operator, String value){
+        loadIndex();
+        if (stale){
+            return null;
+        }
+        int[] foundIds = findEntries(operator, value);
+        if (foundIds != null){
+            Arrays.sort(foundIds);
+        }
+        return foundIds;
+    }
+
+    /**
+     * Determines if the index holds every committed row.
+     * @return Returns true if the index is not stale.
+     */
+    public synchronized boolean isCurrent(){
+        loadIndex();
+        return !stale;
+    }
+
+    /**
+     * Replaces the contents of the index with the values of the given rows.
+     * @param tableRows All rows of the table.
+     * @param attributeIndex Position of the indexed attribute in each row.
+     */
+    public synchronized void rebuildIndex(ArrayList<TableRow> tableRows, int attributeIndex){
+        clearEntries();
+        for (TableRow row : tableRows){
+            if (attributeIndex < row.getSize()){
+                addRow(row.getValue(attributeIndex), Integer.parseInt(row.getValue(0)));
+            }
+        }
+        finishRebuild();
+        loaded = true;
+        stale = false;
+    }
+
+    /**
+     * Writes the index to a temporary file and moves it over the index file, so a failed
+     * write never leaves a partial index behind.
+     * @throws DBException Thrown if the index could not be written.
+     */
+    public synchronized void storeIndex() throws DBException {
+        loadIndex();
+        Path tempPath = Paths.get(indexPath + ".tmp");
+        try {
+            OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(tempPath));
+            writeEntries(outputStream);
+            outputStream.close();
+            DBMetrics.addBytesWritten(Files.size(tempPath));
+            try (FileChannel fileChannel = FileChannel.open(tempPath, StandardOpenOption.WRITE)){
+                fileChannel.force(true);
+            }
+            Files.move(tempPath, Paths.get(indexPath), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException ioe){
+            throw new DBServerException("Internal error, unable to store index.");
+        }
+    }
+
+    /**
+     * Reads the index file the first time the index is used. An index file that cannot be
+     * read leaves the index empty and stale.
+     */
+    protected void loadIndex(){
+        if (loaded){
+            return;
+        }
+        loaded = true;
+        clearEntries();
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(Paths.get(indexPath)))){
+            readEntries(inputStream);
+            DBMetrics.addBytesRead(Files.size(Paths.get(indexPath)));
+        }
+        catch (IOException | RuntimeException e){
+            clearEntries();
+            stale = true;
+        }
+    }
+
+    /**
+     * Removes every entry from the index.
+     */
+    protected abstract void clearEntries();
+
+    /**
+     * Adds a row id to the index under a value.
+     * @param value Value of the indexed attribute.
+     * @param rowId Id of the row.
+     */
+    protected abstract void addRow(String value, int rowId);
+
+    /**
+     * Called once every row has been added while rebuilding the index.
+     */
+    protected void finishRebuild(){}
+
+    /**
+     * Finds the ids of rows that may satisfy a comparison.
+     * @param operator Comparison operator, using the condition's single character form.
+     * @param value Value compared with the indexed attribute.
+     * @return Ids of matching rows in any order, or null if the index cannot be used.
+     */
+    protected abstract int[] findEntries(String operator, String value);
+
+    /**
+     * Writes every entry of the index to a stream.
+     * @param outputStream Stream to write.
+     * @throws IOException Thrown if writing fails.
+     */
+    protected abstract void writeEntries(OutputStream outputStream) throws IOException;
+
+    /**
+     * Reads every entry of the index from a stream written by writeEntries.
+     * @param inputStream Stream to read.
+     * @throws IOException Thrown if reading fails or the stream is not a valid index.
+     */
+    protected abstract void readEntries(InputStream inputStream) throws IOException;
+}
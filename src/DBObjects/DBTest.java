@@ -1,7 +1,12 @@
 package DBObjects;
 
 import DBObjects.DBCommands.CommandLists.*;
+import DBObjects.DBCommands.DBLexer;
+import DBObjects.DBCommands.DBParser;
+import DBObjects.DBCommands.DBPreparedStatement;
+import DBObjects.DBCommands.DBQueryPlan;
 import DBObjects.DBCommands.SelectDBCommand;
+import DBProtocol.DBFrameWriter;
 
 /**
  * Test class for parsing and interpreting.
@@ -17,11 +22,32 @@ public class DBTest extends DBObject {
         AttributeList.test();
         ValueList.test();
         DBStatement.test();
+        DBLexer.test();
+        DBParser.test();
+        DBPreparedStatement.test();
+        DBQueryPlan.test();
         SelectDBCommand.test();
         WildAttributeList.test();
         CommandCondition.test();
         DBExpression.test();
         NameValueList.test();
+        DBColumnarFile.test();
+        DBLogRecord.test();
+        DBWriteAheadLog.test();
+        DBTableCache.test();
+        DBHashIndex.test();
+        DBBTreeIndex.test();
+        DBHashJoin.test();
+        DBStatementLocks.test();
+        DBFrameWriter.test();
+        AttributeType.test();
+        TableRow.test();
+        DirectRowStore.test();
+        TypedAttributeList.test();
+        NumericExpression.test();
+        DBLatencyHistogram.test();
+        DBMetrics.test();
+        DBSlowQueryLog.test();
     }
 
     /**
@@ -0,0 +1,490 @@
+package DBObjects;
+
+import DBException.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * DBWriteAheadLog stores row mutations for one database. Inserts, updates and deletes are appended
+ * to the log as compact records instead of rewriting table files. The records of each commit are
+ * followed by a commit line, so a commit is replayed whole or not at all. Records committed at the
+ * same time share a single fsync. Records become pending, and are applied to cached tables and indexes, only
+ * once they are durable. If the log cannot be written it fails, and refuses further records until
+ * the server is restarted. Table files are rebuilt from the log by a background checkpointer, and rows
+ * loaded before a checkpoint have pending records applied in memory. When a database is first used,
+ * any records left in the log are replayed into the table files.
+ */
+public class DBWriteAheadLog {
+    private static final HashMap<String, DBWriteAheadLog> openLogs = new HashMap<>();
+    private static final ScheduledExecutorService checkpointer = createCheckpointer();
+    private static final long CHECKPOINT_INTERVAL_MS = 2000;
+    private static final int CHECKPOINT_RECORD_LIMIT = 50000;
+    private static final String COMMIT_LINE = "C";
+
+    private final DBDatabase logDatabase;
+    private final FileChannel logChannel;
+    private final LinkedHashMap<String, ArrayList<DBLogRecord>> pendingRecords;
+    private final HashMap<String, Integer> tableRewrites = new HashMap<>();
+    private final Object flushLock = new Object();
+    private StringBuilder unflushedRecords = new StringBuilder();
+    private ArrayList<DBLogRecord> unpublishedRecords = new ArrayList<>();
+    private long lastSequence = 0;
+    private long flushedSequence = 0;
+    private int numPendingRecords = 0;
+    private volatile boolean logFailed = false;
+    private boolean checkpointFailed = false;
+    private ScheduledFuture<?> checkpointTask;
+
+    /**
+     * Constructor for a DBWriteAheadLog. Opens the log file for the database, creating it if necessary.
+     * @param logDatabase Database the log belongs to.
+     * @throws DBException Thrown if the log file could not be opened.
+     */
+    private DBWriteAheadLog(DBDatabase logDatabase) throws DBException {
+        this.logDatabase = logDatabase;
+        pendingRecords = new LinkedHashMap<>();
+        try {
+            logChannel = FileChannel.open(getLogPath(logDatabase), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        catch (IOException ioe){
+            throw new DBServerException("Could not open the database log.");
+        }
+    }
+
+    /**
+     * Returns the write-ahead log for a database. The first time a database's log is opened,
+     * any records left from a previous run are replayed into the table files.
+     * @param database Database whose log should be returned.
+     * @return The database's write-ahead log.
+     * @throws DBException Thrown if the log could not be opened or replayed.
+     */
+    public static synchronized DBWriteAheadLog getLog(DBDatabase database) throws DBException {
+        DBWriteAheadLog databaseLog = openLogs.get(database.getObjectName());
+        if (databaseLog == null){
+            databaseLog = new DBWriteAheadLog(database);
+            try {
+                databaseLog.recoverLog();
+            }
+            catch (DBException de){
+                try {
+                    databaseLog.logChannel.close();
+                }
+                catch (IOException ioe){
+                    System.err.println("Could not close the database log.");
+                }
+                throw de;
+            }
+            databaseLog.checkpointTask = checkpointer.scheduleWithFixedDelay(databaseLog::backgroundCheckpoint,
+                    CHECKPOINT_INTERVAL_MS, CHECKPOINT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            openLogs.put(database.getObjectName(), databaseLog);
+        }
+        return databaseLog;
+    }
+
+    /**
+     * Closes the log of a database that is about to be dropped. Pending records are discarded.
+     * @param database Database whose log should be closed.
+     */
+    public static synchronized void closeLog(DBDatabase database){
+        DBWriteAheadLog databaseLog = openLogs.remove(database.getObjectName());
+        if (databaseLog == null){
+            return;
+        }
+        databaseLog.checkpointTask.cancel(false);
+        synchronized (databaseLog.flushLock){
+            synchronized (databaseLog){
+                databaseLog.pendingRecords.clear();
+                databaseLog.numPendingRecords = 0;
+                try {
+                    databaseLog.logChannel.close();
+                }
+                catch (IOException ioe){
+                    System.err.println("Could not close the database log.");
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends records to the log, followed by a commit line, and waits until they are durable.
+     * The records become pending together. Records from concurrent callers
+     * that arrive while another caller is flushing are written together by the next flush, which
+     * also makes them visible to other sessions.
+     * @param records Records to commit, in the order they were applied.
+     * @throws DBException Thrown if the log could not be written or has failed.
+     */
+    public void commitRecords(List<DBLogRecord> records) throws DBException {
+        if (records.isEmpty()){
+            return;
+        }
+        long commitSequence;
+        long recordBytes;
+        boolean checkpointDue;
+        synchronized (this){
+            if (logFailed){
+                throw new DBServerException("Internal error, unable to write to the database log.");
+            }
+            int recordsStart = unflushedRecords.length();
+            for (DBLogRecord record : records){
+                unflushedRecords.append(record).append("\n");
+            }
+            unflushedRecords.append(COMMIT_LINE).append("\n");
+            recordBytes = DBMetrics.countBytes(unflushedRecords, recordsStart, unflushedRecords.length());
+            unpublishedRecords.addAll(records);
+            commitSequence = ++lastSequence;
+        }
+        synchronized (flushLock){
+            if (flushedSequence < commitSequence){
+                flushLog();
+            }
+        }
+        DBMetrics.addBytesWritten(recordBytes);
+        synchronized (this){
+            checkpointDue = numPendingRecords >= CHECKPOINT_RECORD_LIMIT;
+        }
+        if (checkpointDue){
+            checkpointer.execute(this::backgroundCheckpoint);
+        }
+    }
+
+    /**
+     * Writes all unflushed records to the log file and forces them to disk, then makes them
+     * pending and applies them to cached tables and indexes. If the records could not be written
+     * they are discarded, the log is cut back to its previous length and the log fails. Must be
+     * called while holding the flush lock.
+     * @throws DBException Thrown if the log could not be written.
+     */
+    private void flushLog() throws DBException {
+        String recordsToFlush;
+        ArrayList<DBLogRecord> flushedRecords;
+        long flushSequence;
+        synchronized (this){
+            if (logFailed){
+                throw new DBServerException("Internal error, unable to write to the database log.");
+            }
+            recordsToFlush = unflushedRecords.toString();
+            flushedRecords = unpublishedRecords;
+            unflushedRecords = new StringBuilder();
+            unpublishedRecords = new ArrayList<>();
+            flushSequence = lastSequence;
+        }
+        long logLength = -1;
+        try {
+            ByteBuffer recordBytes = ByteBuffer.wrap(recordsToFlush.getBytes(StandardCharsets.UTF_8));
+            logLength = logChannel.size();
+            logChannel.position(logLength);
+            while (recordBytes.hasRemaining()){
+                logChannel.write(recordBytes);
+            }
+            logChannel.force(false);
+        }
+        catch (IOException ioe){
+            failLog(logLength);
+            throw new DBServerException("Internal error, unable to write to the database log.");
+        }
+        synchronized (this){
+            for (DBLogRecord record : flushedRecords){
+                pendingRecords.computeIfAbsent(record.getTableName(), k -> new ArrayList<>()).add(record);
+            }
+            numPendingRecords += flushedRecords.size();
+            DBTableCache.applyLogRecords(logDatabase, flushedRecords);
+            DBTableIndex.applyLogRecords(logDatabase, flushedRecords);
+        }
+        flushedSequence = flushSequence;
+    }
+
+    /**
+     * Fails the log after records could not be written. Records that were partly written are
+     * cut from the file where possible, so they are not replayed by the next run.
+     * @param logLength Length of the log before the records were written, or -1 if unknown.
+     */
+    private void failLog(long logLength){
+        synchronized (this){
+            logFailed = true;
+            unflushedRecords = new StringBuilder();
+            unpublishedRecords = new ArrayList<>();
+        }
+        if (logLength < 0){
+            return;
+        }
+        try {
+            logChannel.truncate(logLength);
+            logChannel.force(false);
+        }
+        catch (IOException ioe){
+            System.err.println("Could not remove partly written records from the database log.");
+        }
+    }
+
+    /**
+     * Returns a copy of the records of a table that have not yet been checkpointed. Must be
+     * called while holding this log's lock, together with reading the table's rewrite count.
+     * @param tableName Name of the table.
+     * @param fromRecord Number of the table's pending records to skip.
+     * @return Pending records of the table after the skipped ones.
+     */
+    public ArrayList<DBLogRecord> copyPendingRecords(String tableName, int fromRecord){
+        ArrayList<DBLogRecord> tableRecords = pendingRecords.get(tableName);
+        if (tableRecords == null || fromRecord >= tableRecords.size()){
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(tableRecords.subList(fromRecord, tableRecords.size()));
+    }
+
+    /**
+     * Returns how many times a table file has been rewritten while holding this log's lock.
+     * Rows read from the file while the count changed may be incomplete and must be read again.
+     * Must be called while holding this log's lock.
+     * @param tableName Name of the table.
+     * @return Number of rewrites of the table file.
+     */
+    public int getTableRewrites(String tableName){
+        return tableRewrites.getOrDefault(tableName, 0);
+    }
+
+    /**
+     * Records that a table file is being rewritten. Must be called while holding this log's
+     * lock, before the file is changed.
+     * @param tableName Name of the table.
+     */
+    public void countTableRewrite(String tableName){
+        tableRewrites.merge(tableName, 1, Integer::sum);
+    }
+
+    /**
+     * Writes all pending records into their table files and empties the log. Used by the
+     * background checkpointer and before commands that rewrite whole tables.
+     * @throws DBException Thrown if a table file could not be rebuilt.
+     */
+    public void checkpoint() throws DBException {
+        checkpoint(false);
+    }
+
+    /**
+     * Writes all pending records into their table files and empties the log. Records are only
+     * published while holding the flush lock, so the pending records do not change meanwhile, and
+     * this log's lock is held for one table at a time so other tables can still be loaded. After a
+     * checkpoint fails part way, some tables may already hold their records, so the next checkpoint
+     * rewrites every table in the same way as when replaying.
+     * @param replaying True when the records come from a previous run and may already be
+     *                  partly present in the table files.
+     * @throws DBException Thrown if a table file could not be rebuilt.
+     */
+    private void checkpoint(boolean replaying) throws DBException {
+        synchronized (flushLock){
+            if (!logFailed){
+                flushLog();
+            }
+            boolean rewriteTables;
+            synchronized (this){
+                if (pendingRecords.isEmpty()){
+                    return;
+                }
+                rewriteTables = replaying || checkpointFailed;
+                checkpointFailed = true;
+            }
+            for (Map.Entry<String, ArrayList<DBLogRecord>> tableRecords : pendingRecords.entrySet()){
+                synchronized (this){
+                    countTableRewrite(tableRecords.getKey());
+                    DBTable table = new DBTable(tableRecords.getKey(), logDatabase);
+                    table.checkpointLogRecords(tableRecords.getValue(), rewriteTables);
+                }
+            }
+            synchronized (this){
+                pendingRecords.clear();
+                numPendingRecords = 0;
+                truncateLog();
+                checkpointFailed = false;
+            }
+        }
+    }
+
+    /**
+     * Checkpoints the log from the background checkpointer. Errors are reported but not thrown
+     * as the records remain in the log and will be retried.
+     */
+    private void backgroundCheckpoint(){
+        try {
+            checkpoint();
+        }
+        catch (DBException de){
+            System.err.println("Checkpoint failed: " + de);
+        }
+    }
+
+    /**
+     * Empties the log file once all of its records are stored in table files.
+     * @throws DBException Thrown if the log could not be truncated.
+     */
+    private void truncateLog() throws DBException {
+        try {
+            logChannel.truncate(0);
+            logChannel.force(true);
+        }
+        catch (IOException ioe){
+            throw new DBServerException("Internal error, unable to truncate the database log.");
+        }
+    }
+
+    /**
+     * Replays records left in the log by a previous run into the table files. Only records
+     * followed by their commit line are replayed; records after the last commit line, and a final
+     * line without a line separator, were not completely written and are ignored. Any other line
+     * that is not a complete record means the log is corrupt, and recovery fails without changing
+     * the log or the table files. Each table's next row id is then raised above the ids the
+     * replayed records inserted.
+     * @throws DBException Thrown if the log could not be read, is corrupt or could not be replayed.
+     */
+    private void recoverLog() throws DBException {
+        String logContents;
+        try {
+            byte[] logBytes = Files.readAllBytes(getLogPath(logDatabase));
+            DBMetrics.addBytesRead(logBytes.length);
+            logContents = new String(logBytes, StandardCharsets.UTF_8);
+        }
+        catch (IOException ioe){
+            throw new DBServerException("Could not read the database log.");
+        }
+        HashMap<String, Integer> largestInsertedIds = new HashMap<>();
+        ArrayList<DBLogRecord> uncommittedRecords = new ArrayList<>();
+        int lineStart = 0;
+        int lineEnd = logContents.indexOf('\n');
+        while (lineEnd >= 0){
+            String logLine = logContents.substring(lineStart, lineEnd);
+            lineStart = lineEnd + 1;
+            lineEnd = logContents.indexOf('\n', lineStart);
+            if (logLine.equals(COMMIT_LINE)){
+                for (DBLogRecord record : uncommittedRecords){
+                    pendingRecords.computeIfAbsent(record.getTableName(), k -> new ArrayList<>()).add(record);
+                    if (record.getRecordType() == LogRecordType.INSERT){
+                        largestInsertedIds.merge(record.getTableName(), Integer.parseInt(record.getRowId()), Math::max);
+                    }
+                }
+                uncommittedRecords.clear();
+                continue;
+            }
+            DBLogRecord record = DBLogRecord.parseRecord(logLine);
+            if (record == null){
+                throw new DBServerException("Could not recover the database log, a record is corrupt.");
+            }
+            if (record.getRecordType() == LogRecordType.INSERT){
+                try {
+                    Integer.parseInt(record.getRowId());
+                }
+                catch (NumberFormatException nfe){
+                    throw new DBServerException("Could not recover the database log, a record is corrupt.");
+                }
+            }
+            uncommittedRecords.add(record);
+        }
+        if (pendingRecords.isEmpty() && logContents.length() > 0){
+            truncateLog();
+        }
+        checkpoint(true);
+        for (Map.Entry<String, Integer> insertedId : largestInsertedIds.entrySet()){
+            new DBTable(insertedId.getKey(), logDatabase).raiseNextId(insertedId.getValue());
+        }
+    }
+
+    /**
+     * Returns the path of the log file for a database.
+     * @param database Database the log belongs to.
+     * @return Path of the log file.
+     */
+    private static Path getLogPath(DBDatabase database){
+        return Paths.get(database.getObjectName(), "wal.log");
+    }
+
+    /**
+     * Creates the single background thread that checkpoints all open logs.
+     * @return Scheduled executor for checkpoints.
+     */
+    private static ScheduledExecutorService createCheckpointer(){
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread checkpointThread = new Thread(runnable, "DBCheckpointer");
+            checkpointThread.setDaemon(true);
+            return checkpointThread;
+        });
+    }
+
+    /**
+     * Testing for DBWriteAheadLog. Uses a scratch database in a temporary directory under DBRoot,
+     * which is dropped afterwards.
+     */
+    public static void test(){
+        DBDatabase testDatabase = null;
+        try {
+            Files.createDirectories(Paths.get("DBRoot"));
+            Path testDirectory = Files.createTempDirectory(Paths.get("DBRoot"), "waltest");
+            Path tablePath = testDirectory.resolve("items." + TableFormat.TSV.getExtension());
+            Path idPath = testDirectory.resolve("items.id");
+            testDatabase = new DBDatabase(testDirectory.getFileName().toString());
+            DBStatement testStatement = new DBStatement(testDatabase);
+            testStatement.performStatement("create table items (name, qty);");
+            testStatement.performStatement("insert into items values ('a1', 1);");
+            testStatement.performStatement("insert into items values ('b2', 2);");
+            DBWriteAheadLog testLog = getLog(testDatabase);
+            testLog.checkpoint();
+            assert Files.readAllLines(tablePath).size() == 2;
+            assert Files.size(getLogPath(testDatabase)) == 0;
+            assert Files.readAllLines(idPath).get(0).equals("3");
+
+            Files.delete(idPath);
+            testStatement.performStatement("insert into items values ('c3', 3);");
+            testLog.checkpoint();
+            List<String> tableLines = Files.readAllLines(tablePath);
+            assert tableLines.size() == 3 && tableLines.get(2).startsWith("3\t");
+            assert Files.readAllLines(idPath).get(0).equals("4");
+
+            List<DBLogRecord> testRecords = List.of(DBLogRecord.insertRecord("items",
+                    new TableRow(new String[]{"4", "'d4'", "4"})));
+            new DBTable("items", testDatabase).checkpointLogRecords(testRecords, false);
+            assert Files.readAllLines(tablePath).size() == 4;
+            new DBTable("items", testDatabase).checkpointLogRecords(testRecords, true);
+            tableLines = Files.readAllLines(tablePath);
+            assert tableLines.size() == 4 && tableLines.get(3).startsWith("4\t");
+
+            closeLog(testDatabase);
+            Files.writeString(idPath, "1\n");
+            Files.writeString(getLogPath(testDatabase), "I\titems\t5\t'e5'\t5\nC\nI\titems\t6\t'f6'\t6\nI\titems\t7\t'g");
+            getLog(testDatabase);
+            tableLines = Files.readAllLines(tablePath);
+            assert tableLines.size() == 5 && tableLines.get(4).startsWith("5\t");
+            assert Files.size(getLogPath(testDatabase)) == 0;
+            assert Files.readAllLines(idPath).get(0).equals("6");
+
+            closeLog(testDatabase);
+            String corruptLog = "I\titems\t6\t'f6'\t6\nC\nU\titems\t7\nI\titems\t8\t'h8'\t8\nC\n";
+            Files.writeString(getLogPath(testDatabase), corruptLog);
+            try {
+                getLog(testDatabase);
+                assert false;
+            }
+            catch (DBServerException dse){
+                assert Files.readString(getLogPath(testDatabase)).equals(corruptLog);
+                assert Files.readAllLines(tablePath).size() == 5;
+            }
+            Files.writeString(getLogPath(testDatabase), "");
+        }
+        catch (DBException | IOException e){
+            System.out.println("Error testing DBWriteAheadLog.");
+        }
+        finally {
+            try {
+                if (testDatabase != null){
+                    testDatabase.dropObject();
+                }
+            }
+            catch (DBException de){
+                System.out.println("Error removing the DBWriteAheadLog test database.");
+            }
+        }
+        DBTest.passMessage("DBWriteAheadLog passed.");
+    }
+}
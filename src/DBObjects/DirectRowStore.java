@@ -0,0 +1,126 @@
+package DBObjects;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/**
+ * DirectRowStore holds the bytes of cached rows in direct memory, outside the heap, so
+ * large cached tables leave only their row objects and value positions for the garbage
+ * collector. The bytes of a table's rows are copied into blocks allocated for that table,
+ * so a block is freed once the table's rows are no longer used. The store is bounded: it
+ * refuses rows that would take it past its capacity, and the table cache then evicts
+ * tables to make room.
+ */
+public class DirectRowStore implements TableRowStore {
+    static final long DEFAULT_CAPACITY = 256L * 1024 * 1024;
+    private static final int MAX_BLOCK_BYTES = 64 * 1024 * 1024;
+    private final long capacity;
+    private long usedBytes = 0;
+
+    /**
+     * Constructor for a DirectRowStore.
+     * @param capacity Number of bytes of direct memory the store may use.
+     */
+    public DirectRowStore(long capacity){
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the number of bytes that hold the rows' values.
+     * @param rows Rows to measure.
+     * @return Total encoded length of the rows.
+     */
+    @Override
+    public long measureRows(ArrayList<TableRow> rows){
+        long rowBytes = 0;
+        for (TableRow row : rows){
+            rowBytes += row.getEncodedLength();
+        }
+        return rowBytes;
+    }
+
+    /**
+     * Copies rows into newly allocated blocks of direct memory. Each block holds whole rows
+     * and is sized to fit them exactly, so the store uses the measured bytes.
+     * @param rows Rows to store.
+     * @return Rows backed by the blocks, or null if the store does not have room.
+     */
+    @Override
+    public synchronized ArrayList<TableRow> storeRows(ArrayList<TableRow> rows){
+        long rowBytes = measureRows(rows);
+        if (usedBytes + rowBytes > capacity){
+            return null;
+        }
+        ArrayList<TableRow> storedRows = new ArrayList<>(rows.size());
+        try {
+            int blockStart = 0;
+            while (blockStart < rows.size()){
+                int blockEnd = blockStart;
+                long blockBytes = 0;
+                while (blockEnd < rows.size() && (blockEnd == blockStart
+                        || blockBytes + rows.get(blockEnd).getEncodedLength() <= MAX_BLOCK_BYTES)){
+                    blockBytes += rows.get(blockEnd++).getEncodedLength();
+                }
+                ByteBuffer block = ByteBuffer.allocateDirect((int) blockBytes);
+                for (int i = blockStart; i < blockEnd; i++){
+                    storedRows.add(rows.get(i).copyInto(block));
+                }
+                blockStart = blockEnd;
+            }
+        }
+        catch (OutOfMemoryError oome){
+            //the JVM's own direct memory limit is smaller than the store
+            return null;
+        }
+        usedBytes += rowBytes;
+        return storedRows;
+    }
+
+    /**
+     * Returns the space of rows that are no longer cached. Their blocks are freed by the
+     * garbage collector once no command is still using the rows.
+     * @param storedBytes Bytes measured for the rows when they were stored.
+     */
+    @Override
+    public synchronized void releaseRows(long storedBytes){
+        usedBytes -= storedBytes;
+    }
+
+    /**
+     * Returns the number of bytes used by cached rows.
+     * @return Used bytes.
+     */
+    @Override
+    public synchronized long getUsedBytes(){
+        return usedBytes;
+    }
+
+    /**
+     * Returns the number of bytes the store can hold.
+     * @return Capacity of the store in bytes.
+     */
+    @Override
+    public long getCapacity(){
+        return capacity;
+    }
+
+    /**
+     * Testing for DirectRowStore.
+     */
+    public static void test(){
+        ArrayList<TableRow> testRows = new ArrayList<>();
+        testRows.add(new TableRow(new String[]{"1", "'Bob'"}));
+        testRows.add(new TableRow("2\t'Sue'\t"));
+        DirectRowStore testStore = new DirectRowStore(testRows.get(0).getEncodedLength() * 3L);
+        ArrayList<TableRow> storedRows = testStore.storeRows(testRows);
+        assert storedRows != null && storedRows.size() == 2;
+        assert storedRows.get(1).getValue(1).equals("'Sue'");
+        assert storedRows.get(0).toString().equals("1\t'Bob'\t");
+        assert testStore.getUsedBytes() == testStore.measureRows(testRows);
+        assert testStore.storeRows(testRows) == null;
+        testStore.releaseRows(testStore.measureRows(testRows));
+        assert testStore.getUsedBytes() == 0;
+        assert testStore.storeRows(storedRows) != null;
+        DBTest.passMessage("DirectRowStore passed.");
+    }
+}
@@ -0,0 +1,55 @@
+package DBObjects;
+
+import java.util.ArrayList;
+
+/**
+ * HeapRowStore keeps cached rows on the heap as they are. Their memory is counted by the
+ * table cache's budget rather than by the store.
+ */
+public class HeapRowStore implements TableRowStore {
+
+    /**
+     * Returns zero, as heap rows take nothing from the store.
+     * @param rows Rows to measure.
+     * @return Zero.
+     */
+    @Override
+    public long measureRows(ArrayList<TableRow> rows){
+        return 0;
+    }
+
+    /**
+     * Returns the rows unchanged.
+     * @param rows Rows to store.
+     * @return A list of the same rows.
+     */
+    @Override
+    public ArrayList<TableRow> storeRows(ArrayList<TableRow> rows){
+        return new ArrayList<>(rows);
+    }
+
+    /**
+     * Does nothing, as heap rows take nothing from the store.
+     * @param storedBytes Bytes measured for the rows when they were stored.
+     */
+    @Override
+    public void releaseRows(long storedBytes){}
+
+    /**
+     * Returns zero, as heap rows take nothing from the store.
+     * @return Zero.
+     */
+    @Override
+    public long getUsedBytes(){
+        return 0;
+    }
+
+    /**
+     * Returns zero, as the store does not hold bytes of its own.
+     * @return Zero.
+     */
+    @Override
+    public long getCapacity(){
+        return 0;
+    }
+}
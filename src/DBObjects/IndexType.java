@@ -0,0 +1,24 @@
+package DBObjects;
+
+/**
+ * Used to determine how an index on a table attribute is organised.
+ * HASH : Maps each value to its rows. Used for equality conditions.
+ * BTREE : Orders rows by numeric value. Used for equality and range conditions.
+ */
+public enum IndexType {
+    HASH("idx"), BTREE("btree");
+
+    private final String extension;
+
+    IndexType(String extension){
+        this.extension = extension;
+    }
+
+    /**
+     * Returns the file extension used by indexes of this type.
+     * @return File extension without a decimal separator.
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
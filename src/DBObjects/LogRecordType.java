@@ -0,0 +1,8 @@
+package DBObjects;
+
+/**
+ * Used to determine how a write-ahead log record changes a table's rows.
+ */
+public enum LogRecordType {
+    INSERT, UPDATE, DELETE;
+}
@@ -1,16 +1,57 @@
 package DBObjects;
 
+import DBException.*;
+
 /**
  * Table attribute class. Contains information about a tables attributes.
  */
 public class TableAttribute extends DBObject implements DBTableObject {
 
+    private final AttributeType attributeType;
+
     /**
      * Constructs a table attribute with a given name.
      * @param attributeName Name of the attribute.
      */
     public TableAttribute(String attributeName){
+        this(attributeName, AttributeType.ANY);
+    }
+
+    /**
+     * Constructs a table attribute with a given name and type.
+     * @param attributeName Name of the attribute.
+     * @param attributeType Type of values the attribute accepts.
+     */
+    public TableAttribute(String attributeName, AttributeType attributeType){
         super(attributeName);
+        this.attributeType = attributeType;
+    }
+
+    /**
+     * Constructs a table attribute from its definition, a name optionally followed by a space
+     * and a type, as stored in the attribute file.
+     * @param attributeDefinition Definition of the attribute.
+     * @return The attribute.
+     * @throws DBException Thrown if the type is not known.
+     */
+    public static TableAttribute fromDefinition(String attributeDefinition) throws DBException {
+        int spaceIndex = attributeDefinition.indexOf(' ');
+        if (spaceIndex < 0){
+            return new TableAttribute(attributeDefinition);
+        }
+        AttributeType attributeType = AttributeType.fromTypeName(attributeDefinition.substring(spaceIndex + 1));
+        if (attributeType == null){
+            throw new InvalidCommandArgumentException("Attribute type of " + attributeDefinition + " is not known.");
+        }
+        return new TableAttribute(attributeDefinition.substring(0, spaceIndex), attributeType);
+    }
+
+    /**
+     * Returns the type of values the attribute accepts.
+     * @return Attribute type, ANY if no type was declared.
+     */
+    public AttributeType getAttributeType() {
+        return attributeType;
     }
 
     /**
@@ -23,10 +64,13 @@ public class TableAttribute extends DBObject implements DBTableObject {
     }
 
     /**
-     * Returns the name of an attribute.
+     * Returns the definition of an attribute, its name followed by its type if it has one.
      */
     @Override
     public String toString() {
-        return objectName;
+        if (attributeType == AttributeType.ANY){
+            return objectName;
+        }
+        return objectName + " " + attributeType;
     }
 }
@@ -0,0 +1,24 @@
+package DBObjects;
+
+/**
+ * Used to determine how a table's rows are stored on disk.
+ * TSV : One tab-delimited line per row.
+ * COLUMNAR : Binary file with a typed block per column.
+ */
+public enum TableFormat {
+    TSV("tsv"), COLUMNAR("col");
+
+    private final String extension;
+
+    TableFormat(String extension){
+        this.extension = extension;
+    }
+
+    /**
+     * Returns the file extension used by tables stored in this format.
+     * @return File extension without a decimal separator.
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -3,41 +3,269 @@ package DBObjects;
 
 
 import DBException.*;
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 
 /**
  * TableRow class handles the creation, editing, and removal of
- * table rows from a table.
+ * table rows from a table. A row holds its values as UTF-8 bytes in a
+ * single array, each followed by a tab, with the start of each value kept
+ * in a second array. Values are only decoded to strings when they are used.
+ * Rows scanned from a mapped table file, or held by a direct row store, keep
+ * their values as bytes in a buffer instead, and are copied into an array of
+ * their own when edited.
+ * Rows of tables with typed attributes hold INT, FLOAT and BOOL values as
+ * primitives in their bytes, and print them when they are used.
  */
 public class TableRow extends DBObject implements DBTableObject {
 
-    private ArrayList<String> rowData;
+    private static final byte SEPARATOR = '\t';
+    private byte[] rowBytes;
+    private ByteBuffer rowSource;
+    private int[] fieldBounds;
+    private AttributeType[] valueTypes;
 
     /**
      * Constructor for a new row. Table rows do not have object names.
      */
     public TableRow(){
-        rowData = new ArrayList<>();
+        rowBytes = new byte[0];
+        fieldBounds = new int[]{0};
     }
 
     /**
      * Constructor for a new row from an array of strings. Mainly used
      * when inserting values into a table.
-     * @param rowData Array of values that represent row data.
+     * @param rowData Array of values that represent row data. Values may be null.
      */
     public TableRow(String[] rowData){
-        this.rowData = new ArrayList<>(Arrays.asList(rowData));
+        encodeRow(rowData, null);
     }
 
     /**
      * Constructor for a row from a tab-delimited string of data. Used to
-     * instantiate table rows from file.
+     * instantiate table rows from file. Trailing empty values are dropped,
+     * as when the string is split on tabs.
      * @param tabbedRowData Tab-delimited string.
      */
     public TableRow(String tabbedRowData){
-        String[] rowAry = tabbedRowData.split("\\t");
-        this.rowData = new ArrayList<>(Arrays.asList(rowAry));
+        byte[] lineBytes = tabbedRowData.getBytes(StandardCharsets.UTF_8);
+        int numTabs = 0;
+        for (byte lineByte : lineBytes){
+            if (lineByte == SEPARATOR){
+                numTabs++;
+            }
+        }
+        int numFields = numTabs + 1;
+        if (numTabs > 0 && lineBytes[lineBytes.length - 1] == SEPARATOR){
+            //the empty value after the final tab is dropped
+            numFields--;
+        }
+        else {
+            //every value is followed by a separator, including the last
+            lineBytes = Arrays.copyOf(lineBytes, lineBytes.length + 1);
+            lineBytes[lineBytes.length - 1] = SEPARATOR;
+        }
+        int[] bounds = new int[numFields + 1];
+        int field = 1;
+        for (int i = 0; i < lineBytes.length && field <= numFields; i++){
+            if (lineBytes[i] == SEPARATOR){
+                bounds[field++] = i + 1;
+            }
+        }
+        while (numTabs > 0 && numFields > 0 && bounds[numFields] - 1 == bounds[numFields - 1]){
+            numFields--;
+        }
+        if (numFields + 1 < bounds.length){
+            bounds = Arrays.copyOf(bounds, numFields + 1);
+            lineBytes = Arrays.copyOf(lineBytes, bounds[numFields]);
+        }
+        rowBytes = lineBytes;
+        fieldBounds = bounds;
+    }
+
+    /**
+     * Constructor for a copy of an existing row. Used before editing rows that
+     * may be shared with other tables. Rows never change their bytes in place,
+     * so the copy shares them until one of the rows is edited.
+     * @param rowToCopy Row whose values are copied.
+     */
+    public TableRow(TableRow rowToCopy){
+        this.rowBytes = rowToCopy.rowBytes;
+        this.rowSource = rowToCopy.rowSource;
+        this.fieldBounds = rowToCopy.fieldBounds;
+        this.valueTypes = rowToCopy.valueTypes;
+    }
+
+    /**
+     * Constructor for a row whose values are UTF-8 bytes in a buffer. Used when scanning
+     * mapped table files and by direct row stores. Values are decoded when they are first used.
+     * @param rowSource Buffer holding the row's bytes.
+     * @param fieldBounds Start position of each value in the buffer, followed by one more
+     *                    than the end position of the final value.
+     */
+    public TableRow(ByteBuffer rowSource, int[] fieldBounds){
+        this.rowSource = rowSource;
+        this.fieldBounds = fieldBounds;
+    }
+
+    /**
+     * Encodes values into the row's bytes, replacing any it held before. Values of primitive
+     * types are held in the fewest bytes that fit them, and null values take no bytes at all.
+     * @param values Values of the row.
+     * @param attributeTypes Type of each value, or null if the row is not typed. Values of
+     *                       primitive types must be accepted by their type.
+     */
+    private void encodeRow(String[] values, AttributeType[] attributeTypes){
+        int[] bounds = new int[values.length + 1];
+        int rowLength = 0;
+        for (int i = 0; i < values.length; i++){
+            bounds[i] = rowLength;
+            if (values[i] == null){
+                continue;
+            }
+            if (attributeTypes != null && attributeTypes[i].isPrimitive()){
+                rowLength += attributeTypes[i].getEncodedWidth() + 1;
+            }
+            else {
+                rowLength += utf8Length(values[i]) + 1;
+            }
+        }
+        bounds[values.length] = rowLength;
+        byte[] encodedBytes = new byte[rowLength];
+        for (int i = 0; i < values.length; i++){
+            if (values[i] == null){
+                continue;
+            }
+            if (attributeTypes != null && attributeTypes[i].isPrimitive()){
+                writePrimitive(encodedBytes, bounds[i], attributeTypes[i].getEncodedWidth(),
+                        attributeTypes[i].encodeValue(values[i]));
+            }
+            else {
+                writeString(encodedBytes, bounds[i], values[i]);
+            }
+            encodedBytes[bounds[i + 1] - 1] = SEPARATOR;
+        }
+        rowBytes = encodedBytes;
+        fieldBounds = bounds;
+        rowSource = null;
+        valueTypes = attributeTypes;
+    }
+
+    /**
+     * Returns the number of bytes needed to encode a string as UTF-8.
+     * @param value String to measure.
+     * @return Length of the encoded string.
+     */
+    private static int utf8Length(String value){
+        for (int i = 0; i < value.length(); i++){
+            if (value.charAt(i) >= 0x80){
+                return value.getBytes(StandardCharsets.UTF_8).length;
+            }
+        }
+        return value.length();
+    }
+
+    /**
+     * Writes a string into an array as UTF-8. ASCII strings are copied without encoding.
+     * @param target Array to write to.
+     * @param position Position of the string's first byte.
+     * @param value String to write.
+     */
+    private static void writeString(byte[] target, int position, String value){
+        for (int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+            if (c >= 0x80){
+                byte[] encodedValue = value.getBytes(StandardCharsets.UTF_8);
+                System.arraycopy(encodedValue, 0, target, position, encodedValue.length);
+                return;
+            }
+            target[position + i] = (byte) c;
+        }
+    }
+
+    /**
+     * Writes the low bytes of an encoded value into an array, most significant first.
+     * @param target Array to write to.
+     * @param position Position of the value's first byte.
+     * @param width Number of bytes to write.
+     * @param encodedValue Value to write.
+     */
+    private static void writePrimitive(byte[] target, int position, int width, long encodedValue){
+        for (int i = width - 1; i >= 0; i--){
+            target[position + i] = (byte) encodedValue;
+            encodedValue >>>= 8;
+        }
+    }
+
+    /**
+     * Reads a value held as a primitive.
+     * @param index Index of the value.
+     * @return The encoded value.
+     */
+    private long readPrimitive(int index){
+        long encodedValue = 0;
+        for (int i = fieldBounds[index]; i < fieldBounds[index + 1] - 1; i++){
+            encodedValue = (encodedValue << 8) | (getByte(i) & 0xFF);
+        }
+        return encodedValue;
+    }
+
+    /**
+     * Determines if a value is held as a primitive.
+     * @param index Index of the value.
+     * @return Returns true if the row is typed and the value's type is INT, FLOAT or BOOL.
+     */
+    private boolean isPrimitiveValue(int index){
+        return valueTypes != null && valueTypes[index].isPrimitive();
+    }
+
+    /**
+     * Estimates the memory used by the row's values, used to size cached tables. Rows held
+     * by a direct row store only count their heap memory, as their bytes are counted by the store.
+     * @return Approximate size of the row in bytes.
+     */
+    public long estimateSize(){
+        long rowSize = 32 + 16 + fieldBounds.length * 4L;
+        if (rowBytes == null){
+            return rowSource instanceof MappedByteBuffer ? rowSize + getEncodedLength() : rowSize;
+        }
+        return rowSize + 16 + rowBytes.length;
+    }
+
+    /**
+     * Returns the number of bytes that hold the row's values.
+     * @return Length of the row's encoded values, including separators.
+     */
+    public int getEncodedLength(){
+        return fieldBounds[fieldBounds.length - 1] - fieldBounds[0];
+    }
+
+    /**
+     * Copies the row's bytes into a buffer, at the buffer's position, and advances the position
+     * past them. Typed rows stay typed.
+     * @param targetBuffer Buffer with at least getEncodedLength bytes remaining.
+     * @return A row holding the same values, backed by the buffer.
+     */
+    public TableRow copyInto(ByteBuffer targetBuffer){
+        int targetStart = targetBuffer.position();
+        int sourceStart = fieldBounds[0];
+        if (rowBytes != null){
+            targetBuffer.put(rowBytes, sourceStart, getEncodedLength());
+        }
+        else {
+            targetBuffer.put(targetStart, rowSource, sourceStart, getEncodedLength());
+            targetBuffer.position(targetStart + getEncodedLength());
+        }
+        int[] targetBounds = new int[fieldBounds.length];
+        for (int i = 0; i < targetBounds.length; i++){
+            targetBounds[i] = fieldBounds[i] - sourceStart + targetStart;
+        }
+        TableRow copiedRow = new TableRow(targetBuffer, targetBounds);
+        copiedRow.valueTypes = valueTypes;
+        return copiedRow;
     }
 
     /**
@@ -45,7 +273,7 @@ public class TableRow extends DBObject implements DBTableObject {
      * @return Size of the current table row.
      */
     public int getSize(){
-        return rowData.size();
+        return fieldBounds.length - 1;
     }
 
     /**
@@ -54,7 +282,121 @@ public class TableRow extends DBObject implements DBTableObject {
      * @return Specified value of a table row.
      */
     public String getValue(int index){
-        return rowData.get(index);
+        if (isPrimitiveValue(index)){
+            return valueTypes[index].formatValue(readPrimitive(index));
+        }
+        return decodeValue(index);
+    }
+
+    /**
+     * Returns every value of the row.
+     * @return The row's values, in order.
+     */
+    private String[] getValues(){
+        String[] values = new String[getSize()];
+        for (int i = 0; i < values.length; i++){
+            values[i] = getValue(i);
+        }
+        return values;
+    }
+
+    /**
+     * Returns the numeric value of a value of the row. INT and FLOAT values held as
+     * primitives are returned without being printed or parsed.
+     * @param index Index of the value.
+     * @return The value as a double.
+     * @throws DBException Thrown if the value is not a number.
+     */
+    public double getNumericValue(int index) throws DBException {
+        if (valueTypes != null && (valueTypes[index] == AttributeType.INT || valueTypes[index] == AttributeType.FLOAT)){
+            return valueTypes[index].toNumber(readPrimitive(index));
+        }
+        String value = getValue(index);
+        if (value != null && AttributeType.FLOAT.acceptsValue(value)){
+            return Double.parseDouble(value);
+        }
+        throw new InvalidCommandArgumentException("Cannot use non-numbers for inequality expressions.");
+    }
+
+    /**
+     * Holds the row's INT, FLOAT and BOOL values as primitives. The row is left as it is if any
+     * of these values is not of its attribute's type, or if the row is already typed.
+     * @param attributeTypes Type of each attribute of the row's table, including id.
+     */
+    public void applyTypes(AttributeType[] attributeTypes){
+        if (valueTypes != null || attributeTypes.length != getSize()){
+            return;
+        }
+        String[] values = getValues();
+        for (int i = 0; i < attributeTypes.length; i++){
+            if (attributeTypes[i].isPrimitive() && (values[i] == null || !attributeTypes[i].acceptsValue(values[i]))){
+                return;
+            }
+        }
+        encodeRow(values, attributeTypes);
+    }
+
+    /**
+     * Determines if a value of the row is equal to a string. Values that are not held as
+     * primitives are compared without being decoded when the string is ASCII.
+     * @param index Index of the value.
+     * @param value String to compare with.
+     * @return Returns true if the value equals the string.
+     */
+    public boolean valueEquals(int index, String value){
+        if (index < 0 || index >= getSize()){
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for row.");
+        }
+        if (isPrimitiveValue(index)){
+            return getValue(index).equals(value);
+        }
+        int valueStart = fieldBounds[index];
+        int valueLength = fieldBounds[index + 1] - 1 - valueStart;
+        if (valueLength < 0){
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++){
+            char c = value.charAt(i);
+            if (c >= 0x80){
+                return decodeValue(index).equals(value);
+            }
+            if (i >= valueLength || getByte(valueStart + i) != c){
+                return false;
+            }
+        }
+        return valueLength == value.length();
+    }
+
+    /**
+     * Returns a byte of the row.
+     * @param position Position of the byte in the row's array or buffer.
+     * @return The byte.
+     */
+    private byte getByte(int position){
+        return rowBytes != null ? rowBytes[position] : rowSource.get(position);
+    }
+
+    /**
+     * Decodes a value from the row's bytes.
+     * @param index Index of the value.
+     * @return The decoded value, or null if the row does not hold the value.
+     */
+    private String decodeValue(int index){
+        if (index < 0 || index >= getSize()){
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for row.");
+        }
+        int valueStart = fieldBounds[index];
+        //each value is followed by a one byte separator, null values have neither
+        int valueLength = fieldBounds[index + 1] - 1 - valueStart;
+        if (valueLength < 0){
+            return null;
+        }
+        if (rowBytes != null){
+            return new String(rowBytes, valueStart, valueLength, StandardCharsets.UTF_8);
+        }
+        byte[] valueBytes = new byte[valueLength];
+        rowSource.get(valueStart, valueBytes);
+        return new String(valueBytes, StandardCharsets.UTF_8);
     }
 
     /**
@@ -62,8 +404,11 @@ public class TableRow extends DBObject implements DBTableObject {
      * @param idValue The ID of the table row.
      */
     public void addIdValue(int idValue){
-        String idString = String.valueOf(idValue);
-        rowData.add(0, idString);
+        String[] values = getValues();
+        String[] valuesWithId = new String[values.length + 1];
+        valuesWithId[0] = String.valueOf(idValue);
+        System.arraycopy(values, 0, valuesWithId, 1, values.length);
+        encodeRow(valuesWithId, null);
     }
 
     /**
@@ -71,27 +416,34 @@ public class TableRow extends DBObject implements DBTableObject {
      * @param value Value to be appended to the table row.
      */
     public void appendCell(String value){
-        rowData.add(value);
+        String[] values = Arrays.copyOf(getValues(), getSize() + 1);
+        values[values.length - 1] = value;
+        encodeRow(values, null);
     }
 
     /**
      * Adds a new, null value at the end of the row.
      */
     public void appendCell(){
-        rowData.add("''");
+        appendCell("''");
     }
 
     /**
-     * Update a specified value in the table row.
+     * Update a specified value in the table row. The row stays typed if its
+     * attribute's type accepts the value.
      * @param value The value to add to the row.
      * @param index The index at which to add the value.
      * @throws DBException Thrown if index is greater than the number of values in the row.
      */
     public void updateValue(String value, int index) throws DBException {
-        if (index >= rowData.size()){
+        if (index >= getSize()){
             throw new DBOutOfRangeException("Attempted to edit a cell outside the range of data.");
         }
-        rowData.set(index, value);
+        String[] values = getValues();
+        values[index] = value;
+        boolean keepTypes = valueTypes != null
+                && (!valueTypes[index].isPrimitive() || valueTypes[index].acceptsValue(value));
+        encodeRow(values, keepTypes ? valueTypes : null);
     }
 
     /**
@@ -100,7 +452,11 @@ public class TableRow extends DBObject implements DBTableObject {
      * @param index The index of the value to remove.
      */
     public void removeValue(int index){
-        rowData.remove(index);
+        String[] values = getValues();
+        String[] remainingValues = new String[values.length - 1];
+        System.arraycopy(values, 0, remainingValues, 0, index);
+        System.arraycopy(values, index + 1, remainingValues, index, values.length - index - 1);
+        encodeRow(remainingValues, null);
     }
 
     /**
@@ -109,19 +465,90 @@ public class TableRow extends DBObject implements DBTableObject {
      * @return Returns the specified value String from the row.
      */
     public String printValue(int index){
-        return rowData.get(index) + "\t";
+        return getValue(index) + "\t";
     }
 
     /**
-     * Returns a table row as a tab-delimited string.
+     * Returns a table row as a tab-delimited string. Rows without primitive or null
+     * values already hold this string's bytes, and are decoded in one piece.
      * @return Tab-delimited string of row data.
      */
     @Override
     public String toString(){
+        if (rowBytes != null && valueTypes == null && !hasNullValue()){
+            return new String(rowBytes, StandardCharsets.UTF_8);
+        }
         StringBuilder returnString = new StringBuilder();
-        for(String row : rowData){
-            returnString.append(row).append("\t");
+        for (int i = 0; i < getSize(); i++){
+            returnString.append(getValue(i)).append("\t");
         }
         return returnString.toString();
     }
+
+    /**
+     * Determines if the row is missing any values, as rows loaded with only some columns are.
+     * @return Returns true if a value is null.
+     */
+    private boolean hasNullValue(){
+        for (int i = 0; i < getSize(); i++){
+            if (fieldBounds[i + 1] == fieldBounds[i]){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Testing for TableRow.
+     */
+    public static void test(){
+        TableRow fileRow = new TableRow("1\t'café'\t12.5\t");
+        assert fileRow.getSize() == 3;
+        assert fileRow.getValue(1).equals("'café'");
+        assert fileRow.valueEquals(2, "12.5");
+        assert !fileRow.valueEquals(2, "12.50");
+        assert fileRow.toString().equals("1\t'café'\t12.5\t");
+        assert new TableRow("1\t'a'").getSize() == 2;
+        assert new TableRow("1\t\t'a'\t\t").getSize() == 3;
+        assert new TableRow("").getSize() == 1;
+        assert new TableRow("\t").getSize() == 0;
+        TableRow nullRow = new TableRow(new String[]{"2", null, "'b'"});
+        assert nullRow.getValue(1) == null;
+        assert !nullRow.valueEquals(1, "");
+        assert nullRow.toString().equals("2\tnull\t'b'\t");
+        TableRow typedRow = new TableRow(new String[]{"3", "'c'", "-7", "0.25", "true"});
+        typedRow.applyTypes(new AttributeType[]{AttributeType.ANY, AttributeType.STRING, AttributeType.INT,
+                AttributeType.FLOAT, AttributeType.BOOL});
+        TableRow copiedRow = new TableRow(typedRow);
+        try {
+            assert typedRow.getNumericValue(2) == -7;
+            assert typedRow.getNumericValue(3) == 0.25;
+            assert typedRow.valueEquals(4, "true");
+            copiedRow.updateValue("12", 2);
+            copiedRow.updateValue("'x'", 4);
+        }
+        catch (DBException de){
+            System.out.println("Error testing TableRow.");
+        }
+        assert typedRow.getValue(2).equals("-7");
+        assert copiedRow.getValue(2).equals("12");
+        assert copiedRow.getValue(4).equals("'x'");
+        assert typedRow.toString().equals("3\t'c'\t-7\t0.25\ttrue\t");
+        copiedRow.addIdValue(9);
+        copiedRow.removeValue(1);
+        assert copiedRow.toString().equals("9\t'c'\t12\t0.25\t'x'\t");
+        ByteBuffer testBuffer = ByteBuffer.allocateDirect(typedRow.getEncodedLength() + fileRow.getEncodedLength());
+        TableRow bufferedRow = typedRow.copyInto(testBuffer);
+        TableRow secondRow = fileRow.copyInto(testBuffer);
+        assert testBuffer.remaining() == 0;
+        assert bufferedRow.toString().equals(typedRow.toString());
+        assert secondRow.valueEquals(1, "'café'");
+        try {
+            assert bufferedRow.getNumericValue(2) == -7;
+        }
+        catch (DBException de){
+            System.out.println("Error testing TableRow.");
+        }
+        DBTest.passMessage("TableRow passed.");
+    }
 }
@@ -0,0 +1,56 @@
+package DBObjects;
+
+import java.util.ArrayList;
+
+/**
+ * TableRowStore decides where the values of cached table rows are held. The table cache
+ * passes the rows of each table it caches to its row store, and tables are given the rows
+ * the store returns. The store is chosen with the DBServer.rowStore system property.
+ */
+public interface TableRowStore {
+
+    /**
+     * Returns the number of bytes the store would use to hold rows, outside the rows themselves.
+     * @param rows Rows to measure.
+     * @return Bytes the rows would take from the store.
+     */
+    long measureRows(ArrayList<TableRow> rows);
+
+    /**
+     * Places rows in the store.
+     * @param rows Rows to store. The rows themselves are not changed.
+     * @return Rows holding the same values in the store, or null if the store does not have room.
+     */
+    ArrayList<TableRow> storeRows(ArrayList<TableRow> rows);
+
+    /**
+     * Returns the space of rows that are no longer cached to the store.
+     * @param storedBytes Bytes measured for the rows when they were stored.
+     */
+    void releaseRows(long storedBytes);
+
+    /**
+     * Returns the number of bytes used by stored rows.
+     * @return Used bytes.
+     */
+    long getUsedBytes();
+
+    /**
+     * Returns the number of bytes the store can hold.
+     * @return Capacity of the store in bytes.
+     */
+    long getCapacity();
+
+    /**
+     * Creates the row store named by the DBServer.rowStore system property. "direct" creates a
+     * DirectRowStore whose size is read from DBServer.rowStoreBytes. Any other value keeps rows
+     * on the heap.
+     * @return The configured row store.
+     */
+    static TableRowStore fromProperties(){
+        if ("direct".equalsIgnoreCase(System.getProperty("DBServer.rowStore"))){
+            return new DirectRowStore(Long.getLong("DBServer.rowStoreBytes", DirectRowStore.DEFAULT_CAPACITY));
+        }
+        return new HeapRowStore();
+    }
+}
@@ -0,0 +1,10 @@
+package DBObjects;
+
+/**
+ * Used to determine how a tab-delimited table file is read.
+ * BUFFERED : Each line is read into a string and split into values.
+ * MAPPED : The file is mapped into memory and values are decoded when they are used.
+ */
+public enum TableScanMode {
+    BUFFERED, MAPPED;
+}
@@ -0,0 +1,43 @@
+package DBProtocol;
+
+/**
+ * Used to determine how the values of a result column are encoded by the binary protocol. A
+ * column has a type other than TEXT only if every value in it is written exactly as that type
+ * would print it, so decoded values can be printed as they are stored.
+ * TEXT : Values are sent as stored, as UTF-8.
+ * STRING : String literals. Values are sent without their single quotes, as UTF-8.
+ * INTEGER : Values are sent as four byte integers.
+ * FLOAT : Values are sent as four byte floats.
+ * BOOLEAN : Values are sent as a single byte.
+ */
+public enum ColumnType {
+    TEXT(0), STRING(1), INTEGER(2), FLOAT(3), BOOLEAN(4);
+
+    private final int typeCode;
+
+    ColumnType(int typeCode){
+        this.typeCode = typeCode;
+    }
+
+    /**
+     * Returns the byte identifying columns of this type.
+     * @return Type code of the column.
+     */
+    public int getTypeCode() {
+        return typeCode;
+    }
+
+    /**
+     * Finds the column type with a type code.
+     * @param typeCode Type code read from a result header.
+     * @return The column type, or null if no column type has the code.
+     */
+    public static ColumnType fromTypeCode(int typeCode){
+        for (ColumnType columnType : values()){
+            if (columnType.typeCode == typeCode){
+                return columnType;
+            }
+        }
+        return null;
+    }
+}
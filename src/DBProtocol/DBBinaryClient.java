@@ -0,0 +1,145 @@
+package DBProtocol;
+
+import java.io.*;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DBBinaryClient connects to the server with the binary protocol. Statements are sent as frames
+ * and their results are returned as DBQueryResults, so callers do not need to scan replies for
+ * an end of transmission character.
+ */
+public class DBBinaryClient implements Closeable {
+    private static final int MAX_PIPELINED_QUERIES = 256;
+    private final Socket socket;
+    private final DBFrameReader frameReader;
+    private final DBFrameWriter frameWriter;
+    private final int protocolVersion;
+
+    /**
+     * Constructor for a DBBinaryClient. Connects and greets the server.
+     * @param hostName Host of the server.
+     * @param portNumber Port of the server.
+     * @throws IOException Thrown if the connection or greeting fails.
+     */
+    public DBBinaryClient(String hostName, int portNumber) throws IOException {
+        socket = new Socket(hostName, portNumber);
+        socket.setTcpNoDelay(true);
+        frameReader = new DBFrameReader(new BufferedInputStream(socket.getInputStream()));
+        frameWriter = new DBFrameWriter(new BufferedOutputStream(socket.getOutputStream()));
+        frameWriter.writeGreeting();
+        frameWriter.flush();
+        DBFrame helloFrame = frameReader.readFrame();
+        if (helloFrame == null || helloFrame.getFrameType() != FrameType.HELLO){
+            socket.close();
+            throw new IOException("Server did not accept the binary protocol.");
+        }
+        protocolVersion = helloFrame.openPayload().readInt();
+    }
+
+    /**
+     * Returns the protocol version agreed with the server.
+     * @return Protocol version.
+     */
+    public int getProtocolVersion() {
+        return protocolVersion;
+    }
+
+    /**
+     * Performs a statement on the server.
+     * @param commandString Statement to perform.
+     * @return The statement's result. Statements that fail return their error rather than throwing.
+     * @throws IOException Thrown if the connection fails.
+     */
+    public DBQueryResult execute(String commandString) throws IOException {
+        frameWriter.writeQuery(commandString);
+        frameWriter.flush();
+        return frameReader.readQueryResult();
+    }
+
+    /**
+     * Prepares a statement on the server, to be performed by executePrepared. Values to be bound
+     * are written as ? in the statement. Prepared statements last until the connection is closed.
+     * @param statementName Name of the prepared statement.
+     * @param commandString Statement to prepare, ending with a semicolon.
+     * @return The result of PREPARE, holding any error in the statement.
+     * @throws IOException Thrown if the connection fails.
+     */
+    public DBQueryResult prepare(String statementName, String commandString) throws IOException {
+        return execute("PREPARE " + statementName + " AS " + commandString);
+    }
+
+    /**
+     * Performs a prepared statement on the server, binding values to its parameters in order.
+     * @param statementName Name of the prepared statement.
+     * @param parameterValues Values as they are written in statements, such as 42 or 'Bob'.
+     * @return The statement's result. Statements that fail return their error rather than throwing.
+     * @throws IOException Thrown if the connection fails.
+     */
+    public DBQueryResult executePrepared(String statementName, String... parameterValues) throws IOException {
+        if (parameterValues.length == 0){
+            return execute("EXECUTE " + statementName + ";");
+        }
+        return execute("EXECUTE " + statementName + " (" + String.join(", ", parameterValues) + ");");
+    }
+
+    /**
+     * Performs statements on the server in order, sending them ahead of their results so that
+     * they do not wait a round trip each. At most MAX_PIPELINED_QUERIES statements are sent
+     * ahead, so that neither end blocks writing while the other is not reading.
+     * @param commandStrings Statements to perform.
+     * @return Result of each statement, in the same order.
+     * @throws IOException Thrown if the connection fails.
+     */
+    public ArrayList<DBQueryResult> executeBatch(List<String> commandStrings) throws IOException {
+        ArrayList<DBQueryResult> queryResults = new ArrayList<>(commandStrings.size());
+        int numSent = 0;
+        while (queryResults.size() < commandStrings.size()){
+            if (numSent - queryResults.size() <= MAX_PIPELINED_QUERIES / 2){
+                while (numSent < commandStrings.size() && numSent - queryResults.size() < MAX_PIPELINED_QUERIES){
+                    frameWriter.writeQuery(commandStrings.get(numSent++));
+                }
+                frameWriter.flush();
+            }
+            queryResults.add(frameReader.readQueryResult());
+        }
+        return queryResults;
+    }
+
+    /**
+     * Closes the connection.
+     * @throws IOException Thrown if closing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    /**
+     * Reads statements from the command line and prints their results, as DBClient does.
+     * @param args Not used.
+     */
+    public static void main(String[] args){
+        try (DBBinaryClient client = new DBBinaryClient("127.0.0.1", 8888)){
+            BufferedReader commandLine = new BufferedReader(new InputStreamReader(System.in));
+            System.out.print("SQL:> ");
+            String command = commandLine.readLine();
+            while (command != null){
+                DBQueryResult queryResult = client.execute(command);
+                if (queryResult.getErrorCode() != null){
+                    System.out.println("[ERROR] " + queryResult.getMessage());
+                }
+                else {
+                    System.out.println("[OK]");
+                    System.out.print(queryResult.printResult());
+                }
+                System.out.print("SQL:> ");
+                command = commandLine.readLine();
+            }
+        }
+        catch (IOException ioe){
+            System.out.println(ioe);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package DBProtocol;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * DBFrame is a single frame read from the binary protocol: its type and the bytes of its payload.
+ */
+public class DBFrame {
+    private final FrameType frameType;
+    private final byte[] payload;
+
+    /**
+     * Constructor for a DBFrame.
+     * @param frameType Type of the frame.
+     * @param payload Payload of the frame, without its length or type.
+     */
+    public DBFrame(FrameType frameType, byte[] payload){
+        this.frameType = frameType;
+        this.payload = payload;
+    }
+
+    /**
+     * Returns the type of the frame.
+     * @return Type of the frame.
+     */
+    public FrameType getFrameType() {
+        return frameType;
+    }
+
+    /**
+     * Returns a stream reading the frame's payload.
+     * @return Stream over the payload.
+     */
+    public DataInputStream openPayload(){
+        return new DataInputStream(new ByteArrayInputStream(payload));
+    }
+
+    /**
+     * Decodes the frame's payload as UTF-8 text. Used for QUERY and OK frames.
+     * @return The payload as a string.
+     */
+    public String readText(){
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,163 @@
+package DBProtocol;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * DBFrameReader reads the binary protocol written by DBFrameWriter, on either end of a connection.
+ */
+public class DBFrameReader {
+    private final DataInputStream frameInput;
+
+    /**
+     * Constructor for a DBFrameReader.
+     * @param inputStream Stream to read frames from. Should be buffered.
+     */
+    public DBFrameReader(InputStream inputStream){
+        frameInput = new DataInputStream(inputStream);
+    }
+
+    /**
+     * Reads a client's greeting.
+     * @return Newest protocol version supported by the client.
+     * @throws IOException Thrown if reading fails or the greeting is not valid.
+     */
+    public int readGreeting() throws IOException {
+        byte[] greetingMagic = new byte[DBFrameWriter.GREETING_MAGIC.length];
+        frameInput.readFully(greetingMagic);
+        int protocolVersion = frameInput.readInt();
+        if (!Arrays.equals(greetingMagic, DBFrameWriter.GREETING_MAGIC) || protocolVersion < 1){
+            throw new IOException("Connection did not start with a valid greeting.");
+        }
+        return protocolVersion;
+    }
+
+    /**
+     * Reads the next frame.
+     * @return The frame, or null if the stream ended before a new frame.
+     * @throws IOException Thrown if reading fails, the stream ends within a frame or the frame is not valid.
+     */
+    public DBFrame readFrame() throws IOException {
+        int firstByte = frameInput.read();
+        if (firstByte < 0){
+            return null;
+        }
+        int payloadLength = (firstByte << 24) | (frameInput.readUnsignedByte() << 16) | frameInput.readUnsignedShort();
+        FrameType frameType = FrameType.fromTypeCode(frameInput.readUnsignedByte());
+        if (frameType == null || payloadLength < 0 || payloadLength > DBFrameWriter.MAX_FRAME_BYTES){
+            throw new IOException("Frame was not valid.");
+        }
+        byte[] payload = new byte[payloadLength];
+        frameInput.readFully(payload);
+        return new DBFrame(frameType, payload);
+    }
+
+    /**
+     * Reads the frames sent by the server for a single statement.
+     * @return The statement's result, error or return message.
+     * @throws IOException Thrown if reading fails or the frames are not in the expected order.
+     */
+    public DBQueryResult readQueryResult() throws IOException {
+        DBFrame frame = readExpectedFrame();
+        switch (frame.getFrameType()){
+            case OK:
+                return new DBQueryResult(frame.readText());
+            case ERROR:
+                DataInputStream errorPayload = frame.openPayload();
+                ErrorCode errorCode = ErrorCode.fromErrorNumber(errorPayload.readUnsignedShort());
+                return new DBQueryResult(errorCode, readString(errorPayload));
+            case RESULT_HEADER:
+                return readResultRows(frame.openPayload());
+            default:
+                throw new IOException("Unexpected frame from server.");
+        }
+    }
+
+    /**
+     * Reads the next frame, which must exist.
+     * @return The frame.
+     * @throws IOException Thrown if reading fails or the stream has ended.
+     */
+    private DBFrame readExpectedFrame() throws IOException {
+        DBFrame frame = readFrame();
+        if (frame == null){
+            throw new EOFException("Connection closed by server.");
+        }
+        return frame;
+    }
+
+    /**
+     * Reads the rows of a result after its header.
+     * @param headerPayload Payload of the result's header.
+     * @return The result.
+     * @throws IOException Thrown if reading fails or the frames are not in the expected order.
+     */
+    private DBQueryResult readResultRows(DataInputStream headerPayload) throws IOException {
+        int numColumns = headerPayload.readUnsignedShort();
+        String[] columnNames = new String[numColumns];
+        ColumnType[] columnTypes = new ColumnType[numColumns];
+        for (int column = 0; column < numColumns; column++){
+            columnNames[column] = readString(headerPayload);
+            columnTypes[column] = ColumnType.fromTypeCode(headerPayload.readUnsignedByte());
+            if (columnTypes[column] == null){
+                throw new IOException("Unknown column type.");
+            }
+        }
+        ArrayList<Object[]> resultRows = new ArrayList<>();
+        DBFrame frame = readExpectedFrame();
+        while (frame.getFrameType() == FrameType.ROW_BATCH){
+            DataInputStream batchPayload = frame.openPayload();
+            int numRows = batchPayload.readInt();
+            for (int row = 0; row < numRows; row++){
+                Object[] rowValues = new Object[numColumns];
+                for (int column = 0; column < numColumns; column++){
+                    rowValues[column] = readValue(batchPayload, columnTypes[column]);
+                }
+                resultRows.add(rowValues);
+            }
+            frame = readExpectedFrame();
+        }
+        if (frame.getFrameType() != FrameType.RESULT_END || frame.openPayload().readInt() != resultRows.size()){
+            throw new IOException("Result rows did not end correctly.");
+        }
+        return new DBQueryResult(columnNames, columnTypes, resultRows);
+    }
+
+    /**
+     * Reads a value encoded by the type of its column.
+     * @param payload Payload holding the value.
+     * @param columnType Type of the value's column.
+     * @return The value as a String, Integer, Float or Boolean.
+     * @throws IOException Thrown if reading fails.
+     */
+    private Object readValue(DataInputStream payload, ColumnType columnType) throws IOException {
+        switch (columnType){
+            case INTEGER:
+                return payload.readInt();
+            case FLOAT:
+                return payload.readFloat();
+            case BOOLEAN:
+                return payload.readBoolean();
+            default:
+                return readString(payload);
+        }
+    }
+
+    /**
+     * Reads a string written as a length followed by UTF-8 bytes.
+     * @param payload Payload holding the string.
+     * @return The string.
+     * @throws IOException Thrown if reading fails.
+     */
+    private String readString(DataInputStream payload) throws IOException {
+        int valueLength = payload.readInt();
+        if (valueLength < 0){
+            throw new IOException("String length was not valid.");
+        }
+        byte[] valueBytes = new byte[valueLength];
+        payload.readFully(valueBytes);
+        return new String(valueBytes, StandardCharsets.UTF_8);
+    }
+}
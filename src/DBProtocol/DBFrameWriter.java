@@ -0,0 +1,294 @@
+package DBProtocol;
+
+import DBException.*;
+import DBObjects.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * DBFrameWriter writes the binary protocol. A client starts a connection with a greeting of four
+ * magic bytes and the newest protocol version it supports. The first magic byte is zero, which
+ * never starts a text statement, so the server can tell the protocols apart. After the server
+ * replies with a HELLO frame, all messages are frames: a four byte payload length, a one byte
+ * frame type and the payload. Numbers are big-endian.
+ */
+public class DBFrameWriter {
+    public static final byte[] GREETING_MAGIC = {0, 'D', 'B', 'P'};
+    public static final int PROTOCOL_VERSION = 1;
+    public static final int MAX_FRAME_BYTES = 16 * 1024 * 1024;
+    private static final int ROW_BATCH_SIZE = 1024;
+    private final DataOutputStream frameOutput;
+    private final ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+    private final DataOutputStream payload = new DataOutputStream(payloadBytes);
+    private long bytesWritten = 0;
+
+    /**
+     * Constructor for a DBFrameWriter.
+     * @param outputStream Stream to write frames to. Should be buffered.
+     */
+    public DBFrameWriter(OutputStream outputStream){
+        frameOutput = new DataOutputStream(outputStream);
+    }
+
+    /**
+     * Writes a client's greeting.
+     * @throws IOException Thrown if writing fails.
+     */
+    public void writeGreeting() throws IOException {
+        frameOutput.write(GREETING_MAGIC);
+        frameOutput.writeInt(PROTOCOL_VERSION);
+    }
+
+    /**
+     * Writes the server's reply to a greeting.
+     * @param protocolVersion Protocol version used for the connection.
+     * @throws IOException Thrown if writing fails.
+     */
+    public void writeHello(int protocolVersion) throws IOException {
+        payload.writeInt(protocolVersion);
+        writeFrame(FrameType.HELLO);
+    }
+
+    /**
+     * Writes a statement for the server to perform.
+     * @param commandString Statement to perform.
+     * @throws IOException Thrown if writing fails.
+     */
+    public void writeQuery(String commandString) throws IOException {
+        payload.write(commandString.getBytes(StandardCharsets.UTF_8));
+        writeFrame(FrameType.QUERY);
+    }
+
+    /**
+     * Writes the end of a statement that did not return rows.
+     * @param returnMessage Message returned by the statement, or null if there is none.
+     * @throws IOException Thrown if writing fails.
+     */
+    public void writeOk(String returnMessage) throws IOException {
+        if (returnMessage != null){
+            payload.write(returnMessage.getBytes(StandardCharsets.UTF_8));
+        }
+        writeFrame(FrameType.OK);
+    }
+
+    /**
+     * Writes the end of a statement that failed.
+     * @param dbException Exception thrown by the statement.
+     * @throws IOException Thrown if writing fails.
+     */
+    public void writeError(DBException dbException) throws IOException {
+        payload.writeShort(ErrorCode.fromException(dbException).getErrorNumber());
+        writeString(String.valueOf(dbException));
+        writeFrame(FrameType.ERROR);
+    }
+
+    /**
+     * Writes the rows of a result: a header with each column's name and type, batches of rows,
+     * and the number of rows written.
+     * @param resultSet Result to write.
+     * @throws IOException Thrown if writing fails.
+     */
+    public void writeResultSet(DBResultSet resultSet) throws IOException {
+        ColumnType[] columnTypes = findColumnTypes(resultSet);
+        payload.writeShort(resultSet.getNumColumns());
+        for (int column = 0; column < columnTypes.length; column++){
+            writeString(resultSet.getColumnName(column));
+            payload.writeByte(columnTypes[column].getTypeCode());
+        }
+        writeFrame(FrameType.RESULT_HEADER);
+        for (int batchStart = 0; batchStart < resultSet.getNumRows(); batchStart += ROW_BATCH_SIZE){
+            int batchEnd = Math.min(batchStart + ROW_BATCH_SIZE, resultSet.getNumRows());
+            payload.writeInt(batchEnd - batchStart);
+            for (int row = batchStart; row < batchEnd; row++){
+                for (int column = 0; column < columnTypes.length; column++){
+                    writeValue(resultSet.getValue(row, column), columnTypes[column]);
+                }
+            }
+            writeFrame(FrameType.ROW_BATCH);
+        }
+        payload.writeInt(resultSet.getNumRows());
+        writeFrame(FrameType.RESULT_END);
+    }
+
+    /**
+     * Flushes written frames to the stream.
+     * @throws IOException Thrown if flushing fails.
+     */
+    public void flush() throws IOException {
+        frameOutput.flush();
+    }
+
+    /**
+     * Returns the number of bytes of frames written so far, including their headers.
+     * @return Number of bytes written.
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Writes the frame held in the payload buffer, then empties the buffer.
+     * @param frameType Type of the frame.
+     * @throws IOException Thrown if writing fails or the payload is too large.
+     */
+    private void writeFrame(FrameType frameType) throws IOException {
+        if (payloadBytes.size() > MAX_FRAME_BYTES){
+            payloadBytes.reset();
+            throw new IOException("Frame was too large.");
+        }
+        frameOutput.writeInt(payloadBytes.size());
+        frameOutput.writeByte(frameType.getTypeCode());
+        payloadBytes.writeTo(frameOutput);
+        bytesWritten += 5 + payloadBytes.size();
+        payloadBytes.reset();
+    }
+
+    /**
+     * Writes a string to the payload as a length followed by UTF-8 bytes.
+     * @param value String to write.
+     * @throws IOException Thrown if writing fails.
+     */
+    private void writeString(String value) throws IOException {
+        byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        payload.writeInt(valueBytes.length);
+        payload.write(valueBytes);
+    }
+
+    /**
+     * Writes a value to the payload, encoded by the type of its column.
+     * @param value Value as stored.
+     * @param columnType Type of the value's column.
+     * @throws IOException Thrown if writing fails.
+     */
+    private void writeValue(String value, ColumnType columnType) throws IOException {
+        switch (columnType){
+            case STRING:
+                writeString(value.substring(1, value.length() - 1));
+                break;
+            case INTEGER:
+                payload.writeInt(Integer.parseInt(value));
+                break;
+            case FLOAT:
+                payload.writeFloat(Float.parseFloat(value));
+                break;
+            case BOOLEAN:
+                payload.writeBoolean(value.equals("true"));
+                break;
+            default:
+                writeString(value);
+        }
+    }
+
+    /**
+     * Finds the type of each column of a result. A column whose values are not all of one type is TEXT.
+     * @param resultSet Result to check.
+     * @return Type of each column.
+     */
+    private static ColumnType[] findColumnTypes(DBResultSet resultSet){
+        ColumnType[] columnTypes = new ColumnType[resultSet.getNumColumns()];
+        for (int column = 0; column < columnTypes.length; column++){
+            columnTypes[column] = resultSet.getNumRows() == 0 ? ColumnType.TEXT : findValueType(resultSet.getValue(0, column));
+            for (int row = 1; row < resultSet.getNumRows() && columnTypes[column] != ColumnType.TEXT; row++){
+                if (findValueType(resultSet.getValue(row, column)) != columnTypes[column]){
+                    columnTypes[column] = ColumnType.TEXT;
+                }
+            }
+        }
+        return columnTypes;
+    }
+
+    /**
+     * Finds the type that encodes a value exactly. Numbers must be printed as Java prints them,
+     * so that a decoded value prints as it is stored.
+     * @param value Value as stored.
+     * @return Type of the value.
+     */
+    private static ColumnType findValueType(String value){
+        if (value.equals("true") || value.equals("false")){
+            return ColumnType.BOOLEAN;
+        }
+        if (value.isEmpty()){
+            return ColumnType.TEXT;
+        }
+        char firstChar = value.charAt(0);
+        if (Character.isDigit(firstChar) || firstChar == '-'){
+            try {
+                if (value.indexOf('.') < 0 && Integer.toString(Integer.parseInt(value)).equals(value)){
+                    return ColumnType.INTEGER;
+                }
+                if (value.indexOf('.') >= 0 && Float.toString(Float.parseFloat(value)).equals(value)){
+                    return ColumnType.FLOAT;
+                }
+            }
+            catch (NumberFormatException nfe){
+                return ColumnType.TEXT;
+            }
+            return ColumnType.TEXT;
+        }
+        if (isStringLiteral(value)){
+            return ColumnType.STRING;
+        }
+        return ColumnType.TEXT;
+    }
+
+    /**
+     * Determines if a value is a string literal: wrapped in single quotes, without single quotes
+     * or tabs inside.
+     * @param value Value to check.
+     * @return Returns true if the value is a string literal.
+     */
+    private static boolean isStringLiteral(String value){
+        int lastIndex = value.length() - 1;
+        if (lastIndex < 1 || value.charAt(0) != '\'' || value.charAt(lastIndex) != '\''){
+            return false;
+        }
+        for (int i = 1; i < lastIndex; i++){
+            if (value.charAt(i) == '\'' || value.charAt(i) == '\t'){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Testing for DBFrameWriter and DBFrameReader.
+     */
+    public static void test(){
+        try {
+            ArrayList<TableRow> testRows = new ArrayList<>();
+            testRows.add(new TableRow(new String[]{"1", "'Bob'", "12.5", "true", "007"}));
+            testRows.add(new TableRow(new String[]{"2", "'Sue'", "-3.25", "false", "7"}));
+            DBResultSet testResult = new DBResultSet(new String[]{"id", "name", "score", "pass", "code"}, testRows);
+            ByteArrayOutputStream frameBytes = new ByteArrayOutputStream();
+            DBFrameWriter testWriter = new DBFrameWriter(frameBytes);
+            testWriter.writeGreeting();
+            testWriter.writeResultSet(testResult);
+            testWriter.writeError(new DBObjectDoesNotExistException("Could not find table."));
+            testWriter.writeOk(null);
+            testWriter.flush();
+            DBFrameReader testReader = new DBFrameReader(new ByteArrayInputStream(frameBytes.toByteArray()));
+            int testVersion = testReader.readGreeting();
+            assert testVersion == PROTOCOL_VERSION;
+            DBQueryResult queryResult = testReader.readQueryResult();
+            assert queryResult.getErrorCode() == null;
+            assert queryResult.getColumnTypes()[0] == ColumnType.INTEGER;
+            assert queryResult.getColumnTypes()[1] == ColumnType.STRING;
+            assert queryResult.getColumnTypes()[2] == ColumnType.FLOAT;
+            assert queryResult.getColumnTypes()[3] == ColumnType.BOOLEAN;
+            assert queryResult.getColumnTypes()[4] == ColumnType.TEXT;
+            assert queryResult.getRows().get(1)[1].equals("Sue");
+            assert queryResult.printResult().equals(testResult.printResult());
+            DBQueryResult errorResult = testReader.readQueryResult();
+            assert errorResult.getErrorCode() == ErrorCode.OBJECT_DOES_NOT_EXIST;
+            assert errorResult.getMessage().equals("Could not find table.");
+            DBQueryResult okResult = testReader.readQueryResult();
+            assert okResult.getErrorCode() == null && okResult.getMessage().isEmpty();
+            assert testReader.readFrame() == null;
+        }
+        catch (IOException ioe){
+            System.out.println("Error testing DBFrameWriter.");
+        }
+        System.out.println("DBFrameWriter passed.");
+    }
+}
@@ -0,0 +1,129 @@
+package DBProtocol;
+
+import java.util.ArrayList;
+
+/**
+ * DBQueryResult is the outcome of a statement read from the binary protocol: either the rows it
+ * returned, a return message, or an error.
+ */
+public class DBQueryResult {
+    private final ErrorCode errorCode;
+    private final String message;
+    private final String[] columnNames;
+    private final ColumnType[] columnTypes;
+    private final ArrayList<Object[]> resultRows;
+
+    /**
+     * Constructor for a statement that succeeded without returning rows.
+     * @param message Message returned by the statement. Empty if there was none.
+     */
+    public DBQueryResult(String message){
+        this(null, message, null, null, null);
+    }
+
+    /**
+     * Constructor for a statement that failed.
+     * @param errorCode Kind of error.
+     * @param message Error message.
+     */
+    public DBQueryResult(ErrorCode errorCode, String message){
+        this(errorCode, message, null, null, null);
+    }
+
+    /**
+     * Constructor for a statement that returned rows.
+     * @param columnNames Name of each column.
+     * @param columnTypes Type of each column.
+     * @param resultRows Values of each row.
+     */
+    public DBQueryResult(String[] columnNames, ColumnType[] columnTypes, ArrayList<Object[]> resultRows){
+        this(null, "", columnNames, columnTypes, resultRows);
+    }
+
+    /**
+     * Constructor used by the other constructors.
+     * @param errorCode Kind of error, or null if the statement succeeded.
+     * @param message Return or error message.
+     * @param columnNames Name of each column, or null without rows.
+     * @param columnTypes Type of each column, or null without rows.
+     * @param resultRows Values of each row, or null without rows.
+     */
+    private DBQueryResult(ErrorCode errorCode, String message, String[] columnNames, ColumnType[] columnTypes,
+                          ArrayList<Object[]> resultRows){
+        this.errorCode = errorCode;
+        this.message = message;
+        this.columnNames = columnNames;
+        this.columnTypes = columnTypes;
+        this.resultRows = resultRows;
+    }
+
+    /**
+     * Returns the kind of error that made the statement fail.
+     * @return Error code, or null if the statement succeeded.
+     */
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+
+    /**
+     * Returns the statement's return message, or its error message if it failed.
+     * @return The message.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Returns the names of the result's columns.
+     * @return Column names, or null if the statement did not return rows.
+     */
+    public String[] getColumnNames() {
+        return columnNames;
+    }
+
+    /**
+     * Returns the types of the result's columns.
+     * @return Column types, or null if the statement did not return rows.
+     */
+    public ColumnType[] getColumnTypes() {
+        return columnTypes;
+    }
+
+    /**
+     * Returns the rows of the result. Values are Strings, Integers, Floats or Booleans, depending
+     * on the type of their column. STRING values do not have their single quotes.
+     * @return Rows of the result, or null if the statement did not return rows.
+     */
+    public ArrayList<Object[]> getRows() {
+        return resultRows;
+    }
+
+    /**
+     * Prints the result as the text protocol does, with a line of column names followed by
+     * tab-delimited rows. Statements without rows print their message.
+     * @return Printable string of the result.
+     */
+    public String printResult(){
+        if (resultRows == null){
+            return message;
+        }
+        StringBuilder returnString = new StringBuilder();
+        for (String columnName : columnNames){
+            returnString.append(columnName).append("\t");
+        }
+        returnString.append(System.lineSeparator());
+        for (Object[] rowValues : resultRows){
+            for (int column = 0; column < rowValues.length; column++){
+                if (columnTypes[column] == ColumnType.STRING){
+                    returnString.append('\'').append(rowValues[column]).append('\'');
+                }
+                else {
+                    returnString.append(rowValues[column]);
+                }
+                returnString.append("\t");
+            }
+            returnString.append(System.lineSeparator());
+        }
+        return returnString.toString();
+    }
+}
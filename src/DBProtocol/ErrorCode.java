@@ -0,0 +1,100 @@
+package DBProtocol;
+
+import DBException.*;
+
+/**
+ * Used to identify the kind of error that made a statement fail, so clients do not need to
+ * read error messages.
+ * UNKNOWN : An error without a more specific code.
+ * INVALID_COMMAND : The statement was not a recognised command.
+ * INVALID_ARGUMENT : An argument of the command was invalid.
+ * INVALID_ALTER_TYPE : An ALTER command used an unknown alteration.
+ * INVALID_OBJECT_NAME : A database, table or attribute name was invalid.
+ * INVALID_VALUE_WIDTH : A row had the wrong number of values.
+ * CONDITION_FORM : The conditions of the command were not of the correct form.
+ * NON_TERMINATING : The statement was not terminated.
+ * OBJECT_DOES_NOT_EXIST : A database, table or attribute could not be found.
+ * OUT_OF_RANGE : A value was out of range.
+ * NOT_USING_DATABASE : The command needs a working database, but none was selected.
+ * SERVER_ERROR : The server failed to store or read data.
+ * INVALID_VALUE_TYPE : A value did not match the type of its attribute.
+ */
+public enum ErrorCode {
+    UNKNOWN(0), INVALID_COMMAND(1), INVALID_ARGUMENT(2), INVALID_ALTER_TYPE(3), INVALID_OBJECT_NAME(4),
+    INVALID_VALUE_WIDTH(5), CONDITION_FORM(6), NON_TERMINATING(7), OBJECT_DOES_NOT_EXIST(8),
+    OUT_OF_RANGE(9), NOT_USING_DATABASE(10), SERVER_ERROR(11),
+    INVALID_VALUE_TYPE(12);
+
+    private final int errorNumber;
+
+    ErrorCode(int errorNumber){
+        this.errorNumber = errorNumber;
+    }
+
+    /**
+     * Returns the number sent for this error code.
+     * @return Error number.
+     */
+    public int getErrorNumber() {
+        return errorNumber;
+    }
+
+    /**
+     * Finds the error code with an error number.
+     * @param errorNumber Error number read from an error frame.
+     * @return The error code, or UNKNOWN if no error code has the number.
+     */
+    public static ErrorCode fromErrorNumber(int errorNumber){
+        for (ErrorCode errorCode : values()){
+            if (errorCode.errorNumber == errorNumber){
+                return errorCode;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Finds the error code for an exception thrown by a statement.
+     * @param dbException Exception thrown by the statement.
+     * @return The matching error code.
+     */
+    public static ErrorCode fromException(DBException dbException){
+        if (dbException instanceof DBInvalidAlterType){
+            return INVALID_ALTER_TYPE;
+        }
+        if (dbException instanceof InvalidCommandArgumentException){
+            return INVALID_ARGUMENT;
+        }
+        if (dbException instanceof DBInvalidCommandException){
+            return INVALID_COMMAND;
+        }
+        if (dbException instanceof DBInvalidObjectName){
+            return INVALID_OBJECT_NAME;
+        }
+        if (dbException instanceof DBInvalidValueWidthException){
+            return INVALID_VALUE_WIDTH;
+        }
+        if (dbException instanceof DBInvalidValueTypeException){
+            return INVALID_VALUE_TYPE;
+        }
+        if (dbException instanceof DBConditionFormException){
+            return CONDITION_FORM;
+        }
+        if (dbException instanceof DBNonTerminatingException){
+            return NON_TERMINATING;
+        }
+        if (dbException instanceof DBObjectDoesNotExistException){
+            return OBJECT_DOES_NOT_EXIST;
+        }
+        if (dbException instanceof DBOutOfRangeException){
+            return OUT_OF_RANGE;
+        }
+        if (dbException instanceof NotUsingDBException){
+            return NOT_USING_DATABASE;
+        }
+        if (dbException instanceof DBServerException){
+            return SERVER_ERROR;
+        }
+        return UNKNOWN;
+    }
+}
@@ -0,0 +1,43 @@
+package DBProtocol;
+
+/**
+ * Used to determine what a frame of the binary protocol holds.
+ * QUERY : Sent by clients. Holds a statement as UTF-8.
+ * HELLO : Sent by the server after a client's greeting. Holds the protocol version in use.
+ * OK : Ends a statement that does not return rows. Holds any return message as UTF-8.
+ * ERROR : Ends a statement that failed. Holds an error code and message.
+ * RESULT_HEADER : Starts the rows of a statement. Holds the name and type of each column.
+ * ROW_BATCH : Holds a number of rows, with each value encoded by its column's type.
+ * RESULT_END : Ends the rows of a statement. Holds the total number of rows.
+ */
+public enum FrameType {
+    QUERY(1), HELLO(2), OK(3), ERROR(4), RESULT_HEADER(5), ROW_BATCH(6), RESULT_END(7);
+
+    private final int typeCode;
+
+    FrameType(int typeCode){
+        this.typeCode = typeCode;
+    }
+
+    /**
+     * Returns the byte identifying frames of this type.
+     * @return Type code of the frame.
+     */
+    public int getTypeCode() {
+        return typeCode;
+    }
+
+    /**
+     * Finds the frame type with a type code.
+     * @param typeCode Type code read from a frame.
+     * @return The frame type, or null if no frame type has the code.
+     */
+    public static FrameType fromTypeCode(int typeCode){
+        for (FrameType frameType : values()){
+            if (frameType.typeCode == typeCode){
+                return frameType;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,587 @@
+import DBObjects.DBSession;
+import DBProtocol.*;
+
+import java.io.*;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * DBSelectorServer is a non-blocking front end for the server. A few I/O threads each watch many
+ * connections with a Selector, and hand complete statements to a bounded pool of worker threads,
+ * so idle or slow connections do not hold a thread. Each connection has its own session and
+ * performs one statement at a time, in the order its statements arrived. Replies are the same
+ * as those of DBServer, and connections starting with a binary greeting use the binary protocol.
+ * When the worker queue is full, statements wait on their connection until it has room. A
+ * connection with too many waiting statements, or too much unsent output, is not read from
+ * until it catches up, which slows the client through TCP flow control.
+ * Clients may pipeline statements without waiting for replies. While a connection still has
+ * statements to perform, its replies are held back and written together, unless too many build up.
+ * Replies are encoded in chunks as they are produced. A worker whose connection has too much
+ * unsent output waits for the client to read it, so a large result never needs to be held whole.
+ */
+public class DBSelectorServer {
+    private static final int MAX_LINE_BYTES = 16 * 1024 * 1024;
+    private static final int MAX_PENDING_LINES = 16;
+    private static final int MAX_UNSENT_BYTES = 1024 * 1024;
+    private static final int HELD_REPLY_BYTES = 64 * 1024;
+    private static final int REPLY_CHUNK_BYTES = 64 * 1024;
+    private static final long STALL_RETRY_MILLIS = 5;
+    private static final int GREETING_BYTES = 8;
+    private static final int FRAME_HEADER_BYTES = 5;
+    private final Charset socketCharset = Charset.defaultCharset();
+    private final ThreadPoolExecutor workerPool;
+    private final SelectorLoop[] selectorLoops;
+
+    /**
+     * Constructor for a DBSelectorServer. Accepts connections until the server fails. Thread
+     * counts and the worker queue size can be set with the DBServer.ioThreads, DBServer.workers
+     * and DBServer.workQueue properties.
+     * @param portNumber Port to listen on.
+     */
+    public DBSelectorServer(int portNumber){
+        int numProcessors = Runtime.getRuntime().availableProcessors();
+        int numWorkers = Integer.getInteger("DBServer.workers", numProcessors * 2);
+        workerPool = new ThreadPoolExecutor(numWorkers, numWorkers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Integer.getInteger("DBServer.workQueue", 1024)),
+                new ThreadPoolExecutor.AbortPolicy());
+        selectorLoops = new SelectorLoop[Integer.getInteger("DBServer.ioThreads", Math.max(1, numProcessors / 4))];
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open()){
+            for (int i = 0; i < selectorLoops.length; i++){
+                selectorLoops[i] = new SelectorLoop();
+                Thread loopThread = new Thread(selectorLoops[i], "DBSelector-" + i);
+                loopThread.start();
+            }
+            serverChannel.bind(new InetSocketAddress(portNumber));
+            System.out.println("Server Listening");
+            acceptConnections(serverChannel);
+        }
+        catch (IOException ioe){
+            System.err.println("File handling exception.");
+        }
+    }
+
+    /**
+     * Accepts connections and shares them between the selector loops in turn.
+     * @param serverChannel Channel of the listening socket.
+     * @throws IOException Thrown if the listening socket fails.
+     */
+    private void acceptConnections(ServerSocketChannel serverChannel) throws IOException {
+        int nextLoop = 0;
+        while (true){
+            SocketChannel clientChannel = serverChannel.accept();
+            clientChannel.configureBlocking(false);
+            clientChannel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            SelectorLoop selectorLoop = selectorLoops[nextLoop];
+            nextLoop = (nextLoop + 1) % selectorLoops.length;
+            selectorLoop.execute(() -> selectorLoop.register(clientChannel));
+        }
+    }
+
+    /**
+     * SelectorLoop is an I/O thread serving the connections registered with its selector. All of
+     * a connection's state is changed on its loop's thread. Workers pass results back as tasks.
+     */
+    private class SelectorLoop implements Runnable {
+        private final Selector selector;
+        private final ConcurrentLinkedQueue<Runnable> loopTasks = new ConcurrentLinkedQueue<>();
+        private final ArrayList<Connection> stalledConnections = new ArrayList<>();
+
+        /**
+         * Constructor for a SelectorLoop.
+         * @throws IOException Thrown if the selector could not be opened.
+         */
+        private SelectorLoop() throws IOException {
+            selector = Selector.open();
+        }
+
+        /**
+         * Runs a task on the loop's thread.
+         * @param loopTask Task to run.
+         */
+        private void execute(Runnable loopTask){
+            loopTasks.add(loopTask);
+            selector.wakeup();
+        }
+
+        /**
+         * Starts serving a new connection.
+         * @param clientChannel Channel of the connection.
+         */
+        private void register(SocketChannel clientChannel){
+            try {
+                Connection connection = new Connection(this, clientChannel);
+                connection.selectionKey = clientChannel.register(selector, SelectionKey.OP_READ, connection);
+                System.out.println("Connection Established");
+            }
+            catch (ClosedChannelException cce){
+                System.out.println("Connection Lost");
+            }
+        }
+
+        /**
+         * Waits for connections to be ready, then reads and writes them. Loops while the server runs.
+         */
+        @Override
+        public void run(){
+            while (true){
+                try {
+                    selector.select(stalledConnections.isEmpty() ? 0 : STALL_RETRY_MILLIS);
+                }
+                catch (IOException ioe){
+                    System.err.println("File handling exception.");
+                    return;
+                }
+                Runnable loopTask;
+                while ((loopTask = loopTasks.poll()) != null){
+                    loopTask.run();
+                }
+                retryStalledConnections();
+                Iterator<SelectionKey> readyKeys = selector.selectedKeys().iterator();
+                while (readyKeys.hasNext()){
+                    SelectionKey readyKey = readyKeys.next();
+                    readyKeys.remove();
+                    ((Connection) readyKey.attachment()).handleReady(readyKey);
+                }
+            }
+        }
+
+        /**
+         * Tries again to pass waiting statements to the worker pool.
+         */
+        private void retryStalledConnections(){
+            if (stalledConnections.isEmpty()){
+                return;
+            }
+            ArrayList<Connection> retryConnections = new ArrayList<>(stalledConnections);
+            stalledConnections.clear();
+            for (Connection connection : retryConnections){
+                connection.dispatchNextLine();
+            }
+        }
+    }
+
+    /**
+     * Connection holds the state of a single client connection: its session, the bytes of a
+     * partly read line or frame, statements waiting to be performed and replies waiting to be sent.
+     */
+    private class Connection {
+        private final SelectorLoop selectorLoop;
+        private final SocketChannel clientChannel;
+        private final DBSession session = new DBSession();
+        private final ByteBuffer readBuffer = ByteBuffer.allocate(8192);
+        private final ArrayDeque<String> pendingLines = new ArrayDeque<>();
+        private final ArrayDeque<ByteBuffer> unsentReplies = new ArrayDeque<>();
+        private SelectionKey selectionKey;
+        private byte[] lineBytes = new byte[256];
+        private int lineLength = 0;
+        private long unsentBytes = 0;
+        private long streamedBytes = 0;
+        private Boolean binaryProtocol = null;
+        private boolean greeted = false;
+        private boolean performing = false;
+        private boolean inputEnded = false;
+
+        /**
+         * Constructor for a Connection.
+         * @param selectorLoop Loop serving the connection.
+         * @param clientChannel Channel of the connection.
+         */
+        private Connection(SelectorLoop selectorLoop, SocketChannel clientChannel){
+            this.selectorLoop = selectorLoop;
+            this.clientChannel = clientChannel;
+        }
+
+        /**
+         * Reads or writes the connection when its channel is ready.
+         * @param readyKey Selection key of the channel.
+         */
+        private void handleReady(SelectionKey readyKey){
+            try {
+                if (readyKey.isValid() && readyKey.isReadable()){
+                    readLines();
+                }
+                if (readyKey.isValid() && readyKey.isWritable()){
+                    writeReplies();
+                }
+            }
+            catch (IOException ioe){
+                close();
+            }
+        }
+
+        /**
+         * Reads available bytes and queues each complete line or query frame as a statement.
+         * The first byte of the connection decides which protocol it uses.
+         * @throws IOException Thrown if the channel could not be read, or a line or frame is not valid.
+         */
+        private void readLines() throws IOException {
+            int numRead = clientChannel.read(readBuffer);
+            if (numRead < 0){
+                inputEnded = true;
+                updateInterest();
+                return;
+            }
+            readBuffer.flip();
+            while (readBuffer.hasRemaining()){
+                byte nextByte = readBuffer.get();
+                if (binaryProtocol == null){
+                    binaryProtocol = nextByte == DBFrameWriter.GREETING_MAGIC[0];
+                }
+                if (binaryProtocol){
+                    appendFrameByte(nextByte);
+                }
+                else if (nextByte == '\n'){
+                    pendingLines.add(decodeLine());
+                }
+                else {
+                    appendLineByte(nextByte);
+                }
+            }
+            readBuffer.clear();
+            dispatchNextLine();
+            updateInterest();
+        }
+
+        /**
+         * Adds a byte to the line being read.
+         * @param nextByte Byte to add.
+         * @throws IOException Thrown if the line is longer than the server accepts.
+         */
+        private void appendLineByte(byte nextByte) throws IOException {
+            if (lineLength == lineBytes.length){
+                if (lineLength >= MAX_LINE_BYTES){
+                    throw new IOException("Statement was too long.");
+                }
+                lineBytes = Arrays.copyOf(lineBytes, lineLength * 2);
+            }
+            lineBytes[lineLength++] = nextByte;
+        }
+
+        /**
+         * Adds a byte of the binary protocol. Once the greeting is complete, queues the HELLO
+         * reply. Once a frame is complete, queues its statement.
+         * @param nextByte Byte to add.
+         * @throws IOException Thrown if the greeting or frame is not valid.
+         */
+        private void appendFrameByte(byte nextByte) throws IOException {
+            appendLineByte(nextByte);
+            if (!greeted){
+                if (lineLength == GREETING_BYTES){
+                    acceptGreeting();
+                }
+                return;
+            }
+            if (lineLength < FRAME_HEADER_BYTES){
+                return;
+            }
+            int payloadLength = ((lineBytes[0] & 0xFF) << 24) | ((lineBytes[1] & 0xFF) << 16)
+                    | ((lineBytes[2] & 0xFF) << 8) | (lineBytes[3] & 0xFF);
+            if (lineLength == FRAME_HEADER_BYTES && (FrameType.fromTypeCode(lineBytes[4] & 0xFF) != FrameType.QUERY
+                    || payloadLength < 0 || payloadLength > MAX_LINE_BYTES - FRAME_HEADER_BYTES)){
+                throw new IOException("Client sent a frame that was not a valid query.");
+            }
+            if (lineLength == FRAME_HEADER_BYTES + payloadLength){
+                pendingLines.add(new String(lineBytes, FRAME_HEADER_BYTES, payloadLength, StandardCharsets.UTF_8));
+                lineLength = 0;
+            }
+        }
+
+        /**
+         * Checks the client's greeting and queues the server's HELLO reply. The reply is counted
+         * with the streamed bytes, as every sent byte is released from them.
+         * @throws IOException Thrown if the greeting is not valid.
+         */
+        private void acceptGreeting() throws IOException {
+            DBFrameReader greetingReader = new DBFrameReader(new ByteArrayInputStream(lineBytes, 0, lineLength));
+            int clientVersion = greetingReader.readGreeting();
+            ByteArrayOutputStream helloBytes = new ByteArrayOutputStream();
+            DBFrameWriter helloWriter = new DBFrameWriter(helloBytes);
+            helloWriter.writeHello(Math.min(clientVersion, DBFrameWriter.PROTOCOL_VERSION));
+            helloWriter.flush();
+            unsentReplies.add(ByteBuffer.wrap(helloBytes.toByteArray()));
+            unsentBytes += helloBytes.size();
+            synchronized (this){
+                streamedBytes += helloBytes.size();
+            }
+            greeted = true;
+            lineLength = 0;
+        }
+
+        /**
+         * Decodes the line that has been read, without its line terminator.
+         * @return The decoded line.
+         */
+        private String decodeLine(){
+            int decodedLength = lineLength > 0 && lineBytes[lineLength - 1] == '\r' ? lineLength - 1 : lineLength;
+            String line = new String(lineBytes, 0, decodedLength, socketCharset);
+            lineLength = 0;
+            return line;
+        }
+
+        /**
+         * Passes the next waiting statement to the worker pool, unless one is being performed.
+         * If the pool is full, the connection waits for the loop to try again.
+         */
+        private void dispatchNextLine(){
+            if (performing || pendingLines.isEmpty() || !clientChannel.isOpen()){
+                return;
+            }
+            String nextLine = pendingLines.peek();
+            try {
+                workerPool.execute(() -> performLine(nextLine));
+            }
+            catch (RejectedExecutionException ree){
+                selectorLoop.stalledConnections.add(this);
+                return;
+            }
+            pendingLines.poll();
+            performing = true;
+            updateInterest();
+        }
+
+        /**
+         * Performs a statement on a worker thread. Its reply is passed back to the loop in chunks,
+         * followed by the statement's completion.
+         * @param line Statement to perform.
+         */
+        private void performLine(String line){
+            try (ReplyStream replyStream = new ReplyStream()){
+                if (binaryProtocol){
+                    DBFrameWriter replyWriter = new DBFrameWriter(replyStream);
+                    DBServer.performBinaryCommand(session, line, replyWriter);
+                    replyWriter.flush();
+                }
+                else {
+                    Writer replyWriter = new OutputStreamWriter(replyStream, socketCharset);
+                    DBServer.writeCommandReply(session, line, replyWriter);
+                    replyWriter.flush();
+                }
+            }
+            catch (IOException ioe){
+                selectorLoop.execute(this::close);
+            }
+            finally {
+                selectorLoop.execute(this::completeLine);
+            }
+        }
+
+        /**
+         * Passes a chunk of a reply to the loop. Waits while the connection has too much unsent
+         * output, so a worker cannot produce a reply faster than the client reads it.
+         * @param chunk Encoded chunk of a reply.
+         * @throws IOException Thrown if the connection was closed.
+         */
+        private void streamReplyChunk(ByteBuffer chunk) throws IOException {
+            synchronized (this){
+                while (streamedBytes >= MAX_UNSENT_BYTES && clientChannel.isOpen()){
+                    try {
+                        wait();
+                    }
+                    catch (InterruptedException ie){
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while streaming a reply.");
+                    }
+                }
+                if (!clientChannel.isOpen()){
+                    throw new ClosedChannelException();
+                }
+                streamedBytes += chunk.remaining();
+            }
+            selectorLoop.execute(() -> queueReply(chunk));
+        }
+
+        /**
+         * Marks bytes of streamed replies as sent, waking a worker waiting to stream more.
+         * @param numSent Number of bytes sent.
+         */
+        private synchronized void releaseStreamedBytes(long numSent){
+            streamedBytes -= numSent;
+            notifyAll();
+        }
+
+        /**
+         * Queues a chunk of a reply. It is written at once unless replies are being held.
+         * @param reply Encoded chunk of a reply.
+         */
+        private void queueReply(ByteBuffer reply){
+            if (!clientChannel.isOpen()){
+                return;
+            }
+            unsentReplies.add(reply);
+            unsentBytes += reply.remaining();
+            flushReplies();
+        }
+
+        /**
+         * Marks the statement being performed as complete and starts the next statement.
+         */
+        private void completeLine(){
+            performing = false;
+            if (!clientChannel.isOpen()){
+                return;
+            }
+            dispatchNextLine();
+            flushReplies();
+        }
+
+        /**
+         * Writes waiting replies unless they are being held.
+         */
+        private void flushReplies(){
+            if (holdsReplies()){
+                updateInterest();
+                return;
+            }
+            try {
+                writeReplies();
+            }
+            catch (IOException ioe){
+                close();
+            }
+        }
+
+        /**
+         * Determines if replies should wait to be written with those of the statements still to be performed.
+         * @return Returns true while statements are being performed and few reply bytes are waiting.
+         */
+        private boolean holdsReplies(){
+            return performing && unsentBytes < HELD_REPLY_BYTES;
+        }
+
+        /**
+         * Writes as much of the waiting replies as the channel accepts, in a single gathering write.
+         * @throws IOException Thrown if the channel could not be written.
+         */
+        private void writeReplies() throws IOException {
+            if (!unsentReplies.isEmpty()){
+                long numSent = clientChannel.write(unsentReplies.toArray(new ByteBuffer[0]));
+                unsentBytes -= numSent;
+                releaseStreamedBytes(numSent);
+                while (!unsentReplies.isEmpty() && !unsentReplies.peek().hasRemaining()){
+                    unsentReplies.poll();
+                }
+            }
+            updateInterest();
+        }
+
+        /**
+         * Updates the events the loop waits for. Reading stops while the connection has too many
+         * waiting statements or too much unsent output, and writing waits while replies are held.
+         * Closes the connection once its input has ended and all of its statements have been answered.
+         */
+        private void updateInterest(){
+            if (!selectionKey.isValid()){
+                return;
+            }
+            if (inputEnded && !performing && pendingLines.isEmpty() && unsentReplies.isEmpty()){
+                close();
+                return;
+            }
+            boolean canRead = !inputEnded && pendingLines.size() < MAX_PENDING_LINES && unsentBytes < MAX_UNSENT_BYTES;
+            int interestOps = (canRead ? SelectionKey.OP_READ : 0) | (unsentReplies.isEmpty() || holdsReplies() ? 0 : SelectionKey.OP_WRITE);
+            selectionKey.interestOps(interestOps);
+        }
+
+        /**
+         * Closes the connection and wakes a worker waiting to stream a reply. A statement being
+         * performed still completes, but its reply is dropped.
+         */
+        private void close(){
+            if (!clientChannel.isOpen()){
+                return;
+            }
+            selectionKey.cancel();
+            try {
+                clientChannel.close();
+            }
+            catch (IOException ioe){
+                System.err.println("File handling exception.");
+            }
+            releaseStreamedBytes(0);
+            System.out.println("Connection Lost");
+        }
+
+        /**
+         * ReplyStream collects a reply as a worker encodes it, and streams it to the loop in chunks.
+         * Its first chunk starts small, as most replies are short.
+         */
+        private class ReplyStream extends OutputStream {
+            private byte[] chunkBytes = new byte[256];
+            private int chunkLength = 0;
+
+            /**
+             * Adds a byte to the reply.
+             * @param b Byte to add.
+             * @throws IOException Thrown if the connection was closed.
+             */
+            @Override
+            public void write(int b) throws IOException {
+                if (chunkLength == chunkBytes.length){
+                    extendChunk();
+                }
+                chunkBytes[chunkLength++] = (byte) b;
+            }
+
+            /**
+             * Adds bytes to the reply.
+             * @param b Bytes to add.
+             * @param off Offset of the first byte to add.
+             * @param len Number of bytes to add.
+             * @throws IOException Thrown if the connection was closed.
+             */
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                while (len > 0){
+                    if (chunkLength == chunkBytes.length){
+                        extendChunk();
+                    }
+                    int numCopied = Math.min(len, chunkBytes.length - chunkLength);
+                    System.arraycopy(b, off, chunkBytes, chunkLength, numCopied);
+                    chunkLength += numCopied;
+                    off += numCopied;
+                    len -= numCopied;
+                }
+            }
+
+            /**
+             * Streams the rest of the reply.
+             * @throws IOException Thrown if the connection was closed.
+             */
+            @Override
+            public void close() throws IOException {
+                if (chunkLength > 0){
+                    streamChunk();
+                }
+            }
+
+            /**
+             * Makes room in the chunk, by growing it until it is full size and then streaming it.
+             * @throws IOException Thrown if the connection was closed.
+             */
+            private void extendChunk() throws IOException {
+                if (chunkBytes.length < REPLY_CHUNK_BYTES){
+                    chunkBytes = Arrays.copyOf(chunkBytes, Math.min(chunkBytes.length * 2, REPLY_CHUNK_BYTES));
+                }
+                else {
+                    streamChunk();
+                }
+            }
+
+            /**
+             * Streams the collected bytes as a chunk, then starts a new chunk.
+             * @throws IOException Thrown if the connection was closed.
+             */
+            private void streamChunk() throws IOException {
+                ByteBuffer chunk = ByteBuffer.wrap(chunkBytes, 0, chunkLength);
+                chunkBytes = new byte[REPLY_CHUNK_BYTES];
+                chunkLength = 0;
+                streamReplyChunk(chunk);
+            }
+        }
+    }
+}
@@ -1,64 +1,214 @@
 import DBException.DBException;
 import DBObjects.*;
+import DBProtocol.*;
 
 import java.io.*;
+import java.lang.reflect.Method;
 import java.net.*;
+import java.nio.CharBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class DBServer {
-        DBDatabase workingDatabase = null;
         public DBServer(int portNumber)
+        {
+            this(portNumber, Boolean.getBoolean("DBServer.concurrent"));
+        }
+
+        // Concurrent servers serve each connection on its own thread, with its own session.
+        public DBServer(int portNumber, boolean concurrent)
         {
             try {
                 ServerSocket serverSocket = new ServerSocket(portNumber);
                 System.out.println("Server Listening");
-                while(true) processNextConnection(serverSocket);
+                if (concurrent) {
+                    ExecutorService connectionExecutor = createConnectionExecutor();
+                    while(true) {
+                        Socket socket = serverSocket.accept();
+                        connectionExecutor.execute(() -> processConnection(socket));
+                    }
+                }
+                while(true) processConnection(serverSocket.accept());
             } catch(IOException ioe) {
                 System.err.println("File handling exception.");
             }
         }
 
-        private void processNextConnection(ServerSocket serverSocket)
+        // Virtual threads are used when the runtime has them, otherwise a thread per connection is pooled.
+        private static ExecutorService createConnectionExecutor()
         {
             try {
-                Socket socket = serverSocket.accept();
-                BufferedReader socketReader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-                BufferedWriter socketWriter = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream()));
+                Method virtualExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) virtualExecutor.invoke(null);
+            } catch(ReflectiveOperationException roe) {
+                return Executors.newCachedThreadPool();
+            }
+        }
+
+        private void processConnection(Socket socket)
+        {
+            DBSession session = new DBSession();
+            try (socket) {
+                BufferedInputStream socketInput = new BufferedInputStream(socket.getInputStream());
                 System.out.println("Connection Established");
-                while(true) processNextCommand(socketReader, socketWriter);
+                if (startsBinaryProtocol(socketInput)) {
+                    processBinaryCommands(session, socketInput, new BufferedOutputStream(socket.getOutputStream()));
+                }
+                else {
+                    BufferedReader socketReader = new BufferedReader(new InputStreamReader(socketInput));
+                    BufferedWriter socketWriter = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream()));
+                    while(processNextCommand(session, socketReader, socketWriter));
+                }
+                System.out.println("Connection Lost");
             } catch(IOException ioe) {
                 System.err.println("File handling exception.");
                 ioe.printStackTrace();
-            } catch(NullPointerException npe) {
-                System.out.println("Connection Lost");
-                npe.printStackTrace();
             }
         }
 
-        private void processNextCommand(BufferedReader socketReader, BufferedWriter socketWriter) throws IOException, NullPointerException
+        // Binary clients start with the greeting's zero byte, which never starts a text statement.
+        private static boolean startsBinaryProtocol(BufferedInputStream socketInput) throws IOException
+        {
+            socketInput.mark(1);
+            int firstByte = socketInput.read();
+            socketInput.reset();
+            return firstByte == DBFrameWriter.GREETING_MAGIC[0];
+        }
+
+        private void processBinaryCommands(DBSession session, InputStream socketInput, OutputStream socketOutput) throws IOException
+        {
+            DBFrameReader frameReader = new DBFrameReader(socketInput);
+            DBFrameWriter frameWriter = new DBFrameWriter(socketOutput);
+            int clientVersion = frameReader.readGreeting();
+            frameWriter.writeHello(Math.min(clientVersion, DBFrameWriter.PROTOCOL_VERSION));
+            frameWriter.flush();
+            DBFrame frame = frameReader.readFrame();
+            while (frame != null) {
+                if (frame.getFrameType() != FrameType.QUERY) {
+                    throw new IOException("Client sent a frame that was not a query.");
+                }
+                performBinaryCommand(session, frame.readText(), frameWriter);
+                if (socketInput.available() == 0) frameWriter.flush();
+                frame = frameReader.readFrame();
+            }
+        }
+
+        // Pipelined commands are performed in order, and their replies are flushed together once no more are waiting.
+        private boolean processNextCommand(DBSession session, BufferedReader socketReader, BufferedWriter socketWriter) throws IOException
         {
             String incomingCommand = socketReader.readLine();
+            if (incomingCommand == null) return false;
+            writeCommandReply(session, incomingCommand, socketWriter);
+            if (!socketReader.ready()) socketWriter.flush();
+            return true;
+        }
+
+        // Performs a command for a session and writes its reply, ending with EOT.
+        // Result rows are written as they are printed, so a large result is never held as a single string.
+        // The time and bytes spent writing a successful reply are recorded once the whole reply is written.
+        static void writeCommandReply(DBSession session, String incomingCommand, Writer replyWriter) throws IOException
+        {
             System.out.println("Received message: " + incomingCommand);
-            DBStatement dbStatement = new DBStatement(workingDatabase);
+            CountingWriter countingWriter = new CountingWriter(replyWriter);
+            DBStatement dbStatement = null;
+            long replyStart = 0;
             try{
-                dbStatement.performStatement(incomingCommand);
-                socketWriter.write("[OK] Processed: " + incomingCommand + System.lineSeparator());
-                String returnMessage = dbStatement.getReturnMessage();
-                if (returnMessage != null){
-                    socketWriter.write(returnMessage);
+                dbStatement = session.performStatement(incomingCommand);
+                replyStart = System.nanoTime();
+                countingWriter.write("[OK] Processed: " + incomingCommand + System.lineSeparator());
+                DBResultSet resultSet = dbStatement.getResultSet();
+                if (resultSet != null){
+                    resultSet.writeResult(countingWriter);
+                }
+                else if (dbStatement.getReturnMessage() != null){
+                    countingWriter.write(dbStatement.getReturnMessage());
                 }
             }
             catch(DBException de){
-                socketWriter.write("[ERROR] " + de.toString());
+                countingWriter.write("[ERROR] " + de.toString());
+            }
+            countingWriter.write("\n" + (char)4 + "\n");
+            if (dbStatement != null) {
+                dbStatement.finishReply(System.nanoTime() - replyStart, countingWriter.getReplyBytes());
             }
-            socketWriter.write("\n" + ((char)4) + "\n");
-            this.workingDatabase = dbStatement.getWorkingDatabase();
+        }
 
-            socketWriter.flush();
+        // Counts the bytes of a text reply as it is written, as they are sent in UTF-8.
+        private static class CountingWriter extends FilterWriter
+        {
+            private long replyBytes = 0;
+
+            private CountingWriter(Writer replyWriter)
+            {
+                super(replyWriter);
+            }
+
+            @Override
+            public void write(int replyChar) throws IOException
+            {
+                out.write(replyChar);
+                replyBytes += DBMetrics.countBytes(String.valueOf((char) replyChar), 0, 1);
+            }
+
+            @Override
+            public void write(char[] replyChars, int offset, int length) throws IOException
+            {
+                out.write(replyChars, offset, length);
+                replyBytes += DBMetrics.countBytes(CharBuffer.wrap(replyChars, offset, length), 0, length);
+            }
+
+            @Override
+            public void write(String replyString, int offset, int length) throws IOException
+            {
+                out.write(replyString, offset, length);
+                replyBytes += DBMetrics.countBytes(replyString, offset, offset + length);
+            }
+
+            private long getReplyBytes()
+            {
+                return replyBytes;
+            }
         }
 
+        // Performs a command for a session and writes its frames, without echoing the command.
+        static void performBinaryCommand(DBSession session, String incomingCommand, DBFrameWriter frameWriter) throws IOException
+        {
+            System.out.println("Received message: " + incomingCommand);
+            try{
+                DBStatement dbStatement = session.performStatement(incomingCommand);
+                long replyStart = System.nanoTime();
+                long replyStartBytes = frameWriter.getBytesWritten();
+                DBResultSet resultSet = dbStatement.getResultSet();
+                if (resultSet != null){
+                    frameWriter.writeResultSet(resultSet);
+                }
+                else {
+                    frameWriter.writeOk(dbStatement.getReturnMessage());
+                }
+                dbStatement.finishReply(System.nanoTime() - replyStart, frameWriter.getBytesWritten() - replyStartBytes);
+            }
+            catch(DBException de){
+                frameWriter.writeError(de);
+            }
+        }
+
+        // Metrics are served over HTTP when a port is given with -DDBServer.metricsPort.
         public static void main(String[] args)
         {
-            DBServer server = new DBServer(8888);
+            Integer metricsPort = Integer.getInteger("DBServer.metricsPort");
+            if (metricsPort != null) {
+                try {
+                    new DBMetricsServer(metricsPort);
+                } catch(IOException ioe) {
+                    System.err.println("Could not serve metrics on port " + metricsPort + ".");
+                }
+            }
+            if (Boolean.getBoolean("DBServer.selector")) {
+                DBSelectorServer server = new DBSelectorServer(8888);
+            }
+            else {
+                DBServer server = new DBServer(8888);
+            }
         }
 
 }